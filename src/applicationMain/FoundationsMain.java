@@ -102,6 +102,9 @@ public class FoundationsMain extends Application {
 			// Connect to the database
 			database.connectToDatabase();
 			
+			// Check the stored student counters without holding up the first page
+			database.rebuildStudentStatusInBackground();
+			
 		} catch (SQLException e) {
 			// If the connection request fails, it usually means some other app is using it
 			databaseInUse.setTitle("*** ERROR ***");
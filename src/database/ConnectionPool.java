@@ -0,0 +1,578 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*******
+ * <p> Title: ConnectionPool Class. </p>
+ *
+ * <p> Description: A small JDBC connection pool used by the Database class so that several
+ * threads can use the database at the same time.  The pool keeps between a minimum and a maximum
+ * number of physical connections, closes connections that have been idle for too long (never
+ * going below the minimum), and makes a caller wait at most a configurable time for a free
+ * connection.</p>
+ *
+ * <p> A connection is bound to the thread that borrowed it until that thread closes it.  When the
+ * same thread borrows again before closing (for example a Database method that calls another
+ * Database method), it receives the same physical connection, so nested calls never wait on the
+ * pool and share any transaction the outer call has started.  Closing the handle returned by
+ * {@link #borrow()} gives the connection back to the pool instead of closing it.</p>
+ *
+ * <p> Each connection also keeps a least-recently-used cache of prepared statements keyed by
+ * their SQL text.  Preparing a SQL string that was prepared before on the same connection returns
+ * the already parsed statement, and closing it puts it back in the cache.  The pool counts cache
+ * hits and misses across all of its connections.</p>
+ *
+ */
+public class ConnectionPool {
+
+	/** The JDBC URL used to open physical connections */
+	private final String url;
+	/** The user name used to open physical connections */
+	private final String user;
+	/** The password used to open physical connections */
+	private final String password;
+	/** Number of physical connections the pool keeps open even when idle */
+	private final int minSize;
+	/** Maximum number of physical connections, idle plus borrowed */
+	private final int maxSize;
+	/** How long, in milliseconds, a connection may stay idle before it is closed */
+	private final long idleTimeoutMillis;
+	/** How long, in milliseconds, a borrower waits for a free connection */
+	private final long borrowTimeoutMillis;
+	/** Maximum number of prepared statements cached per connection, 0 disables the cache */
+	private final int statementCacheSize;
+	/** Number of prepareStatement calls answered from a statement cache */
+	private final AtomicLong statementCacheHits = new AtomicLong();
+	/** Number of prepareStatement calls that had to prepare a new statement */
+	private final AtomicLong statementCacheMisses = new AtomicLong();
+
+	/** One permit per connection that may still be handed out */
+	private final Semaphore permits;
+	/** Idle connections, most recently returned first */
+	private final Deque<PooledConnection> idle = new ArrayDeque<>();
+	/** Number of physical connections currently open */
+	private int openCount = 0;
+	/** Set once the pool has been closed */
+	private volatile boolean closed = false;
+
+	/** The connection, if any, currently borrowed by each thread */
+	private final ThreadLocal<PooledConnection> borrowed = new ThreadLocal<>();
+
+	/*******
+	 * <p> Method: ConnectionPool </p>
+	 *
+	 * <p> Description: Create a pool and open the minimum number of connections.</p>
+	 *
+	 * @param url the JDBC URL of the database
+	 * @param user the database user name
+	 * @param password the database password
+	 * @param minSize the number of connections kept open while idle
+	 * @param maxSize the maximum number of open connections
+	 * @param idleTimeoutMillis how long a connection above the minimum may stay idle
+	 * @param borrowTimeoutMillis how long {@link #borrow()} waits for a free connection
+	 * @param statementCacheSize the number of prepared statements cached per connection,
+	 * or 0 to disable statement caching
+	 *
+	 * @throws SQLException if one of the initial connections cannot be opened
+	 */
+	public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+			long idleTimeoutMillis, long borrowTimeoutMillis, int statementCacheSize) throws SQLException {
+		if (minSize < 0 || maxSize < 1 || minSize > maxSize)
+			throw new IllegalArgumentException("Invalid pool size: min " + minSize + ", max " + maxSize);
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.borrowTimeoutMillis = borrowTimeoutMillis;
+		this.statementCacheSize = Math.max(0, statementCacheSize);
+		this.permits = new Semaphore(maxSize, true);
+
+		for (int i = 0; i < minSize; i++) {
+			PooledConnection pc = open();
+			synchronized (this) {
+				idle.push(pc);
+			}
+		}
+	}
+
+	/*******
+	 * <p> Method: Connection borrow() </p>
+	 *
+	 * <p> Description: Get a connection for the calling thread.  If the thread already holds one,
+	 * the same connection is returned again; otherwise an idle connection is reused or a new one is
+	 * opened, waiting up to the borrow timeout when the pool is exhausted.  The caller must close
+	 * the returned connection, normally with try-with-resources.</p>
+	 *
+	 * @return a connection whose close() returns it to the pool
+	 *
+	 * @throws SQLException if the pool is closed, the borrow timeout expires, or a new connection
+	 * cannot be opened
+	 */
+	public Connection borrow() throws SQLException {
+		if (closed) throw new SQLException("Connection pool is closed");
+
+		PooledConnection current = borrowed.get();
+		if (current != null) {
+			current.holdCount++;
+			return current.handle;
+		}
+
+		try {
+			if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS))
+				throw new SQLException("Timed out after " + borrowTimeoutMillis
+						+ " ms waiting for a database connection");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a database connection", e);
+		}
+
+		PooledConnection pc = null;
+		try {
+			evictIdleConnections();
+			synchronized (this) {
+				while (pc == null && !idle.isEmpty()) {
+					PooledConnection candidate = idle.pop();
+					if (candidate.physical.isClosed()) {
+						openCount--;
+					} else {
+						pc = candidate;
+					}
+				}
+			}
+			if (pc == null) pc = open();
+		} catch (SQLException e) {
+			permits.release();
+			throw e;
+		}
+
+		pc.holdCount = 1;
+		borrowed.set(pc);
+		return pc.handle;
+	}
+
+	/*******
+	 * <p> Method: void release(PooledConnection pc) </p>
+	 *
+	 * <p> Description: Called when a borrower closes its handle.  Once the outermost borrow of
+	 * the thread has been closed, any unfinished transaction is rolled back, auto-commit is
+	 * restored, and the connection is put back in the idle list.</p>
+	 *
+	 * @param pc the pooled connection being closed
+	 */
+	private void release(PooledConnection pc) {
+		if (--pc.holdCount > 0) return;
+		borrowed.remove();
+
+		boolean reusable = !closed;
+		try {
+			if (pc.physical.isClosed()) {
+				reusable = false;
+			} else if (!pc.physical.getAutoCommit()) {
+				pc.physical.rollback();
+				pc.physical.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			reusable = false;
+		}
+
+		synchronized (this) {
+			if (reusable) {
+				pc.lastUsed = System.currentTimeMillis();
+				idle.push(pc);
+			} else {
+				openCount--;
+				closeQuietly(pc);
+			}
+		}
+		permits.release();
+	}
+
+	/*******
+	 * <p> Method: void evictIdleConnections() </p>
+	 *
+	 * <p> Description: Close connections that have been idle longer than the idle timeout,
+	 * keeping at least the minimum number of connections open.  This runs on every borrow and may
+	 * also be called directly.</p>
+	 *
+	 */
+	public void evictIdleConnections() {
+		long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+		synchronized (this) {
+			Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+			while (oldestFirst.hasNext() && openCount > minSize) {
+				PooledConnection pc = oldestFirst.next();
+				if (pc.lastUsed > cutoff) break;
+				oldestFirst.remove();
+				openCount--;
+				closeQuietly(pc);
+			}
+		}
+	}
+
+	/*******
+	 * <p> Method: void close() </p>
+	 *
+	 * <p> Description: Close the pool and every idle connection.  Connections that are still
+	 * borrowed are closed when their borrowers give them back.</p>
+	 *
+	 */
+	public void close() {
+		closed = true;
+		synchronized (this) {
+			for (PooledConnection pc : idle) {
+				closeQuietly(pc);
+				openCount--;
+			}
+			idle.clear();
+		}
+	}
+
+	/*******
+	 * <p> Method: int getOpenCount() </p>
+	 *
+	 * <p> Description: Get the number of physical connections currently open.</p>
+	 *
+	 * @return the number of open connections, idle plus borrowed
+	 */
+	public synchronized int getOpenCount() { return openCount; }
+
+	/*******
+	 * <p> Method: int getIdleCount() </p>
+	 *
+	 * <p> Description: Get the number of open connections not currently borrowed.</p>
+	 *
+	 * @return the number of idle connections
+	 */
+	public synchronized int getIdleCount() { return idle.size(); }
+
+	/*******
+	 * <p> Method: int getMaxSize() </p>
+	 *
+	 * <p> Description: Get the maximum number of connections of this pool.</p>
+	 *
+	 * @return the maximum pool size
+	 */
+	public int getMaxSize() { return maxSize; }
+
+	/*******
+	 * <p> Method: long getStatementCacheHits() </p>
+	 *
+	 * <p> Description: Get the number of prepareStatement calls answered from a cache.</p>
+	 *
+	 * @return the number of statement cache hits since the pool was created
+	 */
+	public long getStatementCacheHits() { return statementCacheHits.get(); }
+
+	/*******
+	 * <p> Method: long getStatementCacheMisses() </p>
+	 *
+	 * <p> Description: Get the number of prepareStatement calls that prepared a new statement.</p>
+	 *
+	 * @return the number of statement cache misses since the pool was created
+	 */
+	public long getStatementCacheMisses() { return statementCacheMisses.get(); }
+
+	/*******
+	 * <p> Method: void resetStatementCacheStatistics() </p>
+	 *
+	 * <p> Description: Set the statement cache hit and miss counters back to zero.</p>
+	 *
+	 */
+	public void resetStatementCacheStatistics() {
+		statementCacheHits.set(0);
+		statementCacheMisses.set(0);
+	}
+
+	/*******
+	 * <p> Method: PooledConnection open() </p>
+	 *
+	 * <p> Description: Open a new physical connection and count it.</p>
+	 *
+	 * @return the new pooled connection
+	 *
+	 * @throws SQLException if the connection cannot be opened
+	 */
+	private PooledConnection open() throws SQLException {
+		Connection physical = DriverManager.getConnection(url, user, password);
+		synchronized (this) {
+			openCount++;
+		}
+		return new PooledConnection(physical);
+	}
+
+	/*******
+	 * <p> Method: void closeQuietly(PooledConnection pc) </p>
+	 *
+	 * <p> Description: Close a physical connection, ignoring errors.</p>
+	 *
+	 * @param pc the pooled connection to close
+	 */
+	private static void closeQuietly(PooledConnection pc) {
+		try {
+			pc.physical.close();
+		} catch (SQLException e) {
+			// The connection is being discarded either way
+		}
+	}
+
+	/*******
+	 * <p> Title: PooledConnection Class. </p>
+	 *
+	 * <p> Description: A physical connection together with the handle given to borrowers.  The
+	 * handle forwards every call to the physical connection except close(), isClosed() and
+	 * prepareStatement(), which is answered from the statement cache when possible.</p>
+	 *
+	 */
+	private class PooledConnection implements InvocationHandler {
+
+		/** Cached statements of this connection by SQL text, least recently used first */
+		private final LinkedHashMap<String, CachedStatement> statements =
+				new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+				if (size() <= statementCacheSize) return false;
+				eldest.getValue().evict();
+				return true;
+			}
+		};
+
+		/** The real JDBC connection */
+		private final Connection physical;
+		/** The proxy handed to borrowers */
+		private final Connection handle;
+		/** Number of open borrows of this connection by its current thread */
+		private int holdCount = 0;
+		/** Time this connection was last returned to the pool */
+		private long lastUsed = System.currentTimeMillis();
+
+		/*******
+		 * <p> Method: PooledConnection </p>
+		 *
+		 * <p> Description: Wrap a physical connection.</p>
+		 *
+		 * @param physical the real JDBC connection
+		 */
+		PooledConnection(Connection physical) {
+			this.physical = physical;
+			this.handle = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, this);
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (holdCount > 0) release(this);
+				return null;
+			case "isClosed":
+				return holdCount == 0 || physical.isClosed();
+			case "prepareStatement":
+				Class<?>[] types = method.getParameterTypes();
+				if (statementCacheSize > 0 && (types.length == 1
+						|| (types.length == 2 && types[1] == int.class)))
+					return prepareCached((String) args[0], types.length == 1 ? -1 : (Integer) args[1]);
+				return forward(method, args);
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				return forward(method, args);
+			}
+		}
+
+		/*******
+		 * <p> Method: Object forward(Method method, Object[] args) </p>
+		 *
+		 * <p> Description: Call a method on the physical connection.</p>
+		 *
+		 * @param method the connection method to call
+		 * @param args the arguments of the call
+		 *
+		 * @return the result of the call
+		 *
+		 * @throws Throwable the exception thrown by the physical connection
+		 */
+		private Object forward(Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(physical, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+		/*******
+		 * <p> Method: PreparedStatement prepareCached(String sql, int autoGeneratedKeys) </p>
+		 *
+		 * <p> Description: Return the cached statement for the SQL text, preparing and caching it on
+		 * a miss.  If the cached statement is still open by an outer call of the same thread, a
+		 * separate uncached statement is prepared so the outer result set is not disturbed.</p>
+		 *
+		 * @param sql the SQL text
+		 * @param autoGeneratedKeys the generated keys flag, or -1 for the single argument form
+		 *
+		 * @return a statement whose close() returns it to the cache
+		 *
+		 * @throws SQLException if the statement cannot be prepared
+		 */
+		private PreparedStatement prepareCached(String sql, int autoGeneratedKeys) throws SQLException {
+			String key = autoGeneratedKeys < 0 ? sql : autoGeneratedKeys + ":" + sql;
+			CachedStatement cached = statements.get(key);
+			if (cached != null && !cached.inUse) {
+				statementCacheHits.incrementAndGet();
+				cached.inUse = true;
+				return cached.handle;
+			}
+			statementCacheMisses.incrementAndGet();
+			PreparedStatement ps = autoGeneratedKeys < 0 ? physical.prepareStatement(sql)
+					: physical.prepareStatement(sql, autoGeneratedKeys);
+			if (cached != null) return ps;
+
+			cached = new CachedStatement(ps, handle);
+			cached.inUse = true;
+			statements.put(key, cached);
+			return cached.handle;
+		}
+	}
+
+	/*******
+	 * <p> Title: CachedStatement Class. </p>
+	 *
+	 * <p> Description: A prepared statement kept in a connection's statement cache, together with
+	 * the handle given to callers.  Closing the handle clears the parameters, pending batch and open
+	 * result set and puts the fetch size, row limit and timeouts back to the values the statement
+	 * was prepared with, so the next caller gets the statement as if it had just been prepared; the
+	 * statement is really closed only when it is evicted from the cache or its connection is
+	 * closed.</p>
+	 *
+	 */
+	private static class CachedStatement implements InvocationHandler {
+
+		/** The real prepared statement */
+		private final PreparedStatement physical;
+		/** The proxy handed to callers */
+		private final PreparedStatement handle;
+		/** The connection handle returned by getConnection() */
+		private final Connection connection;
+		/** Whether a caller currently has this statement open */
+		private boolean inUse = false;
+		/** Whether this statement has been evicted while a caller still had it open */
+		private boolean evicted = false;
+		/** Fetch size the statement was prepared with */
+		private final int defaultFetchSize;
+		/** Row limit the statement was prepared with */
+		private final int defaultMaxRows;
+		/** Column size limit the statement was prepared with */
+		private final int defaultMaxFieldSize;
+		/** Query timeout in seconds the statement was prepared with */
+		private final int defaultQueryTimeout;
+
+		/*******
+		 * <p> Method: CachedStatement </p>
+		 *
+		 * <p> Description: Wrap a prepared statement.</p>
+		 *
+		 * @param physical the real prepared statement
+		 * @param connection the connection handle the statement belongs to
+		 *
+		 * @throws SQLException if the settings of the statement cannot be read
+		 */
+		CachedStatement(PreparedStatement physical, Connection connection) throws SQLException {
+			this.physical = physical;
+			this.connection = connection;
+			this.defaultFetchSize = physical.getFetchSize();
+			this.defaultMaxRows = physical.getMaxRows();
+			this.defaultMaxFieldSize = physical.getMaxFieldSize();
+			this.defaultQueryTimeout = physical.getQueryTimeout();
+			this.handle = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, this);
+		}
+
+		/*******
+		 * <p> Method: void evict() </p>
+		 *
+		 * <p> Description: Called when the statement drops out of the cache.  The statement is
+		 * closed now, or when its current caller closes it.</p>
+		 *
+		 */
+		void evict() {
+			if (inUse) {
+				evicted = true;
+			} else {
+				try {
+					physical.close();
+				} catch (SQLException e) {
+					// The statement is being discarded either way
+				}
+			}
+		}
+
+		/*******
+		 * <p> Method: void reset() </p>
+		 *
+		 * <p> Description: Drop any batch the caller left queued and undo the settings it changed,
+		 * so they do not carry over to the next caller of the same SQL text.</p>
+		 *
+		 * @throws SQLException if the statement cannot be reset
+		 */
+		private void reset() throws SQLException {
+			physical.clearBatch();
+			if (physical.getFetchSize() != defaultFetchSize) physical.setFetchSize(defaultFetchSize);
+			if (physical.getMaxRows() != defaultMaxRows) physical.setMaxRows(defaultMaxRows);
+			if (physical.getMaxFieldSize() != defaultMaxFieldSize) physical.setMaxFieldSize(defaultMaxFieldSize);
+			if (physical.getQueryTimeout() != defaultQueryTimeout) physical.setQueryTimeout(defaultQueryTimeout);
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!inUse) return null;
+				inUse = false;
+				if (evicted) {
+					physical.close();
+				} else {
+					ResultSet open = physical.getResultSet();
+					if (open != null) open.close();
+					physical.clearParameters();
+					reset();
+				}
+				return null;
+			case "isClosed":
+				return !inUse || physical.isClosed();
+			case "getConnection":
+				return connection;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				try {
+					return method.invoke(physical, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		}
+	}
+}
@@ -4,18 +4,43 @@ import java.sql.*;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import java.security.SecureRandom;
 
+import entityClasses.GradebookRow;
 import entityClasses.User;
 import entityClasses.Message;
+import entityClasses.MessageHeader;
 import entityClasses.Post;
+import entityClasses.PostFeedRow;
+import entityClasses.PostStats;
 import entityClasses.Reply;
 import entityClasses.Request;
 import entityClasses.StudentStatus;
+import grading.GradeCache;
+import grading.GradeSnapshot;
+import grading.StudentGrade;
+import search.DuplicateMatch;
+import search.FuzzyMatch;
+import search.LshIndex;
+import search.MinHash;
+import search.SearchIndex;
+import search.Snippet;
+import search.TrigramIndex;
 
 /*******
  * <p> Title: Database Class. </p>
@@ -37,6 +62,10 @@ import entityClasses.StudentStatus;
  * The Database class is responsible for establishing and managing the connection to the database,
  * and performing operations such as user registration, login validation, handling invitation 
  * codes, and numerous other database related functions.
+ *
+ * Methods that change several rows together run them in one transaction of their own, unless the
+ * calling thread already has a transaction open on its connection: they then join it and leave
+ * committing, and updating the in-memory indexes and grade cache afterwards, to the caller.
  */
 public class Database {
 
@@ -50,34 +79,271 @@ public class Database {
 	/**Database credentials: PASS**/
 	static final String PASS = ""; 
 
+	/**Default number of pooled connections kept open while idle**/
+	static final int POOL_MIN_SIZE = 2;
+	/**Default maximum number of pooled connections**/
+	static final int POOL_MAX_SIZE = 10;
+	/**Default time in milliseconds an idle pooled connection is kept above the minimum**/
+	static final long POOL_IDLE_TIMEOUT_MS = 60_000;
+	/**Default time in milliseconds a caller waits for a free pooled connection**/
+	static final long POOL_BORROW_TIMEOUT_MS = 10_000;
+	/**Default number of prepared statements cached per pooled connection**/
+	static final int STATEMENT_CACHE_SIZE = 64;
+
+	// Secondary indexes created together with the tables.  Foreign key columns already get an index
+	// from H2, so these lead with the filtered column and add the column the hot queries sort or
+	// filter on next.  ReplyReadMarks(userName, postId) is served by its primary key.
+	/**Secondary indexes managed by createTables**/
+	static final String[] INDEXES = {
+		"CREATE INDEX IF NOT EXISTS idxRepliesPost ON Replies(postId, id)",
+		"CREATE INDEX IF NOT EXISTS idxRepliesOwner ON Replies(owner)",
+		"CREATE INDEX IF NOT EXISTS idxPostsOwner ON Posts(owner, id)",
+		"CREATE INDEX IF NOT EXISTS idxPostsThread ON Posts(thread, id)",
+		"CREATE INDEX IF NOT EXISTS idxMessageReceiver ON Message(receiver, isRead, id)",
+		"CREATE INDEX IF NOT EXISTS idxMessageReceiverId ON Message(receiver, id)",
+		"CREATE INDEX IF NOT EXISTS idxPostReadStatusPost ON PostReadStatus(postId, isRead)",
+		"CREATE INDEX IF NOT EXISTS idxPostTagsTag ON PostTags(tag, postId)",
+		"CREATE INDEX IF NOT EXISTS idxPostGradesReleased ON PostGrades(released, postId)"
+	};
+
+	/**counters of every post counted from the base tables, used to fill and check PostStats**/
+	private static final String POST_STATS_FROM_BASE_TABLES = """
+			SELECT p.id AS postId,
+			       (SELECT COUNT(*) FROM PostReadStatus prs
+			        WHERE prs.postId = p.id AND prs.isRead = TRUE) AS views,
+			       (SELECT COALESCE(SUM(prs.upvotes), 0) FROM PostReadStatus prs
+			        WHERE prs.postId = p.id) AS upvotes,
+			       (SELECT COUNT(*) FROM Replies r WHERE r.postId = p.id) AS replies
+			FROM Posts p
+			""";
+
+	/**SQLSTATE of a unique or primary key violation**/
+	private static final String DUPLICATE_KEY_STATE = "23505";
+
+	/**adds to the reply counter of a post**/
+	private static final String ADD_POST_REPLIES = "UPDATE PostStats SET replies = replies + ? WHERE postId = ?";
+
+	/**counters of every user counted from the base tables, used to fill and check StudentStatus**/
+	private static final String STUDENT_STATUS_FROM_BASE_TABLES = """
+			SELECT u.userName,
+			       (SELECT COUNT(*) FROM Posts p WHERE p.owner = u.userName) AS postNumber,
+			       (SELECT COUNT(*) FROM Replies r WHERE r.owner = u.userName) AS replyNumber,
+			       (SELECT COUNT(*) FROM PostReadStatus prs JOIN Posts p ON p.id = prs.postId
+			        WHERE p.owner = u.userName AND prs.isRead = TRUE) AS viewReceived,
+			       (SELECT COUNT(*) FROM Replies r JOIN Posts p ON p.id = r.postId
+			        WHERE p.owner = u.userName) AS replyReceived,
+			       (SELECT COALESCE(SUM(prs.upvotes), 0) FROM PostReadStatus prs JOIN Posts p ON p.id = prs.postId
+			        WHERE p.owner = u.userName) AS upvoteReceived
+			FROM userDB u
+			""";
+
+	/**unread message and read post counters of every user counted from the base tables, used to fill UnreadCounts**/
+	private static final String UNREAD_COUNTS_FROM_BASE_TABLES = """
+			SELECT u.userName,
+			       (SELECT COUNT(*) FROM Message m WHERE m.receiver = u.userName AND m.isRead = FALSE) AS unreadMessages,
+			       (SELECT COUNT(*) FROM PostReadStatus prs WHERE prs.userName = u.userName AND prs.isRead = TRUE) AS readPosts,
+			       (SELECT COUNT(*) FROM AnnouncementReads ar WHERE ar.userName = u.userName) AS readAnnouncements
+			FROM userDB u
+			""";
+	/**usernames of the students whose username or name contains a text, by username**/
+	private static final String STUDENTS_MATCHING = """
+			SELECT userName FROM userDB
+			WHERE studentRole = TRUE
+			  AND (CAST(? AS VARCHAR) IS NULL OR LOWER(userName) LIKE ? ESCAPE '\\'
+			       OR LOWER(firstName) LIKE ? ESCAPE '\\' OR LOWER(lastName) LIKE ? ESCAPE '\\'
+			       OR LOWER(preferredFirstName) LIKE ? ESCAPE '\\')
+			ORDER BY userName
+			""";
+	/**rows inserted per JDBC batch when a message is broadcast**/
+	private static final int BROADCAST_BATCH_SIZE = 1000;
+
+	/**rows fetched per round trip when the gradebook is streamed**/
+	private static final int GRADEBOOK_FETCH_SIZE = 500;
+	/**every student with their stored counters, zero where no status record exists, by username**/
+	private static final String GRADEBOOK_ROWS = """
+			SELECT u.userName, u.firstName, u.middleName, u.lastName, u.preferredFirstName, u.emailAddress,
+			       COALESCE(s.postNumber, 0) AS postNumber, COALESCE(s.replyNumber, 0) AS replyNumber,
+			       COALESCE(s.viewReceived, 0) AS viewReceived, COALESCE(s.replyReceived, 0) AS replyReceived,
+			       COALESCE(s.upvoteReceived, 0) AS upvoteReceived, COALESCE(s.promotion, 0) AS promotion,
+			       COALESCE(s.violation, 0) AS violation
+			FROM userDB u
+			LEFT JOIN StudentStatus s ON s.userName = u.userName
+			WHERE u.studentRole = TRUE
+			ORDER BY u.userName
+			""";
+
+	// One statement changes both the acting user and the post owner, so the two rows are always
+	// locked in the same order and opposite events cannot deadlock.
+	/**adds to the activity counters of an acting user and of a post owner**/
+	private static final String ADD_STUDENT_ACTIVITY = """
+			UPDATE StudentStatus SET
+			    postNumber = postNumber + CASE WHEN userName = ? THEN CAST(? AS INT) ELSE 0 END,
+			    replyNumber = replyNumber + CASE WHEN userName = ? THEN CAST(? AS INT) ELSE 0 END,
+			    viewReceived = viewReceived + CASE WHEN userName = ? THEN CAST(? AS INT) ELSE 0 END,
+			    replyReceived = replyReceived + CASE WHEN userName = ? THEN CAST(? AS INT) ELSE 0 END,
+			    upvoteReceived = upvoteReceived + CASE WHEN userName = ? THEN CAST(? AS INT) ELSE 0 END
+			WHERE userName IN (?, ?)
+			""";
+
+	// The hot queries run once per post, reply or message shown on a page.  Each must be answered
+	// through an index; the query plan tests run EXPLAIN on every *_QUERY constant of this class.
+	/**ids of the replies of a post**/
+	public static final String REPLY_IDS_OF_POST_QUERY = "SELECT id FROM Replies WHERE postId = ?";
+	/**stored reply, view and upvote counters of a post**/
+	public static final String POST_STATS_QUERY =
+			"SELECT postId, views, upvotes, replies FROM PostStats WHERE postId = ?";
+	/**replies of a post, oldest to newest**/
+	public static final String REPLIES_OF_POST_QUERY = "SELECT * FROM Replies WHERE postId = ? ORDER BY id ASC";
+	/**number of replies written by a user**/
+	public static final String REPLY_COUNT_OF_OWNER_QUERY =
+			"SELECT COUNT(*) AS replyCount FROM Replies WHERE owner = ?";
+	/**posts written by a user, newest first**/
+	public static final String POSTS_OF_OWNER_QUERY =
+			"SELECT p.*, t.threadName FROM Posts p LEFT JOIN Threads t ON t.id = p.thread WHERE p.owner = ? ORDER BY p.id DESC";
+	/**number of posts written by a user**/
+	public static final String POST_COUNT_OF_OWNER_QUERY = "SELECT COUNT(*) AS postCount FROM Posts WHERE owner = ?";
+	/**read status rows of a post, removed with the post**/
+	public static final String DELETE_POST_READ_STATUS_QUERY = "DELETE FROM PostReadStatus WHERE postId = ?";
+	/**replies of a post newer than the user's read watermark for it, oldest first**/
+	public static final String UNREAD_REPLIES_QUERY = """
+			SELECT r.*
+			FROM Replies r
+			WHERE r.postId = ?
+			  AND r.id > COALESCE((SELECT m.lastReadReplyId FROM ReplyReadMarks m
+			                       WHERE m.userName = ? AND m.postId = ?), 0)
+			ORDER BY r.id
+			""";
+	/**moves the user's read watermark of a post up to a given reply, never back**/
+	public static final String MARK_REPLIES_READ_QUERY = """
+			MERGE INTO ReplyReadMarks (userName, postId, lastReadReplyId) KEY (userName, postId)
+			SELECT ?, ?, GREATEST(?, COALESCE((SELECT m.lastReadReplyId FROM ReplyReadMarks m
+			                                   WHERE m.userName = ? AND m.postId = ?), 0))
+			""";
+	/**number of replies of a post newer than the user's read watermark for it**/
+	public static final String UNREAD_REPLY_COUNT_QUERY = """
+			SELECT COUNT(*) AS unreadCount
+			FROM Replies r
+			WHERE r.postId = ?
+			  AND r.id > COALESCE((SELECT m.lastReadReplyId FROM ReplyReadMarks m
+			                       WHERE m.userName = ? AND m.postId = ?), 0)
+			""";
+	/**number and newest id of the replies of a post newer than the user's read watermark for it**/
+	public static final String UNREAD_REPLY_RANGE_QUERY = """
+			SELECT COUNT(*) AS unreadCount, MAX(r.id) AS newestReply
+			FROM Replies r
+			WHERE r.postId = ?
+			  AND r.id > COALESCE((SELECT m.lastReadReplyId FROM ReplyReadMarks m
+			                       WHERE m.userName = ? AND m.postId = ?), 0)
+			""";
+	/**tags of a post, in the order they were added**/
+	public static final String TAGS_OF_POST_QUERY = "SELECT tag FROM PostTags WHERE postId = ? ORDER BY position";
+	/**one page of the posts carrying a tag, newest first, older than a cursor**/
+	public static final String POSTS_BY_TAG_QUERY = """
+			SELECT p.*, t.threadName
+			FROM PostTags pt
+			JOIN Posts p ON p.id = pt.postId
+			LEFT JOIN Threads t ON t.id = p.thread
+			WHERE pt.tag = ? AND pt.postId < ?
+			ORDER BY pt.postId DESC
+			LIMIT ?
+			""";
+	/**grade, feedback, grader and release flag of a post**/
+	public static final String POST_GRADE_QUERY =
+			"SELECT grade, feedback, grader, released FROM PostGrades WHERE postId = ?";
+	/**one page of the grading queue: posts without a grade, oldest first, newer than a cursor**/
+	public static final String UNGRADED_POSTS_QUERY = """
+			SELECT p.*, t.threadName
+			FROM Posts p
+			LEFT JOIN Threads t ON t.id = p.thread
+			WHERE p.id > ?
+			  AND NOT EXISTS (SELECT 1 FROM PostGrades g WHERE g.postId = p.id)
+			ORDER BY p.id
+			LIMIT ?
+			""";
+	/**messages received by a user, newest first**/
+	public static final String MESSAGES_OF_RECEIVER_QUERY = "SELECT * FROM Message WHERE receiver = ? ORDER BY id DESC";
+	/**unread messages received by a user, newest first**/
+	public static final String UNREAD_MESSAGES_OF_RECEIVER_QUERY =
+			"SELECT * FROM Message WHERE receiver = ? AND isRead = false ORDER BY id DESC";
+	/**unread message and read post counters of a user**/
+	public static final String UNREAD_COUNTS_QUERY =
+			"SELECT unreadMessages, readPosts, readAnnouncements FROM UnreadCounts WHERE userName = ?";
+	// Inbox pages carry no content.  The cursor is the id of the last message of the previous page;
+	// the unread page walks idxMessageReceiver and the full page idxMessageReceiverId, both in id
+	// order, so a page never sorts or skips the receiver's older messages.
+	/**one page of message headers received by a user, newest first, optionally matching a subject**/
+	public static final String INBOX_PAGE_QUERY = """
+			SELECT id, sender, subject, isRead FROM Message
+			WHERE receiver = ? AND id < ?
+			  AND (CAST(? AS VARCHAR) IS NULL OR LOWER(subject) LIKE ? ESCAPE '\\')
+			ORDER BY id DESC
+			LIMIT ?
+			""";
+	/**one page of unread message headers received by a user, newest first, optionally matching a subject**/
+	public static final String UNREAD_INBOX_PAGE_QUERY = """
+			SELECT id, sender, subject, isRead FROM Message
+			WHERE receiver = ? AND isRead = FALSE AND id < ?
+			  AND (CAST(? AS VARCHAR) IS NULL OR LOWER(subject) LIKE ? ESCAPE '\\')
+			ORDER BY id DESC
+			LIMIT ?
+			""";
+	// Announcements are stored once for every student; a user's read flags are the rows of
+	// AnnouncementReads, joined by primary key while the announcements are walked newest first.
+	/**one page of announcement headers with the read flags of a user, newest first, optionally matching a subject**/
+	public static final String ANNOUNCEMENT_PAGE_QUERY = """
+			SELECT a.id, a.sender, a.subject, r.userName IS NOT NULL AS isRead
+			FROM Announcements a
+			LEFT JOIN AnnouncementReads r ON r.userName = ? AND r.announcementId = a.id
+			WHERE a.id < ?
+			  AND (CAST(? AS VARCHAR) IS NULL OR LOWER(a.subject) LIKE ? ESCAPE '\\')
+			ORDER BY a.id DESC
+			LIMIT ?
+			""";
+	/**one page of announcement headers a user has not read, newest first, optionally matching a subject**/
+	public static final String UNREAD_ANNOUNCEMENT_PAGE_QUERY = """
+			SELECT a.id, a.sender, a.subject, FALSE AS isRead
+			FROM Announcements a
+			LEFT JOIN AnnouncementReads r ON r.userName = ? AND r.announcementId = a.id
+			WHERE a.id < ? AND r.userName IS NULL
+			  AND (CAST(? AS VARCHAR) IS NULL OR LOWER(a.subject) LIKE ? ESCAPE '\\')
+			ORDER BY a.id DESC
+			LIMIT ?
+			""";
+
 	//  Shared variables used within this class
-	/**Singleton to access the database**/
-	private Connection connection = null;
-	/**The H2 Statement is used to construct queries**/
-	private Statement statement = null;
-	
-	// These are the easily accessible attributes of the currently logged-in user
-	// This is only useful for single user applications
-	/**user name for current user**/
-	private String currentUsername;
-	/**password for current user**/
-	private String currentPassword;
-	/**first name for current user**/
-	private String currentFirstName;
-	/**middle name for current user**/
-	private String currentMiddleName;
-	/**last name for current user**/
-	private String currentLastName;
-	/**preferred first name for current user**/
-	private String currentPreferredFirstName;
-	/**email address for current user**/
-	private String currentEmailAddress;
-	/**admin role for current user**/
-	private boolean currentAdminRole;
-	/**student role for current user**/
-	private boolean currentStudentRole;
-	/**staff role for current user**/
-	private boolean currentStaffRole;
+	/**The pool every method borrows its connection from**/
+	private ConnectionPool pool = null;
+	/**Background thread running counter repairs, started on first use**/
+	private ExecutorService repairExecutor = null;
+	/**Number of pooled connections kept open while idle**/
+	private final int poolMinSize;
+	/**Maximum number of pooled connections**/
+	private final int poolMaxSize;
+	/**Time in milliseconds an idle pooled connection is kept above the minimum**/
+	private final long poolIdleTimeoutMs;
+	/**Time in milliseconds a caller waits for a free pooled connection**/
+	private final long poolBorrowTimeoutMs;
+	/**Number of prepared statements cached per pooled connection, 0 disables caching**/
+	private final int statementCacheSize;
+	/**Computed grades of recently shown students, dropped when their counters change**/
+	private final GradeCache gradeCache = new GradeCache();
+	/**Students whose counters the calling thread changed in its open transaction**/
+	private final ThreadLocal<Set<String>> changedGrades = ThreadLocal.withInitial(HashSet::new);
+	/**Full-text index over the posts and their replies, rebuilt on connect and updated on every change**/
+	private final SearchIndex searchIndex = new SearchIndex();
+	/**Trigram index over post titles for lookups that allow typing mistakes, by post id**/
+	private final TrigramIndex<Integer> postTitleIndex = new TrigramIndex<>();
+	/**Trigram index over usernames and names for lookups that allow typing mistakes, by username**/
+	private final TrigramIndex<String> userNameIndex = new TrigramIndex<>();
+	/**MinHash signatures of the posts banded for finding likely duplicates, loaded from PostSignatures**/
+	private final LshIndex duplicateIndex = new LshIndex();
+	/**Held while the search index is updated from the database, so updates apply in the order they read**/
+	private final Object searchIndexLock = new Object();
+	
+	// These are the easily accessible attributes of the currently logged-in user.  Each calling
+	// thread gets its own session so background work cannot overwrite the user interface's user.
+	/**session holding the current user of each calling thread**/
+	private final ThreadLocal<UserSession> session = ThreadLocal.withInitial(UserSession::new);
 
 	/*******
 	 * <p> Method: Database </p>
@@ -87,7 +353,34 @@ public class Database {
 	 */
 	
 	public Database () {
-		
+		this(POOL_MIN_SIZE, POOL_MAX_SIZE, POOL_IDLE_TIMEOUT_MS, POOL_BORROW_TIMEOUT_MS, STATEMENT_CACHE_SIZE);
+	}
+
+	/*******
+	 * <p> Method: Database(int poolMinSize, int poolMaxSize, long poolIdleTimeoutMs,
+	 * long poolBorrowTimeoutMs, int statementCacheSize) </p>
+	 * 
+	 * <p> Description: Create the database object with a specific connection pool configuration.
+	 * The pool itself is created by connectToDatabase.</p>
+	 * 
+	 * @param poolMinSize number of connections kept open while idle
+	 * 
+	 * @param poolMaxSize maximum number of open connections
+	 * 
+	 * @param poolIdleTimeoutMs time an idle connection above the minimum is kept open
+	 * 
+	 * @param poolBorrowTimeoutMs time a caller waits for a free connection before failing
+	 * 
+	 * @param statementCacheSize number of prepared statements cached per connection, 0 to disable
+	 * 
+	 */
+	public Database (int poolMinSize, int poolMaxSize, long poolIdleTimeoutMs, long poolBorrowTimeoutMs,
+			int statementCacheSize) {
+		this.poolMinSize = poolMinSize;
+		this.poolMaxSize = poolMaxSize;
+		this.poolIdleTimeoutMs = poolIdleTimeoutMs;
+		this.poolBorrowTimeoutMs = poolBorrowTimeoutMs;
+		this.statementCacheSize = statementCacheSize;
 	}
 
 /*******
@@ -102,26 +395,112 @@ public class Database {
 	public void connectToDatabase() throws SQLException {
 		try {
 			Class.forName(JDBC_DRIVER); // Load the JDBC driver
-			connection = DriverManager.getConnection(DB_URL, USER, PASS);
-			statement = connection.createStatement(); 
-			// You can use this command to clear the database and restart from fresh.
-			 statement.execute("DROP ALL OBJECTS");
-
-			createTables();  // Create the necessary tables if they don't exist
+			if (pool != null) pool.close();
+			gradeCache.invalidateAll();
+			pool = new ConnectionPool(DB_URL, USER, PASS, poolMinSize, poolMaxSize,
+					poolIdleTimeoutMs, poolBorrowTimeoutMs, statementCacheSize);
+			try (Connection connection = pool.borrow();
+			     Statement statement = connection.createStatement()) {
+				// You can use this command to clear the database and restart from fresh.
+				 statement.execute("DROP ALL OBJECTS");
+
+				createTables(statement);  // Create the necessary tables if they don't exist
+			}
+			rebuildSearchIndex();
 		} catch (ClassNotFoundException e) {
 			System.err.println("JDBC Driver not found: " + e.getMessage());
 		}
 	}
 
+/*******
+ * <p> Method: Connection getConnection() </p>
+ * 
+ * <p> Description: Borrow a connection from the pool for the calling thread.  Calls made while
+ * the thread already holds a connection get the same connection back, so they share its
+ * transaction.  The connection must be closed to return it to the pool.</p>
+ *
+ * @return a pooled connection
+ * 
+ * @throws SQLException if no connection becomes available within the borrow timeout
+ * 
+ */
+	public Connection getConnection() throws SQLException {
+		if (pool == null) throw new SQLException("Database is not connected");
+		return pool.borrow();
+	}
+
+/*******
+ * <p> Method: long getStatementCacheHits() </p>
+ * 
+ * <p> Description: Get how many prepared statements were served from the statement caches of the
+ * pooled connections since the database was connected.</p>
+ *
+ * @return the number of statement cache hits
+ * 
+ */
+	public long getStatementCacheHits() {
+		return pool == null ? 0 : pool.getStatementCacheHits();
+	}
+
+/*******
+ * <p> Method: long getStatementCacheMisses() </p>
+ * 
+ * <p> Description: Get how many prepared statements had to be parsed and planned because they were
+ * not in the statement cache of their connection.</p>
+ *
+ * @return the number of statement cache misses
+ * 
+ */
+	public long getStatementCacheMisses() {
+		return pool == null ? 0 : pool.getStatementCacheMisses();
+	}
+
+/*******
+ * <p> Method: void resetStatementCacheStatistics() </p>
+ * 
+ * <p> Description: Set the statement cache hit and miss counters back to zero.</p>
+ * 
+ */
+	public void resetStatementCacheStatistics() {
+		if (pool != null) pool.resetStatementCacheStatistics();
+	}
+
+/*******
+ * <p> Method: GradeCache getGradeCache() </p>
+ * 
+ * <p> Description: Get the cache of computed student grades, for its hit, miss, eviction and
+ * invalidation counts.</p>
+ *
+ * @return the grade cache of this database
+ * 
+ */
+	public GradeCache getGradeCache() {
+		return gradeCache;
+	}
+
+/*******
+ * <p> Method: UserSession getSession() </p>
+ * 
+ * <p> Description: Get the session holding the current user attributes of the calling thread.</p>
+ *
+ * @return the calling thread's session
+ * 
+ */
+	public UserSession getSession() {
+		return session.get();
+	}
+
 	
 /*******
  * <p> Method: createTables </p>
  * 
  * <p> Description: Used to create new instances of the two database tables used by this class.</p>
  * 
+ * @param statement the statement used to run the schema commands
+ * 
  * @throws SQLException if issue occurred
  */
-	private void createTables() throws SQLException {
+	private void createTables(Statement statement) throws SQLException {
 		// Create the user database
 		String userTable = "CREATE TABLE IF NOT EXISTS userDB ("
 				+ "id INT AUTO_INCREMENT PRIMARY KEY, "
@@ -166,10 +545,19 @@ public class Database {
 	            + "content VARCHAR(2200), "
 	            + "owner VARCHAR(255), "
 	            + "thread INT DEFAULT 1, "
-	            + "tags VARCHAR(255), "
 	            + "FOREIGN KEY (thread) REFERENCES Threads(id) ON DELETE SET DEFAULT)";
 	    statement.execute(postTable);
 
+	    // Create Post Tags table, one row per tag of a post, kept in the order the tags were added
+	    String postTagsTable = "CREATE TABLE IF NOT EXISTS PostTags ("
+	            + "postId INT, "
+	            + "tag VARCHAR(255), "
+	            + "position INT DEFAULT 0, "
+	            + "PRIMARY KEY (postId, tag), "
+	            + "FOREIGN KEY (postId) REFERENCES Posts(id) ON DELETE CASCADE)";
+	    statement.execute(postTagsTable);
+	    migrateLegacyPostTags(statement.getConnection());
+
 	    // Create Replies table
 	    String replyTable = "CREATE TABLE IF NOT EXISTS Replies ("
 	            + "id INT AUTO_INCREMENT PRIMARY KEY, "
@@ -190,17 +578,52 @@ public class Database {
 	            + "FOREIGN KEY (userName) REFERENCES userDB(userName) ON DELETE CASCADE, "
 	            + "UNIQUE (userName, postId))";
 	    statement.execute(postReadStatusTable);
+
+	    // Create Post Stats table.  The counters are kept up to date by every write that changes
+	    // them, so reading them is a primary key lookup instead of counting rows.
+	    String postStatsTable = "CREATE TABLE IF NOT EXISTS PostStats ("
+	            + "postId INT PRIMARY KEY, "
+	            + "views INT DEFAULT 0, "
+	            + "upvotes INT DEFAULT 0, "
+	            + "replies INT DEFAULT 0, "
+	            + "FOREIGN KEY (postId) REFERENCES Posts(id) ON DELETE CASCADE)";
+	    statement.execute(postStatsTable);
+
+	    // Create Post Signatures table.  Each post's MinHash signature is stored so the duplicate
+	    // index can be loaded without reading and hashing every post again.
+	    String postSignaturesTable = "CREATE TABLE IF NOT EXISTS PostSignatures ("
+	            + "postId INT PRIMARY KEY, "
+	            + "signature VARBINARY(" + MinHash.NUM_HASHES * Integer.BYTES + ") NOT NULL, "
+	            + "FOREIGN KEY (postId) REFERENCES Posts(id) ON DELETE CASCADE)";
+	    statement.execute(postSignaturesTable);
 	    
-	    // Create Reply Read Status table
-	    String replyReadStatusTable = "CREATE TABLE IF NOT EXISTS ReplyReadStatus ("
-	            + "id INT AUTO_INCREMENT PRIMARY KEY, "
+	    // Create Post Grades table.  A post has at most one grade; students only see it once it
+	    // has been released.
+	    String postGradesTable = "CREATE TABLE IF NOT EXISTS PostGrades ("
+	            + "postId INT PRIMARY KEY, "
+	            + "grade VARCHAR(16) NOT NULL, "
+	            + "feedback VARCHAR(2200), "
+	            + "grader VARCHAR(255), "
+	            + "released BOOLEAN DEFAULT FALSE, "
+	            + "gradedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+	            + "releasedAt TIMESTAMP NULL, "
+	            + "FOREIGN KEY (postId) REFERENCES Posts(id) ON DELETE CASCADE, "
+	            + "FOREIGN KEY (grader) REFERENCES userDB(userName) ON DELETE SET NULL)";
+	    statement.execute(postGradesTable);
+	    
+	    // Create Reply Read Marks table.  Reply ids only grow, so everything a user has read in a
+	    // post is described by the id of the newest reply they have seen there.
+	    String replyReadMarksTable = "CREATE TABLE IF NOT EXISTS ReplyReadMarks ("
 	            + "userName VARCHAR(255), "
-	            + "replyId INT, "
-	            + "isRead BOOL DEFAULT FALSE, "
-	            + "FOREIGN KEY (replyId) REFERENCES Replies(id) ON DELETE CASCADE, "
-	            + "FOREIGN KEY (userName) REFERENCES userDB(userName) ON DELETE CASCADE, "
-	            + "UNIQUE (userName, replyId))";
-	    statement.execute(replyReadStatusTable);
+	            + "postId INT, "
+	            + "lastReadReplyId INT DEFAULT 0, "
+	            + "PRIMARY KEY (userName, postId), "
+	            + "FOREIGN KEY (postId) REFERENCES Posts(id) ON DELETE CASCADE, "
+	            + "FOREIGN KEY (userName) REFERENCES userDB(userName) ON DELETE CASCADE)";
+	    statement.execute(replyReadMarksTable);
+	    migrateReplyReadStatus(statement.getConnection());
+	    statement.executeUpdate("INSERT INTO PostStats (postId, views, upvotes, replies) "
+	            + POST_STATS_FROM_BASE_TABLES + " WHERE NOT EXISTS (SELECT 1 FROM PostStats s WHERE s.postId = p.id)");
 	    
 	    // Create Student Status table
 	    String studentStatusTable = "CREATE TABLE IF NOT EXISTS StudentStatus ("
@@ -237,6 +660,41 @@ public class Database {
 	    		+ "FOREIGN KEY (receiver) REFERENCES userDB(userName) ON DELETE SET NULL)";
 	    statement.execute(messageTable);
 
+	    // Create Announcements table.  An announcement goes to every student as one row; each
+	    // student who has read it has a row in AnnouncementReads.
+	    String announcementTable = "CREATE TABLE IF NOT EXISTS Announcements ("
+	            + "id INT AUTO_INCREMENT PRIMARY KEY, "
+	            + "sender VARCHAR(255) NULL, "
+	            + "subject VARCHAR(255), "
+	            + "content VARCHAR(2200), "
+	            + "FOREIGN KEY (sender) REFERENCES userDB(userName) ON DELETE SET NULL)";
+	    statement.execute(announcementTable);
+
+	    String announcementReadsTable = "CREATE TABLE IF NOT EXISTS AnnouncementReads ("
+	            + "userName VARCHAR(255), "
+	            + "announcementId INT, "
+	            + "PRIMARY KEY (userName, announcementId), "
+	            + "FOREIGN KEY (announcementId) REFERENCES Announcements(id) ON DELETE CASCADE, "
+	            + "FOREIGN KEY (userName) REFERENCES userDB(userName) ON DELETE CASCADE)";
+	    statement.execute(announcementReadsTable);
+
+	    // Create Unread Counts table.  A user's unread posts are every post less the ones they
+	    // have read, so only the read posts are counted here and a new post changes no row.
+	    // Announcements are counted the same way.
+	    String unreadCountsTable = "CREATE TABLE IF NOT EXISTS UnreadCounts ("
+	            + "userName VARCHAR(255) PRIMARY KEY, "
+	            + "unreadMessages INT DEFAULT 0, "
+	            + "readPosts INT DEFAULT 0, "
+	            + "readAnnouncements INT DEFAULT 0, "
+	            + "FOREIGN KEY (userName) REFERENCES userDB(userName) ON DELETE CASCADE)";
+	    statement.execute(unreadCountsTable);
+	    statement.executeUpdate("INSERT INTO UnreadCounts (userName, unreadMessages, readPosts, readAnnouncements) "
+	            + UNREAD_COUNTS_FROM_BASE_TABLES + " WHERE NOT EXISTS (SELECT 1 FROM UnreadCounts c WHERE c.userName = u.userName)");
+
+	    // Create the secondary indexes used by the hot queries
+	    for (String index : INDEXES) {
+	        statement.execute(index);
+	    }
 	}
 
 
@@ -250,7 +708,8 @@ public class Database {
  */
 	public boolean isDatabaseEmpty() {
 		String query = "SELECT COUNT(*) AS count FROM userDB";
-		try {
+		try (Connection connection = getConnection();
+		     Statement statement = connection.createStatement()) {
 			ResultSet resultSet = statement.executeQuery(query);
 			if (resultSet.next()) {
 				return resultSet.getInt("count") == 0;
@@ -272,7 +731,8 @@ public class Database {
  */
 	public int getNumberOfUsers() {
 		String query = "SELECT COUNT(*) AS count FROM userDB";
-		try {
+		try (Connection connection = getConnection();
+		     Statement statement = connection.createStatement()) {
 			ResultSet resultSet = statement.executeQuery(query);
 			if (resultSet.next()) {
 				return resultSet.getInt("count");
@@ -297,43 +757,77 @@ public class Database {
 		String insertUser = "INSERT INTO userDB (userName, password, firstName, middleName, "
 				+ "lastName, preferredFirstName, emailAddress, adminRole, studentRole, staffRole) "
 				+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-		try (PreparedStatement pstmt = connection.prepareStatement(insertUser)) {
-			currentUsername = user.getUserName();
-			pstmt.setString(1, currentUsername);
-			
-			currentPassword = user.getPassword();
-			pstmt.setString(2, currentPassword);
-			
-			currentFirstName = user.getFirstName();
-			pstmt.setString(3, currentFirstName);
-			
-			currentMiddleName = user.getMiddleName();			
-			pstmt.setString(4, currentMiddleName);
-			
-			currentLastName = user.getLastName();
-			pstmt.setString(5, currentLastName);
-			
-			currentPreferredFirstName = user.getPreferredFirstName();
-			pstmt.setString(6, currentPreferredFirstName);
-			
-			currentEmailAddress = user.getEmailAddress();
-			pstmt.setString(7, currentEmailAddress);
-			
-			currentAdminRole = user.getAdminRole();
-			pstmt.setBoolean(8, currentAdminRole);
-			
-			currentStudentRole = user.getStudentRole();
-			pstmt.setBoolean(9, currentStudentRole);
-			
-			currentStaffRole = user.getStaffRole();
-			pstmt.setBoolean(10, currentStaffRole);
-			
-			pstmt.executeUpdate();
+		// A new user has nothing unread or read yet, so the counter row starts at zero
+		String insertCounts = "INSERT INTO UnreadCounts (userName) VALUES (?)";
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(insertUser);
+		     PreparedStatement counts = connection.prepareStatement(insertCounts)) {
+			boolean ownsTransaction = connection.getAutoCommit();
+			if (ownsTransaction) connection.setAutoCommit(false);
+			try {
+				insertUser(pstmt, user);
+				counts.setString(1, user.getUserName());
+				counts.executeUpdate();
+				if (ownsTransaction) connection.commit();
+			} catch (SQLException e) {
+				if (ownsTransaction) connection.rollback();
+				throw e;
+			} finally {
+				if (ownsTransaction) connection.setAutoCommit(true);
+			}
 		}
 		
 		if (user.getStudentRole()) {
 	        insertStudentStatus(user.getUserName());
 	    }
+		reindexUser(user.getUserName());
+	}
+
+/*******
+ * <p> Method: void insertUser(PreparedStatement pstmt, User user) </p>
+ * 
+ * <p> Description: Copies the user into the current session and inserts their userDB row. </p>
+ * 
+ * @param pstmt the prepared userDB insert
+ * 
+ * @param user the user being registered
+ * 
+ * @throws SQLException if the row cannot be inserted
+ * 
+ */
+	private void insertUser(PreparedStatement pstmt, User user) throws SQLException {
+		UserSession current = getSession();
+		current.setUsername(user.getUserName());
+		pstmt.setString(1, current.getUsername());
+		
+		current.setPassword(user.getPassword());
+		pstmt.setString(2, current.getPassword());
+		
+		current.setFirstName(user.getFirstName());
+		pstmt.setString(3, current.getFirstName());
+		
+		current.setMiddleName(user.getMiddleName());			
+		pstmt.setString(4, current.getMiddleName());
+		
+		current.setLastName(user.getLastName());
+		pstmt.setString(5, current.getLastName());
+		
+		current.setPreferredFirstName(user.getPreferredFirstName());
+		pstmt.setString(6, current.getPreferredFirstName());
+		
+		current.setEmailAddress(user.getEmailAddress());
+		pstmt.setString(7, current.getEmailAddress());
+		
+		current.setAdminRole(user.getAdminRole());
+		pstmt.setBoolean(8, current.getAdminRole());
+		
+		current.setStudentRole(user.getStudentRole());
+		pstmt.setBoolean(9, current.getStudentRole());
+		
+		current.setStaffRole(user.getStaffRole());
+		pstmt.setBoolean(10, current.getStaffRole());
+		
+		pstmt.executeUpdate();
 	}
 	
 /*******
@@ -348,7 +842,8 @@ public class Database {
 		List<String> userList = new ArrayList<String>();
 		userList.add("<Select a User>");
 		String query = "SELECT userName FROM userDB";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(query)) {
 			ResultSet rs = pstmt.executeQuery();
 			while (rs.next()) {
 				userList.add(rs.getString("userName"));
@@ -369,7 +864,8 @@ public class Database {
 	public List<User> getAllUsers() {
 		List<User> users = new ArrayList<>();
 		String query = "SELECT * FROM userDB";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(query)) {
 			ResultSet rs = pstmt.executeQuery();
 			while (rs.next()) {
 	            User user = new User();
@@ -402,7 +898,8 @@ public class Database {
 	    List<User> students = new ArrayList<>();
 	    String query = "SELECT * FROM userDB WHERE studentRole = TRUE";
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        ResultSet rs = pstmt.executeQuery();
 
 	        while (rs.next()) {
@@ -428,17 +925,192 @@ public class Database {
 	    return students;
 	}
 	
+	/**
+	 * <p> Method: getGradebook() </p>
+	 * <P> Description: Retrieves every student together with their stored activity counters
+	 * in one query, ordered by username. Students without a status record get zero counters.
+	 * The rows carry no grades yet. </p>
+	 *
+	 * @return one {@code GradebookRow} per student; an empty list if no students exist or if
+	 *         a database error occurs
+	 */
+	public ArrayList<GradebookRow> getGradebook() {
+	    ArrayList<GradebookRow> rows = new ArrayList<>();
+
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(GRADEBOOK_ROWS);
+	         ResultSet rs = pstmt.executeQuery()) {
+	        while (rs.next()) rows.add(readGradebookRow(rs));
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	    }
+	    return rows;
+	}
+	
+	/*******
+	 * <p> Method: streamGradebook(Consumer&lt;GradebookRow&gt; sink) </p>
+	 * <P> Description: Hands every student row of {@link #getGradebook()}, in the same order,
+	 * to the sink one at a time while the cursor moves, without collecting them. The query runs
+	 * lazily, so H2 produces rows as they are fetched instead of building the whole result
+	 * first, and memory use does not grow with the number of students. </p>
+	 *
+	 * @param sink receives each row; a runtime exception thrown by the sink stops the stream
+	 * @return the number of rows handed to the sink
+	 * @throws SQLException if the query fails
+	 */
+	public int streamGradebook(Consumer<GradebookRow> sink) throws SQLException {
+	    int count = 0;
+	    try (Connection connection = getConnection();
+	         Statement session = connection.createStatement()) {
+	        session.execute("SET LAZY_QUERY_EXECUTION TRUE");
+	        try (PreparedStatement pstmt = connection.prepareStatement(GRADEBOOK_ROWS)) {
+	            pstmt.setFetchSize(GRADEBOOK_FETCH_SIZE);
+	            try (ResultSet rs = pstmt.executeQuery()) {
+	                while (rs.next()) {
+	                    sink.accept(readGradebookRow(rs));
+	                    count++;
+	                }
+	            }
+	        } finally {
+	            session.execute("SET LAZY_QUERY_EXECUTION FALSE");
+	        }
+	    }
+	    return count;
+	}
+
+	/*******
+	 * <p> Method: getNumberOfStudents() </p>
+	 * <P> Description: Counts the users holding the student role. </p>
+	 *
+	 * @return the number of students, 0 if a database error occurs
+	 */
+	public int getNumberOfStudents() {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(
+	                 "SELECT COUNT(*) FROM userDB WHERE studentRole = TRUE");
+	         ResultSet rs = pstmt.executeQuery()) {
+	        return rs.next() ? rs.getInt(1) : 0;
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	        return 0;
+	    }
+	}
+
+	/*******
+	 * <p> Method: readGradebookRow(ResultSet rs) </p>
+	 * <P> Description: Builds the gradebook row at the current position of a result set of
+	 * the gradebook query. </p>
+	 *
+	 * @param rs the result set, positioned on a row
+	 * @return the row with the student and their counters
+	 * @throws SQLException if a column cannot be read
+	 */
+	private GradebookRow readGradebookRow(ResultSet rs) throws SQLException {
+	    User user = new User();
+	    user.setUserName(rs.getString("userName"));
+	    user.setFirstName(rs.getString("firstName"));
+	    user.setMiddleName(rs.getString("middleName"));
+	    user.setLastName(rs.getString("lastName"));
+	    user.setPreferredFirstName(rs.getString("preferredFirstName"));
+	    user.setEmailAddress(rs.getString("emailAddress"));
+	    user.setStudentRole(true);
+	    return new GradebookRow(user,
+	            rs.getInt("postNumber"), rs.getInt("replyNumber"), rs.getInt("viewReceived"),
+	            rs.getInt("replyReceived"), rs.getInt("upvoteReceived"),
+	            rs.getInt("promotion"), rs.getInt("violation"));
+	}
+
+	/*******
+	 * <p> Method: getGradeSnapshot() </p>
+	 * <P> Description: Reads the counters of every student straight into column arrays for the
+	 * grade engine, in the same order as {@link #getGradebook()}. No object is created per student;
+	 * the columns grow by doubling while the rows are read and are trimmed once at the end. </p>
+	 *
+	 * @return the counters of all students; an empty snapshot if no students exist or if a
+	 *         database error occurs
+	 */
+	public GradeSnapshot getGradeSnapshot() {
+	    int n = 0;
+	    String[] names = new String[64];
+	    int[][] columns = new int[7][64];
+	    String[] counters = { "postNumber", "replyNumber", "viewReceived", "replyReceived",
+	            "upvoteReceived", "promotion", "violation" };
+	
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(GRADEBOOK_ROWS);
+	         ResultSet rs = pstmt.executeQuery()) {
+	        int nameIndex = rs.findColumn("userName");
+	        int[] index = new int[counters.length];
+	        for (int c = 0; c < counters.length; c++) index[c] = rs.findColumn(counters[c]);
+	        while (rs.next()) {
+	            if (n == names.length) {
+	                names = Arrays.copyOf(names, n * 2);
+	                for (int c = 0; c < columns.length; c++) columns[c] = Arrays.copyOf(columns[c], n * 2);
+	            }
+	            names[n] = rs.getString(nameIndex);
+	            for (int c = 0; c < columns.length; c++) columns[c][n] = rs.getInt(index[c]);
+	            n++;
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	        n = 0;
+	    }
+	    for (int c = 0; c < columns.length; c++) columns[c] = Arrays.copyOf(columns[c], n);
+	    return new GradeSnapshot(Arrays.copyOf(names, n), columns[0], columns[1], columns[2],
+	            columns[3], columns[4], columns[5], columns[6]);
+	}
+	
 	/*******
 	 * <p> Method: deleteUser() </p>
-	 * <P> Description: delete a user by username from the database. </p>
+	 * <P> Description: delete a user by username from the database. Their read status rows
+	 * go with them, so their views and upvotes are taken off the post counters and the counters
+	 * of the post owners in the same transaction. </p>
 	 *  
 	 *  @param userName input from dialog
 	 */
 	public void deleteUser(String userName) {
+	    String removeActivity = """
+	        MERGE INTO PostStats s
+	        USING (SELECT postId, SUM(CASE WHEN isRead THEN 1 ELSE 0 END) AS views,
+	                      COALESCE(SUM(upvotes), 0) AS upvotes
+	               FROM PostReadStatus WHERE userName = ? GROUP BY postId) a
+	        ON s.postId = a.postId
+	        WHEN MATCHED THEN UPDATE SET views = s.views - a.views, upvotes = s.upvotes - a.upvotes
+	        """;
+	    String removeReceived = """
+	        MERGE INTO StudentStatus s
+	        USING (SELECT p.owner AS userName, SUM(CASE WHEN prs.isRead THEN 1 ELSE 0 END) AS views,
+	                      COALESCE(SUM(prs.upvotes), 0) AS upvotes
+	               FROM PostReadStatus prs JOIN Posts p ON p.id = prs.postId
+	               WHERE prs.userName = ? GROUP BY p.owner) a
+	        ON s.userName = a.userName
+	        WHEN MATCHED THEN UPDATE SET viewReceived = s.viewReceived - a.views,
+	                                     upvoteReceived = s.upvoteReceived - a.upvotes
+	        """;
 	    String query = "DELETE FROM userDB WHERE userName = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-	        pstmt.setString(1, userName);
-	        pstmt.executeUpdate();
+	    try (Connection connection = getConnection();
+	         PreparedStatement stats = connection.prepareStatement(removeActivity);
+	         PreparedStatement received = connection.prepareStatement(removeReceived);
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
+	        boolean ownsTransaction = connection.getAutoCommit();
+	        if (ownsTransaction) connection.setAutoCommit(false);
+	        try {
+	            stats.setString(1, userName);
+	            stats.executeUpdate();
+	            received.setString(1, userName);
+	            received.executeUpdate();
+	            pstmt.setString(1, userName);
+	            pstmt.executeUpdate();
+	            if (ownsTransaction) connection.commit();
+	        } catch (SQLException e) {
+	            if (ownsTransaction) connection.rollback();
+	            throw e;
+	        } finally {
+	            if (ownsTransaction) connection.setAutoCommit(true);
+	        }
+	        if (!ownsTransaction) return;
+	        gradeCache.invalidateAll();
+	        reindexUser(userName);
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
@@ -460,7 +1132,8 @@ public class Database {
 		// Validates an admin user's login credentials so the user can login in as an Admin.
 		String query = "SELECT * FROM userDB WHERE userName = ? AND password = ? AND "
 				+ "adminRole = TRUE";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(query)) {
 			pstmt.setString(1, user.getUserName());
 			pstmt.setString(2, user.getPassword());
 			ResultSet rs = pstmt.executeQuery();
@@ -487,7 +1160,8 @@ public class Database {
 		// Validates a student user's login credentials.
 		String query = "SELECT * FROM userDB WHERE userName = ? AND password = ? AND "
 				+ "studentRole = TRUE";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(query)) {
 			pstmt.setString(1, user.getUserName());
 			pstmt.setString(2, user.getPassword());
 			ResultSet rs = pstmt.executeQuery();
@@ -513,7 +1187,8 @@ public class Database {
 	public boolean loginStaff(User user) {
 		String query = "SELECT * FROM userDB WHERE userName = ? AND password = ? AND "
 				+ "staffRole = TRUE";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(query)) {
 			pstmt.setString(1, user.getUserName());
 			pstmt.setString(2, user.getPassword());
 			ResultSet rs = pstmt.executeQuery();
@@ -538,7 +1213,8 @@ public class Database {
 	// Checks if a user already exists in the database based on their userName.
 	public boolean doesUserExist(String userName) {
 	    String query = "SELECT COUNT(*) FROM userDB WHERE userName = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        
 	        pstmt.setString(1, userName);
 	        ResultSet rs = pstmt.executeQuery();
@@ -567,7 +1243,8 @@ public class Database {
 	 */
 	public boolean updatePassword(String username, String newPassword) {
         String sql = "UPDATE userDB SET password = ? WHERE userName = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, newPassword);
             pstmt.setString(2, username);
 
@@ -619,7 +1296,8 @@ public class Database {
 	    String code = UUID.randomUUID().toString().substring(0, 6); // Generate a random 6-character code
 	    String query = "INSERT INTO InvitationCodes (code, emailaddress, role) VALUES (?, ?, ?)";
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, code);
 	        pstmt.setString(2, emailAddress);
 	        pstmt.setString(3, role);
@@ -644,7 +1322,8 @@ public class Database {
         ArrayList<String> emails = new ArrayList<>();
         String query = "SELECT emailAddress FROM InvitationCodes";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query);
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query);
              ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
@@ -669,7 +1348,8 @@ public class Database {
 	// Number of invitations in the database
 	public int getNumberOfInvitations() {
 		String query = "SELECT COUNT(*) AS count FROM InvitationCodes";
-		try {
+		try (Connection connection = getConnection();
+		     Statement statement = connection.createStatement()) {
 			ResultSet resultSet = statement.executeQuery(query);
 			if (resultSet.next()) {
 				return resultSet.getInt("count");
@@ -694,7 +1374,8 @@ public class Database {
 	// Check to see if an email address is already in the database
 	public boolean emailaddressHasBeenUsed(String emailAddress) {
 	    String query = "SELECT COUNT(*) AS count FROM InvitationCodes WHERE emailAddress = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, emailAddress);
 	        ResultSet rs = pstmt.executeQuery();
 	        System.out.println(rs);
@@ -721,7 +1402,8 @@ public class Database {
 	// Obtain the roles associated with an invitation code.
 	public String getRoleGivenAnInvitationCode(String code) {
 	    String query = "SELECT * FROM InvitationCodes WHERE code = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, code);
 	        ResultSet rs = pstmt.executeQuery();
 	        if (rs.next()) {
@@ -746,7 +1428,8 @@ public class Database {
 	 */
 	public String getEmailAddressUsingCode (String code ) {
 	    String query = "SELECT emailAddress FROM InvitationCodes WHERE code = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, code);
 	        ResultSet rs = pstmt.executeQuery();
 	        if (rs.next()) {
@@ -769,7 +1452,8 @@ public class Database {
 	    ArrayList<String[]> list = new ArrayList<>();
 	    String query = "SELECT emailAddress, code, role FROM InvitationCodes";
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(query);
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query);
 	         ResultSet rs = pstmt.executeQuery()) {
 
 	        while (rs.next()) {
@@ -796,7 +1480,8 @@ public class Database {
 	// Remove an invitation using an email address once the user account has been setup
 	public void removeInvitationAfterUse(String code) {
 	    String query = "SELECT COUNT(*) AS count FROM InvitationCodes WHERE code = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, code);
 	        ResultSet rs = pstmt.executeQuery();
 	        if (rs.next()) {
@@ -828,7 +1513,8 @@ public class Database {
 	 */
 	public void removeInvitationByEmail(String email) {
 	    String query = "SELECT COUNT(*) AS count FROM InvitationCodes WHERE emailAddress = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	       pstmt.setString(1, email);
 	       ResultSet rs = pstmt.executeQuery();
 	        if (rs.next()) {
@@ -863,7 +1549,8 @@ public class Database {
 	public void registerOneTimePasscodeRequest(String emailAddress) {
 	    String query = "INSERT INTO OneTimePasscodes (passcode, emailAddress) VALUES (?, ?)";
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, "");
 	        pstmt.setString(2, emailAddress);
 	        pstmt.executeUpdate();
@@ -901,7 +1588,8 @@ public class Database {
 	            "    createdAt = CURRENT_TIMESTAMP " +   // Update time stamp after generated
 	            "WHERE emailAddress = ?";
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, passcode);
 	        pstmt.setString(2, emailAddress);
 	        pstmt.executeUpdate();
@@ -923,7 +1611,8 @@ public class Database {
 	    Map<String, String> map = new HashMap<>();
 	    String query = "SELECT emailAddress, passcode FROM OneTimePasscodes";
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        ResultSet rs = pstmt.executeQuery();
 	        while (rs.next()) {
 	            map.put(rs.getString("emailAddress"), rs.getString("passcode"));
@@ -946,7 +1635,8 @@ public class Database {
 		ArrayList<String> emails = new ArrayList<>();
 	    String query = "SELECT emailAddress FROM OneTimePasscodes WHERE passcode = ''";
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        ResultSet rs = pstmt.executeQuery();
 
 	        while (rs.next()) {
@@ -977,7 +1667,8 @@ public class Database {
 	public String getPasscodeByEmail(String email) {
 	    String query = "SELECT passcode FROM OneTimePasscodes WHERE emailAddress = ?";
 	    
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, email);
 	        ResultSet rs = pstmt.executeQuery();
 
@@ -1000,7 +1691,8 @@ public class Database {
 	 */
 	public void removePasscodeRowByEmail(String email) {
 	    String query = "DELETE FROM OneTimePasscodes WHERE emailAddress = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, email);
 	        pstmt.executeUpdate();
 	    } catch (SQLException e) {
@@ -1020,7 +1712,8 @@ public class Database {
 	 */
 	public boolean emailaddressHasBeenSentPasscode(String emailAddress) {
 	    String query = "SELECT COUNT(*) AS count FROM OneTimePasscodes WHERE emailAddress = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, emailAddress);
 	        ResultSet rs = pstmt.executeQuery();
 	        if (rs.next()) {  // move cursor to the first row
@@ -1051,7 +1744,8 @@ public class Database {
 	    // Compute the cutoff time (24 hours ago)
 	    Timestamp cutoff = Timestamp.from(Instant.now().minus(24, ChronoUnit.HOURS));
 
-	    try (PreparedStatement ps1 = connection.prepareStatement(deleteInvitations);
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps1 = connection.prepareStatement(deleteInvitations);
 	         PreparedStatement ps2 = connection.prepareStatement(deletePasscodes)) {
 
 	        ps1.setTimestamp(1, cutoff);
@@ -1079,7 +1773,8 @@ public class Database {
 	// Get the First Name
 	public String getFirstName(String username) {
 		String query = "SELECT firstName FROM userDB WHERE userName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(query)) {
 			pstmt.setString(1, username);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -1108,14 +1803,16 @@ public class Database {
 	// update the first name
 	public void updateFirstName(String username, String firstName) {
 	    String query = "UPDATE userDB SET firstName = ? WHERE username = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, firstName);
 	        pstmt.setString(2, username);
 	        pstmt.executeUpdate();
-	        currentFirstName = firstName;
+	        getSession().setFirstName(firstName);
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
+	    reindexUser(username);
 	}
 
 	
@@ -1132,7 +1829,8 @@ public class Database {
 	// get the middle name
 	public String getMiddleName(String username) {
 		String query = "SELECT MiddleName FROM userDB WHERE userName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(query)) {
 			pstmt.setString(1, username);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -1160,14 +1858,16 @@ public class Database {
 	// update the middle name
 	public void updateMiddleName(String username, String middleName) {
 	    String query = "UPDATE userDB SET middleName = ? WHERE username = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, middleName);
 	        pstmt.setString(2, username);
 	        pstmt.executeUpdate();
-	        currentMiddleName = middleName;
+	        getSession().setMiddleName(middleName);
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
+	    reindexUser(username);
 	}
 	
 	
@@ -1184,7 +1884,8 @@ public class Database {
 	// get he last name
 	public String getLastName(String username) {
 		String query = "SELECT LastName FROM userDB WHERE userName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(query)) {
 			pstmt.setString(1, username);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -1212,14 +1913,16 @@ public class Database {
 	// update the last name
 	public void updateLastName(String username, String lastName) {
 	    String query = "UPDATE userDB SET lastName = ? WHERE username = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, lastName);
 	        pstmt.setString(2, username);
 	        pstmt.executeUpdate();
-	        currentLastName = lastName;
+	        getSession().setLastName(lastName);
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
+	    reindexUser(username);
 	}
 	
 	
@@ -1236,7 +1939,8 @@ public class Database {
 	// get the preferred first name
 	public String getPreferredFirstName(String username) {
 		String query = "SELECT preferredFirstName FROM userDB WHERE userName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(query)) {
 			pstmt.setString(1, username);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -1265,14 +1969,16 @@ public class Database {
 	// update the preferred first name of the user
 	public void updatePreferredFirstName(String username, String preferredFirstName) {
 	    String query = "UPDATE userDB SET preferredFirstName = ? WHERE username = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, preferredFirstName);
 	        pstmt.setString(2, username);
 	        pstmt.executeUpdate();
-	        currentPreferredFirstName = preferredFirstName;
+	        getSession().setPreferredFirstName(preferredFirstName);
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
+	    reindexUser(username);
 	}
 	
 	
@@ -1289,7 +1995,8 @@ public class Database {
 	// get the email address
 	public String getEmailAddress(String username) {
 		String query = "SELECT emailAddress FROM userDB WHERE userName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(query)) {
 			pstmt.setString(1, username);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -1318,11 +2025,12 @@ public class Database {
 	// update the email address
 	public void updateEmailAddress(String username, String emailAddress) {
 	    String query = "UPDATE userDB SET emailAddress = ? WHERE username = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, emailAddress);
 	        pstmt.setString(2, username);
 	        pstmt.executeUpdate();
-	        currentEmailAddress = emailAddress;
+	        getSession().setEmailAddress(emailAddress);
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
@@ -1342,20 +2050,22 @@ public class Database {
 	// get the attributes for a specified user
 	public boolean getUserAccountDetails(String username) {
 		String query = "SELECT * FROM userDB WHERE username = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(query)) {
 			pstmt.setString(1, username);
 	        ResultSet rs = pstmt.executeQuery();			
 			rs.next();
-	    	currentUsername = rs.getString(2);
-	    	currentPassword = rs.getString(3);
-	    	currentFirstName = rs.getString(4);
-	    	currentMiddleName = rs.getString(5);
-	    	currentLastName = rs.getString(6);
-	    	currentPreferredFirstName = rs.getString(7);
-	    	currentEmailAddress = rs.getString(8);
-	    	currentAdminRole = rs.getBoolean(9);
-	    	currentStudentRole = rs.getBoolean(10);
-	    	currentStaffRole = rs.getBoolean(11);
+			UserSession current = getSession();
+	    	current.setUsername(rs.getString(2));
+	    	current.setPassword(rs.getString(3));
+	    	current.setFirstName(rs.getString(4));
+	    	current.setMiddleName(rs.getString(5));
+	    	current.setLastName(rs.getString(6));
+	    	current.setPreferredFirstName(rs.getString(7));
+	    	current.setEmailAddress(rs.getString(8));
+	    	current.setAdminRole(rs.getBoolean(9));
+	    	current.setStudentRole(rs.getBoolean(10));
+	    	current.setStaffRole(rs.getBoolean(11));
 			return true;
 	    } catch (SQLException e) {
 			return false;
@@ -1375,7 +2085,8 @@ public class Database {
 	// see if any user has the email
 	public String getUsernameByEmail(String email) {
 		String query = "SELECT * FROM userDB WHERE emailAddress = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(query)) {
 			pstmt.setString(1, email);
 		       ResultSet rs = pstmt.executeQuery();			
 			rs.next();
@@ -1405,14 +2116,15 @@ public class Database {
 	public boolean updateUserRole(String username, String role, String value) {
 		if (role.compareTo("Admin") == 0) {
 			String query = "UPDATE userDB SET adminRole = ? WHERE username = ?";
-			try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+			try (Connection connection = getConnection();
+			     PreparedStatement pstmt = connection.prepareStatement(query)) {
 				pstmt.setString(1, value);
 				pstmt.setString(2, username);
 				pstmt.executeUpdate();
 				if (value.compareTo("true") == 0)
-					currentAdminRole = true;
+					getSession().setAdminRole(true);
 				else
-					currentAdminRole = false;
+					getSession().setAdminRole(false);
 				return true;
 			} catch (SQLException e) {
 				return false;
@@ -1420,14 +2132,15 @@ public class Database {
 		}
 		if (role.compareTo("Student") == 0) {
 			String query = "UPDATE userDB SET studentRole = ? WHERE username = ?";
-			try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+			try (Connection connection = getConnection();
+			     PreparedStatement pstmt = connection.prepareStatement(query)) {
 				pstmt.setString(1, value);
 				pstmt.setString(2, username);
 				pstmt.executeUpdate();
 				if (value.compareTo("true") == 0)
-					currentStudentRole = true;
+					getSession().setStudentRole(true);
 				else
-					currentStudentRole = false;
+					getSession().setStudentRole(false);
 				return true;
 			} catch (SQLException e) {
 				return false;
@@ -1435,14 +2148,15 @@ public class Database {
 		}
 		if (role.compareTo("Staff") == 0) {
 			String query = "UPDATE userDB SET staffRole = ? WHERE username = ?";
-			try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+			try (Connection connection = getConnection();
+			     PreparedStatement pstmt = connection.prepareStatement(query)) {
 				pstmt.setString(1, value);
 				pstmt.setString(2, username);
 				pstmt.executeUpdate();
 				if (value.compareTo("true") == 0)
-					currentStaffRole = true;
+					getSession().setStaffRole(true);
 				else
-					currentStaffRole = false;
+					getSession().setStaffRole(false);
 				return true;
 			} catch (SQLException e) {
 				return false;
@@ -1462,7 +2176,7 @@ public class Database {
 	 * @return the username value is returned
 	 *  
 	 */
-	public String getCurrentUsername() { return currentUsername;};
+	public String getCurrentUsername() { return getSession().getUsername();};
 
 	
 	/*******
@@ -1473,7 +2187,7 @@ public class Database {
 	 * @return the password value is returned
 	 *  
 	 */
-	public String getCurrentPassword() { return currentPassword;};
+	public String getCurrentPassword() { return getSession().getPassword();};
 
 	
 	/*******
@@ -1484,7 +2198,7 @@ public class Database {
 	 * @return the first name value is returned
 	 *  
 	 */
-	public String getCurrentFirstName() { return currentFirstName;};
+	public String getCurrentFirstName() { return getSession().getFirstName();};
 
 	
 	/*******
@@ -1495,7 +2209,7 @@ public class Database {
 	 * @return the middle name value is returned
 	 *  
 	 */
-	public String getCurrentMiddleName() { return currentMiddleName;};
+	public String getCurrentMiddleName() { return getSession().getMiddleName();};
 
 	
 	/*******
@@ -1506,7 +2220,7 @@ public class Database {
 	 * @return the last name value is returned
 	 *  
 	 */
-	public String getCurrentLastName() { return currentLastName;};
+	public String getCurrentLastName() { return getSession().getLastName();};
 
 	
 	/*******
@@ -1517,7 +2231,7 @@ public class Database {
 	 * @return the preferred first name value is returned
 	 *  
 	 */
-	public String getCurrentPreferredFirstName() { return currentPreferredFirstName;};
+	public String getCurrentPreferredFirstName() { return getSession().getPreferredFirstName();};
 
 	
 	/*******
@@ -1528,7 +2242,7 @@ public class Database {
 	 * @return the email address value is returned
 	 *  
 	 */
-	public String getCurrentEmailAddress() { return currentEmailAddress;};
+	public String getCurrentEmailAddress() { return getSession().getEmailAddress();};
 
 	
 	/*******
@@ -1539,7 +2253,7 @@ public class Database {
 	 * @return true if this user plays an Admin role, else false
 	 *  
 	 */
-	public boolean getCurrentAdminRole() { return currentAdminRole;};
+	public boolean getCurrentAdminRole() { return getSession().getAdminRole();};
 
 	
 	/*******
@@ -1550,7 +2264,7 @@ public class Database {
 	 * @return true if this user plays a Student role, else false
 	 *  
 	 */
-	public boolean getCurrentStudentRole() { return currentStudentRole;};
+	public boolean getCurrentStudentRole() { return getSession().getStudentRole();};
 	
 	
 	/*******
@@ -1561,13 +2275,21 @@ public class Database {
 	 * @return true if this user plays a Reviewer role, else false
 	 *  
 	 */
-	public boolean getCurrentStaffRole() { return currentStaffRole;};
+	public boolean getCurrentStaffRole() { return getSession().getStaffRole();};
 	 
 	
 	/*******
 	 * <p> Method: makePost(Post post) </p>
 	 * 
-	 * <p> Description: make post use attributes of the object post </p>
+	 * <p> Description: make post use attributes of the object post. The post counter of the
+	 * owner is raised in the same transaction. The post is unread for every user from the
+	 * moment it commits, since unread posts are counted against the number of posts. </p>
+	 * 
+	 * <p> When the calling thread already has a transaction open on its connection, the post
+	 * joins that transaction and nothing is committed here. The search, title and duplicate
+	 * indexes and the grade cache are then left alone, since the post may still be rolled
+	 * back: after committing, the caller must call {@link #rebuildSearchIndex()} and drop the
+	 * owner's grade from {@link #getGradeCache()}. </p>
 	 * 
 	 * @throws SQLException when there is an issue creating the SQL command or executing it.
 	 * 
@@ -1577,29 +2299,234 @@ public class Database {
 	 *
 	 */
 	public int makePost(Post post) throws SQLException {
-	    String insertPost = "INSERT INTO Posts (title, subtitle, content, owner, thread, tags) "
-	                      + "VALUES (?, ?, ?, ?, ?, ?)";
+	    String insertPost = "INSERT INTO Posts (title, subtitle, content, owner, thread) "
+	                      + "VALUES (?, ?, ?, ?, ?)";
 	    int generatedId = -1;
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(insertPost, Statement.RETURN_GENERATED_KEYS)) {
-	        pstmt.setString(1, post.getTitle());
-	        pstmt.setString(2, post.getSubtitle());
-	        pstmt.setString(3, post.getContent());
-	        pstmt.setString(4, post.getOwner());
-	        pstmt.setInt(5, getThreadId(post.getThread()));
-	        pstmt.setString(6, post.getTagsString());
-	        pstmt.executeUpdate();
-
-	        // Fetch the auto-generated ID
-	        try (ResultSet rs = pstmt.getGeneratedKeys()) {
-	            if (rs.next()) {
-	                generatedId = rs.getInt(1);
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(insertPost, Statement.RETURN_GENERATED_KEYS)) {
+	        // The post, its tags and its counters are stored together or not at all.  A caller
+	        // that already has a transaction open on this connection keeps ownership of it.
+	        boolean ownsTransaction = connection.getAutoCommit();
+	        if (ownsTransaction) connection.setAutoCommit(false);
+	        try {
+	            pstmt.setString(1, post.getTitle());
+	            pstmt.setString(2, post.getSubtitle());
+	            pstmt.setString(3, post.getContent());
+	            pstmt.setString(4, post.getOwner());
+	            pstmt.setInt(5, getThreadId(post.getThread()));
+	            pstmt.executeUpdate();
+
+	            // Fetch the auto-generated ID
+	            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+	                if (rs.next()) {
+	                    generatedId = rs.getInt(1);
+	                }
+	            }
+	            insertPostTags(connection, generatedId, splitTags(post.getTagsString()));
+	            try (PreparedStatement stats = connection.prepareStatement("INSERT INTO PostStats (postId) VALUES (?)")) {
+	                stats.setInt(1, generatedId);
+	                stats.executeUpdate();
 	            }
+	            addStudentActivity(connection, post.getOwner(), 1, 0, null, 0, 0, 0);
+	            if (ownsTransaction) connection.commit();
+	        } catch (SQLException e) {
+	            if (ownsTransaction) connection.rollback();
+	            throw e;
+	        } finally {
+	            if (ownsTransaction) connection.setAutoCommit(true);
 	        }
+	        if (!ownsTransaction) return generatedId;
 	    }
+	    flushGradeChanges();
+	    reindexPost(generatedId);
 	    return generatedId;
 	}
 
+	/***
+	 * <p> Method: int insertPostTags(Connection connection, int postId, List tags) </p>
+	 *
+	 * <p> Description: store the tags of a post in the post tags table as one batch. Empty and
+	 * repeated tags are skipped, and the remaining tags keep their order. </p>
+	 *
+	 * @param connection the connection, and transaction, to insert with
+	 *
+	 * @param postId is the unique post id for each post
+	 *
+	 * @param tags the tags of the post, in display order
+	 *
+	 * @return the number of tags inserted
+	 *
+	 * @throws SQLException if the tags cannot be inserted
+	 */
+	private int insertPostTags(Connection connection, int postId, List<String> tags) throws SQLException {
+	    String insertTag = "INSERT INTO PostTags (postId, tag, position) VALUES (?, ?, ?)";
+	    try (PreparedStatement pstmt = connection.prepareStatement(insertTag)) {
+	        ArrayList<String> seen = new ArrayList<>();
+	        for (String tag : tags) {
+	            if (tag.isEmpty() || seen.contains(tag)) continue;
+	            pstmt.setInt(1, postId);
+	            pstmt.setString(2, tag);
+	            pstmt.setInt(3, seen.size());
+	            pstmt.addBatch();
+	            seen.add(tag);
+	        }
+	        if (!seen.isEmpty()) pstmt.executeBatch();
+	        return seen.size();
+	    }
+	}
+
+	/***
+	 * <p> Method: int migrateLegacyPostTags() </p>
+	 *
+	 * <p> Description: move the tags of a database created before the post tags table from the
+	 * comma-joined tags column of the post table into the post tags table, and drop the old
+	 * column. Does nothing when the post table has no tags column. </p>
+	 *
+	 * @return the number of tags moved
+	 *
+	 */
+	public int migrateLegacyPostTags() {
+	    try (Connection connection = getConnection()) {
+	        return migrateLegacyPostTags(connection);
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	        return 0;
+	    }
+	}
+
+	/***
+	 * <p> Method: int migrateLegacyPostTags(Connection connection) </p>
+	 *
+	 * <p> Description: move the comma-joined tags of every post into the post tags table in one
+	 * transaction, then drop the old tags column once that has committed. H2 commits before a
+	 * schema change, so the two cannot share a transaction; instead posts that already have
+	 * tags in the post tags table are skipped, and a migration that failed while dropping the
+	 * column can simply run again. </p>
+	 *
+	 * @param connection the connection to migrate with
+	 *
+	 * @return the number of tags moved
+	 *
+	 * @throws SQLException if the migration fails; the tags stay in the old column, or have all
+	 *         been moved, and running it again finishes the migration
+	 */
+	private int migrateLegacyPostTags(Connection connection) throws SQLException {
+	    String findColumn = "SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS "
+	                      + "WHERE TABLE_NAME = 'POSTS' AND COLUMN_NAME = 'TAGS'";
+	    try (Statement statement = connection.createStatement();
+	         ResultSet rs = statement.executeQuery(findColumn)) {
+	        if (!rs.next() || rs.getInt(1) == 0) return 0;
+	    }
+
+	    int moved = 0;
+	    boolean autoCommit = connection.getAutoCommit();
+	    connection.setAutoCommit(false);
+	    try (Statement statement = connection.createStatement()) {
+	        ArrayList<Integer> ids = new ArrayList<>();
+	        ArrayList<ArrayList<String>> tags = new ArrayList<>();
+	        try (ResultSet rs = statement.executeQuery("SELECT id, tags FROM Posts p "
+	                + "WHERE tags IS NOT NULL AND tags <> '' "
+	                + "AND NOT EXISTS (SELECT 1 FROM PostTags t WHERE t.postId = p.id)")) {
+	            while (rs.next()) {
+	                ids.add(rs.getInt("id"));
+	                tags.add(splitTags(rs.getString("tags")));
+	            }
+	        }
+	        for (int i = 0; i < ids.size(); i++) {
+	            moved += insertPostTags(connection, ids.get(i), tags.get(i));
+	        }
+	        connection.commit();
+	    } catch (SQLException e) {
+	        connection.rollback();
+	        throw e;
+	    } finally {
+	        connection.setAutoCommit(autoCommit);
+	    }
+	    try (Statement statement = connection.createStatement()) {
+	        statement.execute("ALTER TABLE Posts DROP COLUMN tags");
+	    }
+	    return moved;
+	}
+
+	/***
+	 * <p> Method: int migrateReplyReadStatus() </p>
+	 *
+	 * <p> Description: move the reply read state of a database created before read watermarks
+	 * from the one-row-per-reply ReplyReadStatus table into ReplyReadMarks, and drop the old
+	 * table. Does nothing when there is no ReplyReadStatus table. </p>
+	 *
+	 * @return the number of read watermarks written
+	 *
+	 */
+	public int migrateReplyReadStatus() {
+	    try (Connection connection = getConnection()) {
+	        return migrateReplyReadStatus(connection);
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	        return 0;
+	    }
+	}
+
+	/***
+	 * <p> Method: int migrateReplyReadStatus(Connection connection) </p>
+	 *
+	 * <p> Description: turn the read reply rows of every user and post into one watermark, in
+	 * one transaction, then drop ReplyReadStatus once that has committed. A watermark can only
+	 * describe read replies without gaps, so it is set just below the oldest reply the user had
+	 * not read, or at the newest read reply when there is no such gap. H2 commits before a
+	 * schema change, so the two cannot share a transaction; instead an existing watermark is
+	 * never lowered, and a migration that failed while dropping the table can simply run
+	 * again. </p>
+	 *
+	 * @param connection the connection to migrate with
+	 *
+	 * @return the number of read watermarks written
+	 *
+	 * @throws SQLException if the migration fails; the watermarks are either unchanged or all
+	 *         written, and running it again finishes the migration
+	 */
+	private int migrateReplyReadStatus(Connection connection) throws SQLException {
+	    String findTable = "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'REPLYREADSTATUS'";
+	    try (Statement statement = connection.createStatement();
+	         ResultSet rs = statement.executeQuery(findTable)) {
+	        if (!rs.next() || rs.getInt(1) == 0) return 0;
+	    }
+
+	    String migrate = """
+	        MERGE INTO ReplyReadMarks (userName, postId, lastReadReplyId) KEY (userName, postId)
+	        SELECT g.userName, g.postId,
+	               GREATEST(COALESCE((SELECT MIN(u.id) - 1 FROM Replies u
+	                                  WHERE u.postId = g.postId AND u.id < g.newestRead
+	                                    AND NOT EXISTS (SELECT 1 FROM ReplyReadStatus s
+	                                                    WHERE s.replyId = u.id AND s.userName = g.userName
+	                                                      AND s.isRead = TRUE)), g.newestRead),
+	                        COALESCE((SELECT m.lastReadReplyId FROM ReplyReadMarks m
+	                                  WHERE m.userName = g.userName AND m.postId = g.postId), 0))
+	        FROM (SELECT rrs.userName, r.postId, MAX(r.id) AS newestRead
+	              FROM ReplyReadStatus rrs
+	              JOIN Replies r ON r.id = rrs.replyId
+	              WHERE rrs.isRead = TRUE
+	              GROUP BY rrs.userName, r.postId) g
+	        """;
+	    boolean autoCommit = connection.getAutoCommit();
+	    connection.setAutoCommit(false);
+	    int migrated;
+	    try (Statement statement = connection.createStatement()) {
+	        migrated = statement.executeUpdate(migrate);
+	        connection.commit();
+	    } catch (SQLException e) {
+	        connection.rollback();
+	        throw e;
+	    } finally {
+	        connection.setAutoCommit(autoCommit);
+	    }
+	    try (Statement statement = connection.createStatement()) {
+	        statement.execute("DROP TABLE ReplyReadStatus");
+	    }
+	    return migrated;
+	}
+
 	/***
 	 * <p> Method: String getPostTitle(int postId) </p>
 	 * 
@@ -1613,7 +2540,8 @@ public class Database {
 	// Database getters for Posts
 	public String getPostTitle(int postId) {
 	    String query = "SELECT title FROM Posts WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setInt(1, postId);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -1639,7 +2567,8 @@ public class Database {
 	 */
 	public String getPostSubtitle(int postId) {
 	    String query = "SELECT subtitle FROM Posts WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setInt(1, postId);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -1665,7 +2594,8 @@ public class Database {
 	 */
 	public String getPostContent(int postId) {
 	    String query = "SELECT content FROM Posts WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setInt(1, postId);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -1691,7 +2621,8 @@ public class Database {
 	 */
 	public String getPostOwnerUsername(int postId) {
 	    String query = "SELECT owner FROM Posts WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setInt(1, postId);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -1717,7 +2648,8 @@ public class Database {
 	 */
 	public String getPostThread(int postId) {
 	    String query = "SELECT thread FROM Posts WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setInt(1, postId);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -1734,7 +2666,8 @@ public class Database {
     /***
 	 * <p> Method: ArrayList getPostTags(int postId) </p>
 	 * 
-	 * <p> Description: return the post tags by post id from post table </p>
+	 * <p> Description: return the post tags by post id from post tags table, in the order
+	 * they were added </p>
 	 * 
 	 * @param postId is the unique post id for each post
 	 * 
@@ -1743,20 +2676,15 @@ public class Database {
 	 */
     public ArrayList<String> getPostTags(int postId) {
         ArrayList<String> tagsList = new ArrayList<>();
-        String query = "SELECT tags FROM Posts WHERE id = ?";
+        String query = TAGS_OF_POST_QUERY;
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, postId);
             ResultSet rs = pstmt.executeQuery();
 
-            if (rs.next()) {
-                String tags = rs.getString("tags");
-                if (tags != null && !tags.isEmpty()) {
-                    String[] tagArray = tags.split(",");
-                    for (String tag : tagArray) {
-                        tagsList.add(tag);
-                    }
-                }
+            while (rs.next()) {
+                tagsList.add(rs.getString("tag"));
             }
             rs.close();
         } catch (SQLException e) {
@@ -1765,6 +2693,28 @@ public class Database {
 
         return tagsList;
     }
+
+    /***
+	 * <p> Method: ArrayList splitTags(String tags) </p>
+	 *
+	 * <p> Description: split a comma-joined tags string, as built by Post.getTagsString and
+	 * by the feed query, into a list </p>
+	 *
+	 * @param tags is the stored tags string, may be null or empty
+	 *
+	 * @return the ArrayList of String of post tags
+	 *
+	 */
+    private ArrayList<String> splitTags(String tags) {
+        ArrayList<String> tagsList = new ArrayList<>();
+        if (tags != null && !tags.isEmpty()) {
+            String[] tagArray = tags.split(",");
+            for (String tag : tagArray) {
+                tagsList.add(tag);
+            }
+        }
+        return tagsList;
+    }
     
     /***
 	 * <p> Method: ArrayList getPostReplyList(int postId) </p>
@@ -1779,9 +2729,10 @@ public class Database {
 	 */
 	public ArrayList<Integer> getPostReplyList(int postId) {
 	    ArrayList<Integer> replyIds = new ArrayList<>();
-	    String query = "SELECT id FROM Replies WHERE postId = ?";
+	    String query = REPLY_IDS_OF_POST_QUERY;
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setInt(1, postId);
 	        ResultSet rs = pstmt.executeQuery();
 
@@ -1799,8 +2750,8 @@ public class Database {
 	/***
 	 * <p> Method: int getPostNumberOfReplies(int postId) </p>
 	 * 
-	 * <p> Description: return the reply number of particular post by looking through 
-	 * the reply table with specific post id </p>
+	 * <p> Description: return the reply number of particular post from its stored
+	 * counters </p>
 	 * 
 	 * @param postId is the unique post id for each post
 	 * 
@@ -1809,14 +2760,15 @@ public class Database {
 	 */
 	public int getPostNumberOfReplies(int postId) {
 	    int count = 0;
-	    String query = "SELECT COUNT(*) AS replyCount FROM Replies WHERE postId = ?";
+	    String query = POST_STATS_QUERY;
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setInt(1, postId);
 
 	        ResultSet rs = pstmt.executeQuery();
 	        if (rs.next()) {
-	            count = rs.getInt("replyCount");
+	            count = rs.getInt("replies");
 	        }
 	        rs.close();
 	    } catch (SQLException e) {
@@ -1836,25 +2788,13 @@ public class Database {
 	 */
 	public ArrayList<Post> getAllPostsNewestFirst() {
 	    ArrayList<Post> posts = new ArrayList<>();
-	    String query = "SELECT * FROM Posts ORDER BY id DESC";
+	    String query = "SELECT p.*, t.threadName FROM Posts p LEFT JOIN Threads t ON t.id = p.thread ORDER BY p.id DESC";
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        ResultSet rs = pstmt.executeQuery();
 
-	        while (rs.next()) {
-	        	int id = rs.getInt("id");
-	            Post post = new Post(
-	                rs.getString("title"),
-	                rs.getString("subtitle"),
-	                rs.getString("content"),
-	                rs.getString("owner"),
-	                getPostTags(id),
-	                getThreadName(rs.getInt("thread"))
-	            );
-	            post.setPostId(id);
-	            posts.add(post);
-	        }
-
+	        posts = readPosts(rs);
 	        rs.close();
 	    } catch (SQLException e) {
 	        e.printStackTrace();
@@ -1875,34 +2815,430 @@ public class Database {
 	 */
 	public ArrayList<Post> getPostsFromUserNewestFirst(String owner) {
 	    ArrayList<Post> posts = new ArrayList<>();
-	    String query = "SELECT * FROM Posts WHERE owner = ? ORDER BY id DESC";
+	    String query = POSTS_OF_OWNER_QUERY;
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, owner);
 	        ResultSet rs = pstmt.executeQuery();
 
-	        while (rs.next()) {
-	            int id = rs.getInt("id");
-	            Post post = new Post(
-	                rs.getString("title"),
-	                rs.getString("subtitle"),
-	                rs.getString("content"),
-	                rs.getString("owner"),
-	                getPostTags(id),
-	                getThreadName(rs.getInt("thread"))
-	            );
-	            post.setPostId(id);
-	            posts.add(post);
+	        posts = readPosts(rs);
+	        rs.close();
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	    }
+
+	    return posts;
+	}
+
+	/***
+	 * <p> Method: ArrayList readPosts(ResultSet rs) </p>
+	 *
+	 * <p> Description: read every remaining row of a post query that joined in the thread name,
+	 * then load the tags of all those posts with one batch query </p>
+	 *
+	 * @param rs the result set of posts with a threadName column
+	 *
+	 * @return the ArrayList of Post, in the order of the result set
+	 *
+	 * @throws SQLException if a column cannot be read
+	 */
+	private ArrayList<Post> readPosts(ResultSet rs) throws SQLException {
+	    ArrayList<Post> posts = new ArrayList<>();
+	    ArrayList<Integer> ids = new ArrayList<>();
+	    while (rs.next()) {
+	        Post post = new Post(
+	            rs.getString("title"),
+	            rs.getString("subtitle"),
+	            rs.getString("content"),
+	            rs.getString("owner"),
+	            new ArrayList<>(),
+	            rs.getString("threadName")
+	        );
+	        post.setPostId(rs.getInt("id"));
+	        posts.add(post);
+	        ids.add(post.getPostId());
+	    }
+
+	    Map<Integer, ArrayList<String>> tags = getTagsForPosts(ids);
+	    for (Post post : posts) {
+	        for (String tag : tags.get(post.getPostId())) {
+	            post.addTag(tag);
 	        }
+	    }
+	    return posts;
+	}
 
-	        rs.close();
+	/***
+	 * <p> Method: Map getTagsForPosts(List postIds) </p>
+	 *
+	 * <p> Description: load the tags of many posts with one query instead of one query per
+	 * post </p>
+	 *
+	 * @param postIds the ids of the posts
+	 *
+	 * @return a map from every given post id to its tags in the order they were added; posts
+	 * without tags map to an empty list
+	 *
+	 */
+	public Map<Integer, ArrayList<String>> getTagsForPosts(List<Integer> postIds) {
+	    Map<Integer, ArrayList<String>> tags = new HashMap<>();
+	    for (int postId : postIds) {
+	        tags.put(postId, new ArrayList<>());
+	    }
+	    if (postIds.isEmpty()) return tags;
+
+	    String query = "SELECT postId, tag FROM PostTags WHERE postId = ANY(?) ORDER BY postId, position";
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
+	        pstmt.setArray(1, connection.createArrayOf("INTEGER", postIds.toArray()));
+	        try (ResultSet rs = pstmt.executeQuery()) {
+	            while (rs.next()) {
+	                tags.get(rs.getInt("postId")).add(rs.getString("tag"));
+	            }
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	    }
+	    return tags;
+	}
+
+	/***
+	 * <p> Method: ArrayList getPostsByTag(String tag, int lastSeenId, int limit) </p>
+	 *
+	 * <p> Description: return one page of the posts carrying a tag, newest first. The page is
+	 * read from the tag index in descending post id order, so it does not touch posts with other
+	 * tags or posts of earlier pages. </p>
+	 *
+	 * @param tag the tag to look for
+	 *
+	 * @param lastSeenId the id of the last post of the previous page, or 0 for the first page
+	 *
+	 * @param limit the maximum number of posts on the page
+	 *
+	 * @return the ArrayList of Post, newest first
+	 *
+	 */
+	public ArrayList<Post> getPostsByTag(String tag, int lastSeenId, int limit) {
+	    ArrayList<Post> posts = new ArrayList<>();
+
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(POSTS_BY_TAG_QUERY)) {
+	        pstmt.setString(1, tag);
+	        pstmt.setInt(2, lastSeenId > 0 ? lastSeenId : Integer.MAX_VALUE);
+	        pstmt.setInt(3, limit);
+	        try (ResultSet rs = pstmt.executeQuery()) {
+	            posts = readPosts(rs);
+	        }
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
 
 	    return posts;
 	}
-	
+
+	/***
+	 * <p> Method: Map getTagCounts() </p>
+	 *
+	 * <p> Description: count how many posts carry each tag </p>
+	 *
+	 * @return a map from tag to number of posts, most used tag first and ties in alphabetical
+	 * order
+	 *
+	 */
+	public Map<String, Integer> getTagCounts() {
+	    Map<String, Integer> counts = new LinkedHashMap<>();
+	    String query = "SELECT tag, COUNT(*) AS postCount FROM PostTags GROUP BY tag ORDER BY postCount DESC, tag";
+
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query);
+	         ResultSet rs = pstmt.executeQuery()) {
+	        while (rs.next()) {
+	            counts.put(rs.getString("tag"), rs.getInt("postCount"));
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	    }
+
+	    return counts;
+	}
+
+	/***
+	 * <p> Method: String postFeedQuery(String whereClause, boolean paged) </p>
+	 *
+	 * <p> Description: build the single query behind the post feed. Threads are joined in, and
+	 * the reply, read status and upvote figures of each post are correlated subqueries answered
+	 * through the indexes on postId, so a page of the feed only touches the rows of the posts on
+	 * that page. The first two parameters are always the viewing user's name, and a paged query
+	 * takes the page size as its last parameter. </p>
+	 *
+	 * @param whereClause an optional filter on the post table alias p, or an empty string
+	 *
+	 * @param paged true to end the query with a LIMIT parameter
+	 *
+	 * @return the SQL text of the feed query
+	 *
+	 */
+	private String postFeedQuery(String whereClause, boolean paged) {
+	    return """
+	        SELECT p.id, p.title, p.subtitle, p.content, p.owner, t.threadName,
+	               (SELECT LISTAGG(pt.tag, ',') WITHIN GROUP (ORDER BY pt.position)
+	                FROM PostTags pt WHERE pt.postId = p.id) AS tags,
+	               COALESCE(ps.replies, 0) AS replyCount,
+	               (SELECT COUNT(*) FROM Replies r
+	                WHERE r.postId = p.id
+	                  AND r.id > COALESCE((SELECT m.lastReadReplyId FROM ReplyReadMarks m
+	                                       WHERE m.postId = p.id AND m.userName = ?), 0)) AS unreadCount,
+	               COALESCE(ps.views, 0) AS views,
+	               COALESCE(ps.upvotes, 0) AS upvotes,
+	               (SELECT COUNT(*) FROM PostReadStatus prs
+	                WHERE prs.postId = p.id AND prs.userName = ? AND prs.isRead = TRUE) AS viewerRead
+	        FROM Posts p
+	        LEFT JOIN Threads t ON t.id = p.thread
+	        LEFT JOIN PostStats ps ON ps.postId = p.id
+	        """ + whereClause + " ORDER BY p.id DESC" + (paged ? " LIMIT ?" : "");
+	}
+
+	/***
+	 * <p> Method: PostFeedRow readPostFeedRow(ResultSet rs) </p>
+	 *
+	 * <p> Description: convert the current row of a feed query result into a PostFeedRow </p>
+	 *
+	 * @param rs the result set positioned on a feed row
+	 *
+	 * @return the PostFeedRow for the current row
+	 *
+	 * @throws SQLException if a column cannot be read
+	 */
+	private PostFeedRow readPostFeedRow(ResultSet rs) throws SQLException {
+	    Post post = new Post(
+	        rs.getString("title"),
+	        rs.getString("subtitle"),
+	        rs.getString("content"),
+	        rs.getString("owner"),
+	        splitTags(rs.getString("tags")),
+	        rs.getString("threadName")
+	    );
+	    post.setPostId(rs.getInt("id"));
+	    return new PostFeedRow(
+	        post,
+	        rs.getInt("replyCount"),
+	        rs.getInt("unreadCount"),
+	        rs.getInt("views"),
+	        rs.getInt("upvotes"),
+	        rs.getInt("viewerRead") > 0
+	    );
+	}
+
+	/***
+	 * <p> Method: ArrayList getPostFeedNewestFirst(String viewer) </p>
+	 *
+	 * <p> Description: return every post together with its thread name, tags, reply count,
+	 * view count, upvote count, and the viewer's read flag and unread reply count, using one
+	 * query for the whole feed </p>
+	 *
+	 * @param viewer is the username of the user viewing the feed
+	 *
+	 * @return the ArrayList of PostFeedRow, newest post first
+	 *
+	 */
+	public ArrayList<PostFeedRow> getPostFeedNewestFirst(String viewer) {
+	    return getPostFeed(new PostQuery(viewer));
+	}
+
+	/***
+	 * <p> Method: ArrayList getPostFeedFromUserNewestFirst(String owner, String viewer) </p>
+	 *
+	 * <p> Description: return the feed rows of all posts of specific owner/user, using one
+	 * query for the whole feed </p>
+	 *
+	 * @param owner is the post owner username
+	 *
+	 * @param viewer is the username of the user viewing the feed
+	 *
+	 * @return the ArrayList of PostFeedRow, newest post first
+	 *
+	 */
+	public ArrayList<PostFeedRow> getPostFeedFromUserNewestFirst(String owner, String viewer) {
+	    return getPostFeed(new PostQuery(viewer).ownedBy(owner));
+	}
+
+	/***
+	 * <p> Method: ArrayList getPostFeedPage(String viewer, int lastSeenId, int limit) </p>
+	 *
+	 * <p> Description: return one page of the feed, newest post first. The page starts right
+	 * after the post with id lastSeenId, so pages stay stable while new posts are being added.
+	 * Only the rows of this page are read from the database. </p>
+	 *
+	 * @param viewer is the username of the user viewing the feed
+	 *
+	 * @param lastSeenId the id of the last post of the previous page, or 0 for the first page
+	 *
+	 * @param limit the maximum number of posts on the page
+	 *
+	 * @return the ArrayList of PostFeedRow, newest post first; fewer than limit rows means
+	 * there are no older posts
+	 *
+	 */
+	public ArrayList<PostFeedRow> getPostFeedPage(String viewer, int lastSeenId, int limit) {
+	    return getPostFeed(new PostQuery(viewer).after(lastSeenId).limit(limit));
+	}
+
+	/***
+	 * <p> Method: ArrayList getPostFeedPageFromUser(String owner, String viewer, int lastSeenId,
+	 * int limit) </p>
+	 *
+	 * <p> Description: return one page of the feed of a specific owner/user, newest post
+	 * first. </p>
+	 *
+	 * @param owner is the post owner username
+	 *
+	 * @param viewer is the username of the user viewing the feed
+	 *
+	 * @param lastSeenId the id of the last post of the previous page, or 0 for the first page
+	 *
+	 * @param limit the maximum number of posts on the page
+	 *
+	 * @return the ArrayList of PostFeedRow, newest post first
+	 *
+	 */
+	public ArrayList<PostFeedRow> getPostFeedPageFromUser(String owner, String viewer, int lastSeenId, int limit) {
+	    return getPostFeed(new PostQuery(viewer).ownedBy(owner).after(lastSeenId).limit(limit));
+	}
+
+	/***
+	 * <p> Method: ArrayList getPostFeed(PostQuery query) </p>
+	 *
+	 * <p> Description: return the feed rows selected by a post query, newest post first. All
+	 * filters of the query are part of the WHERE clause, so the posts are filtered by one
+	 * statement. A keyset cursor on the post id, answered by the primary key index in
+	 * descending order, selects the page without reading the skipped posts. </p>
+	 *
+	 * @param query the filters, cursor and page size of the feed
+	 *
+	 * @return the ArrayList of PostFeedRow, newest post first
+	 *
+	 */
+	public ArrayList<PostFeedRow> getPostFeed(PostQuery query) {
+	    ArrayList<PostFeedRow> feed = new ArrayList<>();
+	    boolean paged = query.getLimit() > 0;
+
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(postFeedQuery(query.whereClause(), paged))) {
+	        pstmt.setString(1, query.getViewer());
+	        pstmt.setString(2, query.getViewer());
+	        int index = query.bind(pstmt, 3);
+	        if (paged) pstmt.setInt(index, query.getLimit());
+	        try (ResultSet rs = pstmt.executeQuery()) {
+	            while (rs.next()) {
+	                feed.add(readPostFeedRow(rs));
+	            }
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	    }
+
+	    return feed;
+	}
+
+	/***
+	 * <p> Method: ArrayList searchPostFeed(PostQuery query, String text, int offset, int limit) </p>
+	 *
+	 * <p> Description: return one page of the feed rows of the posts matching a search, best
+	 * match first. The posts are ranked by the search index over their titles, subtitles,
+	 * content, tags and replies; the filters of the query then drop the ranked posts they do
+	 * not pass with one statement, and only the rows of the page are read. Each row carries
+	 * the snippet of its content or replies showing the searched words, cut by the index
+	 * from the text and positions it keeps, so no content is read for it. Pages are selected
+	 * by position in the ranking, so the query should not set a cursor or page size. When no
+	 * word of the search is indexed, the posts whose title is within a few typing mistakes of
+	 * the search are listed instead, closest first. </p>
+	 *
+	 * @param query the filters of the feed
+	 *
+	 * @param text the words to search for
+	 *
+	 * @param offset the number of matching posts on the earlier pages
+	 *
+	 * @param limit the maximum number of posts on the page, or 0 for no limit
+	 *
+	 * @return the ArrayList of PostFeedRow, best match first; fewer than limit rows means
+	 * there are no further matches
+	 *
+	 */
+	public ArrayList<PostFeedRow> searchPostFeed(PostQuery query, String text, int offset, int limit) {
+	    ArrayList<PostFeedRow> feed = new ArrayList<>();
+	    List<Integer> ranked = searchIndex.rank(text);
+	    if (ranked.isEmpty()) {
+	        // No word matched as typed; offer the posts whose title is close to the search instead
+	        for (FuzzyMatch<Integer> match : findPostsByTitle(text, 0)) ranked.add(match.getKey());
+	    }
+	    if (ranked.isEmpty()) return feed;
+
+	    try (Connection connection = getConnection()) {
+	        if (!query.whereClause().isEmpty()) ranked = filterPostIds(connection, query, ranked);
+	        int from = Math.min(Math.max(0, offset), ranked.size());
+	        int to = limit > 0 ? Math.min(ranked.size(), from + limit) : ranked.size();
+	        List<Integer> pageIds = ranked.subList(from, to);
+	        if (pageIds.isEmpty()) return feed;
+
+	        Map<Integer, PostFeedRow> rows = new HashMap<>();
+	        try (PreparedStatement pstmt = connection.prepareStatement(postFeedQuery("WHERE p.id = ANY(?)", false))) {
+	            pstmt.setString(1, query.getViewer());
+	            pstmt.setString(2, query.getViewer());
+	            pstmt.setArray(3, connection.createArrayOf("INTEGER", pageIds.toArray()));
+	            try (ResultSet rs = pstmt.executeQuery()) {
+	                while (rs.next()) {
+	                    PostFeedRow row = readPostFeedRow(rs);
+	                    rows.put(row.getPostId(), row);
+	                }
+	            }
+	        }
+	        Map<Integer, Snippet> snippets = searchIndex.snippets(text, pageIds);
+	        for (int postId : pageIds) {
+	            if (rows.containsKey(postId)) feed.add(rows.get(postId).withSnippet(snippets.get(postId)));
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	    }
+
+	    return feed;
+	}
+
+	/***
+	 * <p> Method: List filterPostIds(Connection connection, PostQuery query, List postIds) </p>
+	 *
+	 * <p> Description: keep the posts that pass the filters of a post query, checked for all
+	 * the posts at once. </p>
+	 *
+	 * @param connection the connection to query with
+	 *
+	 * @param query the filters
+	 *
+	 * @param postIds the ids of the posts, in the order to keep
+	 *
+	 * @return the ids of the posts passing the filters, in the given order
+	 *
+	 * @throws SQLException if the query fails
+	 */
+	private List<Integer> filterPostIds(Connection connection, PostQuery query, List<Integer> postIds) throws SQLException {
+	    String sql = "SELECT p.id FROM Posts p LEFT JOIN Threads t ON t.id = p.thread "
+	               + query.whereClause() + " AND p.id = ANY(?)";
+	    Set<Integer> passing = new HashSet<>();
+	    try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+	        int index = query.bind(pstmt, 1);
+	        pstmt.setArray(index, connection.createArrayOf("INTEGER", postIds.toArray()));
+	        try (ResultSet rs = pstmt.executeQuery()) {
+	            while (rs.next()) passing.add(rs.getInt(1));
+	        }
+	    }
+	    List<Integer> kept = new ArrayList<>();
+	    for (int postId : postIds) {
+	        if (passing.contains(postId)) kept.add(postId);
+	    }
+	    return kept;
+	}
+
 	/**
 	 * <p> Method: getNumberOfPosts(String userName) </p>
 	 * 
@@ -1913,11 +3249,10 @@ public class Database {
 	 *         returns 0 if no posts exist or if a database error occurs
 	 */
 	public int getNumberOfPosts(String userName) {
-	    String sql = "SELECT COUNT(*) AS postCount " +
-	                 "FROM Posts " +
-	                 "WHERE owner = ?";
+	    String sql = POST_COUNT_OF_OWNER_QUERY;
 
-	    try (PreparedStatement ps = connection.prepareStatement(sql)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps = connection.prepareStatement(sql)) {
 	        ps.setString(1, userName);
 
 	        try (ResultSet rs = ps.executeQuery()) {
@@ -1949,7 +3284,8 @@ public class Database {
 	 */
 	public boolean doesPostExistByTitle(String title) {
 	    String sql = "SELECT 1 FROM Posts WHERE title = ? LIMIT 1";
-	    try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(sql)) {
 	        pstmt.setString(1, title);
 	        try (ResultSet rs = pstmt.executeQuery()) {
 	            return rs.next();
@@ -1979,7 +3315,8 @@ public class Database {
 	        WHERE prs.userName = ? AND prs.postId = ?
 	    """;
 
-	    try (PreparedStatement ps = connection.prepareStatement(sql)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps = connection.prepareStatement(sql)) {
 	        ps.setString(1, username);
 	        ps.setInt(2, postId);
 
@@ -2031,11 +3368,13 @@ public class Database {
 	 */
 	public void updatePostTitle(int postId, String title) throws SQLException {
 	    String query = "UPDATE Posts SET title = ? WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, title);
 	        pstmt.setInt(2, postId);
 	        pstmt.executeUpdate();
 	    }
+	    reindexPost(postId);
 	}
 	
 	/***
@@ -2051,11 +3390,13 @@ public class Database {
 	 */
 	public void updatePostSubtitle(int postId, String subtitle) throws SQLException {
 	    String query = "UPDATE Posts SET subtitle = ? WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, subtitle);
 	        pstmt.setInt(2, postId);
 	        pstmt.executeUpdate();
 	    }
+	    reindexPost(postId);
 	}
 	
 	/***
@@ -2071,17 +3412,21 @@ public class Database {
 	 */
 	public void updatePostContent(int postId, String content) throws SQLException {
 	    String query = "UPDATE Posts SET content = ? WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, content);
 	        pstmt.setInt(2, postId);
 	        pstmt.executeUpdate();
 	    }
+	    reindexPost(postId);
 	}
 	
 	/***
 	 * <p> Method: void updatePostOwnerUsername(int postId, String owner) </p>
 	 * 
-	 * <p> Description: update/edit owner username of a particular post </p>
+	 * <p> Description: update/edit owner username of a particular post. The post and the
+	 * views, upvotes and replies it has received move to the counters of the new owner in the
+	 * same transaction. </p>
 	 * 
 	 * @param postId is the unique post id for each post
 	 * 
@@ -2090,10 +3435,29 @@ public class Database {
 	 */
 	public void updatePostOwnerUsername(int postId, String owner) {
 	    String query = "UPDATE Posts SET owner = ? WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-	        pstmt.setString(1, owner);
-	        pstmt.setInt(2, postId);
-	        pstmt.executeUpdate();
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
+	        boolean ownsTransaction = connection.getAutoCommit();
+	        if (ownsTransaction) connection.setAutoCommit(false);
+	        try {
+	            String oldOwner = findPostOwner(connection, postId);
+	            PostStats stats = getPostStats(postId);
+	            pstmt.setString(1, owner);
+	            pstmt.setInt(2, postId);
+	            if (pstmt.executeUpdate() > 0 && stats != null) {
+	                addStudentActivity(connection, oldOwner, -1, 0, oldOwner,
+	                        -stats.getViews(), -stats.getReplies(), -stats.getUpvotes());
+	                addStudentActivity(connection, owner, 1, 0, owner,
+	                        stats.getViews(), stats.getReplies(), stats.getUpvotes());
+	            }
+	            if (ownsTransaction) connection.commit();
+	        } catch (SQLException e) {
+	            if (ownsTransaction) connection.rollback();
+	            throw e;
+	        } finally {
+	            if (ownsTransaction) connection.setAutoCommit(true);
+	        }
+	        if (ownsTransaction) flushGradeChanges();
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
@@ -2111,7 +3475,8 @@ public class Database {
 	 */
 	public void updatePostThread(int postId, String thread) {
 	    String query = "UPDATE Posts SET thread = ? WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, thread);
 	        pstmt.setInt(2, postId);
 	        pstmt.executeUpdate();
@@ -2131,23 +3496,22 @@ public class Database {
 	 * 
 	 */
 	public void addPostTag(int postId, String tag) {
-	    ArrayList<String> tagsList = getPostTags(postId);
-
-	    // Avoid duplicates
-	    if (!tagsList.contains(tag)) {
-	        tagsList.add(tag);
-	    }
-
-	    String newTags = String.join(",", tagsList);
-
-	    String updateQuery = "UPDATE Posts SET tags = ? WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(updateQuery)) {
-	        pstmt.setString(1, newTags);
-	        pstmt.setInt(2, postId);
+	    // Avoid duplicates; a new tag goes after the existing ones
+	    String insertQuery = "INSERT INTO PostTags (postId, tag, position) "
+	                       + "SELECT ?, ?, COALESCE(MAX(position), -1) + 1 FROM PostTags WHERE postId = ? "
+	                       + "HAVING NOT EXISTS (SELECT 1 FROM PostTags WHERE postId = ? AND tag = ?)";
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(insertQuery)) {
+	        pstmt.setInt(1, postId);
+	        pstmt.setString(2, tag);
+	        pstmt.setInt(3, postId);
+	        pstmt.setInt(4, postId);
+	        pstmt.setString(5, tag);
 	        pstmt.executeUpdate();
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
+	    reindexPost(postId);
 	}
 	
 	/***
@@ -2161,21 +3525,17 @@ public class Database {
 	 * 
 	 */
 	public void removePostTag(int postId, String tag) {
-	    ArrayList<String> tagsList = getPostTags(postId);
-
 	    // Remove matching tag (case-insensitive)
-	    tagsList.removeIf(t -> t.equalsIgnoreCase(tag));
-
-	    String newTags = String.join(",", tagsList);
-
-	    String updateQuery = "UPDATE Posts SET tags = ? WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(updateQuery)) {
-	        pstmt.setString(1, newTags);
-	        pstmt.setInt(2, postId);
+	    String deleteQuery = "DELETE FROM PostTags WHERE postId = ? AND LOWER(tag) = LOWER(?)";
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(deleteQuery)) {
+	        pstmt.setInt(1, postId);
+	        pstmt.setString(2, tag);
 	        pstmt.executeUpdate();
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
+	    reindexPost(postId);
 	}
     
 	/***
@@ -2190,13 +3550,15 @@ public class Database {
 	 */
 	public void addPostReply(int postId, int replyId) {
 	    String query = "UPDATE Replies SET postId = ? WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setInt(1, postId);
 	        pstmt.setInt(2, replyId);
 	        pstmt.executeUpdate();
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
+	    reindexReply(replyId);
 	}
 
 	/***
@@ -2212,38 +3574,67 @@ public class Database {
 	 */
 	public void removePostReply(int postId, int replyId) {
 	    String query = "UPDATE Replies SET postId = NULL WHERE id = ? AND postId = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setInt(1, replyId);
 	        pstmt.setInt(2, postId);
 	        pstmt.executeUpdate();
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
+	    reindexReply(replyId);
 	}
 	
 	/***
 	 * <p> Method: void deletePost(int postId) </p>
 	 * 
-	 * <p> Description: delete a post object from post table without deleting its replies </p>
+	 * <p> Description: delete a post object from post table without deleting its replies.
+	 * The read status rows and the counters of the post are removed in the same
+	 * transaction, and the post, its views, upvotes and replies are taken off the counters
+	 * of its owner. Readers of the post have it taken off their read post counters. </p>
 	 * 
 	 * @param postId is the unique post id for each post
 	 * 
 	 */
 	public void deletePost(int postId) {
-	    try {
-	        // Delete from PostReadStatus table first
-	        String deletePostReadStatusQuery = "DELETE FROM PostReadStatus WHERE postId = ?";
-	        try (PreparedStatement pstmt1 = connection.prepareStatement(deletePostReadStatusQuery)) {
+	    String deletePostReadStatusQuery = DELETE_POST_READ_STATUS_QUERY;
+	    String deletePostStatsQuery = "DELETE FROM PostStats WHERE postId = ?";
+	    String deletePostQuery = "DELETE FROM Posts WHERE id = ?";
+	    String unreadCountsQuery = "UPDATE UnreadCounts SET readPosts = readPosts - 1 WHERE userName IN "
+	                             + "(SELECT userName FROM PostReadStatus WHERE postId = ? AND isRead = TRUE)";
+	    try (Connection connection = getConnection();
+	         PreparedStatement readers = connection.prepareStatement(unreadCountsQuery);
+	         PreparedStatement pstmt1 = connection.prepareStatement(deletePostReadStatusQuery);
+	         PreparedStatement pstmt2 = connection.prepareStatement(deletePostStatsQuery);
+	         PreparedStatement pstmt3 = connection.prepareStatement(deletePostQuery)) {
+	        boolean ownsTransaction = connection.getAutoCommit();
+	        if (ownsTransaction) connection.setAutoCommit(false);
+	        try {
+	            String owner = findPostOwner(connection, postId);
+	            PostStats stats = getPostStats(postId);
+	            // Take the post off the read counters of its readers, delete from PostReadStatus
+	            // and PostStats, then the post itself
+	            readers.setInt(1, postId);
+	            readers.executeUpdate();
 	            pstmt1.setInt(1, postId);
 	            pstmt1.executeUpdate();
+	            pstmt2.setInt(1, postId);
+	            pstmt2.executeUpdate();
+	            pstmt3.setInt(1, postId);
+	            if (pstmt3.executeUpdate() > 0 && stats != null) {
+	                addStudentActivity(connection, owner, -1, 0, owner,
+	                        -stats.getViews(), -stats.getReplies(), -stats.getUpvotes());
+	            }
+	            if (ownsTransaction) connection.commit();
+	        } catch (SQLException e) {
+	            if (ownsTransaction) connection.rollback();
+	            throw e;
+	        } finally {
+	            if (ownsTransaction) connection.setAutoCommit(true);
 	        }
-	        
-	        // Delete the post itself
-	        String deletePostQuery = "DELETE FROM Posts WHERE id = ?";
-	        try (PreparedStatement pstmt4 = connection.prepareStatement(deletePostQuery)) {
-	            pstmt4.setInt(1, postId);
-	            pstmt4.executeUpdate();
-	        }
+	        if (!ownsTransaction) return;
+	        flushGradeChanges();
+	        reindexPost(postId);
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
@@ -2252,7 +3643,8 @@ public class Database {
 	/*******
 	 * <p> Method: makeReply(Post post) </p>
 	 * 
-	 * <p> Description: make replies use attributes of the object reply </p>
+	 * <p> Description: make replies use attributes of the object reply. The reply counters of
+	 * the post, of the replier and of the post owner are raised in the same transaction. </p>
 	 * 
 	 * @throws SQLException when there is an issue creating the SQL command or executing it.
 	 * 
@@ -2265,22 +3657,42 @@ public class Database {
 	    String insertReply = "INSERT INTO Replies (content, owner, postId) VALUES (?, ?, ?)";
 	    int generatedId = -1;
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(insertReply, Statement.RETURN_GENERATED_KEYS)) {
-	        pstmt.setString(1, reply.getContent());
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(insertReply, Statement.RETURN_GENERATED_KEYS);
+	         PreparedStatement stats = connection.prepareStatement(ADD_POST_REPLIES)) {
+	        boolean ownsTransaction = connection.getAutoCommit();
+	        if (ownsTransaction) connection.setAutoCommit(false);
+	        try {
+	            pstmt.setString(1, reply.getContent());
 	        
-	        pstmt.setString(2, reply.getOwner());
+	            pstmt.setString(2, reply.getOwner());
 	        
-	        pstmt.setInt(3, reply.getPostId());
+	            pstmt.setInt(3, reply.getPostId());
 
-	        pstmt.executeUpdate();
+	            pstmt.executeUpdate();
 
-	        // Get the auto-generated reply ID
-	        try (ResultSet rs = pstmt.getGeneratedKeys()) {
-	            if (rs.next()) {
-	                generatedId = rs.getInt(1);
+	            // Get the auto-generated reply ID
+	            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+	                if (rs.next()) {
+	                    generatedId = rs.getInt(1);
+	                }
 	            }
+	            stats.setInt(1, 1);
+	            stats.setInt(2, reply.getPostId());
+	            stats.executeUpdate();
+	            addStudentActivity(connection, reply.getOwner(), 0, 1,
+	                    findPostOwner(connection, reply.getPostId()), 0, 1, 0);
+	            if (ownsTransaction) connection.commit();
+	        } catch (SQLException e) {
+	            if (ownsTransaction) connection.rollback();
+	            throw e;
+	        } finally {
+	            if (ownsTransaction) connection.setAutoCommit(true);
 	        }
+	        if (!ownsTransaction) return generatedId;
 	    }
+	    flushGradeChanges();
+	    reindexReply(generatedId);
 
 	    return generatedId;
 	}
@@ -2297,7 +3709,8 @@ public class Database {
 	 */
 	public String getReplyContent(int replyId) {
 	    String query = "SELECT content FROM Replies WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setInt(1, replyId);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -2323,7 +3736,8 @@ public class Database {
 	 */
 	public String getReplyOwnerUsername(int replyId) {
 	    String query = "SELECT owner FROM Replies WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setInt(1, replyId);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -2349,7 +3763,8 @@ public class Database {
 	 */
 	public int getReplyPostId(int replyId) {
 	    String query = "SELECT postId FROM Replies WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setInt(1, replyId);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -2375,9 +3790,10 @@ public class Database {
 	 */
 	public ArrayList<Reply> getRepliesByPostId(int postId) {
 	    ArrayList<Reply> replies = new ArrayList<>();
-	    String query = "SELECT * FROM Replies WHERE postId = ? ORDER BY id ASC"; // ASC = oldest to newest
+	    String query = REPLIES_OF_POST_QUERY; // ASC = oldest to newest
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setInt(1, postId);
 	        ResultSet rs = pstmt.executeQuery();
 
@@ -2408,11 +3824,10 @@ public class Database {
 	 *         returns 0 if no replies exist or if a database error occurs
 	 */
 	public int getNumberOfReplies(String userName) {
-	    String sql = "SELECT COUNT(*) AS replyCount " +
-	                 "FROM Replies " +
-	                 "WHERE owner = ?";
+	    String sql = REPLY_COUNT_OF_OWNER_QUERY;
 
-	    try (PreparedStatement ps = connection.prepareStatement(sql)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps = connection.prepareStatement(sql)) {
 	        ps.setString(1, userName);
 
 	        try (ResultSet rs = ps.executeQuery()) {
@@ -2446,18 +3861,13 @@ public class Database {
 	public ArrayList<Reply> getUnreadReplies(String userName, int postId) {
         ArrayList<Reply> unreadReplies = new ArrayList<>();
 
-        String sql = """
-            SELECT r.*
-            FROM Replies r
-            LEFT JOIN ReplyReadStatus rrs 
-                ON r.id = rrs.replyId AND rrs.userName = ?
-            WHERE (rrs.isRead = FALSE OR rrs.isRead IS NULL)
-              AND r.postId = ?
-        """;
+        String sql = UNREAD_REPLIES_QUERY;
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, userName);
-            ps.setInt(2, postId);
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, postId);
+            ps.setString(2, userName);
+            ps.setInt(3, postId);
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -2491,17 +3901,20 @@ public class Database {
 	 */
 	public void updateReplyContent(int replyId, String content) throws SQLException {
 	    String query = "UPDATE Replies SET content = ? WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, content);
 	        pstmt.setInt(2, replyId);
 	        pstmt.executeUpdate();
 	    }
+	    reindexReply(replyId);
 	}
 	
 	/***
 	 * <p> Method: void updateReplyOwnerUsername(int replyId, String owner) </p>
 	 * 
-	 * <p> Description: update the reply owner username </p>
+	 * <p> Description: update the reply owner username, moving the reply to the reply
+	 * counter of the new owner in the same transaction </p>
 	 * 
 	 * @param replyId is the unique id for each reply
 	 * 
@@ -2510,37 +3923,86 @@ public class Database {
 	 * @throws SQLException if issue occurred
 	 */
 	public void updateReplyOwnerUsername(int replyId, String owner) throws SQLException {
+	    String findOwner = "SELECT owner FROM Replies WHERE id = ?";
 	    String query = "UPDATE Replies SET owner = ? WHERE id = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-	        pstmt.setString(1, owner);
-	        pstmt.setInt(2, replyId);
-	        pstmt.executeUpdate();
+	    try (Connection connection = getConnection();
+	         PreparedStatement find = connection.prepareStatement(findOwner);
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
+	        boolean ownsTransaction = connection.getAutoCommit();
+	        if (ownsTransaction) connection.setAutoCommit(false);
+	        try {
+	            find.setInt(1, replyId);
+	            String oldOwner = null;
+	            try (ResultSet rs = find.executeQuery()) {
+	                if (rs.next()) oldOwner = rs.getString("owner");
+	            }
+	            pstmt.setString(1, owner);
+	            pstmt.setInt(2, replyId);
+	            if (pstmt.executeUpdate() > 0) {
+	                addStudentActivity(connection, oldOwner, 0, -1, null, 0, 0, 0);
+	                addStudentActivity(connection, owner, 0, 1, null, 0, 0, 0);
+	            }
+	            if (ownsTransaction) connection.commit();
+	        } catch (SQLException e) {
+	            if (ownsTransaction) connection.rollback();
+	            throw e;
+	        } finally {
+	            if (ownsTransaction) connection.setAutoCommit(true);
+	        }
+	        if (ownsTransaction) flushGradeChanges();
 	    }
 	}
 	
 	/***
 	 * <p> Method: void deleteReply(int replyId) </p>
 	 * 
-	 * <p> Description: delete a specific reply from reply table </p>
+	 * <p> Description: delete a specific reply from reply table, and lower the reply
+	 * counters of its post, of the replier and of the post owner in the same transaction </p>
 	 * 
 	 * @param replyId is the unique id for each reply
 	 * 
 	 */
 	public void deleteReply(int replyId) {
-	    try {
-	        // First delete from ReplyReadStatus table
-	        String deleteReadStatusQuery = "DELETE FROM ReplyReadStatus WHERE replyId = ?";
-	        try (PreparedStatement pstmt1 = connection.prepareStatement(deleteReadStatusQuery)) {
+	    // Read watermarks are per post, so nothing else refers to the reply
+	    String findPostQuery = "SELECT postId, owner FROM Replies WHERE id = ?";
+	    String deleteReplyQuery = "DELETE FROM Replies WHERE id = ?";
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt1 = connection.prepareStatement(findPostQuery);
+	         PreparedStatement pstmt2 = connection.prepareStatement(deleteReplyQuery);
+	         PreparedStatement stats = connection.prepareStatement(ADD_POST_REPLIES)) {
+	        boolean ownsTransaction = connection.getAutoCommit();
+	        if (ownsTransaction) connection.setAutoCommit(false);
+	        try {
 	            pstmt1.setInt(1, replyId);
-	            pstmt1.executeUpdate();
-	        }
-	        
-	        // Then delete the reply itself
-	        String deleteReplyQuery = "DELETE FROM Replies WHERE id = ?";
-	        try (PreparedStatement pstmt2 = connection.prepareStatement(deleteReplyQuery)) {
+	            Integer postId = null;
+	            String replier = null;
+	            try (ResultSet rs = pstmt1.executeQuery()) {
+	                if (rs.next()) {
+	                    postId = (Integer) rs.getObject("postId");
+	                    replier = rs.getString("owner");
+	                }
+	            }
 	            pstmt2.setInt(1, replyId);
-	            pstmt2.executeUpdate();
+	            if (pstmt2.executeUpdate() > 0) {
+	                String postOwner = null;
+	                if (postId != null) {
+	                    stats.setInt(1, -1);
+	                    stats.setInt(2, postId);
+	                    stats.executeUpdate();
+	                    postOwner = findPostOwner(connection, postId);
+	                }
+	                addStudentActivity(connection, replier, 0, -1, postOwner, 0, postId != null ? -1 : 0, 0);
+	            }
+	            if (ownsTransaction) connection.commit();
+	        } catch (SQLException e) {
+	            if (ownsTransaction) connection.rollback();
+	            throw e;
+	        } finally {
+	            if (ownsTransaction) connection.setAutoCommit(true);
 	        }
+	        if (!ownsTransaction) return;
+	        flushGradeChanges();
+	        reindexReply(replyId);
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
@@ -2550,7 +4012,8 @@ public class Database {
 	/**
 	 * <p> Method: void markPostAsRead(String userName, int postId) </p>
 	 * 
-	 * <p> Description: Mark a post as read by a specific user.</p>
+	 * <p> Description: Mark a post as read by a specific user. The first time a user reads
+	 * a post, its view counter is raised in the same transaction.</p>
 	 * 
 	 * @param userName The username of the user reading the post.
 	 * 
@@ -2558,47 +4021,124 @@ public class Database {
 	 * 
 	 */
 	public void markPostAsRead(String userName, int postId) {
-	    String sql = "MERGE INTO PostReadStatus (userName, postId, isRead, upvotes) "
-	                 + "KEY(userName, postId) "
-	                 + "VALUES (?, ?, TRUE, COALESCE((SELECT upvotes FROM PostReadStatus "
-	                 + "WHERE userName = ? AND postId = ?), 0))";
-
-	    try (PreparedStatement ps = connection.prepareStatement(sql)) {
-	        ps.setString(1, userName);
-	        ps.setInt(2, postId);
-	        ps.setString(3, userName);
-	        ps.setInt(4, postId);
-	        ps.executeUpdate();
-	    } catch (SQLException e) {
-	        e.printStackTrace();
-	    }
+	    recordPostActivity(userName, postId, 0);
 	}
 	
 	/**
 	 * <p> Method: void makePostUpvote(String userName, int postId) </p>
 	 * 
-	 * <P> Description: Records an upvote for a specific post by a given user. </p>
+	 * <P> Description: Records an upvote for a specific post by a given user. Upvoting also
+	 * marks the post as read, and the upvote and view counters of the post are updated in the
+	 * same transaction. </p>
 	 *
 	 * @param userName the username of the user giving the upvote
 	 * @param postId the ID of the post being upvoted
 	 */
 	public void makePostUpvote(String userName, int postId) {
-	    String sql = 
-	        "MERGE INTO PostReadStatus (userName, postId, upvotes, isRead) " +
-	        "KEY(userName, postId) " +
-	        "VALUES (?, ?, COALESCE((SELECT upvotes FROM PostReadStatus WHERE userName = ? AND postId = ?), 0) + 1, TRUE)";
-
-	    try (PreparedStatement ps = connection.prepareStatement(sql)) {
-	        ps.setString(1, userName);
-	        ps.setInt(2, postId);
-	        ps.setString(3, userName);
-	        ps.setInt(4, postId);
+	    recordPostActivity(userName, postId, 1);
+	}
 
-	        ps.executeUpdate();
+	/**
+	 * <p> Method: void recordPostActivity(String userName, int postId, int upvotes) </p>
+	 * 
+	 * <P> Description: Mark a post as read by a user and add upvotes from them, keeping the
+	 * counters of the post, of its owner and the read post counter of the user in step. The read
+	 * status row of the user is locked while it is changed, so a view is only counted once per
+	 * user. When the user has no read status row yet, two activities at once both insert one;
+	 * the one that loses on the unique key is retried and then finds the row of the other. </p>
+	 *
+	 * @param userName the username of the user reading the post
+	 * @param postId the ID of the post
+	 * @param upvotes the number of upvotes to add, 0 to only mark the post read
+	 */
+	private void recordPostActivity(String userName, int postId, int upvotes) {
+	    try (Connection connection = getConnection()) {
+	        // Only an attempt in a transaction of its own is rolled back and can be retried
+	        boolean ownsTransaction = connection.getAutoCommit();
+	        try {
+	            recordPostActivityOnce(userName, postId, upvotes);
+	        } catch (SQLException e) {
+	            if (!ownsTransaction || !DUPLICATE_KEY_STATE.equals(e.getSQLState())) throw e;
+	            recordPostActivityOnce(userName, postId, upvotes);
+	        }
+	        if (ownsTransaction) flushGradeChanges();
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
 	}
+
+	/**
+	 * <p> Method: void recordPostActivityOnce(String userName, int postId, int upvotes) </p>
+	 * 
+	 * <P> Description: One attempt of {@link #recordPostActivity(String, int, int)}, in one
+	 * transaction that is rolled back if it fails, or in the transaction the caller already has
+	 * open. A post without a PostStats row gets one counted from the base tables, which already
+	 * include this activity. </p>
+	 *
+	 * @param userName the username of the user reading the post
+	 * @param postId the ID of the post
+	 * @param upvotes the number of upvotes to add, 0 to only mark the post read
+	 * @throws SQLException if the activity cannot be recorded; nothing is changed in that case
+	 *         unless it ran in the caller's transaction
+	 */
+	private void recordPostActivityOnce(String userName, int postId, int upvotes) throws SQLException {
+	    String findStatus = "SELECT isRead, upvotes FROM PostReadStatus WHERE userName = ? AND postId = ? FOR UPDATE";
+	    String insertStatus = "INSERT INTO PostReadStatus (userName, postId, isRead, upvotes) VALUES (?, ?, TRUE, ?)";
+	    String updateStatus = "UPDATE PostReadStatus SET isRead = TRUE, upvotes = COALESCE(upvotes, 0) + ? "
+	                        + "WHERE userName = ? AND postId = ?";
+	    String updateStats = "UPDATE PostStats SET views = views + ?, upvotes = upvotes + ? WHERE postId = ?";
+	    String countStats = "MERGE INTO PostStats (postId, views, upvotes, replies) KEY (postId) "
+	                      + POST_STATS_FROM_BASE_TABLES + " WHERE p.id = ?";
+
+	    try (Connection connection = getConnection();
+	         PreparedStatement find = connection.prepareStatement(findStatus);
+	         PreparedStatement insert = connection.prepareStatement(insertStatus);
+	         PreparedStatement update = connection.prepareStatement(updateStatus);
+	         PreparedStatement stats = connection.prepareStatement(updateStats)) {
+	        boolean ownsTransaction = connection.getAutoCommit();
+	        if (ownsTransaction) connection.setAutoCommit(false);
+	        try {
+	            find.setString(1, userName);
+	            find.setInt(2, postId);
+	            boolean newView;
+	            try (ResultSet rs = find.executeQuery()) {
+	                if (rs.next()) {
+	                    newView = !rs.getBoolean("isRead");
+	                    update.setInt(1, upvotes);
+	                    update.setString(2, userName);
+	                    update.setInt(3, postId);
+	                    update.executeUpdate();
+	                } else {
+	                    newView = true;
+	                    insert.setString(1, userName);
+	                    insert.setInt(2, postId);
+	                    insert.setInt(3, upvotes);
+	                    insert.executeUpdate();
+	                }
+	            }
+	            if (newView || upvotes != 0) {
+	                stats.setInt(1, newView ? 1 : 0);
+	                stats.setInt(2, upvotes);
+	                stats.setInt(3, postId);
+	                if (stats.executeUpdate() == 0) {
+	                    try (PreparedStatement count = connection.prepareStatement(countStats)) {
+	                        count.setInt(1, postId);
+	                        count.executeUpdate();
+	                    }
+	                }
+	                addStudentActivity(connection, null, 0, 0, findPostOwner(connection, postId),
+	                        newView ? 1 : 0, 0, upvotes);
+	            }
+	            if (newView) addUnreadCounts(connection, userName, 0, 1, 0);
+	            if (ownsTransaction) connection.commit();
+	        } catch (SQLException e) {
+	            if (ownsTransaction) connection.rollback();
+	            throw e;
+	        } finally {
+	            if (ownsTransaction) connection.setAutoCommit(true);
+	        }
+	    }
+	}
 	
 	/**
 	 * <p> Method: int getPostViews(int postId) </p>
@@ -2609,16 +4149,15 @@ public class Database {
 	 * @return the total number of views for the specified post, or 0 if no views exist or a database error occurs
 	 */
 	public int getPostViews(int postId) {
-	    String sql = "SELECT COUNT(*) AS totalViews "
-	               + "FROM PostReadStatus "
-	               + "WHERE postId = ? AND isRead = TRUE";
+	    String sql = POST_STATS_QUERY;
 
-	    try (PreparedStatement ps = connection.prepareStatement(sql)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps = connection.prepareStatement(sql)) {
 	        ps.setInt(1, postId);
 	        ResultSet rs = ps.executeQuery();
 
 	        if (rs.next()) {
-	            return rs.getInt("totalViews");
+	            return rs.getInt("views");
 	        }
 	    } catch (SQLException e) {
 	        e.printStackTrace();
@@ -2637,16 +4176,15 @@ public class Database {
 	 *         returns 0 if no upvotes exist or if a database error occurs
 	 */
 	public int getPostUpvotes(int postId) {
-	    String sql = "SELECT COALESCE(SUM(upvotes), 0) AS totalUpvotes "
-	               + "FROM PostReadStatus "
-	               + "WHERE postId = ?";
+	    String sql = POST_STATS_QUERY;
 
-	    try (PreparedStatement ps = connection.prepareStatement(sql)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps = connection.prepareStatement(sql)) {
 	        ps.setInt(1, postId);
 	        ResultSet rs = ps.executeQuery();
 
 	        if (rs.next()) {
-	            return rs.getInt("totalUpvotes");
+	            return rs.getInt("upvotes");
 	        }
 	    } catch (SQLException e) {
 	        e.printStackTrace();
@@ -2656,9 +4194,248 @@ public class Database {
 	}
 	
 	/**
-	 * <p> Method:boolean isUpvoted(String username, int postId) </p>
+	 * <p> Method: PostStats getPostStats(int postId) </p>
 	 * 
-	 * <P> Description: Checks whether a specific user has upvoted a particular post. </p>
+	 * <P> Description: Retrieves the stored view, upvote and reply counters of a post with a
+	 * single primary key lookup. </p>
+	 *
+	 * @param postId the ID of the post
+	 * @return the counters of the post, or null if the post has none or a database error occurs
+	 */
+	public PostStats getPostStats(int postId) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps = connection.prepareStatement(POST_STATS_QUERY)) {
+	        ps.setInt(1, postId);
+	        try (ResultSet rs = ps.executeQuery()) {
+	            if (rs.next()) {
+	                return new PostStats(postId, rs.getInt("views"), rs.getInt("upvotes"), rs.getInt("replies"));
+	            }
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	    }
+	    return null;
+	}
+
+	/**
+	 * <p> Method: ArrayList&lt;String&gt; rebuildPostStats() </p>
+	 * 
+	 * <P> Description: Consistency check for the post counters. Counts the views, upvotes and
+	 * replies of every post again from the read status and reply tables, compares them with the
+	 * stored counters and rewrites every counter that has drifted, in one transaction. </p>
+	 *
+	 * @return one line per post whose counters were wrong or missing, describing the stored
+	 *         and the recounted values; empty when every counter was right
+	 */
+	public ArrayList<String> rebuildPostStats() {
+	    ArrayList<String> drift = new ArrayList<>();
+	    String findDrift = "SELECT a.postId, a.views, a.upvotes, a.replies, "
+	            + "s.postId AS storedId, s.views AS storedViews, s.upvotes AS storedUpvotes, s.replies AS storedReplies "
+	            + "FROM (" + POST_STATS_FROM_BASE_TABLES + ") a "
+	            + "LEFT JOIN PostStats s ON s.postId = a.postId "
+	            + "WHERE s.postId IS NULL OR s.views <> a.views OR s.upvotes <> a.upvotes OR s.replies <> a.replies "
+	            + "ORDER BY a.postId";
+	    String repair = "MERGE INTO PostStats (postId, views, upvotes, replies) KEY (postId) VALUES (?, ?, ?, ?)";
+
+	    try (Connection connection = getConnection();
+	         PreparedStatement find = connection.prepareStatement(findDrift);
+	         PreparedStatement merge = connection.prepareStatement(repair)) {
+	        boolean ownsTransaction = connection.getAutoCommit();
+	        if (ownsTransaction) connection.setAutoCommit(false);
+	        try {
+	            try (ResultSet rs = find.executeQuery()) {
+	                while (rs.next()) {
+	                    int postId = rs.getInt("postId");
+	                    String actual = "views " + rs.getInt("views") + ", upvotes " + rs.getInt("upvotes")
+	                            + ", replies " + rs.getInt("replies");
+	                    if (rs.getObject("storedId") == null) {
+	                        drift.add("Post " + postId + ": no counters, rebuilt as " + actual);
+	                    } else {
+	                        drift.add("Post " + postId + ": stored views " + rs.getInt("storedViews")
+	                                + ", upvotes " + rs.getInt("storedUpvotes") + ", replies " + rs.getInt("storedReplies")
+	                                + ", rebuilt as " + actual);
+	                    }
+	                    merge.setInt(1, postId);
+	                    merge.setInt(2, rs.getInt("views"));
+	                    merge.setInt(3, rs.getInt("upvotes"));
+	                    merge.setInt(4, rs.getInt("replies"));
+	                    merge.addBatch();
+	                }
+	            }
+	            if (!drift.isEmpty()) merge.executeBatch();
+	            if (ownsTransaction) connection.commit();
+	        } catch (SQLException e) {
+	            if (ownsTransaction) connection.rollback();
+	            throw e;
+	        } finally {
+	            if (ownsTransaction) connection.setAutoCommit(true);
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	    }
+	    return drift;
+	}
+	
+	/**
+	 * <p> Method: void setPostGrade(int postId, String grade, String feedback, String grader) </p>
+	 * 
+	 * <P> Description: Grades a post, or replaces its grade and feedback if it was already
+	 * graded. A grade that has been released stays released. </p>
+	 *
+	 * @param postId the ID of the post
+	 * @param grade the grade, such as "95" or "A"
+	 * @param feedback the feedback for the author, may be empty
+	 * @param grader the username of the staff member grading the post
+	 * @throws SQLException if the post does not exist or the grade cannot be stored
+	 */
+	public void setPostGrade(int postId, String grade, String feedback, String grader) throws SQLException {
+	    String merge = "MERGE INTO PostGrades (postId, grade, feedback, grader, gradedAt) KEY (postId) "
+	                 + "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)";
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps = connection.prepareStatement(merge)) {
+	        ps.setInt(1, postId);
+	        ps.setString(2, grade);
+	        ps.setString(3, feedback);
+	        ps.setString(4, grader);
+	        ps.executeUpdate();
+	    }
+	}
+
+	/**
+	 * <p> Method: String getPostGrade(int postId) </p>
+	 * 
+	 * <P> Description: Retrieves the grade of a post. </p>
+	 *
+	 * @param postId the ID of the post
+	 * @return the grade, or null if the post has not been graded or a database error occurs
+	 */
+	public String getPostGrade(int postId) {
+	    return readPostGradeColumn(postId, "grade");
+	}
+
+	/**
+	 * <p> Method: String getPostFeedback(int postId) </p>
+	 * 
+	 * <P> Description: Retrieves the feedback given with the grade of a post. </p>
+	 *
+	 * @param postId the ID of the post
+	 * @return the feedback, or null if the post has not been graded or a database error occurs
+	 */
+	public String getPostFeedback(int postId) {
+	    return readPostGradeColumn(postId, "feedback");
+	}
+
+	/**
+	 * <p> Method: boolean isPostGradeReleased(int postId) </p>
+	 * 
+	 * <P> Description: Checks whether the grade of a post has been released to its author. </p>
+	 *
+	 * @param postId the ID of the post
+	 * @return true if the post is graded and the grade is released
+	 */
+	public boolean isPostGradeReleased(int postId) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps = connection.prepareStatement(POST_GRADE_QUERY)) {
+	        ps.setInt(1, postId);
+	        try (ResultSet rs = ps.executeQuery()) {
+	            return rs.next() && rs.getBoolean("released");
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	    }
+	    return false;
+	}
+
+	/**
+	 * <p> Method: String readPostGradeColumn(int postId, String column) </p>
+	 * 
+	 * <P> Description: Reads one text column of the grade of a post with a primary key
+	 * lookup. </p>
+	 *
+	 * @param postId the ID of the post
+	 * @param column the column of {@link #POST_GRADE_QUERY} to read
+	 * @return the column value, or null if the post has not been graded or a
+	 *         database error occurs
+	 */
+	private String readPostGradeColumn(int postId, String column) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps = connection.prepareStatement(POST_GRADE_QUERY)) {
+	        ps.setInt(1, postId);
+	        try (ResultSet rs = ps.executeQuery()) {
+	            if (rs.next()) return rs.getString(column);
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	    }
+	    return null;
+	}
+
+	/**
+	 * <p> Method: int releaseAllGrades() </p>
+	 * 
+	 * <P> Description: Releases every grade that has not been released yet with one update,
+	 * in one transaction, so students see either none or all of the new grades. </p>
+	 *
+	 * @return the number of grades released, 0 if a database error occurs
+	 */
+	public int releaseAllGrades() {
+	    String release = "UPDATE PostGrades SET released = TRUE, releasedAt = CURRENT_TIMESTAMP "
+	                   + "WHERE released = FALSE";
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps = connection.prepareStatement(release)) {
+	        boolean ownsTransaction = connection.getAutoCommit();
+	        if (ownsTransaction) connection.setAutoCommit(false);
+	        try {
+	            int released = ps.executeUpdate();
+	            if (ownsTransaction) connection.commit();
+	            return released;
+	        } catch (SQLException e) {
+	            if (ownsTransaction) connection.rollback();
+	            throw e;
+	        } finally {
+	            if (ownsTransaction) connection.setAutoCommit(true);
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	        return 0;
+	    }
+	}
+
+	/***
+	 * <p> Method: ArrayList getUngradedPosts(int lastSeenId, int limit) </p>
+	 *
+	 * <p> Description: return one page of the grading queue: the posts that have no grade yet,
+	 * oldest first. The page continues after the last post of the previous page along the
+	 * primary key, so later pages cost the same as the first. </p>
+	 *
+	 * @param lastSeenId the id of the last post of the previous page, or 0 for the first page
+	 *
+	 * @param limit the maximum number of posts on the page
+	 *
+	 * @return the ArrayList of Post, oldest first
+	 *
+	 */
+	public ArrayList<Post> getUngradedPosts(int lastSeenId, int limit) {
+	    ArrayList<Post> posts = new ArrayList<>();
+
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(UNGRADED_POSTS_QUERY)) {
+	        pstmt.setInt(1, lastSeenId);
+	        pstmt.setInt(2, limit);
+	        try (ResultSet rs = pstmt.executeQuery()) {
+	            posts = readPosts(rs);
+	        }
+	    } catch (SQLException e) {
+	        e.printStackTrace();
+	    }
+
+	    return posts;
+	}
+	
+	/**
+	 * <p> Method:boolean isUpvoted(String username, int postId) </p>
+	 * 
+	 * <P> Description: Checks whether a specific user has upvoted a particular post. </p>
 	 *
 	 * @param username the username of the user
 	 * @param postId the ID of the post
@@ -2667,7 +4444,8 @@ public class Database {
 	 */
 	public boolean isUpvoted(String username, int postId) {
 	    String sql = "SELECT upvotes FROM PostReadStatus WHERE userName = ? AND postId = ?";
-	    try (PreparedStatement ps = connection.prepareStatement(sql)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps = connection.prepareStatement(sql)) {
 	        ps.setString(1, username);
 	        ps.setInt(2, postId);
 
@@ -2696,7 +4474,8 @@ public class Database {
     public String hasUserReadPost(String userName, int postId) {
         String sql = "SELECT isRead FROM PostReadStatus WHERE postId = ? AND userName = ?";
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
         	ps.setInt(1, postId);
             ps.setString(2, userName);
             try (ResultSet rs = ps.executeQuery()) {
@@ -2718,38 +4497,60 @@ public class Database {
     }
 
     /**
-     * <p> Method: void markRepliesAsRead(String userName, int postId) </p>
-	 * 
-	 * <p> Description: Mark all replies belonging to a post as read by a specific user. </p>
+     * <p> Method: int markRepliesAsRead(String userName, int postId) </p>
+	 * 
+	 * <p> Description: Mark all replies belonging to a post as read by a specific user. The
+	 * unread replies are counted and the newest of them found in one query, and the user's
+	 * read watermark of the post is moved up to exactly that reply, so a reply posted in
+	 * between is neither marked nor counted and opening a post costs the same however many
+	 * replies it has. The watermark never moves back, even when two opens of the same post
+	 * overlap. Nothing is written when the post has no unread replies. </p>
      *
      * @param userName The username of the user.
      * 
      * @param postId   The ID of the post whose replies should be marked as read.
+     * 
+     * @return The number of replies that were newly marked as read.
      */
-    public void markRepliesAsRead(String userName, int postId) {
-        String selectReplies = "SELECT id FROM Replies WHERE postId = ?";
-        try (PreparedStatement psSelect = connection.prepareStatement(selectReplies)) {
-            psSelect.setInt(1, postId);
-            try (ResultSet rs = psSelect.executeQuery()) {
-                while (rs.next()) {
-                    int replyId = rs.getInt("id");
-                    String sql = "MERGE INTO ReplyReadStatus (userName, replyId, isRead) " +
-                                 "KEY(userName, replyId) " +
-                                 "VALUES (?, ?, TRUE)";
-                    try (PreparedStatement psMerge = connection.prepareStatement(sql)) {
-                        psMerge.setString(1, userName);
-                        psMerge.setInt(2, replyId);
-                        psMerge.executeUpdate();
-                    } catch (SQLException e) {
-            	        e.printStackTrace();
-            	    }
+    public int markRepliesAsRead(String userName, int postId) {
+        try (Connection connection = getConnection();
+             PreparedStatement psCount = connection.prepareStatement(UNREAD_REPLY_RANGE_QUERY);
+             PreparedStatement psMark = connection.prepareStatement(MARK_REPLIES_READ_QUERY)) {
+            boolean ownsTransaction = connection.getAutoCommit();
+            if (ownsTransaction) connection.setAutoCommit(false);
+            try {
+                psCount.setInt(1, postId);
+                psCount.setString(2, userName);
+                psCount.setInt(3, postId);
+                int unread = 0;
+                int newestReply = 0;
+                try (ResultSet rs = psCount.executeQuery()) {
+                    if (rs.next()) {
+                        unread = rs.getInt("unreadCount");
+                        newestReply = rs.getInt("newestReply");
+                    }
+                }
+                if (unread > 0) {
+                    // Only the replies just counted are passed; one posted since stays unread
+                    psMark.setString(1, userName);
+                    psMark.setInt(2, postId);
+                    psMark.setInt(3, newestReply);
+                    psMark.setString(4, userName);
+                    psMark.setInt(5, postId);
+                    psMark.executeUpdate();
                 }
+                if (ownsTransaction) connection.commit();
+                return unread;
             } catch (SQLException e) {
-    	        e.printStackTrace();
-    	    }
+                if (ownsTransaction) connection.rollback();
+                throw e;
+            } finally {
+                if (ownsTransaction) connection.setAutoCommit(true);
+            }
         } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
+        return 0;
     }
     
     /**
@@ -2765,15 +4566,13 @@ public class Database {
      * 
      */
     public int getNumberOfUnreadReplies(int postId, String userName) {
-        String sql = "SELECT COUNT(*) AS unreadCount " +
-                     "FROM Replies r " +
-                     "LEFT JOIN ReplyReadStatus rs " +
-                     "ON r.id = rs.replyId AND rs.userName = ? " +
-                     "WHERE r.postId = ? AND (rs.isRead IS NULL OR rs.isRead = FALSE)";
+        String sql = UNREAD_REPLY_COUNT_QUERY;
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, userName);
-            ps.setInt(2, postId);
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, postId);
+            ps.setString(2, userName);
+            ps.setInt(3, postId);
 
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -2794,11 +4593,13 @@ public class Database {
     /*******
      * <p> Method: searchPostsByTitle(String searchTitle) </p>
      * 
-     * <p> Description: Search for posts that contain the specified title text (case-insensitive). </p>
+     * <p> Description: Search for posts whose text contains the words of the search, using the
+     * search index instead of scanning the post table.  Titles weigh most, but words in the
+     * subtitle, content, tags and replies match too. </p>
      * 
-     * @param searchTitle the text to search for in post titles
+     * @param searchTitle the words to search for
      * 
-     * @return ArrayList of Post objects that match the search criteria, ordered by newest first
+     * @return ArrayList of Post objects that match the search criteria, best match first
      * 
      */
     public ArrayList<Post> searchPostsByTitle(String searchTitle) {
@@ -2808,36 +4609,380 @@ public class Database {
         if (searchTitle == null || searchTitle.trim().isEmpty()) {
             return matchingPosts;
         }
+        return getPostsByIds(searchIndex.rank(searchTitle));
+    }
+
+    /*******
+     * <p> Method: ArrayList getPostsByIds(List postIds) </p>
+     * 
+     * <p> Description: Read several posts with one statement, in the order of their ids. </p>
+     * 
+     * @param postIds the ids of the posts, in the order wanted
+     * 
+     * @return ArrayList of the Post objects that exist, in the given order
+     * 
+     */
+    public ArrayList<Post> getPostsByIds(List<Integer> postIds) {
+        ArrayList<Post> orderedPosts = new ArrayList<>();
+        if (postIds.isEmpty()) return orderedPosts;
         
-        // SQL query to search for posts containing the search term in title (case-insensitive)
-        String query = "SELECT * FROM Posts WHERE LOWER(title) LIKE LOWER(?) ORDER BY id DESC";
+        String query = "SELECT p.*, t.threadName FROM Posts p LEFT JOIN Threads t ON t.id = p.thread "
+                     + "WHERE p.id = ANY(?)";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            // Add wildcards for partial matching
-            pstmt.setString(1, "%" + searchTitle.trim() + "%");
-            
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                Post post = new Post(
-                    rs.getString("title"),
-                    rs.getString("subtitle"), 
-                    rs.getString("content"),
-                    rs.getString("owner"),
-                    getPostTags(id),
-                    getThreadName(rs.getInt("thread"))
-                );
-                post.setPostId(id);
-                matchingPosts.add(post);
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setArray(1, connection.createArrayOf("INTEGER", postIds.toArray()));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Map<Integer, Post> posts = new HashMap<>();
+                for (Post post : readPosts(rs)) posts.put(post.getPostId(), post);
+                for (int postId : postIds) {
+                    if (posts.containsKey(postId)) orderedPosts.add(posts.get(postId));
+                }
             }
-            
-            rs.close();
         } catch (SQLException e) {
             e.printStackTrace();
         }
         
-        return matchingPosts;
+        return orderedPosts;
+    }
+
+    /*******
+     * <p> Method: LshIndex getDuplicateIndex() </p>
+     * 
+     * <p> Description: Get the index of the MinHash signatures of the posts, kept up to date
+     * with every change to a post. </p>
+     * 
+     * @return the duplicate index of this database
+     * 
+     */
+    public LshIndex getDuplicateIndex() {
+        return duplicateIndex;
+    }
+
+    /*******
+     * <p> Method: List findDuplicatePosts(String title, String subtitle, String content, int limit) </p>
+     * 
+     * <p> Description: Find the posts likely asking the same question as a post being written,
+     * whatever their wording: the posts whose words overlap the draft's by at least
+     * {@link LshIndex#DUPLICATE_SIMILARITY}, estimated from MinHash signatures.  Only the posts
+     * sharing a band of the signature are compared, so the cost does not grow with the number
+     * of posts, and the database is not read. </p>
+     * 
+     * @param title the title of the draft
+     * 
+     * @param subtitle the subtitle of the draft, or null
+     * 
+     * @param content the content of the draft, or null
+     * 
+     * @param limit the maximum number of posts returned, or 0 for all
+     * 
+     * @return the likely duplicates with their similarity, most similar first
+     * 
+     */
+    public List<DuplicateMatch> findDuplicatePosts(String title, String subtitle, String content, int limit) {
+        return duplicateIndex.findSimilar(MinHash.signature(title, subtitle, content),
+                LshIndex.DUPLICATE_SIMILARITY, limit);
+    }
+
+    /*******
+     * <p> Method: ArrayList findDuplicatePostClusters() </p>
+     * 
+     * <p> Description: Group the existing posts into clusters of likely duplicates for staff
+     * to review, using the duplicate index; posts whose words overlap by at least
+     * {@link LshIndex#DUPLICATE_SIMILARITY} are joined.  The posts of every cluster are read
+     * with one statement. </p>
+     * 
+     * @return the clusters of two or more posts, each oldest post first, largest clusters first
+     * 
+     */
+    public ArrayList<ArrayList<Post>> findDuplicatePostClusters() {
+        List<List<Integer>> clusters = duplicateIndex.clusters(LshIndex.DUPLICATE_SIMILARITY);
+        List<Integer> allIds = new ArrayList<>();
+        for (List<Integer> cluster : clusters) allIds.addAll(cluster);
+        Map<Integer, Post> posts = new HashMap<>();
+        for (Post post : getPostsByIds(allIds)) posts.put(post.getPostId(), post);
+
+        ArrayList<ArrayList<Post>> result = new ArrayList<>();
+        for (List<Integer> cluster : clusters) {
+            ArrayList<Post> clusterPosts = new ArrayList<>();
+            for (int postId : cluster) {
+                if (posts.containsKey(postId)) clusterPosts.add(posts.get(postId));
+            }
+            if (clusterPosts.size() > 1) result.add(clusterPosts);
+        }
+        return result;
+    }
+
+    /*******
+     * <p> Method: SearchIndex getSearchIndex() </p>
+     * 
+     * <p> Description: Get the full-text index over the posts and their replies.  It is
+     * rebuilt from the tables when the database is connected and kept up to date by every
+     * method that changes the text, tags or replies of a post. </p>
+     * 
+     * @return the search index
+     * 
+     */
+    public SearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /*******
+     * <p> Method: int rebuildSearchIndex() </p>
+     * 
+     * <p> Description: Build the search index, the post title and user name trigram indexes and
+     * the duplicate index again from the post, tag, reply, user and post signature tables.  A
+     * post without a stored signature gets one.  The new indexes are built aside and swapped in
+     * at once, so searches running meanwhile use the old ones. </p>
+     * 
+     * @return the number of posts in the index
+     * 
+     */
+    public int rebuildSearchIndex() {
+        SearchIndex fresh = new SearchIndex();
+        try (Connection connection = getConnection();
+             Statement statement = connection.createStatement()) {
+            synchronized (searchIndexLock) {
+                Map<Integer, ArrayList<String>> tags = new HashMap<>();
+                try (ResultSet rs = statement.executeQuery("SELECT postId, tag FROM PostTags")) {
+                    while (rs.next()) {
+                        tags.computeIfAbsent(rs.getInt("postId"), id -> new ArrayList<>()).add(rs.getString("tag"));
+                    }
+                }
+                TrigramIndex<Integer> titles = new TrigramIndex<>();
+                LshIndex duplicates = new LshIndex();
+                Map<Integer, int[]> unsigned = new HashMap<>();
+                try (ResultSet rs = statement.executeQuery("SELECT p.id, p.title, p.subtitle, p.content, s.signature "
+                        + "FROM Posts p LEFT JOIN PostSignatures s ON s.postId = p.id")) {
+                    while (rs.next()) {
+                        int postId = rs.getInt("id");
+                        fresh.indexPost(postId, rs.getString("title"), rs.getString("subtitle"),
+                                rs.getString("content"), tags.get(postId));
+                        titles.put(postId, List.of(rs.getString("title")));
+                        int[] signature = MinHash.fromBytes(rs.getBytes("signature"));
+                        if (signature == null) {
+                            signature = MinHash.signature(rs.getString("title"), rs.getString("subtitle"), rs.getString("content"));
+                            if (signature != null) unsigned.put(postId, signature);
+                        }
+                        duplicates.put(postId, signature);
+                    }
+                }
+                if (!unsigned.isEmpty()) {
+                    try (PreparedStatement pstmt = connection.prepareStatement(
+                            "MERGE INTO PostSignatures (postId, signature) KEY (postId) VALUES (?, ?)")) {
+                        for (Map.Entry<Integer, int[]> entry : unsigned.entrySet()) {
+                            pstmt.setInt(1, entry.getKey());
+                            pstmt.setBytes(2, MinHash.toBytes(entry.getValue()));
+                            pstmt.addBatch();
+                        }
+                        pstmt.executeBatch();
+                    }
+                }
+                TrigramIndex<String> names = new TrigramIndex<>();
+                try (ResultSet rs = statement.executeQuery(
+                        "SELECT userName, firstName, middleName, lastName, preferredFirstName FROM userDB")) {
+                    while (rs.next()) {
+                        names.put(rs.getString("userName"), userNameTexts(rs));
+                    }
+                }
+                try (ResultSet rs = statement.executeQuery(
+                        "SELECT id, postId, content FROM Replies WHERE postId IS NOT NULL")) {
+                    while (rs.next()) {
+                        fresh.indexReply(rs.getInt("id"), rs.getInt("postId"), rs.getString("content"));
+                    }
+                }
+                searchIndex.replaceWith(fresh);
+                postTitleIndex.replaceWith(titles);
+                userNameIndex.replaceWith(names);
+                duplicateIndex.replaceWith(duplicates);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return searchIndex.size();
+    }
+
+    /*******
+     * <p> Method: void reindexPost(int postId) </p>
+     * 
+     * <p> Description: Bring the search index entry of a post in line with the post table,
+     * removing the post and its replies from the index when the post no longer exists.  The
+     * post's MinHash signature is stored and filed in the duplicate index the same way.  The
+     * post is read while holding the index lock, so of two updates racing on the same post the
+     * one that read last, and so saw the latest text, is applied last. </p>
+     * 
+     * @param postId the id of the post
+     * 
+     */
+    private void reindexPost(int postId) {
+        String query = "SELECT title, subtitle, content FROM Posts WHERE id = ?";
+        // The connection is borrowed before the lock, so the lock holder never waits on the pool
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            synchronized (searchIndexLock) {
+                pstmt.setInt(1, postId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        searchIndex.indexPost(postId, rs.getString("title"), rs.getString("subtitle"),
+                                rs.getString("content"), getPostTags(postId));
+                        postTitleIndex.put(postId, List.of(rs.getString("title")));
+                        int[] signature = MinHash.signature(rs.getString("title"), rs.getString("subtitle"), rs.getString("content"));
+                        storePostSignature(connection, postId, signature);
+                        duplicateIndex.put(postId, signature);
+                    } else {
+                        searchIndex.removePost(postId);
+                        postTitleIndex.remove(postId);
+                        duplicateIndex.remove(postId);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /*******
+     * <p> Method: void storePostSignature(Connection connection, int postId, int[] signature) </p>
+     * 
+     * <p> Description: Store the MinHash signature of a post, or delete the stored one when the
+     * post has no words. </p>
+     * 
+     * @param connection the connection to write with
+     * 
+     * @param postId the id of the post
+     * 
+     * @param signature the signature, or null
+     * 
+     * @throws SQLException if the signature cannot be written
+     */
+    private void storePostSignature(Connection connection, int postId, int[] signature) throws SQLException {
+        if (signature == null) {
+            try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM PostSignatures WHERE postId = ?")) {
+                pstmt.setInt(1, postId);
+                pstmt.executeUpdate();
+            }
+            return;
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "MERGE INTO PostSignatures (postId, signature) KEY (postId) VALUES (?, ?)")) {
+            pstmt.setInt(1, postId);
+            pstmt.setBytes(2, MinHash.toBytes(signature));
+            pstmt.executeUpdate();
+        }
+    }
+
+    /*******
+     * <p> Method: void reindexReply(int replyId) </p>
+     * 
+     * <p> Description: Bring the search index entry of a reply in line with the reply table,
+     * removing the reply from the index when it no longer exists or belongs to no post. </p>
+     * 
+     * @param replyId the id of the reply
+     * 
+     */
+    private void reindexReply(int replyId) {
+        String query = "SELECT postId, content FROM Replies WHERE id = ?";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            synchronized (searchIndexLock) {
+                pstmt.setInt(1, replyId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    Integer postId = rs.next() ? (Integer) rs.getObject("postId") : null;
+                    if (postId != null) {
+                        searchIndex.indexReply(replyId, postId, rs.getString("content"));
+                    } else {
+                        searchIndex.removeReply(replyId);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /*******
+     * <p> Method: void reindexUser(String userName) </p>
+     * 
+     * <p> Description: Bring the user name trigram index entry of a user in line with the
+     * user table, removing the user when they no longer exist. </p>
+     * 
+     * @param userName the username
+     * 
+     */
+    private void reindexUser(String userName) {
+        String query = "SELECT userName, firstName, middleName, lastName, preferredFirstName FROM userDB "
+                     + "WHERE userName = ?";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            synchronized (searchIndexLock) {
+                pstmt.setString(1, userName);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        userNameIndex.put(userName, userNameTexts(rs));
+                    } else {
+                        userNameIndex.remove(userName);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /*******
+     * <p> Method: List userNameTexts(ResultSet rs) </p>
+     * 
+     * <p> Description: The texts a user is found by: their username, their full name and their
+     * preferred first name followed by their last name. </p>
+     * 
+     * @param rs a result set positioned on a user row with the name columns
+     * 
+     * @return the texts of the user
+     * 
+     * @throws SQLException if a column cannot be read
+     */
+    private static List<String> userNameTexts(ResultSet rs) throws SQLException {
+        String first = Objects.toString(rs.getString("firstName"), "");
+        String middle = Objects.toString(rs.getString("middleName"), "");
+        String last = Objects.toString(rs.getString("lastName"), "");
+        String preferred = Objects.toString(rs.getString("preferredFirstName"), "");
+        return List.of(rs.getString("userName"), first + " " + middle + " " + last, preferred + " " + last);
+    }
+
+    /*******
+     * <p> Method: List findPostsByTitle(String text, int limit) </p>
+     * 
+     * <p> Description: Find the posts whose title is close to a text that may be misspelled,
+     * using the post title trigram index.  The number of mistakes allowed grows with the
+     * length of the text, up to two. </p>
+     * 
+     * @param text the title, or part of it, as typed
+     * 
+     * @param limit the maximum number of posts returned, or 0 for all
+     * 
+     * @return the matching post ids with their titles and distances, closest first
+     * 
+     */
+    public List<FuzzyMatch<Integer>> findPostsByTitle(String text, int limit) {
+        return postTitleIndex.search(text, limit);
+    }
+
+    /*******
+     * <p> Method: List findUsers(String text, int limit) </p>
+     * 
+     * <p> Description: Find the users whose username, full name or preferred name is close to
+     * a text that may be misspelled, using the user name trigram index.  The number of mistakes
+     * allowed grows with the length of the text, up to two. </p>
+     * 
+     * @param text the name, or part of it, as typed
+     * 
+     * @param limit the maximum number of users returned, or 0 for all
+     * 
+     * @return the matching usernames with the matched name and distance, closest first
+     * 
+     */
+    public List<FuzzyMatch<String>> findUsers(String text, int limit) {
+        return userNameIndex.search(text, limit);
     }
     
     /*******
@@ -2850,7 +4995,8 @@ public class Database {
      */
     public void addThread(String threadName) {
         String query = "MERGE INTO Threads (threadName) KEY(threadName) VALUES (?)";
-        try (PreparedStatement ps = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(query)) {
             ps.setString(1, threadName);
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -2870,7 +5016,8 @@ public class Database {
      */
     public boolean existsThreadName(String name) throws SQLException {
         String sql = "SELECT COUNT(*) FROM Threads WHERE threadName = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, name);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -2894,7 +5041,8 @@ public class Database {
         ArrayList<String> threads = new ArrayList<>();
         String query = "SELECT threadName FROM Threads";
 
-        try (PreparedStatement ps = connection.prepareStatement(query);
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(query);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
@@ -2920,7 +5068,8 @@ public class Database {
      */
     public int getThreadId(String threadName) {
         String query = "SELECT id FROM Threads WHERE threadName = ?";
-        try (PreparedStatement ps = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(query)) {
             ps.setString(1, threadName);
             ResultSet rs = ps.executeQuery();
 
@@ -2947,7 +5096,8 @@ public class Database {
      */
     public String getThreadName(int threadId) {
         String query = "SELECT threadName FROM Threads WHERE id = ?";
-        try (PreparedStatement ps = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(query)) {
             ps.setInt(1, threadId);
             ResultSet rs = ps.executeQuery();
 
@@ -2973,7 +5123,8 @@ public class Database {
     public void updateThreadName(int threadId, String newName) throws SQLException {
         String sql = "UPDATE Threads SET threadName = ? WHERE id = ?";
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, newName);
             ps.setInt(2, threadId);
             ps.executeUpdate();
@@ -2992,7 +5143,8 @@ public class Database {
     public void deleteThread(int threadId) throws SQLException {
         String sql = "DELETE FROM Threads WHERE id = ?";
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, threadId);
             ps.executeUpdate();
         }
@@ -3010,7 +5162,8 @@ public class Database {
      */
     public boolean doesUserOwnReply(String username, int replyId) {
         String query = "SELECT COUNT(*) FROM Replies WHERE id = ? AND owner = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, replyId);
             pstmt.setString(2, username);
             ResultSet rs = pstmt.executeQuery();
@@ -3029,21 +5182,28 @@ public class Database {
 	/*******
 	 * <p> Method: void closeConnection()</p>
 	 * 
-	 * <p> Description: Closes the database statement and connection.</p>
+	 * <p> Description: Stops the background counter repair and closes the connection pool and all
+	 * of its idle connections.</p>
 	 * 
 	 */
-	// Closes the database statement and connection.
+	// Closes the database connection pool.
 	public void closeConnection() {
-		try{ 
-			if(statement!=null) statement.close(); 
-		} catch(SQLException se2) { 
-			se2.printStackTrace();
-		} 
-		try { 
-			if(connection!=null) connection.close(); 
-		} catch(SQLException se){ 
-			se.printStackTrace(); 
-		} 
+		stopRepairs();
+		if (pool != null) pool.close();
+		pool = null;
+	}
+	
+	
+	/*******
+	 * <p> Method: void stopRepairs()</p>
+	 * 
+	 * <p> Description: Stops the background counter repair thread, if one was started.  The
+	 * next call to rebuildStudentStatusInBackground starts a new one.</p>
+	 * 
+	 */
+	private synchronized void stopRepairs() {
+		if (repairExecutor != null) repairExecutor.shutdownNow();
+		repairExecutor = null;
 	}
 	
 	
@@ -3059,7 +5219,8 @@ public class Database {
 	public boolean doesReplyExistByContent(String content) {
 	    String sql = "SELECT 1 FROM Replies WHERE content = ? LIMIT 1";
 
-	    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement stmt = connection.prepareStatement(sql)) {
 	        stmt.setString(1, content);
 	        ResultSet rs = stmt.executeQuery();
 	        return rs.next(); // true if at least one record is found
@@ -3081,7 +5242,8 @@ public class Database {
 	 */
 	public int makeRequest(Request request) throws SQLException {
 	    String sql = "INSERT INTO systemRequests (requester, title, content, checked) VALUES (?, ?, ?, ?)";
-	    try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 	        ps.setString(1, request.getRequester());
 	        ps.setString(2, request.getTitle());
 	        ps.setString(3, request.getContent());
@@ -3111,7 +5273,8 @@ public class Database {
 	    ArrayList<Request> list = new ArrayList<>();
 	    String sql = "SELECT * FROM systemRequests";
 
-	    try (Statement stmt = connection.createStatement();
+	    try (Connection connection = getConnection();
+	         Statement stmt = connection.createStatement();
 	         ResultSet rs = stmt.executeQuery(sql)) {
 
 	        while (rs.next()) {
@@ -3142,7 +5305,8 @@ public class Database {
 	    ArrayList<Request> list = new ArrayList<>();
 	    String sql = "SELECT * FROM systemRequests WHERE requester = ?";
 
-	    try (PreparedStatement ps = connection.prepareStatement(sql)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps = connection.prepareStatement(sql)) {
 	        ps.setString(1, requester);
 
 	        try (ResultSet rs = ps.executeQuery()) {
@@ -3174,7 +5338,8 @@ public class Database {
 	public Request getRequestByTitle(String title) throws SQLException {
 	    String sql = "SELECT * FROM systemRequests WHERE title = ?";
 
-	    try (PreparedStatement ps = connection.prepareStatement(sql)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement ps = connection.prepareStatement(sql)) {
 	        ps.setString(1, title);
 
 	        try (ResultSet rs = ps.executeQuery()) {
@@ -3205,7 +5370,8 @@ public class Database {
 	 */
     public void updateRequestTitle(Request request, String title) throws SQLException {
         String sql = "UPDATE systemRequests SET title = ? WHERE id = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, title);
             ps.setInt(2, request.getRequestId());
             ps.executeUpdate();
@@ -3224,7 +5390,8 @@ public class Database {
      */
     public void updateRequestContent(Request request, String content) throws SQLException {
         String sql = "UPDATE systemRequests SET content = ? WHERE id = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, content);
             ps.setInt(2, request.getRequestId());
             ps.executeUpdate();
@@ -3233,135 +5400,537 @@ public class Database {
     }
     
     /**
-     * <p> Method: void updateRequestChecked(Request request, boolean checked) </p>
+     * <p> Method: void updateRequestChecked(Request request, boolean checked) </p>
+	 * 
+	 * <p> Description: Updates the checked status of an existing request in the database. </p>
+     *
+     * @param request the {@code Request} object to update
+     * @param checked the new checked status to set
+     * @throws SQLException if a database access error occurs
+     */
+    public void updateRequestChecked(Request request, boolean checked) throws SQLException {
+        String sql = "UPDATE systemRequests SET checked = ? WHERE id = ?";
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setBoolean(1, checked);
+            ps.setInt(2, request.getRequestId());
+            ps.executeUpdate();
+            request.setChecked(checked); // update object
+        }
+    }
+
+    /**
+     * <p> Method: void deleteRequest(Request request) </p>
+	 * 
+	 * <p> Description: Deletes a request from the systemRequests table. </p>
+     *
+     * @param request the {@code Request} object to delete
+     * @throws SQLException if a database access error occurs
+     */
+    public void deleteRequest(Request request) throws SQLException {
+        String sql = "DELETE FROM systemRequests WHERE id = ?";
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, request.getRequestId());
+            ps.executeUpdate();
+        }
+    }
+	
+    /**
+     * <p> Method: void insertStudentStatus(String userName) </p>
+	 * 
+	 * <p> Description: Inserts a new student status record for the username, with its
+	 * activity counters counted from the posts, replies and read status rows the user
+	 * already has. </p>
+     *
+     * @param userName the username of the student
+     */
+    public void insertStudentStatus(String userName) {
+        String sql = "INSERT INTO StudentStatus "
+                + "(userName, postNumber, replyNumber, viewReceived, replyReceived, upvoteReceived) "
+                + STUDENT_STATUS_FROM_BASE_TABLES + " WHERE u.userName = ?";
+
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, userName);
+            ps.executeUpdate();
+            gradeCache.invalidate(userName);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * <p> Method: void addStudentActivity(Connection connection, String actor, int posts,
+     * int replies, String owner, int views, int repliesReceived, int upvotes) </p>
+	 * 
+	 * <p> Description: Adds to the activity counters of the user who wrote a post or reply
+	 * and to the received counters of the owner of the post it concerns, with one update on
+	 * the given connection so it is part of the caller's transaction. Users without a
+	 * student status record are skipped. </p>
+     *
+     * @param connection the connection, and transaction, to update with
+     * @param actor the user whose own post and reply counters change, or null
+     * @param posts the change to the post counter of the actor
+     * @param replies the change to the reply counter of the actor
+     * @param owner the post owner whose received counters change, or null
+     * @param views the change to the views received by the owner
+     * @param repliesReceived the change to the replies received by the owner
+     * @param upvotes the change to the upvotes received by the owner
+     * @throws SQLException if the update fails
+     */
+    private void addStudentActivity(Connection connection, String actor, int posts, int replies,
+            String owner, int views, int repliesReceived, int upvotes) throws SQLException {
+        if (actor == null && owner == null) return;
+        try (PreparedStatement ps = connection.prepareStatement(ADD_STUDENT_ACTIVITY)) {
+            ps.setString(1, actor);
+            ps.setInt(2, posts);
+            ps.setString(3, actor);
+            ps.setInt(4, replies);
+            ps.setString(5, owner);
+            ps.setInt(6, views);
+            ps.setString(7, owner);
+            ps.setInt(8, repliesReceived);
+            ps.setString(9, owner);
+            ps.setInt(10, upvotes);
+            ps.setString(11, actor);
+            ps.setString(12, owner);
+            ps.executeUpdate();
+        }
+        gradesChanged(actor, owner);
+    }
+
+    /**
+     * <p> Method: void gradesChanged(String... userNames) </p>
+	 * 
+	 * <p> Description: Drops the cached grades of students whose counters the calling thread
+	 * is changing, and remembers them until {@link #flushGradeChanges()}. A grade read by
+	 * another thread before the transaction commits would still be the old one, so the
+	 * students are dropped again once the change is committed. </p>
+     *
+     * @param userNames the students whose counters change; null names are ignored
+     */
+    private void gradesChanged(String... userNames) {
+        for (String userName : userNames) {
+            if (userName == null) continue;
+            gradeCache.invalidate(userName);
+            changedGrades.get().add(userName);
+        }
+    }
+
+    /**
+     * <p> Method: void flushGradeChanges() </p>
+	 * 
+	 * <p> Description: Called after a commit: drops the cached grades of every student the
+	 * calling thread changed in that transaction once more, now that the new counters are
+	 * visible to everyone. </p>
+     */
+    private void flushGradeChanges() {
+        Set<String> changed = changedGrades.get();
+        for (String userName : changed) gradeCache.invalidate(userName);
+        changed.clear();
+    }
+
+    /**
+     * <p> Method: String findPostOwner(Connection connection, int postId) </p>
+	 * 
+	 * <p> Description: Looks up the owner of a post on the given connection. </p>
+     *
+     * @param connection the connection, and transaction, to read with
+     * @param postId the ID of the post
+     * @return the username of the owner, or null if the post does not exist
+     * @throws SQLException if the lookup fails
+     */
+    private String findPostOwner(Connection connection, int postId) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT owner FROM Posts WHERE id = ?")) {
+            ps.setInt(1, postId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString("owner") : null;
+            }
+        }
+    }
+
+    /**
+     * <p> Method: ArrayList&lt;String&gt; rebuildStudentStatus() </p>
+	 * 
+	 * <p> Description: Repair job for the student activity counters. The counters are kept up
+	 * to date by the events that change them, so this is only needed after data was changed
+	 * outside this class. Counts every student's posts, replies and received views, replies
+	 * and upvotes again from the base tables, recreates missing student status records and
+	 * rewrites the counters that have drifted, in one transaction. Promotions and violations
+	 * are left alone. </p>
+     *
+     * @return one line per student whose counters were wrong or missing, describing the stored
+     *         and the recounted values; empty when every counter was right
+     */
+    public ArrayList<String> rebuildStudentStatus() {
+        ArrayList<String> drift = new ArrayList<>();
+        String findDrift = "SELECT a.*, s.userName AS storedName, s.postNumber AS storedPosts, "
+                + "s.replyNumber AS storedReplies, s.viewReceived AS storedViews, "
+                + "s.replyReceived AS storedRepliesReceived, s.upvoteReceived AS storedUpvotes "
+                + "FROM (" + STUDENT_STATUS_FROM_BASE_TABLES + ") a "
+                + "LEFT JOIN StudentStatus s ON s.userName = a.userName "
+                + "WHERE (s.userName IS NULL AND EXISTS "
+                + "(SELECT 1 FROM userDB u2 WHERE u2.userName = a.userName AND u2.studentRole = TRUE)) "
+                + "OR s.postNumber <> a.postNumber OR s.replyNumber <> a.replyNumber "
+                + "OR s.viewReceived <> a.viewReceived OR s.replyReceived <> a.replyReceived "
+                + "OR s.upvoteReceived <> a.upvoteReceived "
+                + "ORDER BY a.userName";
+        // Only the derived counters are listed, so a matched row keeps the promotion and
+        // violation staff may be changing meanwhile, and a missing row gets the defaults
+        String repair = "MERGE INTO StudentStatus (userName, postNumber, replyNumber, viewReceived, "
+                + "replyReceived, upvoteReceived) KEY (userName) VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (Connection connection = getConnection();
+             PreparedStatement find = connection.prepareStatement(findDrift);
+             PreparedStatement merge = connection.prepareStatement(repair)) {
+            boolean ownsTransaction = connection.getAutoCommit();
+            if (ownsTransaction) connection.setAutoCommit(false);
+            try {
+                try (ResultSet rs = find.executeQuery()) {
+                    while (rs.next()) {
+                        String userName = rs.getString("userName");
+                        String actual = "posts " + rs.getInt("postNumber")
+                                + ", replies " + rs.getInt("replyNumber")
+                                + ", views received " + rs.getInt("viewReceived")
+                                + ", replies received " + rs.getInt("replyReceived")
+                                + ", upvotes received " + rs.getInt("upvoteReceived");
+                        if (rs.getString("storedName") == null) {
+                            drift.add("Student " + userName + ": no status record, rebuilt as " + actual);
+                        } else {
+                            drift.add("Student " + userName + ": stored posts " + rs.getInt("storedPosts")
+                                    + ", replies " + rs.getInt("storedReplies")
+                                    + ", views received " + rs.getInt("storedViews")
+                                    + ", replies received " + rs.getInt("storedRepliesReceived")
+                                    + ", upvotes received " + rs.getInt("storedUpvotes")
+                                    + ", rebuilt as " + actual);
+                        }
+                        merge.setString(1, userName);
+                        merge.setInt(2, rs.getInt("postNumber"));
+                        merge.setInt(3, rs.getInt("replyNumber"));
+                        merge.setInt(4, rs.getInt("viewReceived"));
+                        merge.setInt(5, rs.getInt("replyReceived"));
+                        merge.setInt(6, rs.getInt("upvoteReceived"));
+                        merge.addBatch();
+                        gradesChanged(userName);
+                    }
+                }
+                if (!drift.isEmpty()) merge.executeBatch();
+                if (ownsTransaction) connection.commit();
+            } catch (SQLException e) {
+                if (ownsTransaction) connection.rollback();
+                throw e;
+            } finally {
+                if (ownsTransaction) connection.setAutoCommit(true);
+            }
+            if (ownsTransaction) flushGradeChanges();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return drift;
+    }
+
+    /**
+     * <p> Method: CompletableFuture&lt;ArrayList&lt;String&gt;&gt; rebuildStudentStatusInBackground() </p>
+	 * 
+	 * <p> Description: Runs {@link #rebuildStudentStatus()} on a background thread so a
+	 * repair never holds up the page that asked for it. Repairs run one at a time. </p>
+     *
+     * @return a future completed with the drift found by the repair
+     */
+    public synchronized CompletableFuture<ArrayList<String>> rebuildStudentStatusInBackground() {
+        if (repairExecutor == null) {
+            repairExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "StudentStatusRepair");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return CompletableFuture.supplyAsync(this::rebuildStudentStatus, repairExecutor);
+    }
+
+    /**
+     * <p> Method: void updateStudentStatus(StudentStatus status) </p>
+	 * 
+	 * <p> Description: Updates an existing student status record in the StudentStatus table. </p>
+     *
+     * @param status the {@code StudentStatus} object containing updated values
+     */
+    public void updateStudentStatus(StudentStatus status) {
+        String sql = "UPDATE StudentStatus SET "
+                + "postNumber = ?, "
+                + "replyNumber = ?, "
+                + "viewReceived = ?, "
+                + "replyReceived = ?, "
+                + "upvoteReceived = ?, "
+                + "promotion = ?, "
+                + "violation = ? "
+                + "WHERE userName = ?";
+
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, status.getPostNumber());
+            ps.setInt(2, status.getReplyNumber());
+            ps.setInt(3, status.getViewReceived());
+            ps.setInt(4, status.getReplyReceived());
+            ps.setInt(5, status.getUpvoteReceived());
+            ps.setInt(6, status.getPromotion());
+            ps.setInt(7, status.getViolation());
+            ps.setString(8, status.getUserName());
+
+            ps.executeUpdate();
+            gradeCache.invalidate(status.getUserName());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * <p> Method: StudentStatus getStudentStatus(String userName) </p>
+	 * 
+	 * <p> Description: Retrieves the student status by username. This is a read only
+	 * lookup: if the user has no status record, their counters are counted from the posts,
+	 * replies and read status rows they already have, with no promotions or violations, and
+	 * nothing is written. </p>
+     *
+     * @param userName the username of the student
+     * @return the {@code StudentStatus} object, or {@code null} if a database error occurs
+     */
+    public StudentStatus getStudentStatus(String userName) {
+        String sql = "SELECT * FROM StudentStatus WHERE userName = ?";
+        String counted = STUDENT_STATUS_FROM_BASE_TABLES + " WHERE u.userName = ?";
+
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+
+            ps.setString(1, userName);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new StudentStatus(
+                            rs.getString("userName"),
+                            rs.getInt("postNumber"),
+                            rs.getInt("replyNumber"),
+                            rs.getInt("viewReceived"),
+                            rs.getInt("replyReceived"),
+                            rs.getInt("upvoteReceived"),
+                            rs.getInt("promotion"),
+                            rs.getInt("violation")
+                    );
+                }
+            }
+            try (PreparedStatement count = connection.prepareStatement(counted)) {
+                count.setString(1, userName);
+                try (ResultSet rs = count.executeQuery()) {
+                    if (!rs.next()) return new StudentStatus(userName);
+                    return new StudentStatus(userName,
+                            rs.getInt("postNumber"),
+                            rs.getInt("replyNumber"),
+                            rs.getInt("viewReceived"),
+                            rs.getInt("replyReceived"),
+                            rs.getInt("upvoteReceived"),
+                            0, 0);
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * <p> Method: StudentGrade getStudentGrade(String userName) </p>
+	 * 
+	 * <p> Description: Retrieves the computed grade of a student. The grade is computed from
+	 * {@link #getStudentStatus(String)} the first time and kept in the grade cache until a
+	 * post, reply, view, upvote, promotion or violation changes the student's counters, so
+	 * showing the same grade again reads nothing from the database. </p>
+     *
+     * @param userName the username of the student
+     * @return the student's grade, or {@code null} if a database error occurs
+     */
+    public StudentGrade getStudentGrade(String userName) {
+        return gradeCache.get(userName, name -> {
+            StudentStatus status = getStudentStatus(name);
+            return status == null ? null : StudentGrade.of(status);
+        });
+    }
+
+    /**
+     * <p> Method: int upsertStudentStatuses(List&lt;StudentStatus&gt; statuses) </p>
+	 * 
+	 * <p> Description: Inserts or replaces the status records of many students at once, as
+	 * one batch of MERGE statements in one transaction. </p>
+     *
+     * @param statuses the status records to store, one per student
+     * @return the number of records stored, 0 if a database error occurs
+     */
+    public int upsertStudentStatuses(List<StudentStatus> statuses) {
+        try (Connection connection = getConnection()) {
+            boolean ownsTransaction = connection.getAutoCommit();
+            if (ownsTransaction) connection.setAutoCommit(false);
+            int stored;
+            try {
+                stored = upsertStudentStatuses(connection, statuses);
+                if (ownsTransaction) connection.commit();
+            } catch (SQLException e) {
+                if (ownsTransaction) connection.rollback();
+                throw e;
+            } finally {
+                if (ownsTransaction) connection.setAutoCommit(true);
+            }
+            if (ownsTransaction) flushGradeChanges();
+            return stored;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * <p> Method: int upsertStudentStatuses(Connection connection, List&lt;StudentStatus&gt; statuses) </p>
 	 * 
-	 * <p> Description: Updates the checked status of an existing request in the database. </p>
+	 * <p> Description: Inserts or replaces status records as one batch on the given
+	 * connection, as part of the caller's transaction. </p>
      *
-     * @param request the {@code Request} object to update
-     * @param checked the new checked status to set
-     * @throws SQLException if a database access error occurs
+     * @param connection the connection, and transaction, to store with
+     * @param statuses the status records to store, one per student
+     * @return the number of records stored
+     * @throws SQLException if the batch fails
      */
-    public void updateRequestChecked(Request request, boolean checked) throws SQLException {
-        String sql = "UPDATE systemRequests SET checked = ? WHERE id = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setBoolean(1, checked);
-            ps.setInt(2, request.getRequestId());
-            ps.executeUpdate();
-            request.setChecked(checked); // update object
+    private int upsertStudentStatuses(Connection connection, List<StudentStatus> statuses) throws SQLException {
+        if (statuses.isEmpty()) return 0;
+        String merge = "MERGE INTO StudentStatus (userName, postNumber, replyNumber, viewReceived, "
+                + "replyReceived, upvoteReceived, promotion, violation) KEY (userName) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(merge)) {
+            for (StudentStatus status : statuses) {
+                ps.setString(1, status.getUserName());
+                ps.setInt(2, status.getPostNumber());
+                ps.setInt(3, status.getReplyNumber());
+                ps.setInt(4, status.getViewReceived());
+                ps.setInt(5, status.getReplyReceived());
+                ps.setInt(6, status.getUpvoteReceived());
+                ps.setInt(7, status.getPromotion());
+                ps.setInt(8, status.getViolation());
+                ps.addBatch();
+                gradesChanged(status.getUserName());
+            }
+            ps.executeBatch();
+            return statuses.size();
         }
     }
 
     /**
-     * <p> Method: void deleteRequest(Request request) </p>
+     * <p> Method: boolean incrementPromotion(String userName, int amount) </p>
 	 * 
-	 * <p> Description: Deletes a request from the systemRequests table. </p>
+	 * <p> Description: Adds to the promotion count of a student with a single update of
+	 * that one column, so concurrent staff actions are never lost. </p>
      *
-     * @param request the {@code Request} object to delete
-     * @throws SQLException if a database access error occurs
+     * @param userName the username of the student
+     * @param amount the number of promotions to add, negative to take promotions away
+     * @return true if the student has a status record and it was updated
      */
-    public void deleteRequest(Request request) throws SQLException {
-        String sql = "DELETE FROM systemRequests WHERE id = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, request.getRequestId());
-            ps.executeUpdate();
-        }
+    public boolean incrementPromotion(String userName, int amount) {
+        return incrementStatusColumn("UPDATE StudentStatus SET promotion = promotion + ? WHERE userName = ?",
+                userName, amount);
     }
-	
+
     /**
-     * <p> Method: void insertStudentStatus(String userName) </p>
+     * <p> Method: boolean incrementViolation(String userName, int amount) </p>
 	 * 
-	 * <p> Description: Inserts a new student status record with only the username. </p>
+	 * <p> Description: Adds to the violation count of a student with a single update of
+	 * that one column, so concurrent staff actions are never lost. </p>
      *
      * @param userName the username of the student
+     * @param amount the number of violations to add, negative to take violations away
+     * @return true if the student has a status record and it was updated
      */
-    public void insertStudentStatus(String userName) {
-        String sql = "INSERT INTO StudentStatus (userName) VALUES (?)";
-
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, userName);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+    public boolean incrementViolation(String userName, int amount) {
+        return incrementStatusColumn("UPDATE StudentStatus SET violation = violation + ? WHERE userName = ?",
+                userName, amount);
     }
 
     /**
-     * <p> Method: void updateStudentStatus(StudentStatus status) </p>
+     * <p> Method: boolean togglePromotion(String userName) </p>
 	 * 
-	 * <p> Description: Updates an existing student status record in the StudentStatus table. </p>
+	 * <p> Description: Sets the promotion count of a student to 1 if it is 0 and to 0
+	 * otherwise, reading and writing it in one update so two staff members toggling at once
+	 * cannot leave a count of 2. </p>
      *
-     * @param status the {@code StudentStatus} object containing updated values
+     * @param userName the username of the student
+     * @return true if the student has a status record and it was updated
      */
-    public void updateStudentStatus(StudentStatus status) {
-        String sql = "UPDATE StudentStatus SET "
-                + "postNumber = ?, "
-                + "replyNumber = ?, "
-                + "viewReceived = ?, "
-                + "replyReceived = ?, "
-                + "upvoteReceived = ?, "
-                + "promotion = ?, "
-                + "violation = ? "
-                + "WHERE userName = ?";
+    public boolean togglePromotion(String userName) {
+        return toggleStatusColumn("UPDATE StudentStatus SET promotion = CASE WHEN promotion = 0 THEN 1 ELSE 0 END "
+                + "WHERE userName = ?", userName);
+    }
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, status.getPostNumber());
-            ps.setInt(2, status.getReplyNumber());
-            ps.setInt(3, status.getViewReceived());
-            ps.setInt(4, status.getReplyReceived());
-            ps.setInt(5, status.getUpvoteReceived());
-            ps.setInt(6, status.getPromotion());
-            ps.setInt(7, status.getViolation());
-            ps.setString(8, status.getUserName());
+    /**
+     * <p> Method: boolean toggleViolation(String userName) </p>
+	 * 
+	 * <p> Description: Sets the violation count of a student to 1 if it is 0 and to 0
+	 * otherwise, in one update like {@link #togglePromotion(String)}. </p>
+     *
+     * @param userName the username of the student
+     * @return true if the student has a status record and it was updated
+     */
+    public boolean toggleViolation(String userName) {
+        return toggleStatusColumn("UPDATE StudentStatus SET violation = CASE WHEN violation = 0 THEN 1 ELSE 0 END "
+                + "WHERE userName = ?", userName);
+    }
 
-            ps.executeUpdate();
+    /**
+     * <p> Method: boolean toggleStatusColumn(String sql, String userName) </p>
+	 * 
+	 * <p> Description: Runs a single column toggle of a student status record. </p>
+     *
+     * @param sql the update, taking the username
+     * @param userName the username of the student
+     * @return true if a record was updated
+     */
+    private boolean toggleStatusColumn(String sql, String userName) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, userName);
+            boolean updated = ps.executeUpdate() > 0;
+            gradeCache.invalidate(userName);
+            return updated;
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
         }
     }
 
     /**
-     * <p> Method: StudentStatus getStudentStatus(String userName) </p>
+     * <p> Method: boolean incrementStatusColumn(String sql, String userName, int amount) </p>
 	 * 
-	 * <p> Description: Retrieves the student status by username.
-     * If the student status does not exist, a new record is inserted with default values. </p>
+	 * <p> Description: Runs a single column increment of a student status record. </p>
      *
+     * @param sql the update, taking the amount and the username
      * @param userName the username of the student
-     * @return the {@code StudentStatus} object, or {@code null} if a database error occurs
+     * @param amount the amount to add
+     * @return true if a record was updated
      */
-    public StudentStatus getStudentStatus(String userName) {
-        String sql = "SELECT * FROM StudentStatus WHERE userName = ?";
-
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-
-            ps.setString(1, userName);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                return new StudentStatus(
-                        rs.getString("userName"),
-                        rs.getInt("postNumber"),
-                        rs.getInt("replyNumber"),
-                        rs.getInt("viewReceived"),
-                        rs.getInt("replyReceived"),
-                        rs.getInt("upvoteReceived"),
-                        rs.getInt("promotion"),
-                        rs.getInt("violation")
-                );
-            } else {
-                insertStudentStatus(userName);
-                return new StudentStatus(userName);
-            }
-
+    private boolean incrementStatusColumn(String sql, String userName, int amount) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, amount);
+            ps.setString(2, userName);
+            boolean updated = ps.executeUpdate() > 0;
+            gradeCache.invalidate(userName);
+            return updated;
         } catch (SQLException e) {
             e.printStackTrace();
-            return null;
+            return false;
         }
     }
 
     /**
      * <p> Method: int makeMessage(Message msg) </p>
 	 * 
-	 * <p> Description: Inserts a new message into the Message table. </p>
+	 * <p> Description: Inserts a new message into the Message table. The unread message
+	 * counter of the receiver is raised in the same transaction. </p>
      *
      * @param msg the {@code Message} object to insert
      * @return the generated ID of the inserted message, or -1 if insertion fails
@@ -3369,21 +5938,35 @@ public class Database {
     public int makeMessage(Message msg) {
         String query = "INSERT INTO Message (sender, receiver, subject, content, isRead) "
                      + "VALUES (?, ?, ?, ?, false)";
-        try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, msg.getSender());
-            pstmt.setString(2, msg.getReceiver());
-            pstmt.setString(3, msg.getSubject());
-            pstmt.setString(4, msg.getContent());
-            pstmt.executeUpdate();
-
-            ResultSet rs = pstmt.getGeneratedKeys();
-            if (rs.next()) {
-                return rs.getInt(1);
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            boolean ownsTransaction = connection.getAutoCommit();
+            if (ownsTransaction) connection.setAutoCommit(false);
+            try {
+                pstmt.setString(1, msg.getSender());
+                pstmt.setString(2, msg.getReceiver());
+                pstmt.setString(3, msg.getSubject());
+                pstmt.setString(4, msg.getContent());
+                pstmt.executeUpdate();
+
+                int generatedId = -1;
+                try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        generatedId = rs.getInt(1);
+                    }
+                }
+                addUnreadCounts(connection, msg.getReceiver(), 1, 0, 0);
+                if (ownsTransaction) connection.commit();
+                return generatedId;
+            } catch (SQLException e) {
+                if (ownsTransaction) connection.rollback();
+                throw e;
+            } finally {
+                if (ownsTransaction) connection.setAutoCommit(true);
             }
         } catch (SQLException e) {
             return -1;
         }
-        return -1;
     }
     
     /**
@@ -3398,10 +5981,12 @@ public class Database {
      */
     public void deleteStudentStatus(String userName) throws SQLException {
         String sql = "DELETE FROM StudentStatus WHERE userName = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, userName);
             ps.executeUpdate();
         }
+        gradeCache.invalidate(userName);
     }
 
     /**
@@ -3414,7 +5999,8 @@ public class Database {
      */
     public Message getMessage(int msgId) {
         String query = "SELECT * FROM Message WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, msgId);
 
             ResultSet rs = pstmt.executeQuery();
@@ -3444,8 +6030,8 @@ public class Database {
      */
     public List<Message> getAllMessages(String username) {
         List<Message> list = new ArrayList<>();
-        try (PreparedStatement pstmt = connection.prepareStatement(
-                "SELECT * FROM Message WHERE receiver = ? ORDER BY id DESC")) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(MESSAGES_OF_RECEIVER_QUERY)) {
 
             pstmt.setString(1, username);
             ResultSet rs = pstmt.executeQuery();
@@ -3468,6 +6054,73 @@ public class Database {
         return list;
     }
 
+    /**
+     * <p> Method: ArrayList&lt;MessageHeader&gt; getInboxPage(String receiver, String subjectText,
+     * boolean unreadOnly, int lastSeenId, int limit) </p>
+	 * 
+	 * <p> Description: Retrieves one page of the messages received by a user, newest first,
+	 * without their content. The subject search and unread filter are part of the query, and
+	 * the page starts right after the last message of the previous page, so each page reads
+	 * only its own rows from the receiver's index. Use {@link #getMessage(int)} to load a
+	 * message's content when it is opened. </p>
+     *
+     * @param receiver the receiver's username
+     * @param subjectText only messages whose subject contains this text, ignoring case; null or
+     *        blank for every message
+     * @param unreadOnly true to leave out messages already read
+     * @param lastSeenId the id of the last message of the previous page, or 0 for the first page
+     * @param limit the maximum number of messages on the page
+     * @return the page of message headers; an empty list if a database error occurs
+     */
+    public ArrayList<MessageHeader> getInboxPage(String receiver, String subjectText, boolean unreadOnly,
+            int lastSeenId, int limit) {
+        return readHeaderPage(unreadOnly ? UNREAD_INBOX_PAGE_QUERY : INBOX_PAGE_QUERY,
+                receiver, subjectText, lastSeenId, limit);
+    }
+
+    /**
+     * <p> Method: ArrayList&lt;MessageHeader&gt; readHeaderPage(String query, String userName,
+     * String subjectText, int lastSeenId, int limit) </p>
+	 * 
+	 * <p> Description: Runs one of the header page queries, which all take the user, the
+	 * cursor, the subject pattern twice and the page size, in that order. </p>
+     *
+     * @param query the page query
+     * @param userName the user whose page is read, named as the receiver of every header
+     * @param subjectText the subject search; null or blank for none
+     * @param lastSeenId the id of the last row of the previous page, or 0 for the first page
+     * @param limit the maximum number of rows on the page
+     * @return the page of headers; an empty list if a database error occurs
+     */
+    private ArrayList<MessageHeader> readHeaderPage(String query, String userName, String subjectText,
+            int lastSeenId, int limit) {
+        ArrayList<MessageHeader> page = new ArrayList<>();
+        String pattern = subjectText == null || subjectText.isBlank() ? null
+                : PostQuery.contains(subjectText.trim());
+
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, userName);
+            pstmt.setInt(2, lastSeenId > 0 ? lastSeenId : Integer.MAX_VALUE);
+            pstmt.setString(3, pattern);
+            pstmt.setString(4, pattern);
+            pstmt.setInt(5, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(new MessageHeader(
+                            rs.getInt("id"),
+                            rs.getString("sender"),
+                            userName,
+                            rs.getString("subject"),
+                            rs.getBoolean("isRead")));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return page;
+    }
+
     /**
      * <p> Method: List getAllUnreadMessages(String username) </p>
 	 * 
@@ -3478,10 +6131,10 @@ public class Database {
      */
     public List<Message> getAllUnreadMessages(String username) {
         List<Message> messages = new ArrayList<>();
-        String query = "SELECT * FROM Message "
-                     + "WHERE receiver = ? AND isRead = false ORDER BY id DESC";
+        String query = UNREAD_MESSAGES_OF_RECEIVER_QUERY;
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, username);
             ResultSet rs = pstmt.executeQuery();
 
@@ -3504,15 +6157,28 @@ public class Database {
     /**
      * <p> Method: void markMessageAsRead(Message msg) </p>
 	 * 
-	 * <p> Description: Marks a message as read in the database. </p>
+	 * <p> Description: Marks a message as read in the database. The first time a message is
+	 * read, the unread message counter of its receiver is lowered in the same transaction. </p>
      *
      * @param msg the {@code Message} object to update
      */
     public void markMessageAsRead(Message msg) {
-        String query = "UPDATE Message SET isRead = true WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, msg.getId());
-            pstmt.executeUpdate();
+        String query = "UPDATE Message SET isRead = true WHERE id = ? AND isRead = false";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            boolean ownsTransaction = connection.getAutoCommit();
+            if (ownsTransaction) connection.setAutoCommit(false);
+            try {
+                String receiver = lockUnreadMessageReceiver(connection, msg.getId());
+                pstmt.setInt(1, msg.getId());
+                if (pstmt.executeUpdate() > 0) addUnreadCounts(connection, receiver, -1, 0, 0);
+                if (ownsTransaction) connection.commit();
+            } catch (SQLException e) {
+                if (ownsTransaction) connection.rollback();
+                throw e;
+            } finally {
+                if (ownsTransaction) connection.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             return;
         }
@@ -3521,17 +6187,412 @@ public class Database {
     /**
      * <p> Method: void deleteMessage(Message msg) </p>
 	 * 
-	 * <p> Description: Deletes a message from the Message table. </p>
+	 * <p> Description: Deletes a message from the Message table. Deleting an unread message
+	 * lowers the unread message counter of its receiver in the same transaction. </p>
      *
      * @param msg the {@code Message} object to delete
      */
     public void deleteMessage(Message msg) {
         String query = "DELETE FROM Message WHERE id = ?";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            boolean ownsTransaction = connection.getAutoCommit();
+            if (ownsTransaction) connection.setAutoCommit(false);
+            try {
+                String receiver = lockUnreadMessageReceiver(connection, msg.getId());
+                pstmt.setInt(1, msg.getId());
+                if (pstmt.executeUpdate() > 0) addUnreadCounts(connection, receiver, -1, 0, 0);
+                if (ownsTransaction) connection.commit();
+            } catch (SQLException e) {
+                if (ownsTransaction) connection.rollback();
+                throw e;
+            } finally {
+                if (ownsTransaction) connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            return;
+        }
+    }
+
+    /**
+     * <p> Method: String lockUnreadMessageReceiver(Connection connection, int msgId) </p>
+	 * 
+	 * <p> Description: Locks a message for the rest of the transaction and finds who it is
+	 * unread for, so that reading or deleting it lowers the unread counter only once. </p>
+     *
+     * @param connection the connection, and transaction, to lock the message in
+     * @param msgId the unique ID of the message
+     * @return the receiver of the message if it exists and is unread, otherwise {@code null}
+     * @throws SQLException if the message cannot be read
+     */
+    private String lockUnreadMessageReceiver(Connection connection, int msgId) throws SQLException {
+        String query = "SELECT receiver, isRead FROM Message WHERE id = ? FOR UPDATE";
         try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, msg.getId());
+            pstmt.setInt(1, msgId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next() && !rs.getBoolean("isRead")) return rs.getString("receiver");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <p> Method: void addUnreadCounts(Connection connection, String userName, int unreadMessages,
+     * int readPosts, int readAnnouncements) </p>
+	 * 
+	 * <p> Description: Adds to the unread message, read post and read announcement counters of
+	 * a user, inside the caller's transaction and after the caller's change. A user without a
+	 * counter row gets one counted from the base tables, which already include the change. </p>
+     *
+     * @param connection the connection, and transaction, of the change
+     * @param userName the user whose counters change; nothing is done when null
+     * @param unreadMessages the number of unread messages to add
+     * @param readPosts the number of read posts to add
+     * @param readAnnouncements the number of read announcements to add
+     * @throws SQLException if the counters cannot be updated
+     */
+    private void addUnreadCounts(Connection connection, String userName, int unreadMessages, int readPosts,
+            int readAnnouncements) throws SQLException {
+        if (userName == null) return;
+        String update = "UPDATE UnreadCounts SET unreadMessages = unreadMessages + ?, readPosts = readPosts + ?, "
+                      + "readAnnouncements = readAnnouncements + ? WHERE userName = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(update)) {
+            pstmt.setInt(1, unreadMessages);
+            pstmt.setInt(2, readPosts);
+            pstmt.setInt(3, readAnnouncements);
+            pstmt.setString(4, userName);
+            if (pstmt.executeUpdate() > 0) return;
+        }
+        insertUnreadCounts(connection, userName);
+    }
+
+    /**
+     * <p> Method: void insertUnreadCounts(Connection connection, String userName) </p>
+	 * 
+	 * <p> Description: Creates the counter row of a user who has none, counted from the base
+	 * tables. </p>
+     *
+     * @param connection the connection, and transaction, to insert with
+     * @param userName the user without a counter row
+     * @throws SQLException if the row cannot be inserted
+     */
+    private void insertUnreadCounts(Connection connection, String userName) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("INSERT INTO UnreadCounts "
+                + "(userName, unreadMessages, readPosts, readAnnouncements) "
+                + UNREAD_COUNTS_FROM_BASE_TABLES + " WHERE u.userName = ?")) {
+            pstmt.setString(1, userName);
             pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * <p> Method: int getUnreadMessageCount(String userName) </p>
+	 * 
+	 * <p> Description: Retrieves the number of unread messages received by a user from their
+	 * counter row, without reading any message. </p>
+     *
+     * @param userName the receiver's username
+     * @return the number of unread messages, or 0 if a database error occurs
+     */
+    public int getUnreadMessageCount(String userName) {
+        int[] counts = getUnreadCounts(userName);
+        return counts == null ? 0 : counts[0];
+    }
+
+    /**
+     * <p> Method: int getUnreadPostCount(String userName) </p>
+	 * 
+	 * <p> Description: Retrieves the number of posts a user has not read: the number of posts,
+	 * which the database keeps for the table, less the user's read post counter. </p>
+     *
+     * @param userName the reader's username
+     * @return the number of unread posts, or 0 if a database error occurs
+     */
+    public int getUnreadPostCount(String userName) {
+        int[] counts = getUnreadCounts(userName);
+        return counts == null ? 0 : Math.max(0, counts[2] - counts[1]);
+    }
+
+    /**
+     * <p> Method: int getUnreadAnnouncementCount(String userName) </p>
+	 * 
+	 * <p> Description: Retrieves the number of announcements a user has not read: the number
+	 * of announcements less the user's read announcement counter. </p>
+     *
+     * @param userName the reader's username
+     * @return the number of unread announcements, or 0 if a database error occurs
+     */
+    public int getUnreadAnnouncementCount(String userName) {
+        int[] counts = getUnreadCounts(userName);
+        return counts == null ? 0 : Math.max(0, counts[4] - counts[3]);
+    }
+
+    /**
+     * <p> Method: int[] getUnreadCounts(String userName) </p>
+	 * 
+	 * <p> Description: Reads the counter row of a user, the number of posts and the number of
+	 * announcements. A user without a counter row has no unread messages and has read no posts
+	 * or announcements. </p>
+     *
+     * @param userName the user's username
+     * @return the unread messages, read posts, number of posts, read announcements and number
+     *         of announcements, or null if a database error occurs
+     */
+    private int[] getUnreadCounts(String userName) {
+        int[] counts = new int[5];
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(UNREAD_COUNTS_QUERY);
+             Statement statement = connection.createStatement()) {
+            pstmt.setString(1, userName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    counts[0] = rs.getInt("unreadMessages");
+                    counts[1] = rs.getInt("readPosts");
+                    counts[3] = rs.getInt("readAnnouncements");
+                }
+            }
+            // Answered from the row counts of the tables, not by scanning them
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT (SELECT COUNT(*) FROM Posts), (SELECT COUNT(*) FROM Announcements)")) {
+                if (rs.next()) {
+                    counts[2] = rs.getInt(1);
+                    counts[4] = rs.getInt(2);
+                }
+            }
         } catch (SQLException e) {
-            return;
+            e.printStackTrace();
+            return null;
+        }
+        return counts;
+    }
+
+    /**
+     * <p> Method: ArrayList&lt;String&gt; getStudentUserNames(String nameText) </p>
+	 * 
+	 * <p> Description: Retrieves the usernames of the students whose username, first, last or
+	 * preferred first name contains a text, ignoring case, to choose the receivers of a
+	 * broadcast. </p>
+     *
+     * @param nameText the text to look for; null or blank for every student
+     * @return the matching usernames in username order; an empty list if a database error occurs
+     */
+    public ArrayList<String> getStudentUserNames(String nameText) {
+        ArrayList<String> names = new ArrayList<>();
+        String pattern = nameText == null || nameText.isBlank() ? null : PostQuery.contains(nameText.trim());
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(STUDENTS_MATCHING)) {
+            for (int i = 1; i <= 5; i++) pstmt.setString(i, pattern);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) names.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return names;
+    }
+
+    /**
+     * <p> Method: int broadcastMessage(String sender, Collection&lt;String&gt; receivers, String subject, String content) </p>
+	 * 
+	 * <p> Description: Sends the same message to many receivers. Every message row is
+	 * inserted through one JDBC batch, and the unread counters of the receivers through a
+	 * second one, in a single transaction, so either every receiver gets the message or none
+	 * does. Blank and repeated receivers are skipped. Inside a transaction the caller already
+	 * has open, a failed broadcast may leave its earlier batches there for the caller to roll
+	 * back. </p>
+     *
+     * @param sender the sender's username
+     * @param receivers the receivers' usernames
+     * @param subject the subject of the message
+     * @param content the content of the message
+     * @return the number of messages sent, or -1 if the broadcast fails, for example because a
+     *         receiver does not exist
+     */
+    public int broadcastMessage(String sender, Collection<String> receivers, String subject, String content) {
+        LinkedHashSet<String> names = new LinkedHashSet<>();
+        for (String receiver : receivers) {
+            if (receiver != null && !receiver.isBlank()) names.add(receiver);
+        }
+        if (names.isEmpty()) return 0;
+
+        String insert = "INSERT INTO Message (sender, receiver, subject, content, isRead) VALUES (?, ?, ?, ?, false)";
+        String count = "UPDATE UnreadCounts SET unreadMessages = unreadMessages + 1 WHERE userName = ?";
+        try (Connection connection = getConnection();
+             PreparedStatement messages = connection.prepareStatement(insert);
+             PreparedStatement counters = connection.prepareStatement(count)) {
+            boolean ownsTransaction = connection.getAutoCommit();
+            if (ownsTransaction) connection.setAutoCommit(false);
+            List<String> batch = new ArrayList<>();
+            try {
+                for (String receiver : names) {
+                    messages.setString(1, sender);
+                    messages.setString(2, receiver);
+                    messages.setString(3, subject);
+                    messages.setString(4, content);
+                    messages.addBatch();
+                    counters.setString(1, receiver);
+                    counters.addBatch();
+                    batch.add(receiver);
+                    if (batch.size() == BROADCAST_BATCH_SIZE) flushBroadcastBatch(connection, messages, counters, batch);
+                }
+                flushBroadcastBatch(connection, messages, counters, batch);
+                if (ownsTransaction) connection.commit();
+                return names.size();
+            } catch (SQLException e) {
+                if (ownsTransaction) connection.rollback();
+                throw e;
+            } finally {
+                // A failed flush leaves rows queued; the cached statements must not replay them
+                messages.clearBatch();
+                counters.clearBatch();
+                if (ownsTransaction) connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * <p> Method: void flushBroadcastBatch(Connection connection, PreparedStatement messages,
+     * PreparedStatement counters, List&lt;String&gt; batch) </p>
+	 * 
+	 * <p> Description: Runs the pending message inserts and counter updates of a broadcast,
+	 * then creates the counter rows of receivers who had none. </p>
+     *
+     * @param connection the connection, and transaction, of the broadcast
+     * @param messages the batched message inserts
+     * @param counters the batched counter updates, one per receiver in batch order
+     * @param batch the receivers of the pending rows; cleared afterwards
+     * @throws SQLException if a row cannot be written
+     */
+    private void flushBroadcastBatch(Connection connection, PreparedStatement messages, PreparedStatement counters,
+            List<String> batch) throws SQLException {
+        if (batch.isEmpty()) return;
+        messages.executeBatch();
+        int[] updated = counters.executeBatch();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) insertUnreadCounts(connection, batch.get(i));
+        }
+        batch.clear();
+    }
+
+    /**
+     * <p> Method: int postAnnouncement(String sender, String subject, String content) </p>
+	 * 
+	 * <p> Description: Sends a message to every student as a single announcement row, for
+	 * audiences too large to give each student their own copy. Students read it through
+	 * {@link #getAnnouncementPage(String, String, boolean, int, int)}, and it is unread for
+	 * every student until they open it, including students who register later. </p>
+     *
+     * @param sender the sender's username
+     * @param subject the subject of the announcement
+     * @param content the content of the announcement
+     * @return the generated ID of the announcement, or -1 if insertion fails
+     */
+    public int postAnnouncement(String sender, String subject, String content) {
+        String query = "INSERT INTO Announcements (sender, subject, content) VALUES (?, ?, ?)";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, sender);
+            pstmt.setString(2, subject);
+            pstmt.setString(3, content);
+            pstmt.executeUpdate();
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                if (rs.next()) return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    /**
+     * <p> Method: ArrayList&lt;MessageHeader&gt; getAnnouncementPage(String userName, String subjectText,
+     * boolean unreadOnly, int lastSeenId, int limit) </p>
+	 * 
+	 * <p> Description: Retrieves one page of announcements, newest first, without their
+	 * content, each with whether the given user has read it. Paged and filtered like
+	 * {@link #getInboxPage(String, String, boolean, int, int)}; the headers name the user as
+	 * their receiver. </p>
+     *
+     * @param userName the reader's username
+     * @param subjectText only announcements whose subject contains this text, ignoring case;
+     *        null or blank for every announcement
+     * @param unreadOnly true to leave out announcements the user has read
+     * @param lastSeenId the id of the last announcement of the previous page, or 0 for the first page
+     * @param limit the maximum number of announcements on the page
+     * @return the page of announcement headers; an empty list if a database error occurs
+     */
+    public ArrayList<MessageHeader> getAnnouncementPage(String userName, String subjectText, boolean unreadOnly,
+            int lastSeenId, int limit) {
+        return readHeaderPage(unreadOnly ? UNREAD_ANNOUNCEMENT_PAGE_QUERY : ANNOUNCEMENT_PAGE_QUERY,
+                userName, subjectText, lastSeenId, limit);
+    }
+
+    /**
+     * <p> Method: Message getAnnouncement(int announcementId, String userName) </p>
+	 * 
+	 * <p> Description: Retrieves an announcement with its content, as a message to the given
+	 * user carrying their read flag. </p>
+     *
+     * @param announcementId the unique ID of the announcement
+     * @param userName the reader's username
+     * @return the announcement as a {@code Message}, or {@code null} if it does not exist
+     */
+    public Message getAnnouncement(int announcementId, String userName) {
+        String query = "SELECT a.id, a.sender, a.subject, a.content, r.userName IS NOT NULL AS isRead "
+                     + "FROM Announcements a "
+                     + "LEFT JOIN AnnouncementReads r ON r.userName = ? AND r.announcementId = a.id "
+                     + "WHERE a.id = ?";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, userName);
+            pstmt.setInt(2, announcementId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Message(rs.getInt("id"), rs.getString("sender"), userName,
+                            rs.getString("subject"), rs.getString("content"), rs.getBoolean("isRead"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * <p> Method: void markAnnouncementAsRead(String userName, int announcementId) </p>
+	 * 
+	 * <p> Description: Records that a user has read an announcement. The first time, the read
+	 * announcement counter of the user is raised in the same transaction. </p>
+     *
+     * @param userName the reader's username
+     * @param announcementId the unique ID of the announcement
+     */
+    public void markAnnouncementAsRead(String userName, int announcementId) {
+        String query = "INSERT INTO AnnouncementReads (userName, announcementId) "
+                     + "SELECT ?, id FROM Announcements a WHERE a.id = ? AND NOT EXISTS "
+                     + "(SELECT 1 FROM AnnouncementReads r WHERE r.userName = ? AND r.announcementId = a.id)";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            boolean ownsTransaction = connection.getAutoCommit();
+            if (ownsTransaction) connection.setAutoCommit(false);
+            try {
+                pstmt.setString(1, userName);
+                pstmt.setInt(2, announcementId);
+                pstmt.setString(3, userName);
+                if (pstmt.executeUpdate() > 0) addUnreadCounts(connection, userName, 0, 0, 1);
+                if (ownsTransaction) connection.commit();
+            } catch (SQLException e) {
+                if (ownsTransaction) connection.rollback();
+                throw e;
+            } finally {
+                if (ownsTransaction) connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            // A concurrent read of the same announcement by the same user was counted instead
+            e.printStackTrace();
         }
     }
     
@@ -3543,15 +6604,23 @@ public class Database {
 	 * @throws SQLException if issue occurred
 	 */
 	public void clearDatabase() throws SQLException {
-		try {
-			Class.forName(JDBC_DRIVER); // Load the JDBC driver
-			connection = DriverManager.getConnection(DB_URL, USER, PASS);
-			statement = connection.createStatement(); 
+		// A repair running against the dropped tables would only fail, and tests never close
+		// the connection, so the repair thread is stopped here as well
+		stopRepairs();
+		if (pool == null) {
+			connectToDatabase();
+			return;
+		}
+		try (Connection connection = getConnection();
+		     Statement statement = connection.createStatement()) {
 			statement.execute("DROP ALL OBJECTS");
 
-			createTables();  // Create the necessary tables if they don't exist
-		} catch (ClassNotFoundException e) {
-			System.err.println("JDBC Driver not found: " + e.getMessage());
+			createTables(statement);  // Create the necessary tables if they don't exist
 		}
+		gradeCache.invalidateAll();
+		searchIndex.clear();
+		postTitleIndex.clear();
+		userNameIndex.clear();
+		duplicateIndex.clear();
 	}
-}
\ No newline at end of file
+}
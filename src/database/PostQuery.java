@@ -0,0 +1,275 @@
+package database;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*******
+ * <p> Title: PostQuery Class. </p>
+ *
+ * <p> Description: Describes which posts of the feed a page should show.  Each filter that is
+ * set adds one condition to the WHERE clause of the feed query, so the whole combination of
+ * thread, unread, text, owner and tag filters is answered by a single parameterized statement
+ * run by {@link Database#getPostFeed(PostQuery)} instead of by loading every post and filtering
+ * it in Java.</p>
+ *
+ * <p> The filter methods return the query itself so that they can be chained:</p>
+ * <pre>
+ *     new PostQuery(viewer).inThread("General").unreadOnly(true).after(lastSeenId).limit(50)
+ * </pre>
+ *
+ * <p> A filter given a null or empty value is left out, which lets the user interface pass the
+ * contents of its controls without checking them first.</p>
+ *
+ */
+public class PostQuery {
+
+	/** The user the feed is shown to; read flags and the unread filter are relative to them */
+	private final String viewer;
+	/** Only posts in the thread with this name, or null for every thread */
+	private String thread;
+	/** Only posts the viewer has not read yet */
+	private boolean unreadOnly;
+	/** Only posts whose title contains this text, ignoring case, or null */
+	private String titleText;
+	/** Only posts whose title or content contains this text, ignoring case, or null */
+	private String text;
+	/** Only posts written by this user, or null for every owner */
+	private String owner;
+	/** Only posts carrying this tag, or null for every post */
+	private String tag;
+	/** Only posts older than the post with this id, or 0 to start at the newest post */
+	private int lastSeenId;
+	/** Maximum number of posts returned, or 0 for no limit */
+	private int limit;
+
+	/*******
+	 * <p> Method: PostQuery(String viewer) </p>
+	 *
+	 * <p> Description: Create a query for the whole feed of the given viewer.</p>
+	 *
+	 * @param viewer the username of the user viewing the feed
+	 *
+	 */
+	public PostQuery(String viewer) {
+		this.viewer = viewer;
+	}
+
+	/*******
+	 * <p> Method: PostQuery inThread(String thread) </p>
+	 *
+	 * <p> Description: Only keep the posts of one thread.  The thread name "All" keeps every
+	 * thread, matching the thread selector of the home pages.</p>
+	 *
+	 * @param thread the thread name, "All", or null
+	 *
+	 * @return this query
+	 */
+	public PostQuery inThread(String thread) {
+		this.thread = isBlank(thread) || thread.equals("All") ? null : thread;
+		return this;
+	}
+
+	/*******
+	 * <p> Method: PostQuery unreadOnly(boolean unreadOnly) </p>
+	 *
+	 * <p> Description: Only keep the posts the viewer has not read yet.</p>
+	 *
+	 * @param unreadOnly true to leave out the posts the viewer has read
+	 *
+	 * @return this query
+	 */
+	public PostQuery unreadOnly(boolean unreadOnly) {
+		this.unreadOnly = unreadOnly;
+		return this;
+	}
+
+	/*******
+	 * <p> Method: PostQuery titleContains(String text) </p>
+	 *
+	 * <p> Description: Only keep the posts whose title contains the text, ignoring case.</p>
+	 *
+	 * @param text the text to look for, or null
+	 *
+	 * @return this query
+	 */
+	public PostQuery titleContains(String text) {
+		this.titleText = isBlank(text) ? null : text.trim();
+		return this;
+	}
+
+	/*******
+	 * <p> Method: PostQuery textContains(String text) </p>
+	 *
+	 * <p> Description: Only keep the posts whose title or content contains the text, ignoring
+	 * case.</p>
+	 *
+	 * @param text the text to look for, or null
+	 *
+	 * @return this query
+	 */
+	public PostQuery textContains(String text) {
+		this.text = isBlank(text) ? null : text.trim();
+		return this;
+	}
+
+	/*******
+	 * <p> Method: PostQuery ownedBy(String owner) </p>
+	 *
+	 * <p> Description: Only keep the posts written by one user.</p>
+	 *
+	 * @param owner the username of the post owner, or null
+	 *
+	 * @return this query
+	 */
+	public PostQuery ownedBy(String owner) {
+		this.owner = isBlank(owner) ? null : owner;
+		return this;
+	}
+
+	/*******
+	 * <p> Method: PostQuery taggedWith(String tag) </p>
+	 *
+	 * <p> Description: Only keep the posts carrying a tag.</p>
+	 *
+	 * @param tag the tag, or null
+	 *
+	 * @return this query
+	 */
+	public PostQuery taggedWith(String tag) {
+		this.tag = isBlank(tag) ? null : tag.trim();
+		return this;
+	}
+
+	/*******
+	 * <p> Method: PostQuery after(int lastSeenId) </p>
+	 *
+	 * <p> Description: Start the page right after the post with this id, the last post of the
+	 * previous page.</p>
+	 *
+	 * @param lastSeenId the id of the last post already shown, or 0 for the first page
+	 *
+	 * @return this query
+	 */
+	public PostQuery after(int lastSeenId) {
+		this.lastSeenId = lastSeenId;
+		return this;
+	}
+
+	/*******
+	 * <p> Method: PostQuery limit(int limit) </p>
+	 *
+	 * <p> Description: Return at most this many posts.</p>
+	 *
+	 * @param limit the page size, or 0 for no limit
+	 *
+	 * @return this query
+	 */
+	public PostQuery limit(int limit) {
+		this.limit = limit;
+		return this;
+	}
+
+	/*******
+	 * <p> Method: String getViewer() </p>
+	 *
+	 * @return the username of the user viewing the feed
+	 */
+	public String getViewer() { return viewer; }
+
+	/*******
+	 * <p> Method: int getLimit() </p>
+	 *
+	 * @return the maximum number of posts returned, or 0 for no limit
+	 */
+	public int getLimit() { return limit; }
+
+	/*******
+	 * <p> Method: String whereClause() </p>
+	 *
+	 * <p> Description: Build the WHERE clause for the feed query, using the alias p for Posts
+	 * and t for Threads.  Every value is a parameter; see {@link #bind}.</p>
+	 *
+	 * @return the WHERE clause, or an empty string when no filter is set
+	 */
+	String whereClause() {
+		List<String> conditions = new ArrayList<>();
+		if (thread != null) conditions.add("t.threadName = ?");
+		if (unreadOnly) conditions.add("""
+				NOT EXISTS (SELECT 1 FROM PostReadStatus ur
+				            WHERE ur.postId = p.id AND ur.userName = ? AND ur.isRead = TRUE)""");
+		if (titleText != null) conditions.add("LOWER(p.title) LIKE ? ESCAPE '\\'");
+		if (text != null) conditions.add("(LOWER(p.title) LIKE ? ESCAPE '\\' OR LOWER(p.content) LIKE ? ESCAPE '\\')");
+		if (owner != null) conditions.add("p.owner = ?");
+		if (tag != null) conditions.add("p.id IN (SELECT pt.postId FROM PostTags pt WHERE pt.tag = ?)");
+		if (lastSeenId > 0) conditions.add("p.id < ?");
+		return conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions);
+	}
+
+	/*******
+	 * <p> Method: int bind(PreparedStatement pstmt, int index) </p>
+	 *
+	 * <p> Description: Set the parameters of the WHERE clause, in the order whereClause wrote
+	 * them.</p>
+	 *
+	 * @param pstmt the prepared feed query
+	 *
+	 * @param index the index of the first WHERE clause parameter
+	 *
+	 * @return the index of the next parameter after the WHERE clause
+	 *
+	 * @throws SQLException if a parameter cannot be set
+	 */
+	int bind(PreparedStatement pstmt, int index) throws SQLException {
+		if (thread != null) pstmt.setString(index++, thread);
+		if (unreadOnly) pstmt.setString(index++, viewer);
+		if (titleText != null) pstmt.setString(index++, contains(titleText));
+		if (text != null) {
+			pstmt.setString(index++, contains(text));
+			pstmt.setString(index++, contains(text));
+		}
+		if (owner != null) pstmt.setString(index++, owner);
+		if (tag != null) pstmt.setString(index++, tag);
+		if (lastSeenId > 0) pstmt.setInt(index++, lastSeenId);
+		return index;
+	}
+
+	/*******
+	 * <p> Method: String contains(String value) </p>
+	 *
+	 * <p> Description: Build a case-insensitive LIKE pattern matching any text containing the
+	 * value.</p>
+	 *
+	 * @param value the text to look for
+	 *
+	 * @return the LIKE pattern
+	 */
+	static String contains(String value) {
+		return "%" + escapeLike(value.toLowerCase()) + "%";
+	}
+
+	/*******
+	 * <p> Method: String escapeLike(String value) </p>
+	 *
+	 * <p> Description: Escape the LIKE wildcards in a value so that they match literally.</p>
+	 *
+	 * @param value the text to escape
+	 *
+	 * @return the escaped text
+	 */
+	private static String escapeLike(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+	/*******
+	 * <p> Method: boolean isBlank(String value) </p>
+	 *
+	 * @param value the value of a filter
+	 *
+	 * @return true if the value is null or only white space
+	 */
+	private static boolean isBlank(String value) {
+		return value == null || value.trim().isEmpty();
+	}
+}
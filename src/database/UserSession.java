@@ -0,0 +1,184 @@
+package database;
+
+/*******
+ * <p> Title: UserSession Class. </p>
+ *
+ * <p> Description: Holds the easily accessible attributes of the currently logged-in user that
+ * the Database class used to keep in its own fields.  The Database keeps one session per calling
+ * thread, so a background task that looks up or updates a user does not overwrite the attributes
+ * the user interface thread is showing.</p>
+ *
+ */
+public class UserSession {
+
+	/**user name for current user**/
+	private String username;
+	/**password for current user**/
+	private String password;
+	/**first name for current user**/
+	private String firstName;
+	/**middle name for current user**/
+	private String middleName;
+	/**last name for current user**/
+	private String lastName;
+	/**preferred first name for current user**/
+	private String preferredFirstName;
+	/**email address for current user**/
+	private String emailAddress;
+	/**admin role for current user**/
+	private boolean adminRole;
+	/**student role for current user**/
+	private boolean studentRole;
+	/**staff role for current user**/
+	private boolean staffRole;
+
+	/*******
+	 * <p> Method: UserSession </p>
+	 *
+	 * <p> Description: Create an empty session with no current user.</p>
+	 *
+	 */
+	public UserSession() {
+
+	}
+
+	/*******
+	 * <p> Method: String getUsername() </p>
+	 *
+	 * @return the username of the current user
+	 */
+	public String getUsername() { return username; }
+
+	/*******
+	 * <p> Method: void setUsername(String username) </p>
+	 *
+	 * @param username the username of the current user
+	 */
+	public void setUsername(String username) { this.username = username; }
+
+	/*******
+	 * <p> Method: String getPassword() </p>
+	 *
+	 * @return the password of the current user
+	 */
+	public String getPassword() { return password; }
+
+	/*******
+	 * <p> Method: void setPassword(String password) </p>
+	 *
+	 * @param password the password of the current user
+	 */
+	public void setPassword(String password) { this.password = password; }
+
+	/*******
+	 * <p> Method: String getFirstName() </p>
+	 *
+	 * @return the first name of the current user
+	 */
+	public String getFirstName() { return firstName; }
+
+	/*******
+	 * <p> Method: void setFirstName(String firstName) </p>
+	 *
+	 * @param firstName the first name of the current user
+	 */
+	public void setFirstName(String firstName) { this.firstName = firstName; }
+
+	/*******
+	 * <p> Method: String getMiddleName() </p>
+	 *
+	 * @return the middle name of the current user
+	 */
+	public String getMiddleName() { return middleName; }
+
+	/*******
+	 * <p> Method: void setMiddleName(String middleName) </p>
+	 *
+	 * @param middleName the middle name of the current user
+	 */
+	public void setMiddleName(String middleName) { this.middleName = middleName; }
+
+	/*******
+	 * <p> Method: String getLastName() </p>
+	 *
+	 * @return the last name of the current user
+	 */
+	public String getLastName() { return lastName; }
+
+	/*******
+	 * <p> Method: void setLastName(String lastName) </p>
+	 *
+	 * @param lastName the last name of the current user
+	 */
+	public void setLastName(String lastName) { this.lastName = lastName; }
+
+	/*******
+	 * <p> Method: String getPreferredFirstName() </p>
+	 *
+	 * @return the preferred first name of the current user
+	 */
+	public String getPreferredFirstName() { return preferredFirstName; }
+
+	/*******
+	 * <p> Method: void setPreferredFirstName(String preferredFirstName) </p>
+	 *
+	 * @param preferredFirstName the preferred first name of the current user
+	 */
+	public void setPreferredFirstName(String preferredFirstName) { this.preferredFirstName = preferredFirstName; }
+
+	/*******
+	 * <p> Method: String getEmailAddress() </p>
+	 *
+	 * @return the email address of the current user
+	 */
+	public String getEmailAddress() { return emailAddress; }
+
+	/*******
+	 * <p> Method: void setEmailAddress(String emailAddress) </p>
+	 *
+	 * @param emailAddress the email address of the current user
+	 */
+	public void setEmailAddress(String emailAddress) { this.emailAddress = emailAddress; }
+
+	/*******
+	 * <p> Method: boolean getAdminRole() </p>
+	 *
+	 * @return true if the current user plays an Admin role
+	 */
+	public boolean getAdminRole() { return adminRole; }
+
+	/*******
+	 * <p> Method: void setAdminRole(boolean adminRole) </p>
+	 *
+	 * @param adminRole whether the current user plays an Admin role
+	 */
+	public void setAdminRole(boolean adminRole) { this.adminRole = adminRole; }
+
+	/*******
+	 * <p> Method: boolean getStudentRole() </p>
+	 *
+	 * @return true if the current user plays a Student role
+	 */
+	public boolean getStudentRole() { return studentRole; }
+
+	/*******
+	 * <p> Method: void setStudentRole(boolean studentRole) </p>
+	 *
+	 * @param studentRole whether the current user plays a Student role
+	 */
+	public void setStudentRole(boolean studentRole) { this.studentRole = studentRole; }
+
+	/*******
+	 * <p> Method: boolean getStaffRole() </p>
+	 *
+	 * @return true if the current user plays a Staff role
+	 */
+	public boolean getStaffRole() { return staffRole; }
+
+	/*******
+	 * <p> Method: void setStaffRole(boolean staffRole) </p>
+	 *
+	 * @param staffRole whether the current user plays a Staff role
+	 */
+	public void setStaffRole(boolean staffRole) { this.staffRole = staffRole; }
+}
@@ -0,0 +1,320 @@
+package entityClasses;
+
+/**
+ * <p>Title: GradebookRow Class</p>
+ *
+ * <p>Description:
+ * Represents one student's row of the staff gradebook. Wraps the {@link User} together with
+ * the student's activity counters and the grades computed from them, so that the whole
+ * student table can be loaded from a single database query and drawn without any further
+ * queries or grade calculations.
+ * </p>
+ *
+ * <p>Responsibilities:</p>
+ * <ul>
+ *     <li>Holds the student and their full name</li>
+ *     <li>Holds the post, reply, view, upvote, promotion and violation counters</li>
+ *     <li>Holds the participation, performance and total grade and the letter grade</li>
+ * </ul>
+ *
+ * <p>Note: Rows are immutable snapshots taken when the gradebook is loaded; reload the
+ * gradebook to pick up new activity. Rows read from the database carry no grades until
+ * {@link #withGrades(double, double, double, String)} has been applied.</p>
+ *
+ * @author
+ *     Educational Platform Development Team
+ * @version
+ *     1.0
+ * @since
+ *     2024-01-01
+ */
+public class GradebookRow {
+
+    /** <p>Description: The student shown by this row.</p> */
+    private final User student;
+
+    /** <p>Description: First, middle and last name of the student, trimmed.</p> */
+    private final String fullName;
+
+    /** <p>Description: Number of posts created by the student.</p> */
+    private final int postNumber;
+
+    /** <p>Description: Number of replies created by the student.</p> */
+    private final int replyNumber;
+
+    /** <p>Description: Total number of views received on the student's posts.</p> */
+    private final int viewReceived;
+
+    /** <p>Description: Total number of replies received on the student's posts.</p> */
+    private final int replyReceived;
+
+    /** <p>Description: Total number of upvotes received on the student's posts.</p> */
+    private final int upvoteReceived;
+
+    /** <p>Description: Number of promotions given to the student.</p> */
+    private final int promotion;
+
+    /** <p>Description: Number of violations recorded against the student.</p> */
+    private final int violation;
+
+    /** <p>Description: Participation score, 0-100.</p> */
+    private final double participation;
+
+    /** <p>Description: Performance score, 0-100.</p> */
+    private final double performance;
+
+    /** <p>Description: Total grade, 0-100.</p> */
+    private final double totalGrade;
+
+    /** <p>Description: Letter grade of the total grade.</p> */
+    private final String gradeMark;
+
+    /**
+     * <p>Method: GradebookRow(User student, int postNumber, int replyNumber, int viewReceived,
+     * int replyReceived, int upvoteReceived, int promotion, int violation)</p>
+     *
+     * <p>Description:
+     * Constructs a row holding the student's counters, with no grades computed yet.
+     * </p>
+     *
+     * @param student the student shown by this row
+     * @param postNumber number of posts created
+     * @param replyNumber number of replies created
+     * @param viewReceived views received on the student's posts
+     * @param replyReceived replies received on the student's posts
+     * @param upvoteReceived upvotes received on the student's posts
+     * @param promotion number of promotions
+     * @param violation number of violations
+     */
+    public GradebookRow(User student, int postNumber, int replyNumber, int viewReceived,
+                        int replyReceived, int upvoteReceived, int promotion, int violation) {
+        this(student, postNumber, replyNumber, viewReceived, replyReceived, upvoteReceived,
+                promotion, violation, 0, 0, 0, "N/A");
+    }
+
+    /**
+     * <p>Method: GradebookRow(User student, int postNumber, int replyNumber, int viewReceived,
+     * int replyReceived, int upvoteReceived, int promotion, int violation, double participation,
+     * double performance, double totalGrade, String gradeMark)</p>
+     *
+     * <p>Description:
+     * Constructs a fully populated {@code GradebookRow}.
+     * </p>
+     *
+     * @param student the student shown by this row
+     * @param postNumber number of posts created
+     * @param replyNumber number of replies created
+     * @param viewReceived views received on the student's posts
+     * @param replyReceived replies received on the student's posts
+     * @param upvoteReceived upvotes received on the student's posts
+     * @param promotion number of promotions
+     * @param violation number of violations
+     * @param participation participation score
+     * @param performance performance score
+     * @param totalGrade total grade
+     * @param gradeMark letter grade
+     */
+    public GradebookRow(User student, int postNumber, int replyNumber, int viewReceived,
+                        int replyReceived, int upvoteReceived, int promotion, int violation,
+                        double participation, double performance, double totalGrade, String gradeMark) {
+        this.student = student;
+        this.fullName = (student.getFirstName() + " " + student.getMiddleName() + " " + student.getLastName()).trim();
+        this.postNumber = postNumber;
+        this.replyNumber = replyNumber;
+        this.viewReceived = viewReceived;
+        this.replyReceived = replyReceived;
+        this.upvoteReceived = upvoteReceived;
+        this.promotion = promotion;
+        this.violation = violation;
+        this.participation = participation;
+        this.performance = performance;
+        this.totalGrade = totalGrade;
+        this.gradeMark = gradeMark;
+    }
+
+    /**
+     * <p>Method: withGrades(double participation, double performance, double totalGrade, String gradeMark)</p>
+     *
+     * <p>Description:
+     * Returns a copy of this row carrying the given grades.
+     * </p>
+     *
+     * @param participation participation score
+     * @param performance performance score
+     * @param totalGrade total grade
+     * @param gradeMark letter grade
+     * @return the graded row
+     */
+    public GradebookRow withGrades(double participation, double performance, double totalGrade, String gradeMark) {
+        return new GradebookRow(student, postNumber, replyNumber, viewReceived, replyReceived, upvoteReceived,
+                promotion, violation, participation, performance, totalGrade, gradeMark);
+    }
+
+    /**
+     * <p>Method: getStudent()</p>
+     *
+     * <p>Description:
+     * Retrieves the student shown by this row.
+     * </p>
+     *
+     * @return the student
+     */
+    public User getStudent() { return student; }
+
+    /**
+     * <p>Method: getUserName()</p>
+     *
+     * <p>Description:
+     * Retrieves the username of the student.
+     * </p>
+     *
+     * @return the username
+     */
+    public String getUserName() { return student.getUserName(); }
+
+    /**
+     * <p>Method: getFullName()</p>
+     *
+     * <p>Description:
+     * Retrieves the first, middle and last name of the student.
+     * </p>
+     *
+     * @return the full name, empty if the student has no names
+     */
+    public String getFullName() { return fullName; }
+
+    /**
+     * <p>Method: getStatus()</p>
+     *
+     * <p>Description:
+     * Returns the counters of this row as a new {@link StudentStatus}.
+     * </p>
+     *
+     * @return a status holding the counters of this row
+     */
+    public StudentStatus getStatus() {
+        return new StudentStatus(student.getUserName(), postNumber, replyNumber, viewReceived,
+                replyReceived, upvoteReceived, promotion, violation);
+    }
+
+    /**
+     * <p>Method: getPostNumber()</p>
+     *
+     * <p>Description:
+     * Retrieves the number of posts created by the student.
+     * </p>
+     *
+     * @return post count
+     */
+    public int getPostNumber() { return postNumber; }
+
+    /**
+     * <p>Method: getReplyNumber()</p>
+     *
+     * <p>Description:
+     * Retrieves the number of replies created by the student.
+     * </p>
+     *
+     * @return reply count
+     */
+    public int getReplyNumber() { return replyNumber; }
+
+    /**
+     * <p>Method: getViewReceived()</p>
+     *
+     * <p>Description:
+     * Retrieves the total number of views received on the student's posts.
+     * </p>
+     *
+     * @return views received
+     */
+    public int getViewReceived() { return viewReceived; }
+
+    /**
+     * <p>Method: getReplyReceived()</p>
+     *
+     * <p>Description:
+     * Retrieves the total number of replies received on the student's posts.
+     * </p>
+     *
+     * @return replies received
+     */
+    public int getReplyReceived() { return replyReceived; }
+
+    /**
+     * <p>Method: getUpvoteReceived()</p>
+     *
+     * <p>Description:
+     * Retrieves the total number of upvotes received on the student's posts.
+     * </p>
+     *
+     * @return upvotes received
+     */
+    public int getUpvoteReceived() { return upvoteReceived; }
+
+    /**
+     * <p>Method: getPromotion()</p>
+     *
+     * <p>Description:
+     * Retrieves the number of promotions given to the student.
+     * </p>
+     *
+     * @return promotion count
+     */
+    public int getPromotion() { return promotion; }
+
+    /**
+     * <p>Method: getViolation()</p>
+     *
+     * <p>Description:
+     * Retrieves the number of violations recorded against the student.
+     * </p>
+     *
+     * @return violation count
+     */
+    public int getViolation() { return violation; }
+
+    /**
+     * <p>Method: getParticipation()</p>
+     *
+     * <p>Description:
+     * Retrieves the participation score.
+     * </p>
+     *
+     * @return participation, 0-100
+     */
+    public double getParticipation() { return participation; }
+
+    /**
+     * <p>Method: getPerformance()</p>
+     *
+     * <p>Description:
+     * Retrieves the performance score.
+     * </p>
+     *
+     * @return performance, 0-100
+     */
+    public double getPerformance() { return performance; }
+
+    /**
+     * <p>Method: getTotalGrade()</p>
+     *
+     * <p>Description:
+     * Retrieves the total grade.
+     * </p>
+     *
+     * @return total grade, 0-100
+     */
+    public double getTotalGrade() { return totalGrade; }
+
+    /**
+     * <p>Method: getGradeMark()</p>
+     *
+     * <p>Description:
+     * Retrieves the letter grade of the total grade.
+     * </p>
+     *
+     * @return letter grade such as "A+" or "F"
+     */
+    public String getGradeMark() { return gradeMark; }
+}
@@ -0,0 +1,114 @@
+package entityClasses;
+
+/**
+ * <p>Title: MessageHeader Class</p>
+ *
+ * <p>Description:
+ * Represents one row of a message list: everything the inbox shows for a message except its
+ * content. Inbox pages are loaded as headers so a page never carries message bodies it does
+ * not display; the full {@link Message} is read by id when the user opens it.
+ * </p>
+ *
+ * <p>Note: Headers are immutable snapshots taken when the page is loaded; reload the page to
+ * pick up read flags changed since.</p>
+ *
+ * @author
+ *     Educational Platform Development Team
+ * @version
+ *     1.0
+ * @since
+ *     2024-01-01
+ */
+public class MessageHeader {
+
+    /** <p>Description: Unique identifier of the message.</p> */
+    private final int id;
+
+    /** <p>Description: Username of the sender, or null if the sender was deleted.</p> */
+    private final String sender;
+
+    /** <p>Description: Username of the receiver.</p> */
+    private final String receiver;
+
+    /** <p>Description: Subject line of the message.</p> */
+    private final String subject;
+
+    /** <p>Description: Whether the receiver has read the message.</p> */
+    private final boolean read;
+
+    /**
+     * <p>Method: MessageHeader(int id, String sender, String receiver, String subject, boolean read)</p>
+     *
+     * <p>Description:
+     * Constructs a fully populated {@code MessageHeader}.
+     * </p>
+     *
+     * @param id unique identifier of the message
+     * @param sender username of the sender
+     * @param receiver username of the receiver
+     * @param subject subject line of the message
+     * @param read whether the receiver has read the message
+     */
+    public MessageHeader(int id, String sender, String receiver, String subject, boolean read) {
+        this.id = id;
+        this.sender = sender;
+        this.receiver = receiver;
+        this.subject = subject;
+        this.read = read;
+    }
+
+    /**
+     * <p>Method: getId()</p>
+     *
+     * <p>Description:
+     * Retrieves the unique identifier of the message, used to load its content.
+     * </p>
+     *
+     * @return message ID
+     */
+    public int getId() { return id; }
+
+    /**
+     * <p>Method: getSender()</p>
+     *
+     * <p>Description:
+     * Retrieves the username of the sender.
+     * </p>
+     *
+     * @return sender username
+     */
+    public String getSender() { return sender; }
+
+    /**
+     * <p>Method: getReceiver()</p>
+     *
+     * <p>Description:
+     * Retrieves the username of the receiver.
+     * </p>
+     *
+     * @return receiver username
+     */
+    public String getReceiver() { return receiver; }
+
+    /**
+     * <p>Method: getSubject()</p>
+     *
+     * <p>Description:
+     * Retrieves the subject line of the message.
+     * </p>
+     *
+     * @return subject line
+     */
+    public String getSubject() { return subject; }
+
+    /**
+     * <p>Method: isRead()</p>
+     *
+     * <p>Description:
+     * Checks whether the receiver had read the message when the page was loaded.
+     * </p>
+     *
+     * @return true if the message has been read
+     */
+    public boolean isRead() { return read; }
+}
@@ -0,0 +1,214 @@
+package entityClasses;
+
+import search.Snippet;
+
+/**
+ * <p>Title: PostFeedRow Class</p>
+ *
+ * <p>Description:
+ * Represents one row of a post feed as seen by a specific viewing user. Wraps the
+ * {@link Post} itself together with every value the post lists need to draw a post item,
+ * so that a whole feed can be loaded from a single database query instead of several
+ * queries per post.
+ * </p>
+ *
+ * <p>Responsibilities:</p>
+ * <ul>
+ *     <li>Holds the post with its thread name and tags already resolved</li>
+ *     <li>Holds the reply, view and upvote counters of the post</li>
+ *     <li>Holds the viewer specific read flag and unread reply count</li>
+ *     <li>Holds, for a search feed, the snippet showing why the post matched</li>
+ * </ul>
+ *
+ * <p>Note: Rows are immutable snapshots taken when the feed is loaded; reload the feed to
+ * pick up new activity.</p>
+ *
+ * @author
+ *     Educational Platform Development Team
+ * @version
+ *     1.0
+ * @since
+ *     2024-01-01
+ */
+public class PostFeedRow {
+
+    /** <p>Description: The post shown by this row, including thread name and tags.</p> */
+    private final Post post;
+
+    /** <p>Description: Total number of replies on the post.</p> */
+    private final int replyCount;
+
+    /** <p>Description: Number of replies on the post the viewer has not read yet.</p> */
+    private final int unreadReplyCount;
+
+    /** <p>Description: Number of users who have viewed the post.</p> */
+    private final int views;
+
+    /** <p>Description: Total number of upvotes on the post.</p> */
+    private final int upvotes;
+
+    /** <p>Description: Whether the viewer has read the post.</p> */
+    private final boolean read;
+
+    /** <p>Description: Excerpt showing the searched words, null outside search feeds.</p> */
+    private final Snippet snippet;
+
+    /**
+     * <p>Method: PostFeedRow(Post post, int replyCount, int unreadReplyCount, int views, int upvotes, boolean read)</p>
+     *
+     * <p>Description:
+     * Constructs a fully populated {@code PostFeedRow}.
+     * </p>
+     *
+     * @param post the post shown by this row
+     * @param replyCount total number of replies on the post
+     * @param unreadReplyCount number of replies the viewer has not read
+     * @param views number of users who have viewed the post
+     * @param upvotes total number of upvotes on the post
+     * @param read whether the viewer has read the post
+     */
+    public PostFeedRow(Post post, int replyCount, int unreadReplyCount, int views, int upvotes, boolean read) {
+        this(post, replyCount, unreadReplyCount, views, upvotes, read, null);
+    }
+
+    /**
+     * <p>Method: PostFeedRow(Post post, int replyCount, int unreadReplyCount, int views, int upvotes, boolean read, Snippet snippet)</p>
+     *
+     * <p>Description:
+     * Constructs a fully populated {@code PostFeedRow} of a search feed.
+     * </p>
+     *
+     * @param post the post shown by this row
+     * @param replyCount total number of replies on the post
+     * @param unreadReplyCount number of replies the viewer has not read
+     * @param views number of users who have viewed the post
+     * @param upvotes total number of upvotes on the post
+     * @param read whether the viewer has read the post
+     * @param snippet the excerpt showing the searched words, or null
+     */
+    public PostFeedRow(Post post, int replyCount, int unreadReplyCount, int views, int upvotes, boolean read,
+            Snippet snippet) {
+        this.post = post;
+        this.replyCount = replyCount;
+        this.unreadReplyCount = unreadReplyCount;
+        this.views = views;
+        this.upvotes = upvotes;
+        this.read = read;
+        this.snippet = snippet;
+    }
+
+    /**
+     * <p>Method: getPost()</p>
+     *
+     * <p>Description:
+     * Retrieves the post shown by this row.
+     * </p>
+     *
+     * @return the post
+     */
+    public Post getPost() { return post; }
+
+    /**
+     * <p>Method: getPostId()</p>
+     *
+     * <p>Description:
+     * Retrieves the unique identifier of the post shown by this row.
+     * </p>
+     *
+     * @return post ID value
+     */
+    public int getPostId() { return post.getPostId(); }
+
+    /**
+     * <p>Method: getReplyCount()</p>
+     *
+     * <p>Description:
+     * Retrieves the total number of replies on the post.
+     * </p>
+     *
+     * @return reply count
+     */
+    public int getReplyCount() { return replyCount; }
+
+    /**
+     * <p>Method: getUnreadReplyCount()</p>
+     *
+     * <p>Description:
+     * Retrieves the number of replies on the post the viewer has not read.
+     * </p>
+     *
+     * @return unread reply count
+     */
+    public int getUnreadReplyCount() { return unreadReplyCount; }
+
+    /**
+     * <p>Method: getViews()</p>
+     *
+     * <p>Description:
+     * Retrieves the number of users who have viewed the post.
+     * </p>
+     *
+     * @return view count
+     */
+    public int getViews() { return views; }
+
+    /**
+     * <p>Method: getUpvotes()</p>
+     *
+     * <p>Description:
+     * Retrieves the total number of upvotes on the post.
+     * </p>
+     *
+     * @return upvote count
+     */
+    public int getUpvotes() { return upvotes; }
+
+    /**
+     * <p>Method: isRead()</p>
+     *
+     * <p>Description:
+     * Returns whether the viewer has read the post.
+     * </p>
+     *
+     * @return true if the viewer has read the post
+     */
+    public boolean isRead() { return read; }
+
+    /**
+     * <p>Method: getReadStatus()</p>
+     *
+     * <p>Description:
+     * Returns the read flag as the display text used by the post lists, matching
+     * the values returned by {@code Database.hasUserReadPost}.
+     * </p>
+     *
+     * @return "Viewed" if the viewer has read the post, otherwise "Unread"
+     */
+    public String getReadStatus() { return read ? "Viewed" : "Unread"; }
+
+    /**
+     * <p>Method: getSnippet()</p>
+     *
+     * <p>Description:
+     * Retrieves the excerpt of the post content or of a reply showing why the post matched
+     * a search.
+     * </p>
+     *
+     * @return the snippet, or null outside search feeds and when only the title or tags matched
+     */
+    public Snippet getSnippet() { return snippet; }
+
+    /**
+     * <p>Method: withSnippet(Snippet snippet)</p>
+     *
+     * <p>Description:
+     * Returns a copy of this row carrying a search snippet.
+     * </p>
+     *
+     * @param snippet the excerpt showing the searched words, or null
+     * @return the copy
+     */
+    public PostFeedRow withSnippet(Snippet snippet) {
+        return new PostFeedRow(post, replyCount, unreadReplyCount, views, upvotes, read, snippet);
+    }
+}
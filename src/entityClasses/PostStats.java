@@ -0,0 +1,98 @@
+package entityClasses;
+
+/**
+ * <p>Title: PostStats Class</p>
+ *
+ * <p>Description:
+ * Represents the stored counters of one post: how many users have viewed it, how many upvotes
+ * it has received and how many replies it has. The database keeps these counters up to date as
+ * posts are read, upvoted and replied to, so showing them never has to count the underlying
+ * rows.
+ * </p>
+ *
+ * <p>Note: Instances are immutable snapshots taken when the counters are read.</p>
+ *
+ * @author
+ *     Educational Platform Development Team
+ * @version
+ *     1.0
+ * @since
+ *     2024-01-01
+ */
+public class PostStats {
+
+    /** <p>Description: The id of the post these counters belong to.</p> */
+    private final int postId;
+
+    /** <p>Description: Number of users who have viewed the post.</p> */
+    private final int views;
+
+    /** <p>Description: Total number of upvotes on the post.</p> */
+    private final int upvotes;
+
+    /** <p>Description: Total number of replies on the post.</p> */
+    private final int replies;
+
+    /**
+     * <p>Method: PostStats(int postId, int views, int upvotes, int replies)</p>
+     *
+     * <p>Description:
+     * Constructs a fully populated {@code PostStats}.
+     * </p>
+     *
+     * @param postId the id of the post
+     * @param views number of users who have viewed the post
+     * @param upvotes total number of upvotes on the post
+     * @param replies total number of replies on the post
+     */
+    public PostStats(int postId, int views, int upvotes, int replies) {
+        this.postId = postId;
+        this.views = views;
+        this.upvotes = upvotes;
+        this.replies = replies;
+    }
+
+    /**
+     * <p>Method: getPostId()</p>
+     *
+     * <p>Description:
+     * Retrieves the id of the post these counters belong to.
+     * </p>
+     *
+     * @return the post id
+     */
+    public int getPostId() { return postId; }
+
+    /**
+     * <p>Method: getViews()</p>
+     *
+     * <p>Description:
+     * Retrieves the number of users who have viewed the post.
+     * </p>
+     *
+     * @return the view count
+     */
+    public int getViews() { return views; }
+
+    /**
+     * <p>Method: getUpvotes()</p>
+     *
+     * <p>Description:
+     * Retrieves the total number of upvotes on the post.
+     * </p>
+     *
+     * @return the upvote count
+     */
+    public int getUpvotes() { return upvotes; }
+
+    /**
+     * <p>Method: getReplies()</p>
+     *
+     * <p>Description:
+     * Retrieves the total number of replies on the post.
+     * </p>
+     *
+     * @return the reply count
+     */
+    public int getReplies() { return replies; }
+}
@@ -0,0 +1,170 @@
+package grading;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/*******
+ * <p> Title: GradeCache Class. </p>
+ *
+ * <p> Description: A bounded, least-recently-used cache of computed student grades keyed by
+ * username.  A grade stays valid until an event changes one of the student's counters; the
+ * Database invalidates the student's entry when that happens, so asking again for an unchanged
+ * student is answered without reading or computing anything.</p>
+ *
+ * <p> A grade is loaded outside the cache lock so a slow database read never blocks other
+ * lookups.  If any entry is invalidated while a load is running, the loaded grade is returned
+ * but not kept, because it may have been read just before the change.  The cache counts hits,
+ * misses, evictions and invalidations.</p>
+ *
+ */
+public final class GradeCache {
+
+	/** Default number of grades kept */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/** Maximum number of grades kept */
+	private final int capacity;
+	/** Cached grades by username, least recently used first; guarded by this */
+	private final LinkedHashMap<String, StudentGrade> grades;
+	/** Number of invalidations so far, used to spot a change during a load; guarded by this */
+	private long generation = 0;
+
+	/** Number of lookups answered from the cache */
+	private final AtomicLong hits = new AtomicLong();
+	/** Number of lookups that had to load the grade */
+	private final AtomicLong misses = new AtomicLong();
+	/** Number of grades dropped to stay within the capacity */
+	private final AtomicLong evictions = new AtomicLong();
+	/** Number of cached grades dropped because the student's counters changed */
+	private final AtomicLong invalidations = new AtomicLong();
+
+	/*******
+	 * <p> Method: GradeCache() </p>
+	 *
+	 * <p> Description: Create a cache holding up to {@link #DEFAULT_CAPACITY} grades.</p>
+	 */
+	public GradeCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/*******
+	 * <p> Method: GradeCache(int capacity) </p>
+	 *
+	 * <p> Description: Create a cache holding up to the given number of grades.</p>
+	 *
+	 * @param capacity the maximum number of grades kept, 0 disables caching
+	 */
+	public GradeCache(int capacity) {
+		this.capacity = Math.max(0, capacity);
+		this.grades = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, StudentGrade> eldest) {
+				if (size() <= GradeCache.this.capacity) return false;
+				evictions.incrementAndGet();
+				return true;
+			}
+		};
+	}
+
+	/*******
+	 * <p> Method: StudentGrade get(String userName, Function&lt;String, StudentGrade&gt; loader) </p>
+	 *
+	 * <p> Description: Get the grade of a student, calling the loader only when it is not
+	 * cached.  A null result from the loader is returned but not cached.</p>
+	 *
+	 * @param userName the student's username
+	 * @param loader computes the grade of a username from the database
+	 * @return the student's grade, or null if the loader returned null
+	 */
+	public StudentGrade get(String userName, Function<String, StudentGrade> loader) {
+		long loadGeneration;
+		synchronized (this) {
+			StudentGrade cached = grades.get(userName);
+			if (cached != null) {
+				hits.incrementAndGet();
+				return cached;
+			}
+			loadGeneration = generation;
+		}
+		misses.incrementAndGet();
+		StudentGrade grade = loader.apply(userName);
+		if (grade != null) {
+			synchronized (this) {
+				if (generation == loadGeneration && capacity > 0) grades.put(userName, grade);
+			}
+		}
+		return grade;
+	}
+
+	/*******
+	 * <p> Method: void invalidate(String userName) </p>
+	 *
+	 * <p> Description: Drop the grade of a student whose counters changed.  A null username is
+	 * ignored.</p>
+	 *
+	 * @param userName the student's username
+	 */
+	public synchronized void invalidate(String userName) {
+		if (userName == null) return;
+		generation++;
+		if (grades.remove(userName) != null) invalidations.incrementAndGet();
+	}
+
+	/*******
+	 * <p> Method: void invalidateAll() </p>
+	 *
+	 * <p> Description: Drop every cached grade, for changes that touch many students at once.</p>
+	 */
+	public synchronized void invalidateAll() {
+		generation++;
+		invalidations.addAndGet(grades.size());
+		grades.clear();
+	}
+
+	/** @return the number of grades currently cached */
+	public synchronized int size() { return grades.size(); }
+
+	/** @return the maximum number of grades kept */
+	public int getCapacity() { return capacity; }
+
+	/** @return the number of lookups answered from the cache */
+	public long getHits() { return hits.get(); }
+
+	/** @return the number of lookups that had to load the grade */
+	public long getMisses() { return misses.get(); }
+
+	/** @return the number of grades dropped to stay within the capacity */
+	public long getEvictions() { return evictions.get(); }
+
+	/** @return the number of cached grades dropped because the student's counters changed */
+	public long getInvalidations() { return invalidations.get(); }
+
+	/*******
+	 * <p> Method: double getHitRate() </p>
+	 *
+	 * <p> Description: The share of lookups answered from the cache.</p>
+	 *
+	 * @return hits divided by lookups, 0 if there were no lookups
+	 */
+	public double getHitRate() {
+		long h = hits.get();
+		long lookups = h + misses.get();
+		return lookups == 0 ? 0 : (double) h / lookups;
+	}
+
+	/*******
+	 * <p> Method: void resetStatistics() </p>
+	 *
+	 * <p> Description: Set the hit, miss, eviction and invalidation counters back to zero.</p>
+	 */
+	public void resetStatistics() {
+		hits.set(0);
+		misses.set(0);
+		evictions.set(0);
+		invalidations.set(0);
+	}
+}
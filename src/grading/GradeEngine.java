@@ -0,0 +1,160 @@
+package grading;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*******
+ * <p> Title: GradeEngine Class. </p>
+ *
+ * <p> Description: Grades a whole class in one pass over a {@link GradeSnapshot}.  For every
+ * student the participation, performance, total grade and letter grade are computed with
+ * {@link GradeFormulas} and the letter grade is counted in a histogram, all in the same
+ * loop.</p>
+ *
+ * <p> Classes larger than the split size are cut into ranges that are graded in parallel on a
+ * fork-join pool.  Each range writes only its own slice of the output columns and counts its
+ * own histogram, and the histograms are added when the ranges join, so no locking is needed
+ * and the result is the same as grading the class in one thread.</p>
+ *
+ */
+public final class GradeEngine {
+
+	/** Default number of students below which a range is graded in the calling thread */
+	public static final int DEFAULT_SPLIT_SIZE = 4096;
+
+	/** The pool large classes are graded on */
+	private final ForkJoinPool pool;
+	/** Number of students below which a range is not split further */
+	private final int splitSize;
+
+	/*******
+	 * <p> Method: GradeEngine() </p>
+	 *
+	 * <p> Description: Create an engine that grades large classes on the common fork-join
+	 * pool.</p>
+	 */
+	public GradeEngine() {
+		this(ForkJoinPool.commonPool(), DEFAULT_SPLIT_SIZE);
+	}
+
+	/*******
+	 * <p> Method: GradeEngine(ForkJoinPool pool, int splitSize) </p>
+	 *
+	 * <p> Description: Create an engine using the given pool and split size.</p>
+	 *
+	 * @param pool the pool large classes are graded on
+	 * @param splitSize number of students below which a range is graded without splitting
+	 * @throws IllegalArgumentException if the split size is less than 1
+	 */
+	public GradeEngine(ForkJoinPool pool, int splitSize) {
+		if (splitSize < 1) throw new IllegalArgumentException("Split size must be at least 1");
+		this.pool = pool;
+		this.splitSize = splitSize;
+	}
+
+	/*******
+	 * <p> Method: GradeReport grade(GradeSnapshot snapshot) </p>
+	 *
+	 * <p> Description: Grade every student of the snapshot.</p>
+	 *
+	 * @param snapshot the counters of the class
+	 * @return the grades of the class, in snapshot order, with the letter grade histogram
+	 */
+	public GradeReport grade(GradeSnapshot snapshot) {
+		int n = snapshot.size();
+		double[] participation = new double[n];
+		double[] performance = new double[n];
+		double[] totalGrade = new double[n];
+		byte[] marks = new byte[n];
+		GradeTask task = new GradeTask(snapshot, participation, performance, totalGrade, marks, 0, n, splitSize);
+		int[] histogram = n <= splitSize ? task.compute() : pool.invoke(task);
+		return new GradeReport(snapshot.getUserNames(), participation, performance, totalGrade, marks, histogram);
+	}
+
+	/*******
+	 * <p> Title: GradeTask Class. </p>
+	 *
+	 * <p> Description: Grades the students in one range of the snapshot, splitting the range in
+	 * two while it is larger than the split size, and returns the histogram of the range.</p>
+	 */
+	private static final class GradeTask extends RecursiveTask<int[]> {
+
+		/** Serialization version of the task */
+		private static final long serialVersionUID = 1L;
+
+		/** The counters being graded */
+		private final transient GradeSnapshot snapshot;
+		/** Output column of participation scores */
+		private final double[] participation;
+		/** Output column of performance scores */
+		private final double[] performance;
+		/** Output column of total grades */
+		private final double[] totalGrade;
+		/** Output column of letter grade indexes */
+		private final byte[] marks;
+		/** First student of the range */
+		private final int from;
+		/** One past the last student of the range */
+		private final int to;
+		/** Number of students below which the range is not split */
+		private final int splitSize;
+
+		/**
+		 * @param snapshot the counters being graded
+		 * @param participation output participation scores
+		 * @param performance output performance scores
+		 * @param totalGrade output total grades
+		 * @param marks output letter grade indexes
+		 * @param from first student of the range
+		 * @param to one past the last student of the range
+		 * @param splitSize number of students below which the range is not split
+		 */
+		GradeTask(GradeSnapshot snapshot, double[] participation, double[] performance, double[] totalGrade,
+				byte[] marks, int from, int to, int splitSize) {
+			this.snapshot = snapshot;
+			this.participation = participation;
+			this.performance = performance;
+			this.totalGrade = totalGrade;
+			this.marks = marks;
+			this.from = from;
+			this.to = to;
+			this.splitSize = splitSize;
+		}
+
+		@Override
+		protected int[] compute() {
+			if (to - from > splitSize) {
+				int middle = (from + to) >>> 1;
+				GradeTask left = new GradeTask(snapshot, participation, performance, totalGrade, marks, from, middle, splitSize);
+				GradeTask right = new GradeTask(snapshot, participation, performance, totalGrade, marks, middle, to, splitSize);
+				left.fork();
+				int[] histogram = right.compute();
+				int[] other = left.join();
+				for (int i = 0; i < histogram.length; i++) histogram[i] += other[i];
+				return histogram;
+			}
+
+			int[] posts = snapshot.getPosts();
+			int[] replies = snapshot.getReplies();
+			int[] views = snapshot.getViews();
+			int[] repliesReceived = snapshot.getRepliesReceived();
+			int[] upvotes = snapshot.getUpvotes();
+			int[] promotions = snapshot.getPromotions();
+			int[] violations = snapshot.getViolations();
+			int[] histogram = new int[GradeFormulas.MARKS.length];
+			for (int i = from; i < to; i++) {
+				double p = GradeFormulas.participation(posts[i], replies[i]);
+				double f = GradeFormulas.performance(posts[i], repliesReceived[i], upvotes[i], views[i],
+						promotions[i], violations[i]);
+				double total = GradeFormulas.totalGrade(p, f);
+				int mark = GradeFormulas.markIndex(total);
+				participation[i] = p;
+				performance[i] = f;
+				totalGrade[i] = total;
+				marks[i] = (byte) mark;
+				histogram[mark]++;
+			}
+			return histogram;
+		}
+	}
+}
@@ -0,0 +1,224 @@
+package grading;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import database.Database;
+import entityClasses.GradebookRow;
+
+/*******
+ * <p> Title: GradeExporter Class. </p>
+ *
+ * <p> Description: Writes the grades of every student to a CSV file for the end of the term.
+ * Rows are streamed from the database cursor, graded with {@link GradeFormulas} and written one
+ * at a time, so memory use stays the same however large the roster is.</p>
+ *
+ * <p> The file is written next to its destination under a temporary name and moved into place
+ * only when complete, so a failed or cancelled export never leaves a partial file behind.
+ * Exports started with {@link #exportInBackground(Path, Progress)} run one at a time on a
+ * background thread and can be cancelled through the returned future.</p>
+ *
+ */
+public class GradeExporter {
+
+	/** First line of every export */
+	public static final String HEADER = "userName,fullName,posts,replies,viewsReceived,repliesReceived,"
+			+ "upvotesReceived,promotions,violations,participation,performance,totalGrade,gradeMark";
+
+	/** Number of rows between two progress reports */
+	public static final int PROGRESS_STEP = 1000;
+
+	/*******
+	 * <p> Title: Progress Interface. </p>
+	 *
+	 * <p> Description: Receives the progress of an export. It is called on the exporting
+	 * thread, every {@link GradeExporter#PROGRESS_STEP} rows and once at the end.</p>
+	 */
+	@FunctionalInterface
+	public interface Progress {
+		/**
+		 * @param exported the number of students written so far
+		 * @param total the number of students counted when the export started
+		 */
+		void update(int exported, int total);
+	}
+
+	/** The database the grades are read from */
+	private final Database database;
+	/** Thread running background exports, started on first use */
+	private ExecutorService exportExecutor = null;
+
+	/*******
+	 * <p> Method: GradeExporter(Database database) </p>
+	 *
+	 * <p> Description: Create an exporter reading from the given database.</p>
+	 *
+	 * @param database the database holding the students
+	 */
+	public GradeExporter(Database database) {
+		this.database = database;
+	}
+
+	/*******
+	 * <p> Method: int export(Path file, Progress progress) </p>
+	 *
+	 * <p> Description: Export the grades of every student, ordered by username, in the calling
+	 * thread.</p>
+	 *
+	 * @param file the CSV file to write; replaced if it exists
+	 * @param progress receives progress reports, or null
+	 * @return the number of students written
+	 * @throws IOException if the file cannot be written
+	 * @throws SQLException if the students cannot be read
+	 */
+	public int export(Path file, Progress progress) throws IOException, SQLException {
+		return export(file, progress, null);
+	}
+
+	/*******
+	 * <p> Method: CompletableFuture&lt;Integer&gt; exportInBackground(Path file, Progress progress) </p>
+	 *
+	 * <p> Description: Export the grades of every student on a background thread.  Cancelling
+	 * the returned future stops the export at the next row and deletes what was written.</p>
+	 *
+	 * @param file the CSV file to write; replaced if it exists
+	 * @param progress receives progress reports on the export thread, or null
+	 * @return a future completed with the number of students written, or completed
+	 *         exceptionally with the I/O or database error that stopped the export
+	 */
+	public synchronized CompletableFuture<Integer> exportInBackground(Path file, Progress progress) {
+		if (exportExecutor == null) {
+			exportExecutor = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, "GradeExport");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		CompletableFuture<Integer> result = new CompletableFuture<>();
+		exportExecutor.execute(() -> {
+			if (result.isDone()) return;
+			try {
+				result.complete(export(file, progress, result));
+			} catch (CancellationException e) {
+				result.cancel(false);
+			} catch (IOException | SQLException | RuntimeException e) {
+				result.completeExceptionally(e);
+			}
+		});
+		return result;
+	}
+
+	/*******
+	 * <p> Method: int export(Path file, Progress progress, CompletableFuture&lt;?&gt; cancel) </p>
+	 *
+	 * <p> Description: Stream the gradebook into a temporary file beside the destination and
+	 * move it into place once every row is written.</p>
+	 *
+	 * @param file the CSV file to write
+	 * @param progress receives progress reports, or null
+	 * @param cancel stops the export when cancelled, or null
+	 * @return the number of students written
+	 * @throws IOException if the file cannot be written
+	 * @throws SQLException if the students cannot be read
+	 */
+	private int export(Path file, Progress progress, CompletableFuture<?> cancel) throws IOException, SQLException {
+		Path target = file.toAbsolutePath();
+		int total = database.getNumberOfStudents();
+		Path part = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+		boolean done = false;
+		try {
+			int written;
+			try (BufferedWriter out = Files.newBufferedWriter(part, StandardCharsets.UTF_8)) {
+				out.write(HEADER);
+				out.newLine();
+				int[] count = { 0 };
+				StringBuilder line = new StringBuilder(160);
+				try {
+					database.streamGradebook(row -> {
+						if (cancel != null && cancel.isCancelled()) throw new CancellationException();
+						line.setLength(0);
+						appendRow(line, row);
+						try {
+							out.write(line.toString());
+							out.newLine();
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+						if (++count[0] % PROGRESS_STEP == 0 && progress != null) {
+							progress.update(count[0], Math.max(total, count[0]));
+						}
+					});
+				} catch (UncheckedIOException e) {
+					throw e.getCause();
+				}
+				written = count[0];
+			}
+			// A cancel that came after the last row, or while the query ran, must still keep
+			// the existing file
+			if (cancel != null && cancel.isCancelled()) throw new CancellationException();
+			Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			done = true;
+			if (progress != null) progress.update(written, written);
+			return written;
+		} finally {
+			if (!done) Files.deleteIfExists(part);
+		}
+	}
+
+	/*******
+	 * <p> Method: void appendRow(StringBuilder line, GradebookRow row) </p>
+	 *
+	 * <p> Description: Grade one student and append their CSV line, without the line end.</p>
+	 *
+	 * @param line the buffer to append to
+	 * @param row the student and their counters
+	 */
+	static void appendRow(StringBuilder line, GradebookRow row) {
+		double participation = GradeFormulas.participation(row.getPostNumber(), row.getReplyNumber());
+		double performance = GradeFormulas.performance(row.getPostNumber(), row.getReplyReceived(),
+				row.getUpvoteReceived(), row.getViewReceived(), row.getPromotion(), row.getViolation());
+		double total = GradeFormulas.totalGrade(participation, performance);
+
+		appendField(line, row.getUserName()).append(',');
+		appendField(line, row.getFullName()).append(',');
+		line.append(row.getPostNumber()).append(',')
+			.append(row.getReplyNumber()).append(',')
+			.append(row.getViewReceived()).append(',')
+			.append(row.getReplyReceived()).append(',')
+			.append(row.getUpvoteReceived()).append(',')
+			.append(row.getPromotion()).append(',')
+			.append(row.getViolation()).append(',')
+			.append(String.format(Locale.ROOT, "%.2f,%.2f,%.2f,", participation, performance, total))
+			.append(GradeFormulas.gradeMark(total));
+	}
+
+	/*******
+	 * <p> Method: StringBuilder appendField(StringBuilder line, String value) </p>
+	 *
+	 * <p> Description: Append a text field, quoted when it holds a comma, quote or line break.
+	 * A field a spreadsheet would read as a formula is prefixed with a quote mark.</p>
+	 *
+	 * @param line the buffer to append to
+	 * @param value the text, null for an empty field
+	 * @return the buffer
+	 */
+	private static StringBuilder appendField(StringBuilder line, String value) {
+		if (value == null) return line;
+		if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) value = "'" + value;
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return line.append(value);
+		}
+		return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+	}
+}
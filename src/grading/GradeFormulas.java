@@ -0,0 +1,123 @@
+package grading;
+
+/*******
+ * <p> Title: GradeFormulas Class. </p>
+ *
+ * <p> Description: The one place the grade of a student is defined.  Participation,
+ * performance, total grade and letter grade are computed from a student's raw counters, so the
+ * same formulas serve a single student on a home page and a whole class in the
+ * {@link GradeEngine}.</p>
+ *
+ * <p> The formulas are the ones the platform has always used: participation counts at most 5
+ * posts (60%) and 5 replies (40%); performance weighs replies received per post 30%, upvotes
+ * 10% and views per post 60%, with promotions adding and violations taking away; the total
+ * grade is 80% participation and 20% performance.</p>
+ *
+ */
+public final class GradeFormulas {
+
+	/** Letter grades from best to worst; the index of a mark is its histogram bucket */
+	public static final String[] MARKS = { "A+", "A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D", "F", "N/A" };
+
+	/** Lowest total grade of each mark in {@link #MARKS} down to "D" */
+	private static final double[] MARK_FLOORS = { 97, 93, 90, 87, 83, 80, 77, 73, 70, 60 };
+
+	/** Not instantiated; every formula is static */
+	private GradeFormulas() {}
+
+	/*******
+	 * <p> Method: double participation(int posts, int replies) </p>
+	 *
+	 * <p> Description: Participation score from the posts and replies a student wrote.
+	 * Maximum 5 posts and 5 replies are counted. Posts weigh 60%, replies weigh 40%.</p>
+	 *
+	 * @param posts the number of posts written
+	 * @param replies the number of replies written
+	 * @return participation percentage (0-100)
+	 */
+	public static double participation(int posts, int replies) {
+		int p = posts;
+		int r = replies;
+		if (p > 5) p = 5;					// Maximum 5 posts
+		if (r > 5) r = 5;					// Maximum 5 replies
+		return ((p / 5.0) * 0.6 + 			// Post weighs 60%
+				(r / 5.0) * 0.4) * 100;		// Reply weighs 40%
+	}
+
+	/*******
+	 * <p> Method: double performance(int posts, int repliesReceived, int upvotes, int views,
+	 * int promotions, int violations) </p>
+	 *
+	 * <p> Description: Performance score from what a student's posts received. Weighted
+	 * contribution: reply/post 30%, upvotes 10%, view/post 60%, promotions +5% each,
+	 * violations -10% each. A student without posts scores 0.</p>
+	 *
+	 * @param posts the number of posts written
+	 * @param repliesReceived the replies received on those posts
+	 * @param upvotes the upvotes received on those posts
+	 * @param views the views received on those posts
+	 * @param promotions the number of promotions
+	 * @param violations the number of violations
+	 * @return performance percentage (0-100, more with extra credit)
+	 */
+	public static double performance(int posts, int repliesReceived, int upvotes, int views,
+			int promotions, int violations) {
+		if (posts == 0) return 0;
+
+		double rdp = repliesReceived * 1.0 / posts;
+		double up = upvotes * 1.0;
+		double vdp = views * 1.0 / posts;
+
+		if (rdp > 1) rdp = 1 + (rdp - 1) * 0.1;		// 10% of replies per post above 1 is extra credit
+		if (up > 5) up = 5;							// Maximum 5 upvotes
+		if (vdp > 1) vdp = 1 + (vdp - 1) * 0.05;	// 5% of views per post above 1 is extra credit
+
+		return (rdp * 0.3 +							// reply/post weighs 30%
+				up / 5.0 * 0.1 +					// upvotes weighs 10%
+				vdp * 0.6 +							// view/post weighs 60%
+				promotions * 0.05 -					// promotion will be 5% extra per each
+				violations * 0.1) * 100;			// violation will be -10% extra per each
+	}
+
+	/*******
+	 * <p> Method: double totalGrade(double participation, double performance) </p>
+	 *
+	 * <p> Description: Total grade combining participation (80%) and performance (20%).</p>
+	 *
+	 * @param participation participation score (0-100)
+	 * @param performance performance score (0-100)
+	 * @return total grade (0-100)
+	 */
+	public static double totalGrade(double participation, double performance) {
+		return participation * 0.8 + 				// participation weighs 80%
+				performance * 0.2;					// performance weighs 20%
+	}
+
+	/*******
+	 * <p> Method: int markIndex(double grade) </p>
+	 *
+	 * <p> Description: Position in {@link #MARKS} of the letter grade of a total grade.</p>
+	 *
+	 * @param grade total grade (0-100)
+	 * @return the index of the letter grade; the index of "N/A" if the grade is not a number
+	 */
+	public static int markIndex(double grade) {
+		for (int i = 0; i < MARK_FLOORS.length; i++) {
+			if (grade >= MARK_FLOORS[i]) return i;
+		}
+		if (grade < 60) return MARKS.length - 2;	// F
+		return MARKS.length - 1;					// N/A
+	}
+
+	/*******
+	 * <p> Method: String gradeMark(double grade) </p>
+	 *
+	 * <p> Description: Converts a total grade into a letter grade.</p>
+	 *
+	 * @param grade total grade (0-100)
+	 * @return letter grade such as "A+", "B-" or "F"
+	 */
+	public static String gradeMark(double grade) {
+		return MARKS[markIndex(grade)];
+	}
+}
@@ -0,0 +1,111 @@
+package grading;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*******
+ * <p> Title: GradeReport Class. </p>
+ *
+ * <p> Description: The grades of a whole class as computed by the {@link GradeEngine}, stored
+ * column by column in the same student order as the {@link GradeSnapshot} they came from,
+ * together with the number of students holding each letter grade.</p>
+ *
+ */
+public final class GradeReport {
+
+	/** Username of each student */
+	private final String[] userNames;
+	/** Participation score of each student */
+	private final double[] participation;
+	/** Performance score of each student */
+	private final double[] performance;
+	/** Total grade of each student */
+	private final double[] totalGrade;
+	/** Index in {@link GradeFormulas#MARKS} of each student's letter grade */
+	private final byte[] marks;
+	/** Number of students per letter grade, indexed like {@link GradeFormulas#MARKS} */
+	private final int[] histogram;
+
+	/*******
+	 * <p> Method: GradeReport(String[] userNames, double[] participation, double[] performance,
+	 * double[] totalGrade, byte[] marks, int[] histogram) </p>
+	 *
+	 * <p> Description: Create a report from the engine's output columns.</p>
+	 *
+	 * @param userNames the username of each student
+	 * @param participation participation scores
+	 * @param performance performance scores
+	 * @param totalGrade total grades
+	 * @param marks letter grade indexes
+	 * @param histogram students per letter grade
+	 */
+	GradeReport(String[] userNames, double[] participation, double[] performance, double[] totalGrade,
+			byte[] marks, int[] histogram) {
+		this.userNames = userNames;
+		this.participation = participation;
+		this.performance = performance;
+		this.totalGrade = totalGrade;
+		this.marks = marks;
+		this.histogram = histogram;
+	}
+
+	/** @return the number of students in the report */
+	public int size() { return userNames.length; }
+
+	/**
+	 * @param i the student's position in the snapshot
+	 * @return the username of the student
+	 */
+	public String getUserName(int i) { return userNames[i]; }
+
+	/**
+	 * @param i the student's position in the snapshot
+	 * @return the participation score of the student
+	 */
+	public double getParticipation(int i) { return participation[i]; }
+
+	/**
+	 * @param i the student's position in the snapshot
+	 * @return the performance score of the student
+	 */
+	public double getPerformance(int i) { return performance[i]; }
+
+	/**
+	 * @param i the student's position in the snapshot
+	 * @return the total grade of the student
+	 */
+	public double getTotalGrade(int i) { return totalGrade[i]; }
+
+	/**
+	 * @param i the student's position in the snapshot
+	 * @return the letter grade of the student
+	 */
+	public String getGradeMark(int i) { return GradeFormulas.MARKS[marks[i]]; }
+
+	/**
+	 * @param mark a letter grade from {@link GradeFormulas#MARKS}
+	 * @return the number of students with that letter grade, 0 for an unknown mark
+	 */
+	public int countOf(String mark) {
+		for (int i = 0; i < GradeFormulas.MARKS.length; i++) {
+			if (GradeFormulas.MARKS[i].equals(mark)) return histogram[i];
+		}
+		return 0;
+	}
+
+	/*******
+	 * <p> Method: Map&lt;String, Integer&gt; getHistogram() </p>
+	 *
+	 * <p> Description: The number of students holding each letter grade, best grade first.
+	 * Every letter grade is listed, including those nobody holds.</p>
+	 *
+	 * @return a map from letter grade to number of students
+	 */
+	public Map<String, Integer> getHistogram() {
+		Map<String, Integer> counts = new LinkedHashMap<>();
+		for (int i = 0; i < GradeFormulas.MARKS.length; i++) {
+			counts.put(GradeFormulas.MARKS[i], histogram[i]);
+		}
+		return counts;
+	}
+}
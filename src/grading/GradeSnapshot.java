@@ -0,0 +1,124 @@
+package grading;
+
+import java.util.List;
+
+import entityClasses.GradebookRow;
+
+/*******
+ * <p> Title: GradeSnapshot Class. </p>
+ *
+ * <p> Description: The counters of a whole class stored column by column: one primitive array
+ * per counter, indexed by student.  A class of any size is held in a dozen arrays instead of
+ * one object per student, and the {@link GradeEngine} reads each column as a contiguous run of
+ * memory.</p>
+ *
+ * <p> The arrays are taken over as given, not copied; they must not be changed while the
+ * snapshot is in use.</p>
+ *
+ */
+public final class GradeSnapshot {
+
+	/** Username of each student */
+	private final String[] userNames;
+	/** Posts written by each student */
+	private final int[] posts;
+	/** Replies written by each student */
+	private final int[] replies;
+	/** Views received by each student's posts */
+	private final int[] views;
+	/** Replies received by each student's posts */
+	private final int[] repliesReceived;
+	/** Upvotes received by each student's posts */
+	private final int[] upvotes;
+	/** Promotions of each student */
+	private final int[] promotions;
+	/** Violations of each student */
+	private final int[] violations;
+
+	/*******
+	 * <p> Method: GradeSnapshot(String[] userNames, int[] posts, int[] replies, int[] views,
+	 * int[] repliesReceived, int[] upvotes, int[] promotions, int[] violations) </p>
+	 *
+	 * <p> Description: Create a snapshot from one array per counter.</p>
+	 *
+	 * @param userNames the username of each student
+	 * @param posts posts written
+	 * @param replies replies written
+	 * @param views views received
+	 * @param repliesReceived replies received
+	 * @param upvotes upvotes received
+	 * @param promotions promotions
+	 * @param violations violations
+	 * @throws IllegalArgumentException if the arrays are not all the same length
+	 */
+	public GradeSnapshot(String[] userNames, int[] posts, int[] replies, int[] views,
+			int[] repliesReceived, int[] upvotes, int[] promotions, int[] violations) {
+		int n = userNames.length;
+		for (int[] column : new int[][] { posts, replies, views, repliesReceived, upvotes, promotions, violations }) {
+			if (column.length != n) {
+				throw new IllegalArgumentException("Every column must hold " + n + " students");
+			}
+		}
+		this.userNames = userNames;
+		this.posts = posts;
+		this.replies = replies;
+		this.views = views;
+		this.repliesReceived = repliesReceived;
+		this.upvotes = upvotes;
+		this.promotions = promotions;
+		this.violations = violations;
+	}
+
+	/*******
+	 * <p> Method: GradeSnapshot fromRows(List&lt;GradebookRow&gt; rows) </p>
+	 *
+	 * <p> Description: Create a snapshot of gradebook rows already loaded, in row order.</p>
+	 *
+	 * @param rows the gradebook rows
+	 * @return the snapshot of their counters
+	 */
+	public static GradeSnapshot fromRows(List<GradebookRow> rows) {
+		int n = rows.size();
+		String[] userNames = new String[n];
+		int[][] c = new int[7][n];
+		for (int i = 0; i < n; i++) {
+			GradebookRow row = rows.get(i);
+			userNames[i] = row.getUserName();
+			c[0][i] = row.getPostNumber();
+			c[1][i] = row.getReplyNumber();
+			c[2][i] = row.getViewReceived();
+			c[3][i] = row.getReplyReceived();
+			c[4][i] = row.getUpvoteReceived();
+			c[5][i] = row.getPromotion();
+			c[6][i] = row.getViolation();
+		}
+		return new GradeSnapshot(userNames, c[0], c[1], c[2], c[3], c[4], c[5], c[6]);
+	}
+
+	/** @return the number of students in the snapshot */
+	public int size() { return userNames.length; }
+
+	/** @return the username of each student */
+	public String[] getUserNames() { return userNames; }
+
+	/** @return the posts written by each student */
+	public int[] getPosts() { return posts; }
+
+	/** @return the replies written by each student */
+	public int[] getReplies() { return replies; }
+
+	/** @return the views received by each student's posts */
+	public int[] getViews() { return views; }
+
+	/** @return the replies received by each student's posts */
+	public int[] getRepliesReceived() { return repliesReceived; }
+
+	/** @return the upvotes received by each student's posts */
+	public int[] getUpvotes() { return upvotes; }
+
+	/** @return the promotions of each student */
+	public int[] getPromotions() { return promotions; }
+
+	/** @return the violations of each student */
+	public int[] getViolations() { return violations; }
+}
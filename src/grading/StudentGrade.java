@@ -0,0 +1,83 @@
+package grading;
+
+import entityClasses.StudentStatus;
+
+/*******
+ * <p> Title: StudentGrade Class. </p>
+ *
+ * <p> Description: The computed grade of one student: participation, performance, total grade
+ * and letter grade.  Instances are immutable so they can be kept in the {@link GradeCache} and
+ * handed to any thread.</p>
+ *
+ */
+public final class StudentGrade {
+
+	/** Username of the student */
+	private final String userName;
+	/** Participation score */
+	private final double participation;
+	/** Performance score */
+	private final double performance;
+	/** Total grade */
+	private final double totalGrade;
+	/** Letter grade */
+	private final String gradeMark;
+
+	/*******
+	 * <p> Method: StudentGrade(String userName, double participation, double performance,
+	 * double totalGrade, String gradeMark) </p>
+	 *
+	 * <p> Description: Create a grade from its computed parts.</p>
+	 *
+	 * @param userName the student's username
+	 * @param participation participation score
+	 * @param performance performance score
+	 * @param totalGrade total grade
+	 * @param gradeMark letter grade
+	 */
+	public StudentGrade(String userName, double participation, double performance, double totalGrade,
+			String gradeMark) {
+		this.userName = userName;
+		this.participation = participation;
+		this.performance = performance;
+		this.totalGrade = totalGrade;
+		this.gradeMark = gradeMark;
+	}
+
+	/*******
+	 * <p> Method: StudentGrade of(StudentStatus s) </p>
+	 *
+	 * <p> Description: Compute the grade of a student from their counters with
+	 * {@link GradeFormulas}.</p>
+	 *
+	 * @param s the student's counters
+	 * @return the student's grade
+	 */
+	public static StudentGrade of(StudentStatus s) {
+		double participation = GradeFormulas.participation(s.getPostNumber(), s.getReplyNumber());
+		double performance = GradeFormulas.performance(s.getPostNumber(), s.getReplyReceived(),
+				s.getUpvoteReceived(), s.getViewReceived(), s.getPromotion(), s.getViolation());
+		double total = GradeFormulas.totalGrade(participation, performance);
+		return new StudentGrade(s.getUserName(), participation, performance, total, GradeFormulas.gradeMark(total));
+	}
+
+	/** @return the student's username */
+	public String getUserName() { return userName; }
+
+	/** @return the participation score */
+	public double getParticipation() { return participation; }
+
+	/** @return the performance score */
+	public double getPerformance() { return performance; }
+
+	/** @return the total grade */
+	public double getTotalGrade() { return totalGrade; }
+
+	/** @return the letter grade */
+	public String getGradeMark() { return gradeMark; }
+
+	@Override
+	public String toString() {
+		return String.format("%s: %s (%.1f%%)", userName, gradeMark, totalGrade);
+	}
+}
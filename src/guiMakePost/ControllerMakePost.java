@@ -2,14 +2,16 @@ package guiMakePost;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import entityClasses.User;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.ChoiceDialog;
 import javafx.scene.control.TextInputDialog;
 import javafx.stage.Stage;
 import entityClasses.Post;
-import entityClasses.StudentStatus;
+import search.DuplicateMatch;
 
 /**
  * <p> Title: ControllerMakePost Class </p>
@@ -44,6 +46,12 @@ public class ControllerMakePost {
     /** Holds the tags of the post */
     protected static ArrayList<String> tags = new ArrayList<String>();
 
+    /** Most likely duplicates listed while the post is written */
+    private static final int DUPLICATES_SHOWN = 3;
+
+    /** Similarity from which posting asks for confirmation first */
+    private static final double CONFIRM_DUPLICATE_SIMILARITY = 0.8;
+
     /**********
      * <p> Default constructor </p>
      * <p> Description: ControllerMakePost is not intended to be instantiated, 
@@ -75,6 +83,27 @@ public class ControllerMakePost {
         content = ViewMakePost.text_Content.getText();
     }
 
+    /**********
+     * <p> Method: performDuplicateCheck </p>
+     * <p> Description: Looks up the existing posts likely asking the same question as the
+     * draft once typing pauses, on the search thread, and lists them below the content. </p>
+     */
+    protected static void performDuplicateCheck() {
+        String draftTitle = title, draftSubtitle = subtitle, draftContent = content;
+        ViewMakePost.duplicatePipeline.submit(() -> {
+            List<DuplicateMatch> matches = ViewMakePost.theDatabase.findDuplicatePosts(
+                    draftTitle, draftSubtitle, draftContent, DUPLICATES_SHOWN);
+            List<Integer> postIds = new ArrayList<>();
+            for (DuplicateMatch match : matches) postIds.add(match.getPostId());
+            List<String> lines = new ArrayList<>();
+            for (Post post : ViewMakePost.theDatabase.getPostsByIds(postIds)) {
+                DuplicateMatch match = matches.get(postIds.indexOf(post.getPostId()));
+                lines.add("\"" + post.getTitle() + "\" (" + Math.round(match.getSimilarity() * 100) + "% similar)");
+            }
+            return lines;
+        });
+    }
+
     /**********
      * <p> Method: doAddTag </p>
      * <p> Description: Adds a new tag to the post after validating it.
@@ -166,15 +195,22 @@ public class ControllerMakePost {
             ViewMakePost.alertContentError.showAndWait();
             return;
         }
+        List<DuplicateMatch> duplicates = ViewMakePost.theDatabase.findDuplicatePosts(title, subtitle, content, 1);
+        if (!duplicates.isEmpty() && duplicates.get(0).getSimilarity() >= CONFIRM_DUPLICATE_SIMILARITY) {
+            Post similar = ViewMakePost.theDatabase.getPostById(duplicates.get(0).getPostId());
+            if (similar != null) {
+                ViewMakePost.alert_duplicatePost.setHeaderText("A very similar post already exists:\n\""
+                        + similar.getTitle() + "\"");
+                Optional<ButtonType> answer = ViewMakePost.alert_duplicatePost.showAndWait();
+                if (answer.isEmpty() || answer.get() != ButtonType.YES) return;
+            }
+        }
         Post post = new Post(title, subtitle, content, ViewMakePost.theUser.getUserName(),
                 tags, ViewMakePost.combobox_SelectThread.getValue());
 
         try {
             int genPostId = ViewMakePost.theDatabase.makePost(post);
             post.setPostId(genPostId);
-            StudentStatus status = ViewMakePost.theDatabase.getStudentStatus(ViewMakePost.theUser.getUserName());
-            status.setPostNumber(status.getPostNumber()+1);
-            ViewMakePost.theDatabase.updateStudentStatus(status);
             goToUserHomePage(ViewMakePost.theStage, ViewMakePost.theUser);
         } catch (SQLException e) {
             System.err.println("*** ERROR *** Database error trying to make a post: " +
@@ -188,6 +224,8 @@ public class ControllerMakePost {
         ViewMakePost.text_Subtitle.setText("");
         ViewMakePost.text_Content.setText("");
         ViewMakePost.label_TagsContent.setText("");
+        ViewMakePost.duplicatePipeline.cancel();
+        ViewMakePost.label_Duplicates.setText("");
         ViewMakePost.combobox_SelectThread.getSelectionModel().selectFirst();
         tags = new ArrayList<>();
     }
@@ -1,5 +1,6 @@
 package guiMakePost;
 
+import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
@@ -20,7 +21,9 @@ import javafx.stage.Stage;
 
 import database.Database;
 import entityClasses.User;
+import search.SearchPipeline;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -109,6 +112,15 @@ public class ViewMakePost {
    /** TextArea for entering the post content */
    protected static TextArea text_Content = new TextArea();
 
+   // GUI for likely duplicates
+
+   /** Label listing the existing posts that likely ask the same question as the draft */
+   protected static Label label_Duplicates = new Label();
+
+   /** Looks up likely duplicates of the draft off the JavaFX thread while it is typed */
+   protected static final SearchPipeline<List<String>> duplicatePipeline =
+           new SearchPipeline<>(Platform::runLater, (lines, queryNanos) -> showDuplicates(lines));
+
    // GUI for redirect buttons
 
    /** Button to cancel post creation and return */
@@ -140,6 +152,9 @@ public class ViewMakePost {
    /** Confirmation alert shown when discarding a post */
    protected static Alert alert_discardPost = new Alert(Alert.AlertType.CONFIRMATION);
 
+   /** Confirmation alert shown when a very similar post already exists */
+   protected static Alert alert_duplicatePost = new Alert(Alert.AlertType.CONFIRMATION);
+
    // This is the end of the GUI objects for the page.
 
    // These attributes are used to configure the page and populate it with this user's information
@@ -267,7 +282,7 @@ public class ViewMakePost {
 	    setupTextUI(text_Title, "Arial", 14, 680, Pos.CENTER_LEFT, 60, 170, true);
 	    text_Title.setPromptText("Enter a descriptive title for your post");
 	    text_Title.textProperty().addListener((observable, oldValue, newValue) 
-	            -> {ControllerMakePost.setTitle(); });
+	            -> {ControllerMakePost.setTitle(); ControllerMakePost.performDuplicateCheck(); });
 	    
 	    // Subtitle section
 	    label_SubtitleIntro.setText("Subtitle");
@@ -275,7 +290,7 @@ public class ViewMakePost {
 	    setupTextUI(text_Subtitle, "Arial", 14, 680, Pos.CENTER_LEFT, 60, 230, true);
 	    text_Subtitle.setPromptText("Add a brief subtitle or description");
 	    text_Subtitle.textProperty().addListener((observable, oldValue, newValue) 
-	            -> {ControllerMakePost.setSubtitle(); });
+	            -> {ControllerMakePost.setSubtitle(); ControllerMakePost.performDuplicateCheck(); });
 	    
 	    // Content section
 	    label_ContentIntro.setText("Post Body");
@@ -283,7 +298,14 @@ public class ViewMakePost {
 	    setupTextAreaUI(text_Content, "Arial", 14, 680, 160, Pos.TOP_LEFT, 60, 290, true);
 	    text_Content.setPromptText("Write your detailed post content here");
 	    text_Content.textProperty().addListener((observable, oldValue, newValue) 
-	            -> {ControllerMakePost.setContent(); });
+	            -> {ControllerMakePost.setContent(); ControllerMakePost.performDuplicateCheck(); });
+	    
+	    // Likely duplicates, below the content
+	    label_Duplicates.setText("");
+	    setupLabelUI(label_Duplicates, "Arial", 13, 680, Pos.TOP_LEFT, 60, 458);
+	    label_Duplicates.setMaxWidth(680);
+	    label_Duplicates.setWrapText(true);
+	    label_Duplicates.setStyle("-fx-text-fill: #8a4b00;");
 	    
 	    // Alert configurations
 	    alertTitleError.setTitle("Invalid Title Input!");
@@ -315,6 +337,10 @@ public class ViewMakePost {
 	    alert_discardPost.setContentText("Your progress will not be saved!");
 	    alert_discardPost.getButtonTypes().setAll(ButtonType.YES, ButtonType.NO);
 	    
+	    alert_duplicatePost.setTitle("Similar Post Exists");
+	    alert_duplicatePost.setContentText("Please check the existing post first. Post anyway?");
+	    alert_duplicatePost.getButtonTypes().setAll(ButtonType.YES, ButtonType.NO);
+	    
 	    // Bottom buttons
 	    setupButtonUI(button_MakePost, "Dialog", 16, 120, Pos.CENTER, 200, 520);
 	    button_MakePost.setOnAction((event) -> {ControllerMakePost.doMakePost();});
@@ -336,12 +362,25 @@ public class ViewMakePost {
 	    theRootPane.getChildren().addAll(
 	        label_PageTitle, line_Separator, 
 	        label_TitleIntro, label_SubtitleIntro, label_ContentIntro, label_TagsIntro, 
-	        label_ThreadIntro, combobox_SelectThread, label_TagsContent,
+	        label_ThreadIntro, combobox_SelectThread, label_TagsContent, label_Duplicates,
 	        text_Title, text_Subtitle, text_Content,
 	        button_AddTag, button_RemoveTag, button_MakePost,
 	        button_Return, button_Logout, button_Quit);
 	}
 	
+	/**********
+	 * <p> Method: showDuplicates(List&lt;String&gt; lines) </p>
+	 * 
+	 * <p> Description: Shows the likely duplicates of the draft found by the latest lookup,
+	 * or nothing when there are none. </p>
+	 * 
+	 * @param lines one line per likely duplicate, most similar first
+	 */
+	protected static void showDuplicates(List<String> lines) {
+		label_Duplicates.setText(lines.isEmpty() ? ""
+				: "Possibly asked before: " + String.join("; ", lines));
+	}
+	
 	/*-********************************************************************************************
 
 	Helper methods to reduce code length
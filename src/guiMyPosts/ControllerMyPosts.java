@@ -2,7 +2,6 @@ package guiMyPosts;
 
 import entityClasses.User;
 import entityClasses.Post;
-import entityClasses.StudentStatus;
 import javafx.stage.Stage;
 
 /**
@@ -51,10 +50,7 @@ public class ControllerMyPosts {
             ViewMyPosts.theDatabase.deletePost(post.getPostId());
             
             // Refresh the posts list to reflect the deletion
-            ViewMyPosts.posts = ViewMyPosts.theDatabase.getPostsFromUserNewestFirst(ViewMyPosts.theUser.getUserName());
-            StudentStatus status = ViewMyPosts.theDatabase.getStudentStatus(ViewMyPosts.theUser.getUserName());
-            status.setPostNumber(status.getPostNumber()-1);
-            ViewMyPosts.theDatabase.updateStudentStatus(status);
+            ViewMyPosts.loadFirstPostPage();
             ViewMyPosts.refreshPostsDisplay();
         }
     }
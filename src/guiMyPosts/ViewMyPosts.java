@@ -16,6 +16,7 @@ import java.util.ArrayList;
 
 import database.Database;
 import entityClasses.Post;
+import entityClasses.PostFeedRow;
 import entityClasses.User;
 
 /**********
@@ -68,8 +69,17 @@ public class ViewMyPosts {
 	/** Currently logged-in user whose posts are displayed. */
 	protected static User theUser;
 
-	/** List of posts retrieved for the current user, sorted newest first. */
-	protected static ArrayList<Post> posts;
+	/** List of post feed rows retrieved for the current user, sorted newest first. */
+	protected static ArrayList<PostFeedRow> posts;
+
+	/** Number of posts fetched from the database per page. */
+	protected static final int PAGE_SIZE = 50;
+
+	/** Id of the oldest post fetched so far, the cursor of the next page (0 before the first page). */
+	private static int lastSeenPostId = 0;
+
+	/** False once the user's oldest post has been fetched. */
+	private static boolean morePostsAvailable = true;
 
 	/** Scene object for the "My Posts" page. */
 	private static Scene theViewMyPostsScene;
@@ -92,9 +102,7 @@ public class ViewMyPosts {
         theUser = user;
         theRole = applicationMain.FoundationsMain.activeHomePage;
 
-        posts = theDatabase.getPostsFromUserNewestFirst(user.getUserName());
-
-        System.out.println("All posts got: " + posts.size());
+        loadFirstPostPage();
 
         // Construct UI first so scene gets initialized
         theView = new ViewMyPosts();
@@ -126,6 +134,10 @@ public class ViewMyPosts {
         ScrollPane scrollPane = new ScrollPane(postsList);
         scrollPane.setFitToWidth(true);
         scrollPane.setPrefHeight(400);
+        // Fetch the next page of posts when the user scrolls near the bottom of the list
+        scrollPane.vvalueProperty().addListener((obs, oldValue, newValue) -> {
+            if (newValue.doubleValue() >= scrollPane.getVmax() * 0.9) loadNextPostPage();
+        });
 
         postsSection.getChildren().clear();
         postsSection.getChildren().add(scrollPane);
@@ -138,14 +150,16 @@ public class ViewMyPosts {
     }
 
     /**
-     * <p> Method: VBox createPostItem(Post post) </p>
+     * <p> Method: VBox createPostItem(PostFeedRow row) </p>
      * <p> Description: Builds a post item UI including post title, owner,
-     * reply counts, unread info, and a delete button. </p>
+     * reply counts, unread info, and a delete button. All values come from
+     * the preloaded feed row. </p>
      *
-     * @param post The post to visually display
+     * @param row The post feed row to visually display
      * @return VBox containing formatted UI for one post
      */
-    private static VBox createPostItem(Post post) {
+    private static VBox createPostItem(PostFeedRow row) {
+        Post post = row.getPost();
 
         VBox postItem = new VBox(8);
         postItem.setPadding(new Insets(12));
@@ -171,12 +185,11 @@ public class ViewMyPosts {
         VBox statsBox = new VBox(2);
         statsBox.setAlignment(Pos.CENTER_RIGHT);
 
-        String readStatus = theDatabase.hasUserReadPost(theUser.getUserName(), post.getPostId());
-        Label statusLabel = new Label("Status: " + readStatus);
+        Label statusLabel = new Label("Status: " + row.getReadStatus());
         statusLabel.setFont(Font.font("System", 11));
 
-        int totalReplies = theDatabase.getPostNumberOfReplies(post.getPostId());
-        int unreadReplies = theDatabase.getNumberOfUnreadReplies(post.getPostId(), theUser.getUserName());
+        int totalReplies = row.getReplyCount();
+        int unreadReplies = row.getUnreadReplyCount();
         Label repliesLabel = new Label(totalReplies + " replies, " + unreadReplies + " unread");
         repliesLabel.setFont(Font.font("System", 11));
 
@@ -247,8 +260,8 @@ public class ViewMyPosts {
         postsList.getChildren().clear();
 
         if (posts != null && posts.size() > 0) {
-            for (Post post : posts) {
-                postsList.getChildren().add(createPostItem(post));
+            for (PostFeedRow row : posts) {
+                postsList.getChildren().add(createPostItem(row));
             }
         } else {
             Label noPostsLabel = new Label("No posts available");
@@ -258,6 +271,35 @@ public class ViewMyPosts {
         }
     }
 
+    /**
+     * <p> Method: void loadFirstPostPage() </p>
+     * <p> Description: Starts the post list over at the user's newest post and fetches the
+     * first page. The display is not changed; call refreshPostsDisplay. </p>
+     */
+    protected static void loadFirstPostPage() {
+        lastSeenPostId = 0;
+        posts = theDatabase.getPostFeedPageFromUser(theUser.getUserName(), theUser.getUserName(), lastSeenPostId, PAGE_SIZE);
+        morePostsAvailable = posts.size() == PAGE_SIZE;
+        if (!posts.isEmpty()) lastSeenPostId = posts.get(posts.size() - 1).getPostId();
+    }
+
+    /**
+     * <p> Method: void loadNextPostPage() </p>
+     * <p> Description: Fetches the next page of the user's older posts and appends their items
+     * to the displayed list. Does nothing once the oldest post has been fetched. </p>
+     */
+    protected static void loadNextPostPage() {
+        if (!morePostsAvailable) return;
+        ArrayList<PostFeedRow> page = theDatabase.getPostFeedPageFromUser(theUser.getUserName(), theUser.getUserName(), lastSeenPostId, PAGE_SIZE);
+        morePostsAvailable = page.size() == PAGE_SIZE;
+        if (page.isEmpty()) return;
+        lastSeenPostId = page.get(page.size() - 1).getPostId();
+        posts.addAll(page);
+        for (PostFeedRow row : page) {
+            postsList.getChildren().add(createPostItem(row));
+        }
+    }
+
     /**
      * <p> Method: void refreshPostsDisplay() </p>
      * <p> Description: Public refresh trigger for controller after modifications
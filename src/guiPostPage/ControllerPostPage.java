@@ -1,7 +1,6 @@
 package guiPostPage;
 import entityClasses.User;
 import entityClasses.Reply;
-import entityClasses.StudentStatus;
 import javafx.stage.Stage;
 import java.util.Optional;
 import java.sql.SQLException;
@@ -42,9 +41,6 @@ public class ControllerPostPage {
 	            int genReplyId = ViewPostPage.theDatabase.makeReply(reply);
 	            reply.setReplyId(genReplyId);
 	            ViewPostPage.theDatabase.markRepliesAsRead(ViewPostPage.theUser.getUserName(), ViewPostPage.thePost.getPostId());
-	            StudentStatus status = ViewPostPage.theDatabase.getStudentStatus(ViewPostPage.theUser.getUserName());
-	            status.setReplyNumber(status.getReplyNumber()+1);
-	            ViewPostPage.theDatabase.updateStudentStatus(status);
 	            System.out.println("Successfully sent");
 	        } catch (SQLException e) {
 	            System.err.println("*** ERROR *** Database error trying to make a reply: " + e.getMessage());
@@ -204,9 +200,6 @@ public class ControllerPostPage {
 		 */
 	    protected static void deleteReply(Reply reply) {
 	    	ViewPostPage.theDatabase.deleteReply(reply.getReplyId());
-            StudentStatus status = ViewPostPage.theDatabase.getStudentStatus(ViewPostPage.theUser.getUserName());
-            status.setReplyNumber(status.getReplyNumber()-1);
-            ViewPostPage.theDatabase.updateStudentStatus(status);
             ViewPostPage.refreshReplies();
 	    }
 	    
@@ -1,17 +1,25 @@
 package guiStaffHome;
 
+import java.io.File;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+import database.PostQuery;
+import entityClasses.GradebookRow;
 import entityClasses.Message;
 import entityClasses.Post;
 import entityClasses.Request;
 import entityClasses.StudentStatus;
-import entityClasses.User;
+import grading.GradeExporter;
+import search.FuzzyMatch;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.ButtonType;
+import javafx.stage.FileChooser;
 /**
  * <p> Title: ControllerStaffHome Class </p>
  * 
@@ -29,6 +37,12 @@ public class ControllerStaffHome {
 	/**Default constructor, not used*/
 	private ControllerStaffHome() {}
 
+	/**Writes grade exports, created on the first export*/
+	private static GradeExporter gradeExporter = null;
+
+	/**The export started last, null before the first one*/
+	private static CompletableFuture<Integer> gradeExport = null;
+
     /*-*******************************************************************************************
      * User Interface Actions for this page
      **********************************************************************************************/
@@ -49,27 +63,6 @@ public class ControllerStaffHome {
         guiMakePost.ViewMakePost.displayMakePost(ViewStaffHome.theStage, ViewStaffHome.theUser);
     }
     
-    /**********
-     * <p> Method: performSearch </p>
-     * <p> Description: Filters the given post list based on the search keyword entered by the user. </p>
-     * @param postList The original list of posts to filter
-     * @return A list of posts matching the search keyword
-     */
-    protected static ArrayList<Post> performSearch(ArrayList<Post> postList) {
-        String term = ViewStaffHome.text_SearchPost.getText().trim();
-        if (term.isEmpty()) {
-            return postList;
-        } else {
-            ArrayList<Post> resultList = new ArrayList<>();
-            for (Post post : postList) {
-                if (post.getTitle().toLowerCase().contains(term.toLowerCase())) { // ignore case
-                    resultList.add(post);
-                }
-            }
-            return resultList;
-        }
-    }
-    
     /**********
      * <p> Method: performClear </p>
      * <p> Description: Clears the post search field and refreshes all post filters. </p>
@@ -80,60 +73,34 @@ public class ControllerStaffHome {
     }
     
     /**********
-     * <p> Method: performThreadFilter </p>
-     * <p> Description: Filters the given post list by the selected thread. </p>
-     * @param postList The original list of posts to filter
-     * @return A list of posts that belong to the selected thread
+     * <p> Method: performAllFilters </p>
+     * <p> Description: Reloads the post list from the first page with all filters (search, thread, unread) applied, on the search thread, and refreshes the display with the result. Replaces a search still waiting or running. </p>
      */
-    protected static ArrayList<Post> performThreadFilter(ArrayList<Post> postList) {
-        try {
-            if (ViewStaffHome.combobox_Thread.getValue().compareTo("All") == 0) {
-                return postList;
-            } else {
-                ArrayList<Post> resultList = new ArrayList<>();
-                for (Post post : postList) {
-                    if (post.getThread().compareTo(ViewStaffHome.combobox_Thread.getValue()) == 0) {
-                        resultList.add(post);
-                    }
-                }
-                return resultList;
-            }
-        } catch (NullPointerException e) {
-            return postList;
-        }
+    protected static void performAllFilters() {
+        PostQuery query = buildPostQuery();
+        String search = ViewStaffHome.text_SearchPost.getText();
+        ViewStaffHome.searchPipeline.submitNow(() -> ViewStaffHome.readPostPage(query, search, 0, 0));
     }
     
     /**********
-     * <p> Method: performUnreadFilter </p>
-     * <p> Description: Filters the given post list to include only unread posts if the unread checkbox is selected. </p>
-     * @param postList The original list of posts to filter
-     * @return A list of unread posts if filter applied; otherwise, returns the original list
+     * <p> Method: performSearch </p>
+     * <p> Description: Reloads the post list like performAllFilters once the search text has not changed for a moment, so typing runs one query per pause instead of one per keystroke. </p>
      */
-    protected static ArrayList<Post> performUnreadFilter(ArrayList<Post> postList) {
-        if (ViewStaffHome.checkBox_showUnreadPosts.isSelected()) {
-            ArrayList<Post> resultList = new ArrayList<>();
-            for (Post post : postList) {
-                if (ViewStaffHome.theDatabase.isPostUnread(ViewStaffHome.theUser.getUserName(), post.getPostId())) {
-                    resultList.add(post);
-                }
-            }
-            return resultList;
-        } else {
-            return postList;
-        }
+    protected static void performSearch() {
+        PostQuery query = buildPostQuery();
+        String search = ViewStaffHome.text_SearchPost.getText();
+        ViewStaffHome.searchPipeline.submit(() -> ViewStaffHome.readPostPage(query, search, 0, 0));
     }
     
     /**********
-     * <p> Method: performAllFilters </p>
-     * <p> Description: Applies all filters (search, thread, unread) to the post list and refreshes the display. </p>
+     * <p> Method: buildPostQuery </p>
+     * <p> Description: Builds the post query for the current filters (thread, unread), so that the database filters the posts in one query. The search text is matched by the search index instead. </p>
+     * @return A post query for the current user with the selected filters
      */
-    protected static void performAllFilters() {
-        ArrayList<Post> resultList = ViewStaffHome.theDatabase.getAllPostsNewestFirst();
-        resultList = performUnreadFilter(resultList);
-        resultList = performThreadFilter(resultList);
-        resultList = performSearch(resultList);
-        ViewStaffHome.posts = resultList;
-        ViewStaffHome.refreshPostsDisplay();
+    protected static PostQuery buildPostQuery() {
+        return new PostQuery(ViewStaffHome.theUser.getUserName())
+                .inThread(ViewStaffHome.combobox_Thread.getValue())
+                .unreadOnly(ViewStaffHome.checkBox_showUnreadPosts.isSelected());
     }
     
     /**
@@ -280,27 +247,39 @@ public class ControllerStaffHome {
     /**
      * <p>Method: performStudentSearch()</p>
      *
-     * <p>Description: Searches for students in the database based on a keyword. Updates
-     * the student table view with matching results and applies sorting order.</p>
+     * <p>Description: Loads the gradebook with one query and shows the students matching
+     * the search keyword. Grades are computed once here, so the table only reads the finished
+     * rows, and filtering while typing reuses them.</p>
      */
     protected static void performStudentSearch() {
-    	String keyword = ViewStaffHome.studentSearchField.getText().trim().toLowerCase();
-        ObservableList<User> filteredList = FXCollections.observableArrayList();
-
-        for (User u : ViewStaffHome.theDatabase.getAllStudents()) {
-            String fullName = (u.getFirstName() + " " + u.getMiddleName() + " " + u.getLastName()).toLowerCase();
-            if (u.getUserName().toLowerCase().contains(keyword) ||
-                fullName.contains(keyword) ||
-                u.getPreferredFirstName().toLowerCase().contains(keyword)) {
-                filteredList.add(u);
-            }
+        ViewStaffHome.studentRows.clear();
+        for (GradebookRow row : ModelStaffHome.gradeRows(ViewStaffHome.theDatabase.getGradebook())) {
+            ViewStaffHome.studentRows.put(row.getUserName(), row);
         }
+        performStudentFilter();
+    }
 
-        if ("A-Z".equals(ViewStaffHome.studentListSortCombobox.getValue()))
-            filteredList.sort((u1, u2) -> u1.getUserName().compareToIgnoreCase(u2.getUserName()));
-        else
-            filteredList.sort((u1, u2) -> u2.getUserName().compareToIgnoreCase(u1.getUserName()));
+    /**
+     * <p>Method: performStudentFilter()</p>
+     *
+     * <p>Description: Shows the loaded students matching the search keyword. The keyword is
+     * looked up in the user name trigram index, so a username, full name or preferred name
+     * with a few typing mistakes still matches, and the matches are listed closest first.
+     * Without a keyword every student is shown in the selected sort order.</p>
+     */
+    protected static void performStudentFilter() {
+        String keyword = ViewStaffHome.studentSearchField.getText();
+        ObservableList<GradebookRow> filteredList = FXCollections.observableArrayList();
 
+        if (keyword == null || keyword.isBlank()) {
+            filteredList.addAll(ViewStaffHome.studentRows.values());
+            sortStudents(filteredList);
+        } else {
+            for (FuzzyMatch<String> match : ViewStaffHome.theDatabase.findUsers(keyword, 0)) {
+                GradebookRow row = ViewStaffHome.studentRows.get(match.getKey());
+                if (row != null) filteredList.add(row);
+            }
+        }
         ViewStaffHome.studentListTableView.setItems(filteredList);
     }
     
@@ -312,13 +291,7 @@ public class ControllerStaffHome {
      */
     protected static void performStudentClear() {
     	ViewStaffHome.studentSearchField.clear();
-        ObservableList<User> list = FXCollections.observableArrayList(ViewStaffHome.theDatabase.getAllStudents());
-        if ("A-Z".equals(ViewStaffHome.studentListSortCombobox.getValue()))
-            list.sort((u1, u2) -> u1.getUserName().compareToIgnoreCase(u2.getUserName()));
-        else
-            list.sort((u1, u2) -> u2.getUserName().compareToIgnoreCase(u1.getUserName()));
-
-        ViewStaffHome.studentListTableView.setItems(list);
+    	performStudentSearch();
     }
     
     /**
@@ -328,30 +301,105 @@ public class ControllerStaffHome {
      * selected sort order (A-Z or Z-A).</p>
      */
     protected static void performStudentSort() {
-    	ObservableList<User> currentList = ViewStaffHome.studentListTableView.getItems();
+    	sortStudents(ViewStaffHome.studentListTableView.getItems());
+        ViewStaffHome.studentListTableView.refresh();
+    }
+    
+    /**
+     * <p>Method: sortStudents(ObservableList&lt;GradebookRow&gt; rows)</p>
+     *
+     * <p>Description: Sorts gradebook rows by username in the selected sort order.</p>
+     *
+     * @param rows The rows to sort in place
+     */
+    private static void sortStudents(ObservableList<GradebookRow> rows) {
         if ("A-Z".equals(ViewStaffHome.studentListSortCombobox.getValue()))
-            currentList.sort((u1, u2) -> u1.getUserName().compareToIgnoreCase(u2.getUserName()));
+            rows.sort((r1, r2) -> r1.getUserName().compareToIgnoreCase(r2.getUserName()));
         else
-            currentList.sort((u1, u2) -> u2.getUserName().compareToIgnoreCase(u1.getUserName()));
+            rows.sort((r1, r2) -> r2.getUserName().compareToIgnoreCase(r1.getUserName()));
+    }
+    
+    /**
+     * <p>Method: performGradeExport()</p>
+     *
+     * <p>Description: Asks where to save the grades of all students as a CSV file and writes
+     * it on a background thread, streaming the students from the database so the page stays
+     * responsive for any class size. Progress is shown below the student table, and pressing
+     * the button again while an export runs cancels it.</p>
+     */
+    protected static void performGradeExport() {
+    	if (gradeExport != null && !gradeExport.isDone()) {
+    		gradeExport.cancel(false);
+    		return;
+    	}
+    	FileChooser chooser = new FileChooser();
+    	chooser.setTitle("Export Grades");
+    	chooser.setInitialFileName("grades.csv");
+    	chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+    	File file = chooser.showSaveDialog(ViewStaffHome.studentListSubstage);
+    	if (file == null) return;
 
-        ViewStaffHome.studentListTableView.refresh();
+    	if (gradeExporter == null) gradeExporter = new GradeExporter(ViewStaffHome.theDatabase);
+    	ViewStaffHome.studentExportButton.setText("Cancel Export");
+    	ViewStaffHome.studentExportStatusLabel.setText("Exporting...");
+    	CompletableFuture<Integer> export = gradeExporter.exportInBackground(file.toPath(), (exported, total) ->
+    			Platform.runLater(() -> ViewStaffHome.studentExportStatusLabel.setText(
+    					"Exported " + exported + " of " + total + " students")));
+    	gradeExport = export;
+    	export.whenComplete((count, error) -> Platform.runLater(() -> {
+    		// A newer export owns the button and status line once it has started
+    		if (gradeExport != export) return;
+    		gradeExport = null;
+    		ViewStaffHome.studentExportButton.setText("Export Grades (CSV)");
+    		if (export.isCancelled()) {
+    			ViewStaffHome.studentExportStatusLabel.setText("Export cancelled.");
+    		} else if (error != null) {
+    			ViewStaffHome.studentExportStatusLabel.setText("Export failed.");
+    			ViewStaffHome.showError("Export failed", error.getMessage());
+    		} else {
+    			ViewStaffHome.studentExportStatusLabel.setText("Exported " + count + " students to " + file.getName());
+    		}
+    	}));
+    }
+    
+    /**
+     * <p>Method: performFindDuplicates()</p>
+     *
+     * <p>Description: Groups every existing post into clusters of likely duplicates on a
+     * background thread and shows them to staff, so re-asked questions can be merged or
+     * graded together. The button is disabled while the clusters are found.</p>
+     */
+    protected static void performFindDuplicates() {
+    	ViewStaffHome.button_FindDuplicates.setDisable(true);
+    	CompletableFuture<ArrayList<ArrayList<Post>>> clusters =
+    			CompletableFuture.supplyAsync(ViewStaffHome.theDatabase::findDuplicatePostClusters);
+    	clusters.whenComplete((found, error) -> Platform.runLater(() -> {
+    		ViewStaffHome.button_FindDuplicates.setDisable(false);
+    		if (error != null) {
+    			ViewStaffHome.showError("Finding duplicates failed", error.getMessage());
+    		} else {
+    			ViewStaffHome.showDuplicateClusters(found);
+    		}
+    	}));
     }
     
     /**
      * <p>Method: performRefreshStatus(StudentStatus status)</p>
      *
      * <p>Description: Refreshes a student's post/reply/view/upvote statistics from the
-     * database and updates the student's status in the database.</p>
+     * counters the database keeps up to date as posts, replies, views and upvotes happen.
+     * Reading them is a single lookup, however much the student has posted.</p>
      *
      * @param status The StudentStatus object to refresh
      */
     protected static void performRefreshStatus(StudentStatus status) {
-    	status.setPostNumber(ModelStaffHome.getStudentTotalPosts(status.getUserName()));
-    	status.setReplyNumber(ModelStaffHome.getStudentTotalReplies(status.getUserName()));
-    	status.setViewReceived(ModelStaffHome.getStudentTotalViewsGot(status.getUserName()));
-    	status.setReplyReceived(ModelStaffHome.getStudentTotalRepliesGot(status.getUserName()));
-    	status.setUpvoteReceived(ModelStaffHome.getStudentTotalUpvotesGot(status.getUserName()));
-    	ViewStaffHome.theDatabase.updateStudentStatus(status);
+    	StudentStatus stored = ViewStaffHome.theDatabase.getStudentStatus(status.getUserName());
+    	if (stored == null) return;
+    	status.setPostNumber(stored.getPostNumber());
+    	status.setReplyNumber(stored.getReplyNumber());
+    	status.setViewReceived(stored.getViewReceived());
+    	status.setReplyReceived(stored.getReplyReceived());
+    	status.setUpvoteReceived(stored.getUpvoteReceived());
     }
     
     /**
@@ -395,6 +443,49 @@ public class ControllerStaffHome {
         ViewStaffHome.refreshMessageList();
     }
     
+    /**
+     * <p>Method: performBroadcastMessage(String filter, String subject, String content)</p>
+     *
+     * <p>Description: Validates and sends a message to every student whose username or name
+     * contains the filter, or to every student when the filter is blank. A whole class of at
+     * least {@link ModelStaffHome#ANNOUNCEMENT_AUDIENCE} students gets one announcement;
+     * otherwise every student gets a copy, all sent in one batch. Closes the broadcast
+     * substage on success.</p>
+     *
+     * @param filter Text the receivers' username or name must contain; blank for every student
+     * @param subject The subject of the message
+     * @param content The content of the message
+     */
+    protected static void performBroadcastMessage(String filter, String subject, String content) {
+    	String error = ModelStaffHome.validateBroadcast(subject, content);
+    	if (!error.isEmpty()) {
+    		ViewStaffHome.showError(null, error);
+    		return;
+    	}
+    	List<String> receivers = ViewStaffHome.theDatabase.getStudentUserNames(filter);
+    	if (receivers.isEmpty()) {
+    		ViewStaffHome.showError(null, "No students match the filter.");
+    		return;
+    	}
+
+    	String sender = ViewStaffHome.theUser.getUserName();
+    	if (filter.isBlank() && receivers.size() >= ModelStaffHome.ANNOUNCEMENT_AUDIENCE) {
+    		if (ViewStaffHome.theDatabase.postAnnouncement(sender, subject, content) <= 0) {
+    			ViewStaffHome.showError(null, "Failed to post the announcement.");
+    			return;
+    		}
+    		ViewStaffHome.showInfo(null, "Announcement posted to all " + receivers.size() + " students.");
+    	} else {
+    		int sent = ViewStaffHome.theDatabase.broadcastMessage(sender, receivers, subject, content);
+    		if (sent <= 0) {
+    			ViewStaffHome.showError(null, "Failed to send message.");
+    			return;
+    		}
+    		ViewStaffHome.showInfo(null, "Message sent to " + sent + " students.");
+    	}
+    	ViewStaffHome.broadcastSubstage.close();
+    }
+    
     /**
      * <p>Method: performDeleteMessage(Message msg)</p>
      *
@@ -1,9 +1,14 @@
 package guiStaffHome;
 
 import java.util.ArrayList;
+import java.util.List;
 
-import entityClasses.Post;
+import entityClasses.GradebookRow;
 import entityClasses.StudentStatus;
+import grading.GradeEngine;
+import grading.GradeFormulas;
+import grading.GradeReport;
+import grading.GradeSnapshot;
 
 /*******
  * <p> Title: ModelStaffHome Class. </p>
@@ -23,100 +28,33 @@ public class ModelStaffHome {
 
 	/**Default constructor, not used*/
 	private ModelStaffHome() {}
-	
-	/**
-	 * <p>Method: getStudentTotalPosts(String username)</p>
-	 *
-	 * <p>Description: Returns the total number of posts made by a specific student.</p>
-	 *
-	 * @param username The username of the student
-	 * @return The total number of posts
-	 */
-	protected static int getStudentTotalPosts(String username) {
-		return ViewStaffHome.theDatabase.getNumberOfPosts(username);
-	}
-	
-	/**
-	 * <p>Method: getStudentTotalReplies(String username)</p>
-	 *
-	 * <p>Description: Returns the total number of replies made by a specific student.</p>
-	 *
-	 * @param username The username of the student
-	 * @return The total number of replies
-	 */
-	protected static int getStudentTotalReplies(String username) {
-		return ViewStaffHome.theDatabase.getNumberOfReplies(username);
-	}
-	
-	/**
-	 * <p>Method: getStudentTotalRepliesGot(String username)</p>
-	 *
-	 * <p>Description: Returns the total number of replies received on all posts created by the student.</p>
-	 *
-	 * @param username The username of the student
-	 * @return The total replies received
-	 */
-	protected static int getStudentTotalRepliesGot(String username) {
-		int total = 0;
-		
-		// Get all posts created by the user
-		ArrayList<Post> posts = ViewStaffHome.theDatabase.getPostsFromUserNewestFirst(username);
-		
-		// Sum replies from each post
-		for (Post p : posts) {
-	        int postId = p.getPostId();
-	        total += ViewStaffHome.theDatabase.getPostNumberOfReplies(postId);
-	    }
 
-	    return total;
-	}
+	/**Smallest whole class that is messaged with one announcement instead of a copy per student*/
+	protected static final int ANNOUNCEMENT_AUDIENCE = 500;
 	
-	/**
-	 * <p>Method: getStudentTotalUpvotesGot(String username)</p>
-	 *
-	 * <p>Description: Returns the total number of upvotes received on all posts by the student.</p>
-	 *
-	 * @param username The username of the student
-	 * @return The total upvotes received
-	 */
-	protected static int getStudentTotalUpvotesGot(String username) {
-	    int total = 0;
-
-	    // Get all posts created by the user
-	    ArrayList<Post> posts = ViewStaffHome.theDatabase.getPostsFromUserNewestFirst(username);
-
-	    // Sum upvotes from each post
-	    for (Post p : posts) {
-	        int postId = p.getPostId();
-	        total += ViewStaffHome.theDatabase.getPostUpvotes(postId);
-	    }
-
-	    return total;
-	}
+	/** Grades the whole student table at once; large classes are graded in parallel */
+	private static final GradeEngine gradeEngine = new GradeEngine();
 	
 	/**
-	 * <p>Method: getStudentTotalViewsGot(String username)</p>
+	 * <p>Method: gradeRows(List&lt;GradebookRow&gt; rows)</p>
 	 *
-	 * <p>Description: Returns the total number of views received on all posts by the student.</p>
+	 * <p>Description: Computes the participation, performance, total grade and letter grade
+	 * of every gradebook row once, so the student table only has to read them. The rows are
+	 * graded together by the grade engine from a column snapshot of their counters.</p>
 	 *
-	 * @param username The username of the student
-	 * @return The total views received
+	 * @param rows The gradebook rows holding each student's counters
+	 * @return The same rows, in the same order, carrying their grades
 	 */
-	protected static int getStudentTotalViewsGot(String username) {
-	    int totalViews = 0;
-
-	    // Get all posts written by this user
-	    ArrayList<Post> posts = ViewStaffHome.theDatabase.getPostsFromUserNewestFirst(username);
-
-	    // Sum views for each post
-	    for (Post p : posts) {
-	        int postId = p.getPostId();
-	        totalViews += ViewStaffHome.theDatabase.getPostViews(postId);
-	    }
-
-	    return totalViews;
+	protected static ArrayList<GradebookRow> gradeRows(List<GradebookRow> rows) {
+		GradeReport report = gradeEngine.grade(GradeSnapshot.fromRows(rows));
+		ArrayList<GradebookRow> graded = new ArrayList<>(rows.size());
+		for (int i = 0; i < rows.size(); i++) {
+			graded.add(rows.get(i).withGrades(report.getParticipation(i), report.getPerformance(i),
+					report.getTotalGrade(i), report.getGradeMark(i)));
+		}
+		return graded;
 	}
-
+	
 	/**
 	 * <p>Method: getParticipation(StudentStatus s)</p>
 	 *
@@ -127,12 +65,7 @@ public class ModelStaffHome {
 	 * @return Participation percentage (0-100)
 	 */
 	protected static double getParticipation(StudentStatus s) {
-		int p = s.getPostNumber();
-		int r = s.getReplyNumber();
-		if (p > 5) p = 5;					// Maximum 5 posts
-		if (r > 5) r = 5;					// Maximum 5 replies
-		return ((p / 5.0) * 0.6 + 			// Post weighs 60%
-				(r / 5.0) * 0.4) * 100;		// Reply weighs 40%
+		return GradeFormulas.participation(s.getPostNumber(), s.getReplyNumber());
 	}
 	
 	/**
@@ -146,21 +79,8 @@ public class ModelStaffHome {
 	 * @return Performance percentage (0-100)
 	 */
 	protected static double getPerformance(StudentStatus s) {
-		if (s.getPostNumber() == 0) return 0;
-		
-		double rdp = s.getReplyReceived() * 1.0 / s.getPostNumber();
-		double up = s.getUpvoteReceived() * 1.0;
-		double vdp = s.getViewReceived() * 1.0 / s.getPostNumber();
-		
-		if (rdp > 1) rdp = 1 + (rdp - 1) * 0.1;		// If the ratio of replies got per posts posted is greater than 1, 10% of excess part will be extra credit
-		if (up > 5) up = 5;							// Maximum 5 upvotes
-		if (vdp > 1) vdp = 1 + (vdp - 1) * 0.05;	// If the ratio of views got per posts posted is greater than 1, 5% of excess part will be extra credit
-		
-		return (rdp * 0.3 +							// reply/post weighs 30%
-                up / 5.0 * 0.1 +					// upvotes weighs 10%
-                vdp * 0.6 +							// view/post weighs 60%					
-                s.getPromotion() * 0.05 -			// promotion will be 5% extra per each
-                s.getViolation() * 0.1) * 100;		// violation will be -10% extra per each
+		return GradeFormulas.performance(s.getPostNumber(), s.getReplyReceived(), s.getUpvoteReceived(),
+				s.getViewReceived(), s.getPromotion(), s.getViolation());
 	}
 	
 	/**
@@ -173,8 +93,7 @@ public class ModelStaffHome {
 	 * @return Total grade (0-100)
 	 */
 	protected static double getTotalGrade(double participation, double performance) {
-		return participation * 0.8 + 				// participation weighs 80%
-				performance * 0.2;					// performance weighs 20%
+		return GradeFormulas.totalGrade(participation, performance);
 	}
 	
 	/**
@@ -186,40 +105,7 @@ public class ModelStaffHome {
 	 * @return Letter grade as String (e.g., "A+", "B-", "F")
 	 */
 	protected static String getGradeMark(double grade) {
-		if (grade >= 97) {
-			return "A+";
-		}
-		if (grade >= 93) {
-			return "A";
-		}
-		if (grade >= 90) {
-			return "A-";
-		}
-		if (grade >= 87) {
-			return "B+";
-		}
-		if (grade >= 83) {
-			return "B";
-		}
-		if (grade >= 80) {
-			return "B-";
-		}
-		if (grade >= 77) {
-			return "C+";
-		}
-		if (grade >= 73) {
-			return "C";
-		}
-		if (grade >= 70) {
-			return "C-";
-		}
-		if (grade >= 60) {
-			return "D";
-		}
-		if (grade < 60) {
-			return "F";
-		}
-		return "N/A";
+		return GradeFormulas.gradeMark(grade);
 	}
 	
 	/**
@@ -281,7 +167,24 @@ public class ModelStaffHome {
 	 * @return Error message if invalid, or empty string if valid
 	 */
 	protected static String validateMessage(String receiver, String subject, String content) {
-		if (receiver.isEmpty() || subject.isEmpty() || content.isEmpty()) {
+		if (receiver.isEmpty()) {
+            return "All fields are required.";
+        }
+		return validateBroadcast(subject, content);
+	}
+
+	/**
+	 * <p>Method: validateBroadcast(String subject, String content)</p>
+	 *
+	 * <p>Description: Validates the fields of a message sent to many students. Checks for
+	 * empty fields and maximum lengths.</p>
+	 *
+	 * @param subject The message subject
+	 * @param content The message content
+	 * @return Error message if invalid, or empty string if valid
+	 */
+	protected static String validateBroadcast(String subject, String content) {
+		if (subject.isEmpty() || content.isEmpty()) {
             return "All fields are required.";
         }
 		if (subject.length() > 100) {
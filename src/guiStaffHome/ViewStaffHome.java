@@ -1,5 +1,6 @@
 package guiStaffHome;
 
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -10,20 +11,31 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import database.Database;
+import database.PostQuery;
+import entityClasses.GradebookRow;
 import entityClasses.Message;
+import entityClasses.MessageHeader;
 import entityClasses.Post;
+import entityClasses.PostFeedRow;
 import entityClasses.User;
 import entityClasses.Request;
 import entityClasses.StudentStatus;
+import grading.StudentGrade;
+import search.SearchPipeline;
+import search.Snippet;
 
 /**********
  * <p> Title: ViewStaffHome Class </p>
@@ -100,6 +112,9 @@ public class ViewStaffHome {
 	/** Button to navigate to the System Requests substage. */
 	protected static Button button_SystemRequests = new Button("System Requests");
 
+	/** Button to group the existing posts into clusters of likely duplicates. */
+	protected static Button button_FindDuplicates = new Button("Find Duplicates");
+
 	/** Button to navigate to Account Update substage. */
 	protected static Button button_UpdateThisUser = new Button("Account Update");
 
@@ -299,34 +314,46 @@ public class ViewStaffHome {
 	protected static ComboBox<String> studentListSortCombobox = new ComboBox<>();
 
 	/** TableView displaying student information. */
-	protected static TableView<User> studentListTableView = new TableView<>();
+	protected static TableView<GradebookRow> studentListTableView = new TableView<>();
+
+	/** Graded rows of every student by username, loaded when the student list is searched. */
+	protected static Map<String, GradebookRow> studentRows = new LinkedHashMap<>();
 
 	/** Column displaying student names. */
-	protected static TableColumn<User, String> studentListNameColumn = new TableColumn<>("Name");
+	protected static TableColumn<GradebookRow, String> studentListNameColumn = new TableColumn<>("Name");
 
 	/** Column displaying student usernames. */
-	protected static TableColumn<User, String> studentListUsernameColumn = new TableColumn<>("Username");
+	protected static TableColumn<GradebookRow, String> studentListUsernameColumn = new TableColumn<>("Username");
 
 	/** Column displaying student participation scores. */
-	protected static TableColumn<User, String> studentListParticipationColumn = new TableColumn<>("Participation");
+	protected static TableColumn<GradebookRow, String> studentListParticipationColumn = new TableColumn<>("Participation");
 
 	/** Column displaying student performance scores. */
-	protected static TableColumn<User, String> studentListPerformanceColumn = new TableColumn<>("Performance");
+	protected static TableColumn<GradebookRow, String> studentListPerformanceColumn = new TableColumn<>("Performance");
 
 	/** Column displaying students' total grades. */
-	protected static TableColumn<User, String> studentListTotalGradeColumn = new TableColumn<>("Total Grade");
+	protected static TableColumn<GradebookRow, String> studentListTotalGradeColumn = new TableColumn<>("Total Grade");
 
 	/** Column containing action buttons for details of each student. */
-	protected static TableColumn<User, String> studentListActionDetailsColumn = new TableColumn<>("Action");
+	protected static TableColumn<GradebookRow, String> studentListActionDetailsColumn = new TableColumn<>("Action");
 
 	/** Column containing action buttons for messaging each student. */
-	protected static TableColumn<User, String> studentListActionMessageColumn = new TableColumn<>("Action");
+	protected static TableColumn<GradebookRow, String> studentListActionMessageColumn = new TableColumn<>("Action");
 
 	/** Column containing action buttons to promote a student. */
-	private TableColumn<User, String> studentListActionPromoteColumn = new TableColumn<>("Promote");
+	private TableColumn<GradebookRow, String> studentListActionPromoteColumn = new TableColumn<>("Promote");
 
 	/** Column containing action buttons to record student violations. */
-	private TableColumn<User, String> studentListActionViolationColumn = new TableColumn<>("Violation");
+	private TableColumn<GradebookRow, String> studentListActionViolationColumn = new TableColumn<>("Violation");
+
+	/** HBox container for the grade export button and its progress. */
+	protected static HBox studentExportRow = new HBox(10);
+
+	/** Button to export the grades of all students to a CSV file, or cancel a running export. */
+	protected static Button studentExportButton = new Button("Export Grades (CSV)");
+
+	/** Label showing the progress of the grade export. */
+	protected static Label studentExportStatusLabel = new Label();
 
 	// -----------------------------
 	// --Student Details Sub-stage--
@@ -433,6 +460,15 @@ public class ViewStaffHome {
 	/** VBox container inside ScrollPane for messages. */
 	protected static VBox messageListContainer = new VBox(5);
 
+	/** Button appending the next page of messages to the list. */
+	protected static Button messageListMoreButton = new Button("Load more");
+
+	/** Number of messages loaded per page of the message list. */
+	protected static final int MESSAGE_PAGE_SIZE = 50;
+
+	/** Id of the last message shown in the message list, where the next page starts. */
+	protected static int messageListLastSeenId = 0;
+
 	// =========================
 	// SEND MESSAGE SUBSTAGE
 	// =========================
@@ -472,6 +508,45 @@ public class ViewStaffHome {
 	/** Button to send the message. */
 	protected static Button sendMessageSendButton = new Button("Send");
 
+	// =========================
+	// BROADCAST SUBSTAGE
+	// =========================
+	/** Stage for composing a message to many students. */
+	protected static Stage broadcastSubstage = new Stage();
+
+	/** Main layout VBox for broadcast substage. */
+	protected static VBox broadcastLayout = new VBox(10);
+
+	/** Scene for broadcast substage. */
+	protected static Scene broadcastScene = new Scene(broadcastLayout, 450, 420);
+
+	/** Label indicating the receiver filter field. */
+	protected static Label broadcastFilterLabel = new Label("To students whose username or name contains (blank for all):");
+
+	/** TextField to narrow the receivers down. */
+	protected static TextField broadcastFilterField = new TextField();
+
+	/** Label showing how many students the message goes to. */
+	protected static Label broadcastAudienceLabel = new Label();
+
+	/** TextField to enter the message subject. */
+	protected static TextField broadcastSubjectField = new TextField();
+
+	/** TextArea for entering the message content. */
+	protected static TextArea broadcastContentArea = new TextArea();
+
+	/** HBox container for send/cancel buttons. */
+	protected static HBox broadcastButtonRow = new HBox(10);
+
+	/** Button to cancel the broadcast. */
+	protected static Button broadcastCancelButton = new Button("Cancel");
+
+	/** Button to send the broadcast. */
+	protected static Button broadcastSendButton = new Button("Send");
+
+	/** Button in the message list opening the broadcast substage. */
+	protected static Button messageListBroadcastButton = new Button("Message Students");
+
 	// =========================
 	// MESSAGE DETAILS SUBSTAGE
 	// =========================
@@ -516,8 +591,24 @@ public class ViewStaffHome {
     /** The current logged-in user. */
     protected static User theUser;
     
-    /** List of posts fetched from the database. */
-    protected static ArrayList<Post> posts;
+    /** List of post feed rows fetched from the database. */
+    protected static ArrayList<PostFeedRow> posts;
+    
+    /** Number of posts fetched from the database per page. */
+    protected static final int PAGE_SIZE = 50;
+    
+    /** Id of the oldest post fetched so far, the cursor of the next page (0 before the first page). */
+    private static int lastSeenPostId = 0;
+    
+    /** False once the oldest post has been fetched. */
+    private static boolean morePostsAvailable = true;
+    
+    /** Runs the searches typed into the search field off the JavaFX thread and shows the latest. */
+    protected static final SearchPipeline<ArrayList<PostFeedRow>> searchPipeline =
+            new SearchPipeline<>(Platform::runLater, (page, queryNanos) -> showFirstPostPage(page, queryNanos));
+    
+    /** Shows how many posts the last search listed and how long its query took. */
+    protected static Label label_SearchTime = new Label();
     
     /** List of threads available in the database. */
     protected static ArrayList<String> threads;
@@ -539,7 +630,7 @@ public class ViewStaffHome {
     public static void displayStaffHome(Stage ps, User user) {
         theStage = ps;
         theUser = user;
-        posts = theDatabase.getAllPostsNewestFirst();
+        loadFirstPostPage();
         threads = theDatabase.getAllThreads();
         if (threads.isEmpty()) {
         	theDatabase.addThread("General");
@@ -586,6 +677,7 @@ public class ViewStaffHome {
         createStudentDetailsSubstage();
         createMessageListSubstage();
         createSendMessageSubstage();
+        createBroadcastSubstage();
         createMessageDetailsSubstage();
         
         theViewStaffHomeScene = new Scene(root, width, height);
@@ -621,7 +713,11 @@ public class ViewStaffHome {
         setupButton(button_SystemRequests, 140, 35);
         button_SystemRequests.setOnAction(event -> showSystemRequestsStage());
         
-        staffActionBox.getChildren().addAll(button_ViewStudents, button_ManageThreads, button_SystemRequests);
+        setupButton(button_FindDuplicates, 130, 35);
+        button_FindDuplicates.setOnAction(event -> ControllerStaffHome.performFindDuplicates());
+        
+        staffActionBox.getChildren().addAll(button_ViewStudents, button_ManageThreads, button_SystemRequests,
+                button_FindDuplicates);
         titleRow.getChildren().addAll(label_PageTitle, spacer1, staffActionBox);
 
         HBox controlsRow = new HBox();
@@ -679,6 +775,7 @@ public class ViewStaffHome {
         text_SearchPost.setPromptText("Enter keywords to search posts...");
         text_SearchPost.setPrefWidth(400);
         text_SearchPost.setFont(Font.font("System", 14));
+        text_SearchPost.textProperty().addListener((obs, oldText, newText) -> ControllerStaffHome.performSearch());
 
         setupButton(button_SearchPost, 80, 35);
         button_SearchPost.setOnAction(event -> ControllerStaffHome.performAllFilters());
@@ -693,7 +790,7 @@ public class ViewStaffHome {
         Region searchSpacer = new Region();
         HBox.setHgrow(searchSpacer, Priority.ALWAYS);
 
-        searchBox.getChildren().addAll(text_SearchPost, button_SearchPost, button_ClearSearchPost, searchSpacer, button_MakePost);
+        searchBox.getChildren().addAll(text_SearchPost, button_SearchPost, button_ClearSearchPost, label_SearchTime, searchSpacer, button_MakePost);
         searchSection.getChildren().addAll(titleSection, searchBox);
 
         VBox postsSection = createPostsSection();
@@ -729,19 +826,25 @@ public class ViewStaffHome {
         ScrollPane scrollPane = new ScrollPane(postsList);
         scrollPane.setFitToWidth(true);
         scrollPane.setPrefHeight(350);
+        // Fetch the next page of posts when the user scrolls near the bottom of the list
+        scrollPane.vvalueProperty().addListener((obs, oldValue, newValue) -> {
+            if (newValue.doubleValue() >= scrollPane.getVmax() * 0.9) loadNextPostPage();
+        });
 
         postsSection.getChildren().addAll(titleSection, scrollPane);
         return postsSection;
     }
 
     /**********
-     * <p> Method: createPostItem(Post post) </p>
+     * <p> Method: createPostItem(PostFeedRow row) </p>
      * <p> Description: Generates a GUI item for a single post, including title, author, tags, 
-     * thread, status, and number of replies.</p>
-     * @param post The Post object to display
+     * thread, status, and number of replies. All values come from the preloaded feed row, including
+     * the highlighted snippet of a search feed.</p>
+     * @param row The PostFeedRow to display
      * @return VBox representing the post item
      */
-    private static VBox createPostItem(Post post) {
+    private static VBox createPostItem(PostFeedRow row) {
+        Post post = row.getPost();
         VBox postItem = new VBox(8);
         postItem.setPadding(new Insets(12));
         postItem.setStyle("-fx-border-color: gray; -fx-border-width: 1;");
@@ -765,25 +868,25 @@ public class ViewStaffHome {
 
         VBox statsBox = new VBox(2);
         statsBox.setAlignment(Pos.CENTER_RIGHT);
-        String threadStatus = theDatabase.getPostThread(post.getPostId());
-        Label threadStatusLabel = new Label("Thread: " + threadStatus);
+        Label threadStatusLabel = new Label("Thread: " + post.getThread());
         threadStatusLabel.setFont(Font.font("System", 11));
 
-        String readStatus = theDatabase.hasUserReadPost(theUser.getUserName(), post.getPostId());
-        Label readStatusLabel = new Label("Status: " + readStatus);
+        Label readStatusLabel = new Label("Status: " + row.getReadStatus());
         readStatusLabel.setFont(Font.font("System", 11));
 
-        int totalReplies = theDatabase.getPostNumberOfReplies(post.getPostId());
-        int unreadReplies = theDatabase.getNumberOfUnreadReplies(post.getPostId(), theUser.getUserName());
-        int totalViews = theDatabase.getPostViews(post.getPostId());
-        int totalUpvotes = theDatabase.getPostUpvotes(post.getPostId());
+        int totalReplies = row.getReplyCount();
+        int unreadReplies = row.getUnreadReplyCount();
+        int totalViews = row.getViews();
+        int totalUpvotes = row.getUpvotes();
         Label repliesLabel = new Label(totalViews + " views, " + totalUpvotes + " upvotes, " + totalReplies + " replies, " + unreadReplies + " unread");
         repliesLabel.setFont(Font.font("System", 11));
 
         statsBox.getChildren().addAll(threadStatusLabel, readStatusLabel, repliesLabel);
 
         infoRow.getChildren().addAll(labelBox, infoSpacer, statsBox);
-        contentSection.getChildren().addAll(titleLabel, infoRow);
+        contentSection.getChildren().add(titleLabel);
+        if (row.getSnippet() != null) contentSection.getChildren().add(createSnippetFlow(row.getSnippet()));
+        contentSection.getChildren().add(infoRow);
         postItem.getChildren().add(contentSection);
 
         contentSection.setOnMouseClicked(e -> guiPostPage.ViewPostPage.displayPostPage(theStage, theUser, post));
@@ -796,6 +899,41 @@ public class ViewStaffHome {
         return postItem;
     }
 
+    /**********
+     * <p> Method: createSnippetFlow(Snippet snippet) </p>
+     * <p> Description: Shows the snippet of a search hit with the searched words in bold, and
+     * notes when it comes from a reply rather than the post.</p>
+     * @param snippet The snippet to show
+     * @return TextFlow holding the snippet
+     */
+    private static TextFlow createSnippetFlow(Snippet snippet) {
+        TextFlow flow = new TextFlow();
+        String text = snippet.getText();
+        if (snippet.getReplyId() != 0) flow.getChildren().add(snippetText("In a reply: ", false));
+        int at = 0;
+        for (int i = 0; i < snippet.getMatchCount(); i++) {
+            flow.getChildren().add(snippetText(text.substring(at, snippet.getMatchStart(i)), false));
+            flow.getChildren().add(snippetText(text.substring(snippet.getMatchStart(i), snippet.getMatchEnd(i)), true));
+            at = snippet.getMatchEnd(i);
+        }
+        flow.getChildren().add(snippetText(text.substring(at), false));
+        return flow;
+    }
+
+    /**********
+     * <p> Method: snippetText(String text, boolean match) </p>
+     * <p> Description: Creates one run of snippet text, bold and dark blue for a searched word.</p>
+     * @param text The text of the run
+     * @param match Whether the run is a searched word
+     * @return Text node for the run
+     */
+    private static Text snippetText(String text, boolean match) {
+        Text run = new Text(text);
+        run.setFont(Font.font("System", match ? FontWeight.BOLD : FontWeight.NORMAL, 12));
+        run.setStyle(match ? "-fx-fill: #1a4f8b;" : "-fx-fill: #444444;");
+        return run;
+    }
+
     /**********
      * <p> Method: createFooter() </p>
      * <p> Description: Creates the footer section with Logout and Quit buttons.</p>
@@ -823,8 +961,8 @@ public class ViewStaffHome {
     private static void populatePostsList() {
         postsList.getChildren().clear();
         if (posts != null && posts.size() > 0) {
-            for (Post post : posts) {
-                postsList.getChildren().add(createPostItem(post));
+            for (PostFeedRow row : posts) {
+                postsList.getChildren().add(createPostItem(row));
             }
         } else {
             Label noPostsLabel = new Label("No posts available");
@@ -834,12 +972,104 @@ public class ViewStaffHome {
         }
     }
 
+    /**********
+     * <p> Method: loadFirstPostPage() </p>
+     * <p> Description: Starts the post list over at the newest post and fetches the first page
+     * of posts that pass the current filters. The display is not changed; call refreshPostsDisplay.</p>
+     */
+    protected static void loadFirstPostPage() {
+        searchPipeline.cancel();
+        posts = new ArrayList<>();
+        lastSeenPostId = 0;
+        morePostsAvailable = true;
+        posts.addAll(fetchPostPage());
+    }
+
+    /**********
+     * <p> Method: loadNextPostPage() </p>
+     * <p> Description: Fetches the next page of older posts and appends their items to the
+     * displayed list. Does nothing once the oldest post has been fetched.</p>
+     */
+    protected static void loadNextPostPage() {
+        if (!morePostsAvailable) return;
+        ArrayList<PostFeedRow> page = fetchPostPage();
+        if (page.isEmpty()) return;
+        if (posts.isEmpty()) postsList.getChildren().clear();
+        posts.addAll(page);
+        for (PostFeedRow row : page) {
+            postsList.getChildren().add(createPostItem(row));
+        }
+    }
+
+    /**********
+     * <p> Method: fetchPostPage() </p>
+     * <p> Description: Reads the next page of posts that pass the current filters and moves the
+     * cursor past it.</p>
+     * @return the posts of the page, best match or newest first
+     */
+    private static ArrayList<PostFeedRow> fetchPostPage() {
+        ArrayList<PostFeedRow> page = readPostPage(ControllerStaffHome.buildPostQuery(), text_SearchPost.getText(),
+                lastSeenPostId, posts.size());
+        morePostsAvailable = page.size() == PAGE_SIZE;
+        if (!page.isEmpty()) lastSeenPostId = page.get(page.size() - 1).getPostId();
+        return page;
+    }
+
+    /**********
+     * <p> Method: readPostPage(PostQuery query, String search, int after, int offset) </p>
+     * <p> Description: Reads a page of posts using one filtered query. While a search is entered
+     * the posts come from the search index, best match first, and the page starts after the
+     * first offset matches; otherwise it starts after the cursor. Reads no controls, so it can
+     * run on the search thread.</p>
+     * @param query the filters of the page
+     * @param search the search text, blank for none
+     * @param after id of the oldest post already listed, 0 for the newest posts
+     * @param offset number of matches already listed
+     * @return the posts of the page, best match or newest first
+     */
+    protected static ArrayList<PostFeedRow> readPostPage(PostQuery query, String search, int after, int offset) {
+        return search == null || search.isBlank()
+                ? theDatabase.getPostFeed(query.after(after).limit(PAGE_SIZE))
+                : theDatabase.searchPostFeed(query, search, offset, PAGE_SIZE);
+    }
+
+    /**********
+     * <p> Method: showFirstPostPage(ArrayList&lt;PostFeedRow&gt; page, long queryNanos) </p>
+     * <p> Description: Starts the post list over with a first page read by the search pipeline,
+     * refreshes the display and shows how long the query took.</p>
+     * @param page the first page of posts that pass the filters
+     * @param queryNanos how long reading the page took, in nanoseconds
+     */
+    private static void showFirstPostPage(ArrayList<PostFeedRow> page, long queryNanos) {
+        posts = page;
+        morePostsAvailable = page.size() == PAGE_SIZE;
+        lastSeenPostId = page.isEmpty() ? 0 : page.get(page.size() - 1).getPostId();
+        refreshPostsDisplay();
+        label_SearchTime.setText(String.format("%d%s posts in %.1f ms", page.size(),
+                morePostsAvailable ? "+" : "", queryNanos / 1e6));
+    }
+
     /**********
      * <p> Method: refreshPostsDisplay() </p>
-     * <p> Description: Refreshes the posts list area by repopulating the post items.</p>
+     * <p> Description: Refreshes the posts list area by repopulating the post items, and the
+     * unread badges.</p>
      */
     protected static void refreshPostsDisplay() {
         populatePostsList();
+        refreshUnreadBadges();
+    }
+
+    /**********
+     * <p> Method: refreshUnreadBadges() </p>
+     * <p> Description: Shows the number of unread messages on the Messages button and the
+     * number of unread posts on the unread posts filter, read from the user's counters.</p>
+     */
+    protected static void refreshUnreadBadges() {
+        if (theUser == null) return;
+        int unreadMessages = theDatabase.getUnreadMessageCount(theUser.getUserName());
+        int unreadPosts = theDatabase.getUnreadPostCount(theUser.getUserName());
+        button_Message.setText(unreadMessages > 0 ? "Messages (" + unreadMessages + ")" : "Messages");
+        checkBox_showUnreadPosts.setText(unreadPosts > 0 ? "Show Unread Posts (" + unreadPosts + ")" : "Show Unread Posts");
     }
 
     /**
@@ -1276,12 +1506,13 @@ public class ViewStaffHome {
 
         // Search Row
         studentListSearchRow.setAlignment(Pos.CENTER_LEFT);
-        studentSearchField.setPromptText("Enter username");
+        studentSearchField.setPromptText("Enter username or name");
         studentSearchField.setPrefWidth(200);
         studentListSortCombobox.getItems().addAll("A-Z", "Z-A");
         studentListSortCombobox.getSelectionModel().selectFirst();
         studentListLayout.getChildren().add(studentListSearchRow);
         studentSearchButton.setOnAction(e -> {ControllerStaffHome.performStudentSearch();});
+        studentSearchField.textProperty().addListener((obs, oldText, newText) -> ControllerStaffHome.performStudentFilter());
         studentClearButton.setOnAction(e -> {ControllerStaffHome.performStudentClear();});
         studentListSortCombobox.setOnAction(e -> {ControllerStaffHome.performStudentSort();});
 
@@ -1290,8 +1521,7 @@ public class ViewStaffHome {
         
         // Name Column
         studentListNameColumn.setCellValueFactory(data -> {
-            User u = data.getValue();
-            String fullName = (u.getFirstName() + " " + u.getMiddleName() + " " + u.getLastName()).trim();
+            String fullName = data.getValue().getFullName();
             if (fullName.isBlank()) fullName = "<Anonymous>";
             return new SimpleStringProperty(fullName);
         });
@@ -1299,40 +1529,23 @@ public class ViewStaffHome {
         // Username Column
         studentListUsernameColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getUserName()));
 
+        // Grade columns only read the grades computed when the gradebook was loaded
         // Participation Column
-        studentListParticipationColumn.setCellValueFactory(data -> {
-            User u = data.getValue();
-            StudentStatus s = theDatabase.getStudentStatus(u.getUserName());
-            ControllerStaffHome.performRefreshStatus(s);
-            if (s == null) return new SimpleStringProperty("0%");
-            double participation = ModelStaffHome.getParticipation(s);
-            return new SimpleStringProperty(String.format("%.1f%%", participation));
-        });
+        studentListParticipationColumn.setCellValueFactory(data ->
+            new SimpleStringProperty(String.format("%.1f%%", data.getValue().getParticipation())));
 
         // Performance Column
-        studentListPerformanceColumn.setCellValueFactory(data -> {
-            User u = data.getValue();
-            StudentStatus s = theDatabase.getStudentStatus(u.getUserName());
-            ControllerStaffHome.performRefreshStatus(s);
-            if (s == null) return new SimpleStringProperty("0%");
-            double performance = ModelStaffHome.getPerformance(s);
-            return new SimpleStringProperty(String.format("%.1f%%", performance));
-        });
+        studentListPerformanceColumn.setCellValueFactory(data ->
+            new SimpleStringProperty(String.format("%.1f%%", data.getValue().getPerformance())));
 
         // Total Grade Column
         studentListTotalGradeColumn.setCellValueFactory(data -> {
-            User u = data.getValue();
-            StudentStatus s = theDatabase.getStudentStatus(u.getUserName());
-            ControllerStaffHome.performRefreshStatus(s);
-            if (s == null) return new SimpleStringProperty("0%");
-            double participation = ModelStaffHome.getParticipation(s);
-            double performance = ModelStaffHome.getPerformance(s);
-            double total = ModelStaffHome.getTotalGrade(participation, performance);
-            return new SimpleStringProperty(ModelStaffHome.getGradeMark(total) + " (" + (String.format("%.1f%%", total)) + ")");
+            GradebookRow row = data.getValue();
+            return new SimpleStringProperty(row.getGradeMark() + " (" + (String.format("%.1f%%", row.getTotalGrade())) + ")");
         });
 
      // Action(Details) Column
-        studentListActionDetailsColumn.setCellFactory(col -> new TableCell<User, String>() {
+        studentListActionDetailsColumn.setCellFactory(col -> new TableCell<GradebookRow, String>() {
 
             private final Label clickable = new Label("Details");
 
@@ -1349,9 +1562,8 @@ public class ViewStaffHome {
 
                 // click behavior
                 clickable.setOnMouseClicked(e -> {
-                    User u = getTableView().getItems().get(getIndex());
-                    StudentStatus s = theDatabase.getStudentStatus(u.getUserName());
-                    showStudentDetailsSubstage(u, s);
+                    GradebookRow row = getTableView().getItems().get(getIndex());
+                    showStudentDetailsSubstage(row.getStudent(), row.getStatus());
                 });
             }
 
@@ -1367,7 +1579,7 @@ public class ViewStaffHome {
         });
 
         // Action(Message) Column
-        studentListActionMessageColumn.setCellFactory(col -> new TableCell<User, String>() {
+        studentListActionMessageColumn.setCellFactory(col -> new TableCell<GradebookRow, String>() {
 
             private final Label clickable = new Label("Message");
 
@@ -1381,8 +1593,8 @@ public class ViewStaffHome {
                     "-fx-text-fill: #0a65c2; -fx-underline: false; -fx-font-weight: bold;"));
 
                 clickable.setOnMouseClicked(e -> {
-                    User u = getTableView().getItems().get(getIndex());
-                    showSendMessageSubstage(u.getUserName());
+                    GradebookRow row = getTableView().getItems().get(getIndex());
+                    showSendMessageSubstage(row.getUserName());
                 });
             }
 
@@ -1395,7 +1607,7 @@ public class ViewStaffHome {
         });
         
         // Action(Promote) Column
-        studentListActionPromoteColumn.setCellFactory(col -> new TableCell<User, String>() {
+        studentListActionPromoteColumn.setCellFactory(col -> new TableCell<GradebookRow, String>() {
 
             private final Label clickable = new Label("Promote");
 
@@ -1411,25 +1623,17 @@ public class ViewStaffHome {
                 });
 
                 clickable.setOnMouseClicked(e -> {
-                    User u = getTableView().getItems().get(getIndex());
-                    StudentStatus s = theDatabase.getStudentStatus(u.getUserName());
-                    if (s == null) return;
+                    GradebookRow row = getTableView().getItems().get(getIndex());
 
-                    // Toggle promotion count
-                    if (s.getPromotion() == 0)
-                        s.setPromotion(s.getPromotion()+1);  // enable
-                    else
-                        s.setPromotion(s.getPromotion()-1);  // disable
+                    // Toggle promotion with one update that reads and writes the column
+                    theDatabase.togglePromotion(row.getUserName());
 
-                    theDatabase.updateStudentStatus(s);
-                    ControllerStaffHome.performRefreshStatus(s);
-
-                    updateColorBasedOnStatus(s);
-                    getTableView().refresh();
+                    // Reload the rows so the grades include the change
+                    ControllerStaffHome.performStudentSearch();
                 });
             }
 
-            private void updateColorBasedOnStatus(StudentStatus s) {
+            private void updateColorBasedOnStatus(GradebookRow s) {
                 if (s.getPromotion() == 0) {
                     clickable.setStyle("-fx-text-fill: grey; -fx-font-weight: bold;");
                 } else {
@@ -1446,16 +1650,13 @@ public class ViewStaffHome {
                     return;
                 }
 
-                User u = getTableView().getItems().get(getIndex());
-                StudentStatus s = theDatabase.getStudentStatus(u.getUserName());
-
-                if (s != null) updateColorBasedOnStatus(s);
+                updateColorBasedOnStatus(getTableView().getItems().get(getIndex()));
                 setGraphic(clickable);
             }
         });
 
         // Action(Violation) Column
-        studentListActionViolationColumn.setCellFactory(col -> new TableCell<User, String>() {
+        studentListActionViolationColumn.setCellFactory(col -> new TableCell<GradebookRow, String>() {
 
             private final Label clickable = new Label("Violation");
 
@@ -1471,25 +1672,17 @@ public class ViewStaffHome {
                 });
 
                 clickable.setOnMouseClicked(e -> {
-                    User u = getTableView().getItems().get(getIndex());
-                    StudentStatus s = theDatabase.getStudentStatus(u.getUserName());
-                    if (s == null) return;
+                    GradebookRow row = getTableView().getItems().get(getIndex());
 
-                    // Toggle violation
-                    if (s.getViolation() == 0)
-                        s.setViolation(s.getViolation()+1);
-                    else
-                        s.setViolation(s.getViolation()-1);
+                    // Toggle violation with one update that reads and writes the column
+                    theDatabase.toggleViolation(row.getUserName());
 
-                    theDatabase.updateStudentStatus(s);
-                    ControllerStaffHome.performRefreshStatus(s);
-
-                    updateColorBasedOnStatus(s);
-                    getTableView().refresh();
+                    // Reload the rows so the grades include the change
+                    ControllerStaffHome.performStudentSearch();
                 });
             }
 
-            private void updateColorBasedOnStatus(StudentStatus s) {
+            private void updateColorBasedOnStatus(GradebookRow s) {
                 if (s.getViolation() == 0) {
                     clickable.setStyle("-fx-text-fill: grey; -fx-font-weight: bold;");
                 } else {
@@ -1506,10 +1699,7 @@ public class ViewStaffHome {
                     return;
                 }
 
-                User u = getTableView().getItems().get(getIndex());
-                StudentStatus s = theDatabase.getStudentStatus(u.getUserName());
-
-                if (s != null) updateColorBasedOnStatus(s);
+                updateColorBasedOnStatus(getTableView().getItems().get(getIndex()));
                 setGraphic(clickable);
             }
         });
@@ -1526,21 +1716,22 @@ public class ViewStaffHome {
         studentListTableView.getColumns().add(studentListActionPromoteColumn);
         studentListTableView.getColumns().add(studentListActionViolationColumn);
         studentListLayout.getChildren().add(studentListTableView);
+
+        // Grade Export Row
+        studentExportRow.setAlignment(Pos.CENTER_LEFT);
+        studentExportButton.setOnAction(e -> {ControllerStaffHome.performGradeExport();});
+        studentExportRow.getChildren().addAll(studentExportButton, studentExportStatusLabel);
+        studentListLayout.getChildren().add(studentExportRow);
     }
     
     /**
      * <p>Method: showViewStudentsListSubstage()</p>
      *
-     * <p>Description: Loads all students into the table view, refreshes their statuses,
-     * and shows the substage.</p>
+     * <p>Description: Loads the gradebook of all students into the table view with one
+     * query and shows the substage.</p>
      */
     protected void showViewStudentsListSubstage() {
-        ObservableList<User> studentList = FXCollections.observableArrayList(theDatabase.getAllStudents());
-        for (User u : studentList) {
-        	ControllerStaffHome.performRefreshStatus(theDatabase.getStudentStatus(u.getUserName()));
-        }
-        
-        studentListTableView.setItems(studentList);
+        ControllerStaffHome.performStudentSearch();
 
         studentListSubstage.setScene(studentListScene);
         studentListSubstage.show();
@@ -1592,12 +1783,12 @@ public class ViewStaffHome {
         String fullName = (u.getFirstName() + " " + u.getMiddleName() + " " + u.getLastName()).trim();
         if (fullName.isBlank()) fullName = "<Anonymous>";
         
-        double grade = ModelStaffHome.getTotalGrade(ModelStaffHome.getParticipation(s), ModelStaffHome.getPerformance(s));
-        String mark = ModelStaffHome.getGradeMark(grade);
+        StudentGrade grade = theDatabase.getStudentGrade(u.getUserName());
+        if (grade == null) grade = StudentGrade.of(s);
 
         studentDetailsStudentNameLabel.setText("Student: " + fullName);
 		studentDetailsUserNameLabel.setText("Username: " + u.getUserName());
-		studentDetailsGradeLabel.setText("Grade: " + mark + " (" + String.format("%.1f%%", grade) + ")");
+		studentDetailsGradeLabel.setText("Grade: " + grade.getGradeMark() + " (" + String.format("%.1f%%", grade.getTotalGrade()) + ")");
 		studentDetailsPaticipationLabel.setText("Participation:");
 		studentDetailsNumPostsLabel.setText("   Number of Posts: " + s.getPostNumber() + " / 5");
 		studentDetailsNumRepliesLabel.setText("   Number of Replies: " + s.getReplyNumber() + " / 5");
@@ -1635,10 +1826,12 @@ public class ViewStaffHome {
         HBox.setHgrow(messageListTitleSpacer, Priority.ALWAYS);
 
         messageListSendButton.setOnAction(e -> showSendMessageSubstage(""));
+        messageListBroadcastButton.setOnAction(e -> showBroadcastSubstage());
 
         messageListTitleRow.getChildren().addAll(
                 messageListTitleLabel,
                 messageListTitleSpacer,
+                messageListBroadcastButton,
                 messageListSendButton
         );
 
@@ -1665,6 +1858,7 @@ public class ViewStaffHome {
         messageListScrollPane.setPrefHeight(400);
         
         messageListScrollPane.setContent(messageListContainer);
+        messageListMoreButton.setOnAction(e -> loadMessagePage());
 
         messageListLayout.getChildren().addAll(
                 messageListTitleRow,
@@ -1687,32 +1881,37 @@ public class ViewStaffHome {
     /**
      * <p>Method: refreshMessageList()</p>
      *
-     * <p>Description: Retrieves all messages for the current user, applies search and unread
-     * filters, and populates the message list container. Marks messages as read when opened.</p>
+     * <p>Description: Reloads the message list from its first page, applying the subject search
+     * and unread filter, and updates the unread badges. Rows show only message headers; a
+     * message's content is loaded when it is opened.</p>
      */
     protected static void refreshMessageList() {
         messageListContainer.getChildren().clear();
-        System.out.println("=== refreshMessageList called ===");
-
-        List<Message> msgs = theDatabase.getAllMessages(theUser.getUserName());
-        if (msgs == null) msgs = new ArrayList<>();
-
-        String keyword = messageListSearchField.getText() == null ? "" : messageListSearchField.getText().trim().toLowerCase();
-        boolean showUnreadOnly = showUnreadOnlyCheckbox.isSelected();
+        messageListLastSeenId = 0;
+        loadMessagePage();
+        refreshUnreadBadges();
 
-        // Filter by subject
-        if (!keyword.isEmpty()) {
-            msgs.removeIf(m -> m.getSubject() == null || !m.getSubject().toLowerCase().contains(keyword));
+        if (messageListContainer.getChildren().isEmpty()) {
+            Label empty = new Label("No messages to display");
+            empty.setPadding(new Insets(10));
+            messageListContainer.getChildren().add(empty);
         }
+    }
 
-        // Filter by unread
-        if (showUnreadOnly) {
-            msgs.removeIf(Message::isRead);
-        }
+    /**
+     * <p>Method: loadMessagePage()</p>
+     *
+     * <p>Description: Appends the next page of messages for the current user to the message
+     * list, followed by a "Load more" button when the page was full.</p>
+     */
+    protected static void loadMessagePage() {
+        messageListContainer.getChildren().remove(messageListMoreButton);
 
-        System.out.println("Number of messages after filtering: " + msgs.size());
+        List<MessageHeader> page = theDatabase.getInboxPage(theUser.getUserName(),
+                messageListSearchField.getText(), showUnreadOnlyCheckbox.isSelected(),
+                messageListLastSeenId, MESSAGE_PAGE_SIZE);
 
-        for (Message msg : msgs) {
+        for (MessageHeader msg : page) {
             HBox row = new HBox(10);
             row.setPadding(new Insets(8));
             row.setAlignment(Pos.CENTER_LEFT);
@@ -1733,16 +1932,17 @@ public class ViewStaffHome {
             status.setStyle(msg.isRead() ? "-fx-text-fill: green;" : "-fx-text-fill: grey;");
 
             row.getChildren().addAll(subject, sender, status);
-            row.setOnMouseClicked(ev -> showMessageDetailsSubstage(msg));
+            row.setOnMouseClicked(ev -> {
+                Message full = theDatabase.getMessage(msg.getId());
+                if (full != null) showMessageDetailsSubstage(full);
+                else refreshMessageList();
+            });
 
             messageListContainer.getChildren().add(row);
         }
 
-        if (messageListContainer.getChildren().isEmpty()) {
-            Label empty = new Label("No messages to display");
-            empty.setPadding(new Insets(10));
-            messageListContainer.getChildren().add(empty);
-        }
+        if (!page.isEmpty()) messageListLastSeenId = page.get(page.size() - 1).getId();
+        if (page.size() == MESSAGE_PAGE_SIZE) messageListContainer.getChildren().add(messageListMoreButton);
     }
 
     /**
@@ -1814,6 +2014,79 @@ public class ViewStaffHome {
         sendMessageSubstage.showAndWait();
     }
 
+    /**
+     * <p>Method: createBroadcastSubstage()</p>
+     *
+     * <p>Description: Initializes the Message Students substage with a receiver filter, the
+     * number of students it matches, subject and content fields, and buttons for sending or
+     * cancelling.</p>
+     */
+    protected static void createBroadcastSubstage() {
+        broadcastSubstage.initModality(Modality.APPLICATION_MODAL);
+        broadcastSubstage.setTitle("Message Students");
+
+        broadcastLayout.setPadding(new Insets(15));
+        broadcastLayout.setPrefWidth(400);
+
+        broadcastFilterField.setPromptText("Filter students");
+        broadcastFilterField.textProperty().addListener((obs, oldText, newText) -> refreshBroadcastAudience());
+        broadcastAudienceLabel.setStyle("-fx-text-fill: #555;");
+
+        broadcastSubjectField.setPromptText("Subject");
+        broadcastContentArea.setPromptText("Write your message...");
+        broadcastContentArea.setWrapText(true);
+        broadcastContentArea.setPrefHeight(150);
+
+        broadcastButtonRow.setAlignment(Pos.CENTER_RIGHT);
+        broadcastCancelButton.setOnAction(e -> broadcastSubstage.close());
+        broadcastSendButton.setOnAction(e -> ControllerStaffHome.performBroadcastMessage(
+                broadcastFilterField.getText().trim(),
+                broadcastSubjectField.getText().trim(),
+                broadcastContentArea.getText().trim()));
+        broadcastButtonRow.getChildren().addAll(broadcastCancelButton, broadcastSendButton);
+
+        broadcastLayout.getChildren().addAll(
+                broadcastFilterLabel,
+                broadcastFilterField,
+                broadcastAudienceLabel,
+                new Label("Subject:"),
+                broadcastSubjectField,
+                new Label("Message:"),
+                broadcastContentArea,
+                broadcastButtonRow
+        );
+    }
+
+    /**
+     * <p>Method: showBroadcastSubstage()</p>
+     *
+     * <p>Description: Clears the fields and shows the Message Students substage.</p>
+     */
+    protected static void showBroadcastSubstage() {
+        broadcastFilterField.clear();
+        broadcastSubjectField.clear();
+        broadcastContentArea.clear();
+        refreshBroadcastAudience();
+
+        broadcastSubstage.setScene(broadcastScene);
+        broadcastSubstage.showAndWait();
+    }
+
+    /**
+     * <p>Method: refreshBroadcastAudience()</p>
+     *
+     * <p>Description: Shows how many students the current filter matches, and whether they
+     * will get one announcement or a copy each.</p>
+     */
+    protected static void refreshBroadcastAudience() {
+        String filter = broadcastFilterField.getText().trim();
+        int audience = filter.isEmpty() ? theDatabase.getNumberOfStudents()
+                : theDatabase.getStudentUserNames(filter).size();
+        String mode = filter.isEmpty() && audience >= ModelStaffHome.ANNOUNCEMENT_AUDIENCE
+                ? " (sent as one announcement)" : "";
+        broadcastAudienceLabel.setText("Recipients: " + audience + (audience == 1 ? " student" : " students") + mode);
+    }
+
     /**
      * <p>Method: createMessageDetailsSubstage()</p>
      *
@@ -1903,6 +2176,46 @@ public class ViewStaffHome {
     	alert.show();
     }
     
+    /**
+     * <p>Method: showDuplicateClusters(ArrayList&lt;ArrayList&lt;Post&gt;&gt; clusters)</p>
+     *
+     * <p>Description: Shows the clusters of likely duplicate posts in their own window, one
+     * group per cluster with its oldest post first. Clicking a post opens it.</p>
+     *
+     * @param clusters The clusters of likely duplicates, largest first
+     */
+    protected static void showDuplicateClusters(ArrayList<ArrayList<Post>> clusters) {
+    	Stage duplicatesStage = new Stage();
+    	duplicatesStage.initOwner(theStage);
+    	duplicatesStage.setTitle("Likely Duplicate Posts");
+    	VBox layout = new VBox(12);
+    	layout.setPadding(new Insets(15));
+    	Label heading = new Label(clusters.isEmpty() ? "No likely duplicates found."
+    			: clusters.size() + " groups of posts likely asking the same question");
+    	heading.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
+    	layout.getChildren().add(heading);
+    	for (int i = 0; i < clusters.size(); i++) {
+    		VBox group = new VBox(4);
+    		group.setPadding(new Insets(8));
+    		group.setStyle("-fx-border-color: lightgray; -fx-border-width: 1;");
+    		group.getChildren().add(new Label("Group " + (i + 1) + " (" + clusters.get(i).size() + " posts)"));
+    		for (Post post : clusters.get(i)) {
+    			Label link = new Label(post.getTitle() + "  \u2014  by " + post.getOwner() + ", " + post.getThread());
+    			link.setStyle("-fx-text-fill: #0a65c2; -fx-cursor: hand;");
+    			link.setOnMouseClicked(e -> {
+    				duplicatesStage.close();
+    				guiPostPage.ViewPostPage.displayPostPage(theStage, theUser, post);
+    			});
+    			group.getChildren().add(link);
+    		}
+    		layout.getChildren().add(group);
+    	}
+    	ScrollPane scroll = new ScrollPane(layout);
+    	scroll.setFitToWidth(true);
+    	duplicatesStage.setScene(new Scene(scroll, 640, 480));
+    	duplicatesStage.show();
+    }
+    
     /**
      * <p>Method: showError(String title, String content)</p>
      *
@@ -1,9 +1,7 @@
 package guiStudentHome;
 
-import java.util.ArrayList;
-
+import database.PostQuery;
 import entityClasses.Message;
-import entityClasses.Post;
 import entityClasses.StudentStatus;
 
 /**
@@ -43,27 +41,6 @@ public class ControllerStudentHome {
         guiMakePost.ViewMakePost.displayMakePost(ViewStudentHome.theStage, ViewStudentHome.theUser);
     }
     
-    /**********
-     * <p> Method: performSearch </p>
-     * <p> Description: Filters the given post list based on the search keyword entered by the user. </p>
-     * @param postList The original list of posts to filter
-     * @return A list of posts matching the search keyword
-     */
-    protected static ArrayList<Post> performSearch(ArrayList<Post> postList) {
-        String term = ViewStudentHome.text_SearchPost.getText().trim();
-        if (term.isEmpty()) {
-            return postList;
-        } else {
-            ArrayList<Post> resultList = new ArrayList<>();
-            for (Post post : postList) {
-                if (post.getTitle().toLowerCase().contains(term.toLowerCase())) { // ignore case
-                    resultList.add(post);
-                }
-            }
-            return resultList;
-        }
-    }
-    
     /**********
      * <p> Method: performClear </p>
      * <p> Description: Clears the post search field and refreshes all post filters. </p>
@@ -73,50 +50,6 @@ public class ControllerStudentHome {
         performAllFilters();
     }
     
-    /**********
-     * <p> Method: performThreadFilter </p>
-     * <p> Description: Filters the given post list by the selected thread. </p>
-     * @param postList The original list of posts to filter
-     * @return A list of posts that belong to the selected thread
-     */
-    protected static ArrayList<Post> performThreadFilter(ArrayList<Post> postList) {
-        try {
-            if (ViewStudentHome.combobox_Thread.getValue().compareTo("All") == 0) {
-                return postList;
-            } else {
-                ArrayList<Post> resultList = new ArrayList<>();
-                for (Post post : postList) {
-                    if (post.getThread().compareTo(ViewStudentHome.combobox_Thread.getValue()) == 0) {
-                        resultList.add(post);
-                    }
-                }
-                return resultList;
-            }
-        } catch (NullPointerException e) {
-            return postList;
-        }
-    }
-    
-    /**********
-     * <p> Method: performUnreadFilter </p>
-     * <p> Description: Filters the given post list to include only unread posts if the unread checkbox is selected. </p>
-     * @param postList The original list of posts to filter
-     * @return A list of unread posts if filter applied; otherwise, returns the original list
-     */
-    protected static ArrayList<Post> performUnreadFilter(ArrayList<Post> postList) {
-        if (ViewStudentHome.checkBox_showUnreadPosts.isSelected()) {
-            ArrayList<Post> resultList = new ArrayList<>();
-            for (Post post : postList) {
-                if (ViewStudentHome.theDatabase.isPostUnread(ViewStudentHome.theUser.getUserName(), post.getPostId())) {
-                    resultList.add(post);
-                }
-            }
-            return resultList;
-        } else {
-            return postList;
-        }
-    }
-
     /**
      * <p>Method: performSendMessage(String receiver, String subject, String content)</p>
      *
@@ -206,32 +139,52 @@ public class ControllerStudentHome {
     
     /**********
      * <p> Method: performAllFilters </p>
-     * <p> Description: Applies all filters (search, thread, unread) to the post list and refreshes the display. </p>
+     * <p> Description: Reloads the post list from the first page with all filters (search, thread, unread) applied, on the search thread, and refreshes the display with the result. Replaces a search still waiting or running. </p>
      */
     protected static void performAllFilters() {
-        ArrayList<Post> resultList = ViewStudentHome.theDatabase.getAllPostsNewestFirst();
-        resultList = performUnreadFilter(resultList);
-        resultList = performThreadFilter(resultList);
-        resultList = performSearch(resultList);
-        ViewStudentHome.posts = resultList;
-        ViewStudentHome.refreshPostsDisplay();
+        PostQuery query = buildPostQuery();
+        String search = ViewStudentHome.text_SearchPost.getText();
+        ViewStudentHome.searchPipeline.submitNow(() -> ViewStudentHome.readPostPage(query, search, 0, 0));
+    }
+    
+    /**********
+     * <p> Method: performSearch </p>
+     * <p> Description: Reloads the post list like performAllFilters once the search text has not changed for a moment, so typing runs one query per pause instead of one per keystroke. </p>
+     */
+    protected static void performSearch() {
+        PostQuery query = buildPostQuery();
+        String search = ViewStudentHome.text_SearchPost.getText();
+        ViewStudentHome.searchPipeline.submit(() -> ViewStudentHome.readPostPage(query, search, 0, 0));
+    }
+    
+    /**********
+     * <p> Method: buildPostQuery </p>
+     * <p> Description: Builds the post query for the current filters (thread, unread), so that the database filters the posts in one query. The search text is matched by the search index instead. </p>
+     * @return A post query for the current user with the selected filters
+     */
+    protected static PostQuery buildPostQuery() {
+        return new PostQuery(ViewStudentHome.theUser.getUserName())
+                .inThread(ViewStudentHome.combobox_Thread.getValue())
+                .unreadOnly(ViewStudentHome.checkBox_showUnreadPosts.isSelected());
     }
     
     /**
      * <p>Method: performRefreshStatus(StudentStatus status)</p>
      *
      * <p>Description: Refreshes a student's post/reply/view/upvote statistics from the
-     * database and updates the student's status in the database.</p>
+     * counters the database keeps up to date as posts, replies, views and upvotes happen.
+     * Reading them is a single lookup, however much the student has posted.</p>
      *
      * @param status The StudentStatus object to refresh
      */
     protected static void performRefreshStatus(StudentStatus status) {
-    	status.setPostNumber(ModelStudentHome.getStudentTotalPosts(status.getUserName()));
-    	status.setReplyNumber(ModelStudentHome.getStudentTotalReplies(status.getUserName()));
-    	status.setViewReceived(ModelStudentHome.getStudentTotalViewsGot(status.getUserName()));
-    	status.setReplyReceived(ModelStudentHome.getStudentTotalRepliesGot(status.getUserName()));
-    	status.setUpvoteReceived(ModelStudentHome.getStudentTotalUpvotesGot(status.getUserName()));
-    	ViewStudentHome.theDatabase.updateStudentStatus(status);
+    	StudentStatus stored = ViewStudentHome.theDatabase.getStudentStatus(status.getUserName());
+    	if (stored == null) return;
+    	status.setPostNumber(stored.getPostNumber());
+    	status.setReplyNumber(stored.getReplyNumber());
+    	status.setViewReceived(stored.getViewReceived());
+    	status.setReplyReceived(stored.getReplyReceived());
+    	status.setUpvoteReceived(stored.getUpvoteReceived());
     }
     
     /**********
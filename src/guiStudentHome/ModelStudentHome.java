@@ -1,9 +1,7 @@
 package guiStudentHome;
 
-import java.util.ArrayList;
-
-import entityClasses.Post;
 import entityClasses.StudentStatus;
+import grading.GradeFormulas;
 
 /**
  * <p> Title: ModelStudentHome Class. </p>
@@ -16,99 +14,6 @@ public class ModelStudentHome {
 	/**Default constructor, not used*/
 	private ModelStudentHome() {}
 	
-	/**
-	 * <p>Method: getStudentTotalPosts(String username)</p>
-	 *
-	 * <p>Description: Returns the total number of posts made by a specific student.</p>
-	 *
-	 * @param username The username of the student
-	 * @return The total number of posts
-	 */
-	protected static int getStudentTotalPosts(String username) {
-		return ViewStudentHome.theDatabase.getNumberOfPosts(username);
-	}
-
-	/**
-	 * <p>Method: getStudentTotalReplies(String username)</p>
-	 *
-	 * <p>Description: Returns the total number of replies made by a specific student.</p>
-	 *
-	 * @param username The username of the student
-	 * @return The total number of replies
-	 */
-	protected static int getStudentTotalReplies(String username) {
-		return ViewStudentHome.theDatabase.getNumberOfReplies(username);
-	}
-
-	/**
-	 * <p>Method: getStudentTotalRepliesGot(String username)</p>
-	 *
-	 * <p>Description: Returns the total number of replies received on all posts created by the student.</p>
-	 *
-	 * @param username The username of the student
-	 * @return The total replies received
-	 */
-	protected static int getStudentTotalRepliesGot(String username) {
-		int total = 0;
-		
-		// Get all posts created by the user
-		ArrayList<Post> posts = ViewStudentHome.theDatabase.getPostsFromUserNewestFirst(username);
-		
-		// Sum replies from each post
-		for (Post p : posts) {
-	        int postId = p.getPostId();
-	        total += ViewStudentHome.theDatabase.getPostNumberOfReplies(postId);
-	    }
-
-	    return total;
-	}
-
-	/**
-	 * <p>Method: getStudentTotalUpvotesGot(String username)</p>
-	 *
-	 * <p>Description: Returns the total number of upvotes received on all posts by the student.</p>
-	 *
-	 * @param username The username of the student
-	 * @return The total upvotes received
-	 */
-	protected static int getStudentTotalUpvotesGot(String username) {
-	    int total = 0;
-
-	    // Get all posts created by the user
-	    ArrayList<Post> posts = ViewStudentHome.theDatabase.getPostsFromUserNewestFirst(username);
-
-	    // Sum upvotes from each post
-	    for (Post p : posts) {
-	        int postId = p.getPostId();
-	        total += ViewStudentHome.theDatabase.getPostUpvotes(postId);
-	    }
-
-	    return total;
-	}
-
-	/**
-	 * <p>Method: getStudentTotalViewsGot(String username)</p>
-	 *
-	 * <p>Description: Returns the total number of views received on all posts by the student.</p>
-	 *
-	 * @param username The username of the student
-	 * @return The total views received
-	 */
-	protected static int getStudentTotalViewsGot(String username) {
-	    int totalViews = 0;
-
-	    // Get all posts written by this user
-	    ArrayList<Post> posts = ViewStudentHome.theDatabase.getPostsFromUserNewestFirst(username);
-
-	    // Sum views for each post
-	    for (Post p : posts) {
-	        int postId = p.getPostId();
-	        totalViews += ViewStudentHome.theDatabase.getPostViews(postId);
-	    }
-
-	    return totalViews;
-	}
-
 	/**
 	 * <p>Method: getParticipation(StudentStatus s)</p>
 	 *
@@ -119,12 +24,7 @@ public class ModelStudentHome {
 	 * @return Participation percentage (0-100)
 	 */
 	protected static double getParticipation(StudentStatus s) {
-		int p = s.getPostNumber();
-		int r = s.getReplyNumber();
-		if (p > 5) p = 5;					// Maximum 5 posts
-		if (r > 5) r = 5;					// Maximum 5 replies
-		return ((p / 5.0) * 0.6 + 			// Post weighs 60%
-				(r / 5.0) * 0.4) * 100;		// Reply weighs 40%
+		return GradeFormulas.participation(s.getPostNumber(), s.getReplyNumber());
 	}
 
 	/**
@@ -138,21 +38,8 @@ public class ModelStudentHome {
 	 * @return Performance percentage (0-100)
 	 */
 	protected static double getPerformance(StudentStatus s) {
-		if (s.getPostNumber() == 0) return 0;
-		
-		double rdp = s.getReplyReceived() * 1.0 / s.getPostNumber();
-		double up = s.getUpvoteReceived() * 1.0;
-		double vdp = s.getViewReceived() * 1.0 / s.getPostNumber();
-		
-		if (rdp > 1) rdp = 1 + (rdp - 1) * 0.1;		// If the ratio of replies got per posts posted is greater than 1, 10% of excess part will be extra credit
-		if (up > 5) up = 5;							// Maximum 5 upvotes
-		if (vdp > 1) vdp = 1 + (vdp - 1) * 0.05;	// If the ratio of views got per posts posted is greater than 1, 5% of excess part will be extra credit
-		
-		return (rdp * 0.3 +							// reply/post weighs 30%
-                up / 5.0 * 0.1 +					// upvotes weighs 10%
-                vdp * 0.6 +							// view/post weighs 60%					
-                s.getPromotion() * 0.05 -			// promotion will be 5% extra per each
-                s.getViolation() * 0.1) * 100;		// violation will be -10% extra per each
+		return GradeFormulas.performance(s.getPostNumber(), s.getReplyReceived(), s.getUpvoteReceived(),
+				s.getViewReceived(), s.getPromotion(), s.getViolation());
 	}
 
 	/**
@@ -165,8 +52,7 @@ public class ModelStudentHome {
 	 * @return Total grade (0-100)
 	 */
 	protected static double getTotalGrade(double participation, double performance) {
-		return participation * 0.8 + 				// participation weighs 80%
-				performance * 0.2;					// performance weighs 20%
+		return GradeFormulas.totalGrade(participation, performance);
 	}
 
 	/**
@@ -178,40 +64,7 @@ public class ModelStudentHome {
 	 * @return Letter grade as String (e.g., "A+", "B-", "F")
 	 */
 	protected static String getGradeMark(double grade) {
-		if (grade >= 97) {
-			return "A+";
-		}
-		if (grade >= 93) {
-			return "A";
-		}
-		if (grade >= 90) {
-			return "A-";
-		}
-		if (grade >= 87) {
-			return "B+";
-		}
-		if (grade >= 83) {
-			return "B";
-		}
-		if (grade >= 80) {
-			return "B-";
-		}
-		if (grade >= 77) {
-			return "C+";
-		}
-		if (grade >= 73) {
-			return "C";
-		}
-		if (grade >= 70) {
-			return "C-";
-		}
-		if (grade >= 60) {
-			return "D";
-		}
-		if (grade < 60) {
-			return "F";
-		}
-		return "N/A";
+		return GradeFormulas.gradeMark(grade);
 	}
 
 	/**
@@ -1,5 +1,6 @@
 package guiStudentHome;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -8,6 +9,8 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
@@ -15,10 +18,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 import database.Database;
+import database.PostQuery;
 import entityClasses.Message;
+import entityClasses.MessageHeader;
 import entityClasses.Post;
-import entityClasses.StudentStatus;
+import entityClasses.PostFeedRow;
 import entityClasses.User;
+import grading.StudentGrade;
+import search.SearchPipeline;
+import search.Snippet;
 
 /**********
  * <p> Title: ViewStudentHome Class </p>
@@ -143,12 +151,24 @@ public class ViewStudentHome {
  	/** CheckBox to filter and show only unread messages. */
  	protected static CheckBox showUnreadOnlyCheckbox = new CheckBox("Show unread only");
 
+ 	/** CheckBox to list the announcements sent to every student instead of the inbox. */
+ 	protected static CheckBox showAnnouncementsCheckbox = new CheckBox("Announcements");
+
  	/** ScrollPane containing the list of messages. */
  	protected static ScrollPane messageListScrollPane = new ScrollPane();
 
  	/** VBox container inside ScrollPane for messages. */
  	protected static VBox messageListContainer = new VBox(5);
 
+ 	/** Button appending the next page of messages to the list. */
+ 	protected static Button messageListMoreButton = new Button("Load more");
+
+ 	/** Number of messages loaded per page of the message list. */
+ 	protected static final int MESSAGE_PAGE_SIZE = 50;
+
+ 	/** Id of the last message shown in the message list, where the next page starts. */
+ 	protected static int messageListLastSeenId = 0;
+
  	// =========================
  	// SEND MESSAGE SUBSTAGE
  	// =========================
@@ -232,8 +252,24 @@ public class ViewStudentHome {
     /** The current logged-in user. */
     protected static User theUser;
     
-    /** List of posts fetched from the database. */
-    protected static ArrayList<Post> posts;
+    /** List of post feed rows fetched from the database. */
+    protected static ArrayList<PostFeedRow> posts;
+    
+    /** Number of posts fetched from the database per page. */
+    protected static final int PAGE_SIZE = 50;
+    
+    /** Id of the oldest post fetched so far, the cursor of the next page (0 before the first page). */
+    private static int lastSeenPostId = 0;
+    
+    /** False once the oldest post has been fetched. */
+    private static boolean morePostsAvailable = true;
+    
+    /** Runs the searches typed into the search field off the JavaFX thread and shows the latest. */
+    protected static final SearchPipeline<ArrayList<PostFeedRow>> searchPipeline =
+            new SearchPipeline<>(Platform::runLater, (page, queryNanos) -> showFirstPostPage(page, queryNanos));
+    
+    /** Shows how many posts the last search listed and how long its query took. */
+    protected static Label label_SearchTime = new Label();
     
     /** List of threads available in the database. */
     protected static ArrayList<String> threads;
@@ -255,7 +291,7 @@ public class ViewStudentHome {
     public static void displayStudentHome(Stage ps, User user) {
         theStage = ps;
         theUser = user;
-        posts = theDatabase.getAllPostsNewestFirst();
+        loadFirstPostPage();
         threads = theDatabase.getAllThreads();
         if (threads.isEmpty()) {
         	theDatabase.addThread("General");
@@ -380,6 +416,7 @@ public class ViewStudentHome {
         text_SearchPost.setPromptText("Enter keywords to search posts...");
         text_SearchPost.setPrefWidth(400);
         text_SearchPost.setFont(Font.font("System", 14));
+        text_SearchPost.textProperty().addListener((obs, oldText, newText) -> ControllerStudentHome.performSearch());
 
         setupButton(button_SearchPost, 80, 35);
         button_SearchPost.setOnAction(event -> ControllerStudentHome.performAllFilters());
@@ -394,7 +431,7 @@ public class ViewStudentHome {
         Region searchSpacer = new Region();
         HBox.setHgrow(searchSpacer, Priority.ALWAYS);
 
-        searchBox.getChildren().addAll(text_SearchPost, button_SearchPost, button_ClearSearchPost, searchSpacer, button_MakePost);
+        searchBox.getChildren().addAll(text_SearchPost, button_SearchPost, button_ClearSearchPost, label_SearchTime, searchSpacer, button_MakePost);
         searchSection.getChildren().addAll(titleSection, searchBox);
 
         VBox postsSection = createPostsSection();
@@ -430,19 +467,25 @@ public class ViewStudentHome {
         ScrollPane scrollPane = new ScrollPane(postsList);
         scrollPane.setFitToWidth(true);
         scrollPane.setPrefHeight(350);
+        // Fetch the next page of posts when the user scrolls near the bottom of the list
+        scrollPane.vvalueProperty().addListener((obs, oldValue, newValue) -> {
+            if (newValue.doubleValue() >= scrollPane.getVmax() * 0.9) loadNextPostPage();
+        });
 
         postsSection.getChildren().addAll(titleSection, scrollPane);
         return postsSection;
     }
 
     /**********
-     * <p> Method: createPostItem(Post post) </p>
+     * <p> Method: createPostItem(PostFeedRow row) </p>
      * <p> Description: Generates a GUI item for a single post, including title, author, tags, 
-     * thread, status, and number of replies.</p>
-     * @param post The Post object to display
+     * thread, status, and number of replies. All values come from the preloaded feed row, including
+     * the highlighted snippet of a search feed.</p>
+     * @param row The PostFeedRow to display
      * @return VBox representing the post item
      */
-    private static VBox createPostItem(Post post) {
+    private static VBox createPostItem(PostFeedRow row) {
+        Post post = row.getPost();
         VBox postItem = new VBox(8);
         postItem.setPadding(new Insets(12));
         postItem.setStyle("-fx-border-color: gray; -fx-border-width: 1;");
@@ -466,25 +509,25 @@ public class ViewStudentHome {
 
         VBox statsBox = new VBox(2);
         statsBox.setAlignment(Pos.CENTER_RIGHT);
-        String threadStatus = theDatabase.getPostThread(post.getPostId());
-        Label threadStatusLabel = new Label("Thread: " + threadStatus);
+        Label threadStatusLabel = new Label("Thread: " + post.getThread());
         threadStatusLabel.setFont(Font.font("System", 11));
 
-        String readStatus = theDatabase.hasUserReadPost(theUser.getUserName(), post.getPostId());
-        Label readStatusLabel = new Label("Status: " + readStatus);
+        Label readStatusLabel = new Label("Status: " + row.getReadStatus());
         readStatusLabel.setFont(Font.font("System", 11));
 
-        int totalReplies = theDatabase.getPostNumberOfReplies(post.getPostId());
-        int unreadReplies = theDatabase.getNumberOfUnreadReplies(post.getPostId(), theUser.getUserName());
-        int totalViews = theDatabase.getPostViews(post.getPostId());
-        int totalUpvotes = theDatabase.getPostUpvotes(post.getPostId());
+        int totalReplies = row.getReplyCount();
+        int unreadReplies = row.getUnreadReplyCount();
+        int totalViews = row.getViews();
+        int totalUpvotes = row.getUpvotes();
         Label repliesLabel = new Label(totalViews + " views, " + totalUpvotes + " upvotes, " + totalReplies + " replies, " + unreadReplies + " unread");
         repliesLabel.setFont(Font.font("System", 11));
 
         statsBox.getChildren().addAll(threadStatusLabel, readStatusLabel, repliesLabel);
 
         infoRow.getChildren().addAll(labelBox, infoSpacer, statsBox);
-        contentSection.getChildren().addAll(titleLabel, infoRow);
+        contentSection.getChildren().add(titleLabel);
+        if (row.getSnippet() != null) contentSection.getChildren().add(createSnippetFlow(row.getSnippet()));
+        contentSection.getChildren().add(infoRow);
         postItem.getChildren().add(contentSection);
 
         contentSection.setOnMouseClicked(e -> guiPostPage.ViewPostPage.displayPostPage(theStage, theUser, post));
@@ -497,6 +540,41 @@ public class ViewStudentHome {
         return postItem;
     }
 
+    /**********
+     * <p> Method: createSnippetFlow(Snippet snippet) </p>
+     * <p> Description: Shows the snippet of a search hit with the searched words in bold, and
+     * notes when it comes from a reply rather than the post.</p>
+     * @param snippet The snippet to show
+     * @return TextFlow holding the snippet
+     */
+    private static TextFlow createSnippetFlow(Snippet snippet) {
+        TextFlow flow = new TextFlow();
+        String text = snippet.getText();
+        if (snippet.getReplyId() != 0) flow.getChildren().add(snippetText("In a reply: ", false));
+        int at = 0;
+        for (int i = 0; i < snippet.getMatchCount(); i++) {
+            flow.getChildren().add(snippetText(text.substring(at, snippet.getMatchStart(i)), false));
+            flow.getChildren().add(snippetText(text.substring(snippet.getMatchStart(i), snippet.getMatchEnd(i)), true));
+            at = snippet.getMatchEnd(i);
+        }
+        flow.getChildren().add(snippetText(text.substring(at), false));
+        return flow;
+    }
+
+    /**********
+     * <p> Method: snippetText(String text, boolean match) </p>
+     * <p> Description: Creates one run of snippet text, bold and dark blue for a searched word.</p>
+     * @param text The text of the run
+     * @param match Whether the run is a searched word
+     * @return Text node for the run
+     */
+    private static Text snippetText(String text, boolean match) {
+        Text run = new Text(text);
+        run.setFont(Font.font("System", match ? FontWeight.BOLD : FontWeight.NORMAL, 12));
+        run.setStyle(match ? "-fx-fill: #1a4f8b;" : "-fx-fill: #444444;");
+        return run;
+    }
+
     /**********
      * <p> Method: createFooter() </p>
      * <p> Description: Creates the footer section with Logout and Quit buttons.</p>
@@ -524,8 +602,8 @@ public class ViewStudentHome {
     private static void populatePostsList() {
         postsList.getChildren().clear();
         if (posts != null && posts.size() > 0) {
-            for (Post post : posts) {
-                postsList.getChildren().add(createPostItem(post));
+            for (PostFeedRow row : posts) {
+                postsList.getChildren().add(createPostItem(row));
             }
         } else {
             Label noPostsLabel = new Label("No posts available");
@@ -538,24 +616,116 @@ public class ViewStudentHome {
     /**
      * <p>Method: refreshStudentGrade()</p>
      *
-     * <p>Description: Refreshes the current student's grade display. Retrieves the student's status
-     * from the database, calculates total grade based on participation and performance, converts it
-     * to a grade mark, and updates the grade label in the UI.</p>
+     * <p>Description: Refreshes the current student's grade display. The grade comes from the
+     * database's grade cache, so it is only read and computed again after the student's posts,
+     * replies, views, upvotes, promotions or violations have changed.</p>
      */
     protected static void refreshStudentGrade() {
-    	StudentStatus s = theDatabase.getStudentStatus(theUser.getUserName());
-    	ControllerStudentHome.performRefreshStatus(s);
-    	double grade = ModelStudentHome.getTotalGrade(ModelStudentHome.getParticipation(s), ModelStudentHome.getPerformance(s));
-    	String mark = ModelStudentHome.getGradeMark(grade);
-    	label_Grade.setText(mark + " (" + String.format("%.1f%%", grade) + ")");
+    	StudentGrade grade = theDatabase.getStudentGrade(theUser.getUserName());
+    	if (grade == null) return;
+    	label_Grade.setText(grade.getGradeMark() + " (" + String.format("%.1f%%", grade.getTotalGrade()) + ")");
+    }
+
+    /**********
+     * <p> Method: loadFirstPostPage() </p>
+     * <p> Description: Starts the post list over at the newest post and fetches the first page
+     * of posts that pass the current filters. The display is not changed; call refreshPostsDisplay.</p>
+     */
+    protected static void loadFirstPostPage() {
+        searchPipeline.cancel();
+        posts = new ArrayList<>();
+        lastSeenPostId = 0;
+        morePostsAvailable = true;
+        posts.addAll(fetchPostPage());
+    }
+
+    /**********
+     * <p> Method: loadNextPostPage() </p>
+     * <p> Description: Fetches the next page of older posts and appends their items to the
+     * displayed list. Does nothing once the oldest post has been fetched.</p>
+     */
+    protected static void loadNextPostPage() {
+        if (!morePostsAvailable) return;
+        ArrayList<PostFeedRow> page = fetchPostPage();
+        if (page.isEmpty()) return;
+        if (posts.isEmpty()) postsList.getChildren().clear();
+        posts.addAll(page);
+        for (PostFeedRow row : page) {
+            postsList.getChildren().add(createPostItem(row));
+        }
+    }
+
+    /**********
+     * <p> Method: fetchPostPage() </p>
+     * <p> Description: Reads the next page of posts that pass the current filters and moves the
+     * cursor past it.</p>
+     * @return the posts of the page, best match or newest first
+     */
+    private static ArrayList<PostFeedRow> fetchPostPage() {
+        ArrayList<PostFeedRow> page = readPostPage(ControllerStudentHome.buildPostQuery(), text_SearchPost.getText(),
+                lastSeenPostId, posts.size());
+        morePostsAvailable = page.size() == PAGE_SIZE;
+        if (!page.isEmpty()) lastSeenPostId = page.get(page.size() - 1).getPostId();
+        return page;
+    }
+
+    /**********
+     * <p> Method: readPostPage(PostQuery query, String search, int after, int offset) </p>
+     * <p> Description: Reads a page of posts using one filtered query. While a search is entered
+     * the posts come from the search index, best match first, and the page starts after the
+     * first offset matches; otherwise it starts after the cursor. Reads no controls, so it can
+     * run on the search thread.</p>
+     * @param query the filters of the page
+     * @param search the search text, blank for none
+     * @param after id of the oldest post already listed, 0 for the newest posts
+     * @param offset number of matches already listed
+     * @return the posts of the page, best match or newest first
+     */
+    protected static ArrayList<PostFeedRow> readPostPage(PostQuery query, String search, int after, int offset) {
+        return search == null || search.isBlank()
+                ? theDatabase.getPostFeed(query.after(after).limit(PAGE_SIZE))
+                : theDatabase.searchPostFeed(query, search, offset, PAGE_SIZE);
+    }
+
+    /**********
+     * <p> Method: showFirstPostPage(ArrayList&lt;PostFeedRow&gt; page, long queryNanos) </p>
+     * <p> Description: Starts the post list over with a first page read by the search pipeline,
+     * refreshes the display and shows how long the query took.</p>
+     * @param page the first page of posts that pass the filters
+     * @param queryNanos how long reading the page took, in nanoseconds
+     */
+    private static void showFirstPostPage(ArrayList<PostFeedRow> page, long queryNanos) {
+        posts = page;
+        morePostsAvailable = page.size() == PAGE_SIZE;
+        lastSeenPostId = page.isEmpty() ? 0 : page.get(page.size() - 1).getPostId();
+        refreshPostsDisplay();
+        label_SearchTime.setText(String.format("%d%s posts in %.1f ms", page.size(),
+                morePostsAvailable ? "+" : "", queryNanos / 1e6));
     }
 
     /**********
      * <p> Method: refreshPostsDisplay() </p>
-     * <p> Description: Refreshes the posts list area by repopulating the post items.</p>
+     * <p> Description: Refreshes the posts list area by repopulating the post items, and the
+     * unread badges.</p>
      */
     protected static void refreshPostsDisplay() {
         populatePostsList();
+        refreshUnreadBadges();
+    }
+
+    /**********
+     * <p> Method: refreshUnreadBadges() </p>
+     * <p> Description: Shows the number of unread messages and announcements on the Messages
+     * button and the number of unread posts on the unread posts filter, read from the user's
+     * counters.</p>
+     */
+    protected static void refreshUnreadBadges() {
+        if (theUser == null) return;
+        int unreadMessages = theDatabase.getUnreadMessageCount(theUser.getUserName())
+                + theDatabase.getUnreadAnnouncementCount(theUser.getUserName());
+        int unreadPosts = theDatabase.getUnreadPostCount(theUser.getUserName());
+        button_Message.setText(unreadMessages > 0 ? "Messages (" + unreadMessages + ")" : "Messages");
+        checkBox_showUnreadPosts.setText(unreadPosts > 0 ? "Show Unread Posts (" + unreadPosts + ")" : "Show Unread Posts");
     }
     
     /**
@@ -595,12 +765,14 @@ public class ViewStudentHome {
         });
 
         showUnreadOnlyCheckbox.setOnAction(e -> refreshMessageList());
+        showAnnouncementsCheckbox.setOnAction(e -> refreshMessageList());
         
         messageListSearchRow.getChildren().addAll(
                 messageListSearchField,
                 messageListSearchButton,
                 messageListClearSearchButton,
-                showUnreadOnlyCheckbox
+                showUnreadOnlyCheckbox,
+                showAnnouncementsCheckbox
         );
 
         // Scroll area
@@ -608,6 +780,7 @@ public class ViewStudentHome {
         messageListScrollPane.setPrefHeight(400);
         
         messageListScrollPane.setContent(messageListContainer);
+        messageListMoreButton.setOnAction(e -> loadMessagePage());
 
         messageListLayout.getChildren().addAll(
                 messageListTitleRow,
@@ -630,32 +803,41 @@ public class ViewStudentHome {
     /**
      * <p>Method: refreshMessageList()</p>
      *
-     * <p>Description: Retrieves all messages for the current user, applies search and unread
-     * filters, and populates the message list container. Marks messages as read when opened.</p>
+     * <p>Description: Reloads the message list from its first page, applying the subject search
+     * and unread filter, and updates the unread badges. Rows show only message headers; a
+     * message's content is loaded when it is opened.</p>
      */
     protected static void refreshMessageList() {
         messageListContainer.getChildren().clear();
-        System.out.println("=== refreshMessageList called ===");
-
-        List<Message> msgs = theDatabase.getAllMessages(theUser.getUserName());
-        if (msgs == null) msgs = new ArrayList<>();
-
-        String keyword = messageListSearchField.getText() == null ? "" : messageListSearchField.getText().trim().toLowerCase();
-        boolean showUnreadOnly = showUnreadOnlyCheckbox.isSelected();
+        messageListLastSeenId = 0;
+        loadMessagePage();
+        refreshUnreadBadges();
 
-        // Filter by subject
-        if (!keyword.isEmpty()) {
-            msgs.removeIf(m -> m.getSubject() == null || !m.getSubject().toLowerCase().contains(keyword));
+        if (messageListContainer.getChildren().isEmpty()) {
+            Label empty = new Label("No messages to display");
+            empty.setPadding(new Insets(10));
+            messageListContainer.getChildren().add(empty);
         }
+    }
 
-        // Filter by unread
-        if (showUnreadOnly) {
-            msgs.removeIf(Message::isRead);
-        }
+    /**
+     * <p>Method: loadMessagePage()</p>
+     *
+     * <p>Description: Appends the next page of messages, or of announcements when they are
+     * selected, for the current user to the message list, followed by a "Load more" button
+     * when the page was full.</p>
+     */
+    protected static void loadMessagePage() {
+        messageListContainer.getChildren().remove(messageListMoreButton);
 
-        System.out.println("Number of messages after filtering: " + msgs.size());
+        boolean announcements = showAnnouncementsCheckbox.isSelected();
+        List<MessageHeader> page = announcements
+                ? theDatabase.getAnnouncementPage(theUser.getUserName(), messageListSearchField.getText(),
+                        showUnreadOnlyCheckbox.isSelected(), messageListLastSeenId, MESSAGE_PAGE_SIZE)
+                : theDatabase.getInboxPage(theUser.getUserName(), messageListSearchField.getText(),
+                        showUnreadOnlyCheckbox.isSelected(), messageListLastSeenId, MESSAGE_PAGE_SIZE);
 
-        for (Message msg : msgs) {
+        for (MessageHeader msg : page) {
             HBox row = new HBox(10);
             row.setPadding(new Insets(8));
             row.setAlignment(Pos.CENTER_LEFT);
@@ -676,16 +858,18 @@ public class ViewStudentHome {
             status.setStyle(msg.isRead() ? "-fx-text-fill: green;" : "-fx-text-fill: grey;");
 
             row.getChildren().addAll(subject, sender, status);
-            row.setOnMouseClicked(ev -> showMessageDetailsSubstage(msg));
+            row.setOnMouseClicked(ev -> {
+                Message full = announcements ? theDatabase.getAnnouncement(msg.getId(), theUser.getUserName())
+                        : theDatabase.getMessage(msg.getId());
+                if (full != null) showMessageDetailsSubstage(full, announcements);
+                else refreshMessageList();
+            });
 
             messageListContainer.getChildren().add(row);
         }
 
-        if (messageListContainer.getChildren().isEmpty()) {
-            Label empty = new Label("No messages to display");
-            empty.setPadding(new Insets(10));
-            messageListContainer.getChildren().add(empty);
-        }
+        if (!page.isEmpty()) messageListLastSeenId = page.get(page.size() - 1).getId();
+        if (page.size() == MESSAGE_PAGE_SIZE) messageListContainer.getChildren().add(messageListMoreButton);
     }
 
     /**
@@ -806,6 +990,19 @@ public class ViewStudentHome {
      * @param msg The message to display
      */
     protected static void showMessageDetailsSubstage(Message msg) {
+        showMessageDetailsSubstage(msg, false);
+    }
+
+    /**
+     * <p>Method: showMessageDetailsSubstage(Message msg, boolean announcement)</p>
+     *
+     * <p>Description: Populates and displays the Message Details substage for a message or an
+     * announcement, allows replying to its sender, and marks it as read.</p>
+     *
+     * @param msg The message to display
+     * @param announcement true if the message is an announcement sent to every student
+     */
+    protected static void showMessageDetailsSubstage(Message msg, boolean announcement) {
         messageDetailsSubjectArea.setText(msg.getSubject());
         messageDetailsSubjectArea.setPrefRowCount(Math.max(1, msg.getSubject().split("\n").length));
 
@@ -823,7 +1020,8 @@ public class ViewStudentHome {
 
         // Mark as read
         if (!msg.isRead()) {
-            theDatabase.markMessageAsRead(msg);
+            if (announcement) theDatabase.markAnnouncementAsRead(theUser.getUserName(), msg.getId());
+            else theDatabase.markMessageAsRead(msg);
             refreshMessageList();
         }
 
@@ -0,0 +1,25 @@
+package jUnitTesting;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * <p>Title: Benchmark</p>
+ *
+ * <p>Description:
+ * Marks a test class as a benchmark. Benchmarks are tagged {@code benchmark} and are skipped,
+ * together with their setup, unless the JVM runs with {@code -Dbenchmarks=true}, so the default
+ * test run stays fast and does not depend on the speed of the machine. Results are published
+ * through {@link BenchmarkHarness}.</p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public @interface Benchmark {
+}
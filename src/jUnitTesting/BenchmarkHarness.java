@@ -0,0 +1,123 @@
+package jUnitTesting;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.TestReporter;
+
+/**
+ * <p>Title: BenchmarkHarness</p>
+ *
+ * <p>Description:
+ * Shared timing support for the {@link Benchmark} classes. Each benchmark times its runs through
+ * one harness, which collects the measurements under readable labels and publishes them as one
+ * report entry through JUnit's {@link TestReporter}, where IDEs and build reports pick them
+ * up.</p>
+ */
+final class BenchmarkHarness {
+
+    /**
+     * <p>Title: Task</p>
+     * <p>Description: A piece of work to time.</p>
+     */
+    @FunctionalInterface
+    interface Task {
+        /**
+         * <p>Method: run()</p>
+         * <p>Description: Runs the work once.</p>
+         *
+         * @throws Exception if the work fails, which fails the benchmark
+         */
+        void run() throws Exception;
+    }
+
+    /** <p>Field: reporter</p> <p>Description: Receives the results.</p> */
+    private final TestReporter reporter;
+
+    /** <p>Field: name</p> <p>Description: Prefix of every published key.</p> */
+    private final String name;
+
+    /** <p>Field: results</p> <p>Description: The measurements, in the order they were taken.</p> */
+    private final Map<String, String> results = new LinkedHashMap<>();
+
+    /**
+     * <p>Constructor: BenchmarkHarness(TestReporter reporter, String name)</p>
+     * <p>Description: Creates a harness publishing to a test's reporter.</p>
+     *
+     * @param reporter the reporter JUnit passed to the benchmark method
+     * @param name what is being measured, prefixed to every published key
+     */
+    BenchmarkHarness(TestReporter reporter, String name) {
+        this.reporter = reporter;
+        this.name = name;
+    }
+
+    /**
+     * <p>Method: warmUp(Task task)</p>
+     * <p>Description: Runs a task once without timing it, so caches, plans and the JIT are warm
+     * for the timed run.</p>
+     *
+     * @param task the work to run
+     * @throws Exception if the task fails
+     */
+    void warmUp(Task task) throws Exception {
+        task.run();
+    }
+
+    /**
+     * <p>Method: time(String label, Task task)</p>
+     * <p>Description: Runs a task once and records how long it took.</p>
+     *
+     * @param label the name of the measurement
+     * @param task the work to time
+     * @return the elapsed nanoseconds
+     * @throws Exception if the task fails
+     */
+    long time(String label, Task task) throws Exception {
+        long start = System.nanoTime();
+        task.run();
+        long elapsed = System.nanoTime() - start;
+        record(label, String.format(Locale.ROOT, "%.2f ms", elapsed / 1e6));
+        return elapsed;
+    }
+
+    /**
+     * <p>Method: timePerOperation(String label, int operations, Task task)</p>
+     * <p>Description: Runs a task doing many equal operations once and records the average
+     * time of one operation.</p>
+     *
+     * @param label the name of the measurement
+     * @param operations the number of operations the task performs
+     * @param task the work to time
+     * @return the elapsed nanoseconds of the whole task
+     * @throws Exception if the task fails
+     */
+    long timePerOperation(String label, int operations, Task task) throws Exception {
+        long start = System.nanoTime();
+        task.run();
+        long elapsed = System.nanoTime() - start;
+        record(label, String.format(Locale.ROOT, "%.3f ms/op over %d ops", elapsed / 1e6 / operations, operations));
+        return elapsed;
+    }
+
+    /**
+     * <p>Method: record(String label, Object value)</p>
+     * <p>Description: Records a measurement that is not a time, such as a row count or a table
+     * size.</p>
+     *
+     * @param label the name of the measurement
+     * @param value the measured value
+     */
+    void record(String label, Object value) {
+        results.put(name + " | " + label, String.valueOf(value));
+    }
+
+    /**
+     * <p>Method: publish()</p>
+     * <p>Description: Publishes every recorded measurement as one report entry.</p>
+     */
+    void publish() {
+        reporter.publishEntry(results);
+    }
+}
@@ -0,0 +1,291 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import database.Database;
+import entityClasses.Message;
+import entityClasses.MessageHeader;
+import entityClasses.User;
+
+/**
+ * <p>Title: BroadcastMessageTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for messages sent to many students. Checks that a batched broadcast gives
+ * every receiver one copy and raises their unread counts, that it is all or nothing, that the
+ * receivers can be filtered by name, and that an announcement stored once is listed, read and
+ * counted per student.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class BroadcastMessageTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: STAFF</p> <p>Description: Staff member sending the messages.</p> */
+    private static final String STAFF = "staff";
+
+    /**
+     * <p>Constructor: BroadcastMessageTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public BroadcastMessageTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with a staff member.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.register(new User(STAFF, "pw", "Staff", "", "Member", "", "staff@email", false, false, true));
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: makeStudents(int count)</p>
+     * <p>Description: Registers students named s000, s001, ... with first name "Group A" for
+     * even and "Group B" for odd numbers.</p>
+     *
+     * @param count the number of students
+     * @return the usernames of the students
+     * @throws SQLException if a student cannot be registered
+     */
+    private List<String> makeStudents(int count) throws SQLException {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = String.format("s%03d", i);
+            dbHelper.register(new User(name, "pw", i % 2 == 0 ? "Group A" : "Group B", "", "Student", "",
+                    name + "@email", false, true, false));
+            names.add(name);
+        }
+        return names;
+    }
+
+    /**
+     * <p>Method: countMessages()</p>
+     * <p>Description: Counts every message row.</p>
+     *
+     * @return the number of messages
+     * @throws SQLException if the count fails
+     */
+    private int countMessages() throws SQLException {
+        try (Connection connection = dbHelper.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT COUNT(*) FROM Message");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * <p>Test Method: testBroadcastReachesWholeClass()</p>
+     * <p>Description: Broadcasting to 400 students inserts one message per student, skipping
+     * repeated and blank receivers, and each student sees it in their inbox and their unread
+     * count.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testBroadcastReachesWholeClass() throws SQLException {
+        List<String> students = makeStudents(400);
+        List<String> receivers = new ArrayList<>(students);
+        receivers.add(students.get(0));
+        receivers.add(" ");
+
+        assertEquals(400, dbHelper.broadcastMessage(STAFF, receivers, "Exam", "Room 101"));
+        assertEquals(400, countMessages());
+        for (String student : List.of(students.get(0), students.get(199), students.get(399))) {
+            List<MessageHeader> inbox = dbHelper.getInboxPage(student, null, false, 0, 10);
+            assertEquals(1, inbox.size());
+            assertEquals("Exam", inbox.get(0).getSubject());
+            assertEquals(STAFF, inbox.get(0).getSender());
+            assertEquals(1, dbHelper.getUnreadMessageCount(student));
+        }
+        assertEquals(0, dbHelper.broadcastMessage(STAFF, List.of(), "Empty", "Body"));
+    }
+
+    /**
+     * <p>Test Method: testBroadcastIsAllOrNothing()</p>
+     * <p>Description: A broadcast with a receiver that does not exist fails without sending
+     * to anyone or changing any unread count.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testBroadcastIsAllOrNothing() throws SQLException {
+        List<String> receivers = new ArrayList<>(makeStudents(30));
+        receivers.add(15, "nobody");
+
+        assertEquals(-1, dbHelper.broadcastMessage(STAFF, receivers, "Exam", "Room 101"));
+        assertEquals(0, countMessages());
+        assertEquals(0, dbHelper.getUnreadMessageCount("s000"));
+        assertEquals(0, dbHelper.getUnreadMessageCount("s029"));
+    }
+
+    /**
+     * <p>Test Method: testFailedBroadcastLeavesNothingQueued()</p>
+     * <p>Description: A broadcast that fails part way must not leave counter updates behind for
+     * the next broadcast, which raises every receiver's unread count by exactly one.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testFailedBroadcastLeavesNothingQueued() throws SQLException {
+        List<String> students = makeStudents(30);
+        List<String> receivers = new ArrayList<>(students);
+        receivers.add(15, "nobody");
+
+        assertEquals(-1, dbHelper.broadcastMessage(STAFF, receivers, "Exam", "Room 101"));
+        assertEquals(30, dbHelper.broadcastMessage(STAFF, students, "Exam", "Room 102"));
+        assertEquals(30, countMessages());
+        for (String student : students) {
+            assertEquals(1, dbHelper.getUnreadMessageCount(student), "Unread count of " + student);
+        }
+        assertEquals(0, dbHelper.getUnreadMessageCount(STAFF));
+
+        assertEquals(30, dbHelper.broadcastMessage(STAFF, students, "Exam", "Room 103"));
+        for (String student : students) {
+            assertEquals(2, dbHelper.getUnreadMessageCount(student), "Unread count of " + student);
+        }
+    }
+
+    /**
+     * <p>Test Method: testBroadcastJoinsCallersTransaction()</p>
+     * <p>Description: A broadcast made while the caller has a transaction open on the same
+     * connection commits nothing, so rolling the caller's transaction back unsends it.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testBroadcastJoinsCallersTransaction() throws SQLException {
+        List<String> students = makeStudents(30);
+        try (Connection connection = dbHelper.getConnection()) {
+            connection.setAutoCommit(false);
+            assertEquals(30, dbHelper.broadcastMessage(STAFF, students, "Exam", "Room 101"));
+            assertFalse(connection.getAutoCommit(), "A broadcast must not end the caller's transaction");
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+
+        assertEquals(0, countMessages());
+        for (String student : students) {
+            assertEquals(0, dbHelper.getUnreadMessageCount(student), "Unread count of " + student);
+        }
+    }
+
+    /**
+     * <p>Test Method: testStudentFilter()</p>
+     * <p>Description: The receivers can be narrowed to the students whose username or name
+     * contains a text; staff members are never included.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testStudentFilter() throws SQLException {
+        makeStudents(10);
+
+        assertEquals(10, dbHelper.getStudentUserNames("").size());
+        assertEquals(10, dbHelper.getStudentUserNames(null).size());
+        assertEquals(List.of("s000", "s002", "s004", "s006", "s008"), dbHelper.getStudentUserNames("group a"));
+        assertEquals(List.of("s007"), dbHelper.getStudentUserNames("S007"));
+        assertEquals(List.of(), dbHelper.getStudentUserNames("staff"));
+        assertEquals(List.of(), dbHelper.getStudentUserNames("%"));
+    }
+
+    /**
+     * <p>Test Method: testAnnouncementReadFlagsArePerStudent()</p>
+     * <p>Description: An announcement is stored once and is unread for every student, including
+     * one who registers later, until that student opens it; reading it twice counts once.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testAnnouncementReadFlagsArePerStudent() throws SQLException {
+        makeStudents(3);
+        int first = dbHelper.postAnnouncement(STAFF, "Welcome", "Hello class");
+        int second = dbHelper.postAnnouncement(STAFF, "Exam moved", "To Friday");
+        assertEquals(0, countMessages());
+        dbHelper.register(new User("late", "pw", "Late", "", "Student", "", "late@email", false, true, false));
+
+        for (String student : List.of("s000", "late")) {
+            assertEquals(2, dbHelper.getUnreadAnnouncementCount(student));
+            assertEquals(List.of(second, first), dbHelper.getAnnouncementPage(student, null, true, 0, 10)
+                    .stream().map(MessageHeader::getId).toList());
+        }
+
+        Message opened = dbHelper.getAnnouncement(first, "s001");
+        assertEquals("Hello class", opened.getContent());
+        assertEquals("s001", opened.getReceiver());
+        assertFalse(opened.isRead());
+        dbHelper.markAnnouncementAsRead("s001", first);
+        dbHelper.markAnnouncementAsRead("s001", first);
+
+        assertTrue(dbHelper.getAnnouncement(first, "s001").isRead());
+        assertFalse(dbHelper.getAnnouncement(first, "s002").isRead());
+        assertEquals(1, dbHelper.getUnreadAnnouncementCount("s001"));
+        assertEquals(2, dbHelper.getUnreadAnnouncementCount("s002"));
+        assertEquals(List.of(second), dbHelper.getAnnouncementPage("s001", null, true, 0, 10)
+                .stream().map(MessageHeader::getId).toList());
+        List<MessageHeader> all = dbHelper.getAnnouncementPage("s001", "exam", false, 0, 10);
+        assertEquals(1, all.size());
+        assertFalse(all.get(0).isRead());
+        assertEquals(List.of(first), dbHelper.getAnnouncementPage("s001", null, false, second, 10)
+                .stream().map(MessageHeader::getId).toList());
+        assertNull(dbHelper.getAnnouncement(9999, "s001"));
+    }
+
+    /**
+     * <p>Test Method: testConcurrentAnnouncementReadsCountOnce()</p>
+     * <p>Description: Many threads opening the same announcement for the same student at once
+     * lower that student's unread count by exactly one.</p>
+     *
+     * @throws Exception if database access or a worker fails
+     */
+    @Test
+    public void testConcurrentAnnouncementReadsCountOnce() throws Exception {
+        makeStudents(1);
+        int id = dbHelper.postAnnouncement(STAFF, "Race", "Body");
+        dbHelper.postAnnouncement(STAFF, "Other", "Body");
+
+        ExecutorService workers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int i = 0; i < 32; i++) done.add(workers.submit(() -> dbHelper.markAnnouncementAsRead("s000", id)));
+            for (Future<?> f : done) f.get();
+        } finally {
+            workers.shutdown();
+        }
+        assertEquals(1, dbHelper.getUnreadAnnouncementCount("s000"));
+    }
+}
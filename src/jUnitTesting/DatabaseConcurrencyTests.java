@@ -0,0 +1,232 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import database.Database;
+import entityClasses.Post;
+import entityClasses.Reply;
+import entityClasses.User;
+
+/**
+ * <p>Title: DatabaseConcurrencyTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 stress tests for using one {@link Database} from many threads at once. Worker threads
+ * create posts, reply to each other's posts and mark posts as read concurrently, and the final
+ * counts are checked against what the workers recorded. Also checks the connection pool limits
+ * and that each thread keeps its own current user session.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class DatabaseConcurrencyTests {
+
+    /** <p>Field: THREADS</p> <p>Description: Number of concurrent worker threads.</p> */
+    private static final int THREADS = 12;
+
+    /** <p>Field: POSTS_PER_THREAD</p> <p>Description: Posts each worker creates.</p> */
+    private static final int POSTS_PER_THREAD = 20;
+
+    /** <p>Field: ACTIONS_PER_THREAD</p> <p>Description: Reply/read actions each worker performs.</p> */
+    private static final int ACTIONS_PER_THREAD = 60;
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Database shared by all worker threads. Its pool is smaller than the
+     * number of workers so that borrowers have to wait for each other.</p>
+     */
+    private Database dbHelper;
+
+    /**
+     * <p>Constructor: DatabaseConcurrencyTests()</p>
+     * <p>Description: Default constructor used by JUnit.</p>
+     */
+    public DatabaseConcurrencyTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Connects a database with a four connection pool and registers one
+     * student per worker thread.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database(1, 4, 1_000, 30_000, 16);
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        for (int t = 0; t < THREADS; t++) {
+            dbHelper.register(new User(worker(t), "pw", "F", "M", "L", "PF", worker(t) + "@email", false, true, false));
+        }
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Clears the database and closes the pool.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+        dbHelper.closeConnection();
+    }
+
+    /**
+     * <p>Method: worker(int t)</p>
+     * <p>Description: Username of worker thread t.</p>
+     *
+     * @param t the worker index
+     * @return the worker's username
+     */
+    private static String worker(int t) {
+        return "worker" + t;
+    }
+
+    /**
+     * <p>Test Method: testConcurrentPostsRepliesAndReads()</p>
+     * <p>Description: All workers first create posts at the same time, then reply to and read
+     * random posts at the same time. Every post id must be unique, and each post's reply count,
+     * view count and the author's post count must match what the workers did.</p>
+     *
+     * @throws Exception if a worker fails
+     */
+    @Test
+    public void testConcurrentPostsRepliesAndReads() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Integer> postIds = java.util.Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Phase 1: create posts concurrently
+        List<Future<?>> work = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int id = t;
+            work.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < POSTS_PER_THREAD; i++) {
+                    int postId = dbHelper.makePost(new Post("Post " + id + "-" + i, "", "Body", worker(id),
+                            new ArrayList<>(), "General"));
+                    assertTrue(postId > 0);
+                    postIds.add(postId);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : work) f.get(60, TimeUnit.SECONDS);
+
+        assertEquals(THREADS * POSTS_PER_THREAD, postIds.size());
+        assertEquals(postIds.size(), Set.copyOf(postIds).size(), "Post ids must be unique");
+
+        // Phase 2: reply to and read random posts concurrently
+        Map<Integer, AtomicInteger> expectedReplies = new ConcurrentHashMap<>();
+        Map<Integer, Set<String>> expectedReaders = new ConcurrentHashMap<>();
+        for (int postId : postIds) {
+            expectedReplies.put(postId, new AtomicInteger());
+            expectedReaders.put(postId, ConcurrentHashMap.newKeySet());
+        }
+        List<Integer> ids = List.copyOf(postIds);
+        CountDownLatch start2 = new CountDownLatch(1);
+        work.clear();
+        for (int t = 0; t < THREADS; t++) {
+            final int id = t;
+            work.add(pool.submit(() -> {
+                Random random = new Random(id);
+                start2.await();
+                for (int i = 0; i < ACTIONS_PER_THREAD; i++) {
+                    int postId = ids.get(random.nextInt(ids.size()));
+                    if (random.nextBoolean()) {
+                        assertTrue(dbHelper.makeReply(new Reply("Reply " + id + "-" + i, worker(id), postId)) > 0);
+                        expectedReplies.get(postId).incrementAndGet();
+                    }
+                    dbHelper.markPostAsRead(worker(id), postId);
+                    expectedReaders.get(postId).add(worker(id));
+                }
+                return null;
+            }));
+        }
+        start2.countDown();
+        for (Future<?> f : work) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        for (int postId : ids) {
+            assertEquals(expectedReplies.get(postId).get(), dbHelper.getPostNumberOfReplies(postId),
+                    "Reply count of post " + postId);
+            assertEquals(expectedReaders.get(postId).size(), dbHelper.getPostViews(postId),
+                    "View count of post " + postId);
+        }
+        for (int t = 0; t < THREADS; t++) {
+            assertEquals(POSTS_PER_THREAD, dbHelper.getNumberOfPosts(worker(t)));
+        }
+    }
+
+    /**
+     * <p>Test Method: testSessionsArePerThread()</p>
+     * <p>Description: Loading a user's account details on one thread must not change the
+     * current user seen by another thread.</p>
+     *
+     * @throws Exception if the background lookup fails
+     */
+    @Test
+    public void testSessionsArePerThread() throws Exception {
+        assertTrue(dbHelper.getUserAccountDetails(worker(0)));
+
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        String seenByOther = other.submit(() -> {
+            dbHelper.getUserAccountDetails(worker(1));
+            return dbHelper.getCurrentUsername();
+        }).get(10, TimeUnit.SECONDS);
+        other.shutdown();
+
+        assertEquals(worker(1), seenByOther);
+        assertEquals(worker(0), dbHelper.getCurrentUsername());
+    }
+
+    /**
+     * <p>Test Method: testBorrowTimeoutAndReentrantBorrow()</p>
+     * <p>Description: A thread that borrows again gets its own connection back without waiting,
+     * while another thread times out once every pooled connection is in use.</p>
+     *
+     * @throws Exception if the test cannot run
+     */
+    @Test
+    public void testBorrowTimeoutAndReentrantBorrow() throws Exception {
+        Database small = new Database(0, 1, 1_000, 200, 16);
+        small.connectToDatabase();
+        try (Connection outer = small.getConnection()) {
+            try (Connection inner = small.getConnection()) {
+                assertFalse(inner.isClosed(), "A nested borrow must not wait for the pool");
+            }
+            assertFalse(outer.isClosed(), "Closing a nested borrow must not release the outer one");
+
+            ExecutorService other = Executors.newSingleThreadExecutor();
+            Future<?> blocked = other.submit(() -> {
+                try (Connection c = small.getConnection()) {
+                    return null;
+                }
+            });
+            Exception e = assertThrows(Exception.class, () -> blocked.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(SQLException.class, e.getCause());
+            other.shutdown();
+        }
+        try (Connection again = small.getConnection()) {
+            assertFalse(again.isClosed());
+        }
+        small.closeConnection();
+    }
+}
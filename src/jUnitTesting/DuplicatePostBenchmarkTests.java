@@ -0,0 +1,79 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import search.DuplicateMatch;
+import search.LshIndex;
+
+/**
+ * <p>Title: DuplicatePostBenchmarkTests</p>
+ *
+ * <p>Description:
+ * Benchmark for finding likely duplicates in {@link LshIndex} among {@value #POSTS} posts:
+ * reworded copies of posts are looked up and the time per lookup and the posts compared per
+ * lookup are published. That lookups find the copy while comparing few posts is tested by
+ * {@link DuplicatePostTests}.</p>
+ */
+@Benchmark
+public class DuplicatePostBenchmarkTests {
+
+    /** <p>Field: POSTS</p> <p>Description: Number of indexed posts.</p> */
+    private static final int POSTS = 50_000;
+
+    /** <p>Field: LOOKUPS</p> <p>Description: Number of timed lookups.</p> */
+    private static final int LOOKUPS = 200;
+
+    /**
+     * <p>Constructor: DuplicatePostBenchmarkTests()</p>
+     * <p>Description: Default constructor used by JUnit.</p>
+     */
+    public DuplicatePostBenchmarkTests() {}
+
+    /**
+     * <p>Benchmark Method: benchmarkLookupTimeAtScale(TestReporter reporter)</p>
+     * <p>Description: Indexes the posts, warms up, then times the lookups of reworded copies
+     * and publishes the time and the posts compared per lookup.</p>
+     *
+     * @param reporter receives the results
+     * @throws Exception if a lookup fails
+     */
+    @Test
+    public void benchmarkLookupTimeAtScale(TestReporter reporter) throws Exception {
+        BenchmarkHarness harness = new BenchmarkHarness(reporter, "Duplicate lookup, " + POSTS + " posts");
+        Random random = new Random(11);
+        List<String> texts = new ArrayList<>();
+        LshIndex index = DuplicatePostTests.indexRandomPosts(random, POSTS, texts);
+
+        int[] targets = new int[LOOKUPS];
+        List<int[]> signatures = new ArrayList<>();
+        long compared = 0;
+        for (int q = 0; q < LOOKUPS; q++) {
+            targets[q] = 1 + random.nextInt(texts.size());
+            signatures.add(DuplicatePostTests.rewordedSignature(random, texts.get(targets[q] - 1)));
+            compared += index.candidateCount(signatures.get(q));
+        }
+        harness.warmUp(() -> {
+            for (int[] signature : signatures) index.findSimilar(signature, LshIndex.DUPLICATE_SIMILARITY, 5);
+        });
+
+        List<List<DuplicateMatch>> results = new ArrayList<>();
+        harness.timePerOperation("lookup", LOOKUPS, () -> {
+            for (int[] signature : signatures) {
+                results.add(index.findSimilar(signature, LshIndex.DUPLICATE_SIMILARITY, 5));
+            }
+        });
+        harness.record("posts compared per lookup", compared / LOOKUPS);
+
+        int found = 0;
+        for (int q = 0; q < LOOKUPS; q++) {
+            if (!results.get(q).isEmpty() && results.get(q).get(0).getPostId() == targets[q]) found++;
+        }
+        assertTrue(found >= LOOKUPS - LOOKUPS / 25, "found " + found);
+        harness.publish();
+    }
+}
@@ -0,0 +1,288 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import database.Database;
+import entityClasses.Post;
+import entityClasses.User;
+import search.DuplicateMatch;
+import search.LshIndex;
+import search.MinHash;
+
+/**
+ * <p>Title: DuplicatePostTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for finding posts that ask the same question in different words. Checks
+ * that MinHash signatures estimate the word overlap of two texts, that the LSH index finds
+ * reworded questions and not unrelated ones and groups existing duplicates into clusters,
+ * that the signatures stored per post follow every change to a post and are used to rebuild
+ * the index, and that a lookup among many posts compares only a few of them. The lookup time
+ * at scale is measured by {@link DuplicatePostBenchmarkTests}.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class DuplicatePostTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: OWNER</p> <p>Description: Student writing the posts.</p> */
+    private static final String OWNER = "owner";
+
+    /**
+     * <p>Constructor: DuplicatePostTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public DuplicatePostTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with one thread and one student.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        dbHelper.register(new User(OWNER, "pw", "O", "", "Wner", "", "o@email", false, true, false));
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: makePost(String title, String content)</p>
+     * <p>Description: Stores a post of the test student.</p>
+     *
+     * @param title the title
+     * @param content the content
+     * @return the id of the post
+     * @throws SQLException if the post cannot be stored
+     */
+    private int makePost(String title, String content) throws SQLException {
+        return dbHelper.makePost(new Post(title, "", content, OWNER, new ArrayList<>(), "General"));
+    }
+
+    /**
+     * <p>Method: storedSignature(int postId)</p>
+     * <p>Description: Reads the signature stored for a post straight from the table.</p>
+     *
+     * @param postId the id of the post
+     * @return the stored signature, or null if there is none
+     * @throws SQLException if the table cannot be read
+     */
+    private static int[] storedSignature(int postId) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:~/FoundationDatabase", "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT signature FROM PostSignatures WHERE postId = " + postId)) {
+            return rs.next() ? MinHash.fromBytes(rs.getBytes(1)) : null;
+        }
+    }
+
+    /**
+     * <p>Test Method: testSignaturesEstimateOverlap()</p>
+     * <p>Description: The agreement of two signatures is close to the true Jaccard similarity
+     * of the word sets, word order, case, common words and plurals do not matter, and a
+     * signature survives being stored as bytes.</p>
+     */
+    @Test
+    public void testSignaturesEstimateOverlap() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            List<String> a = new ArrayList<>(), b = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                String word = "word" + random.nextInt(120);
+                if (random.nextBoolean()) a.add(word); else b.add(word);
+                if (random.nextInt(3) == 0) { a.add(word); b.add(word); }
+            }
+            Set<String> wa = MinHash.words(String.join(" ", a)), wb = MinHash.words(String.join(" ", b));
+            Set<String> union = new HashSet<>(wa);
+            union.addAll(wb);
+            Set<String> common = new HashSet<>(wa);
+            common.retainAll(wb);
+            double jaccard = (double) common.size() / union.size();
+            double estimate = MinHash.similarity(MinHash.signature(String.join(" ", a)), MinHash.signature(String.join(" ", b)));
+            assertEquals(jaccard, estimate, 0.15, "round " + round);
+        }
+
+        int[] signature = MinHash.signature("How do I fix null pointer exceptions in the linked list lab");
+        assertEquals(1.0, MinHash.similarity(signature,
+                MinHash.signature("linked list LAB: fix null pointer exception, how do I")));
+        assertArrayEquals(signature, MinHash.fromBytes(MinHash.toBytes(signature)));
+        assertNull(MinHash.signature("the of a", null, ""));
+        assertEquals(0, MinHash.similarity(signature, null));
+    }
+
+    /**
+     * <p>Test Method: testFindsRewordedQuestionsAndClusters()</p>
+     * <p>Description: While a post is written, reworded versions of an existing question are
+     * offered most similar first and unrelated posts are not; staff clusters group each set
+     * of duplicates, and posts without duplicates are left out.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testFindsRewordedQuestionsAndClusters() throws SQLException {
+        int nullPointer = makePost("Null pointer exception in linked list lab",
+                "My linked list insert method throws a null pointer exception when the list is empty. How do I fix the head node?");
+        int reworded = makePost("Linked list lab null pointer when inserting",
+                "When the linked list is empty my insert method throws null pointer exception. How to fix the head node?");
+        int deadline = makePost("Is the project deadline extended",
+                "Will the final project deadline move because of the holiday week?");
+        int deadlineAgain = makePost("Project deadline extension because of holiday",
+                "Is the final project deadline extended because of the holiday week?");
+        int unrelated = makePost("Office hours moved to Friday",
+                "The teaching assistant office hours move to Friday afternoon in room 210.");
+
+        List<DuplicateMatch> matches = dbHelper.findDuplicatePosts("Null pointer in linked list insert",
+                null, "Inserting into an empty linked list gives a null pointer exception, how do I fix the head?", 0);
+        assertEquals(List.of(nullPointer, reworded), matches.stream().map(DuplicateMatch::getPostId).sorted().toList());
+        assertTrue(matches.get(0).getSimilarity() >= matches.get(1).getSimilarity());
+        assertTrue(dbHelper.findDuplicatePosts("Office hours moved to Friday", null,
+                "Does anyone know the grading rubric for the essay?", 0).stream().allMatch(m -> m.getPostId() == unrelated));
+        assertEquals(List.of(), dbHelper.findDuplicatePosts("Grading rubric for the essay", null,
+                "Where can I find the rubric used for grading the written essay?", 0));
+        assertEquals(1, dbHelper.findDuplicatePosts("Null pointer in linked list insert", null,
+                "Inserting into an empty linked list gives a null pointer exception, how do I fix the head?", 1).size());
+
+        ArrayList<ArrayList<Post>> clusters = dbHelper.findDuplicatePostClusters();
+        assertEquals(2, clusters.size());
+        List<List<Integer>> ids = clusters.stream().map(c -> c.stream().map(Post::getPostId).toList()).toList();
+        assertTrue(ids.contains(List.of(nullPointer, reworded)), ids.toString());
+        assertTrue(ids.contains(List.of(deadline, deadlineAgain)), ids.toString());
+        assertEquals("Null pointer exception in linked list lab", clusters.get(ids.indexOf(List.of(nullPointer, reworded))).get(0).getTitle());
+    }
+
+    /**
+     * <p>Test Method: testSignaturesFollowPostChanges()</p>
+     * <p>Description: Making a post stores its signature, editing the post replaces it,
+     * deleting the post removes it, and rebuilding the index uses the stored signatures and
+     * signs posts stored without one.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testSignaturesFollowPostChanges() throws SQLException {
+        int post = makePost("Recursion base case question", "How do I choose the base case for a recursive method?");
+        LshIndex index = dbHelper.getDuplicateIndex();
+        int[] original = storedSignature(post);
+        assertNotNull(original);
+        assertArrayEquals(original, index.getSignature(post));
+        assertArrayEquals(MinHash.signature("Recursion base case question", "",
+                "How do I choose the base case for a recursive method?"), original);
+
+        dbHelper.updatePostContent(post, "Completely different text about sorting arrays with merge sort.");
+        int[] edited = storedSignature(post);
+        assertFalse(Arrays.equals(original, edited));
+        assertArrayEquals(edited, index.getSignature(post));
+
+        int other = makePost("Merge sort of arrays", "Sorting arrays with merge sort is different text completely.");
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:~/FoundationDatabase", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM PostSignatures WHERE postId = " + other);
+        }
+        assertNull(storedSignature(other));
+        dbHelper.rebuildSearchIndex();
+        assertEquals(2, index.size());
+        assertArrayEquals(edited, index.getSignature(post));
+        assertNotNull(storedSignature(other));
+        assertEquals(List.of(List.of(post, other)), index.clusters(LshIndex.DUPLICATE_SIMILARITY));
+
+        dbHelper.deletePost(post);
+        assertNull(storedSignature(post));
+        assertNull(index.getSignature(post));
+        assertEquals(1, index.size());
+    }
+
+    /**
+     * <p>Method: indexRandomPosts(Random random, int posts, List&lt;String&gt; texts)</p>
+     * <p>Description: Indexes posts of 25 words drawn from a vocabulary of 20,000, with ids
+     * from 1.</p>
+     *
+     * @param random the random source
+     * @param posts the number of posts
+     * @param texts receives the text of each post, post id 1 first
+     * @return the index
+     */
+    static LshIndex indexRandomPosts(Random random, int posts, List<String> texts) {
+        LshIndex index = new LshIndex();
+        for (int postId = 1; postId <= posts; postId++) {
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < 25; w++) text.append("term").append(random.nextInt(20_000)).append(' ');
+            texts.add(text.toString());
+            index.put(postId, MinHash.signature(text.toString()));
+        }
+        return index;
+    }
+
+    /**
+     * <p>Method: rewordedSignature(Random random, String text)</p>
+     * <p>Description: The signature of a reworded copy of a text: a few words dropped, a few
+     * new ones added and the order shuffled.</p>
+     *
+     * @param random the random source
+     * @param text the original text
+     * @return the signature of the copy
+     */
+    static int[] rewordedSignature(Random random, String text) {
+        List<String> words = new ArrayList<>(List.of(text.split(" ")));
+        for (int k = 0; k < 4; k++) words.remove(random.nextInt(words.size()));
+        for (int k = 0; k < 4; k++) words.add("extra" + random.nextInt(1000));
+        Collections.shuffle(words, random);
+        return MinHash.signature(String.join(" ", words));
+    }
+
+    /**
+     * <p>Test Method: testLookupComparesFewPosts()</p>
+     * <p>Description: Among 10,000 posts drawn from a large vocabulary, a reworded copy of a
+     * post is found while the lookup compares only a small fraction of the posts.</p>
+     */
+    @Test
+    public void testLookupComparesFewPosts() {
+        Random random = new Random(11);
+        List<String> texts = new ArrayList<>();
+        LshIndex index = indexRandomPosts(random, 10_000, texts);
+
+        int lookups = 50;
+        int found = 0, compared = 0;
+        for (int q = 0; q < lookups; q++) {
+            int target = 1 + random.nextInt(texts.size());
+            int[] signature = rewordedSignature(random, texts.get(target - 1));
+            List<DuplicateMatch> matches = index.findSimilar(signature, LshIndex.DUPLICATE_SIMILARITY, 5);
+            if (!matches.isEmpty() && matches.get(0).getPostId() == target) found++;
+            compared += index.candidateCount(signature);
+        }
+        assertTrue(found >= lookups - 2, "found " + found);
+        assertTrue(compared / lookups < 50, "compared " + compared / lookups + " posts per lookup");
+    }
+}
@@ -0,0 +1,193 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+import database.Database;
+import entityClasses.Post;
+import entityClasses.Reply;
+import entityClasses.StudentStatus;
+import entityClasses.User;
+import grading.GradeCache;
+import grading.StudentGrade;
+import jUnitTestCodes.StatusRetriever;
+
+/**
+ * <p>Title: GradeCacheTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the cache of computed student grades. Checks that showing an
+ * unchanged grade again is a cache hit, that every event changing a student's counters drops
+ * that student's grade and only theirs, and that the cache stays within its capacity.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class GradeCacheTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: AUTHOR</p> <p>Description: Student whose grade is watched.</p> */
+    private final String AUTHOR = "author";
+
+    /** <p>Field: READER</p> <p>Description: Student who reads, replies to and upvotes posts.</p> */
+    private final String READER = "reader";
+
+    /**
+     * <p>Constructor: GradeCacheTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public GradeCacheTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with one thread and two students.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        dbHelper.register(new User(AUTHOR, "pw", "F", "M", "L", "PF", "a@email", false, true, false));
+        dbHelper.register(new User(READER, "pw", "F", "M", "L", "PF", "r@email", false, true, false));
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: assertFreshGrade(String userName)</p>
+     * <p>Description: Asserts that the next grade lookup of the student is a cache miss, that
+     * the lookup after it is a hit, and that the grade equals the one computed by
+     * {@link StatusRetriever} from the stored counters.</p>
+     *
+     * @param userName the student
+     * @return the student's grade
+     */
+    private StudentGrade assertFreshGrade(String userName) {
+        GradeCache cache = dbHelper.getGradeCache();
+        long misses = cache.getMisses();
+        long hits = cache.getHits();
+        StudentGrade grade = dbHelper.getStudentGrade(userName);
+        assertEquals(misses + 1, cache.getMisses(), userName + " should have been recomputed");
+        assertSame(grade, dbHelper.getStudentGrade(userName));
+        assertEquals(hits + 1, cache.getHits());
+
+        StudentStatus s = dbHelper.getStudentStatus(userName);
+        double total = StatusRetriever.getTotalGrade(StatusRetriever.getParticipation(s), StatusRetriever.getPerformance(s));
+        assertEquals(total, grade.getTotalGrade());
+        assertEquals(StatusRetriever.getGradeMark(total), grade.getGradeMark());
+        return grade;
+    }
+
+    /**
+     * <p>Test Method: testRepeatedLookupsAreHits()</p>
+     * <p>Description: Asking for an unchanged grade many times computes it once, and the hit
+     * rate reflects the lookups.</p>
+     */
+    @Test
+    public void testRepeatedLookupsAreHits() {
+        GradeCache cache = dbHelper.getGradeCache();
+        cache.resetStatistics();
+        StudentGrade first = dbHelper.getStudentGrade(AUTHOR);
+        for (int i = 0; i < 9; i++) assertSame(first, dbHelper.getStudentGrade(AUTHOR));
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(9, cache.getHits());
+        assertEquals(0.9, cache.getHitRate(), 1e-9);
+        assertEquals("F", first.getGradeMark());
+        assertEquals(0.0, first.getTotalGrade());
+    }
+
+    /**
+     * <p>Test Method: testEventsInvalidateOnlyAffectedStudents()</p>
+     * <p>Description: Posts, replies, views, upvotes, promotions and violations each drop the
+     * grade of the student they affect, so the next lookup shows the new grade, while the
+     * other student's grade stays cached.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testEventsInvalidateOnlyAffectedStudents() throws SQLException {
+        assertFreshGrade(AUTHOR);
+        assertFreshGrade(READER);
+
+        int postId = dbHelper.makePost(new Post("Graded", "", "Body", AUTHOR, new ArrayList<>(), "General"));
+        assertFreshGrade(AUTHOR);
+        long readerHits = dbHelper.getGradeCache().getHits();
+        dbHelper.getStudentGrade(READER);
+        assertEquals(readerHits + 1, dbHelper.getGradeCache().getHits(), "reader was not affected");
+
+        dbHelper.markPostAsRead(READER, postId);
+        assertFreshGrade(AUTHOR);
+
+        dbHelper.makePostUpvote(READER, postId);
+        assertFreshGrade(AUTHOR);
+
+        int replyId = dbHelper.makeReply(new Reply("Reply", READER, postId));
+        assertFreshGrade(AUTHOR);
+        assertFreshGrade(READER);
+
+        dbHelper.deleteReply(replyId);
+        assertFreshGrade(AUTHOR);
+        assertFreshGrade(READER);
+
+        double before = dbHelper.getStudentGrade(AUTHOR).getTotalGrade();
+        dbHelper.incrementPromotion(AUTHOR, 1);
+        assertTrue(assertFreshGrade(AUTHOR).getTotalGrade() > before);
+
+        dbHelper.incrementViolation(AUTHOR, 2);
+        assertTrue(assertFreshGrade(AUTHOR).getTotalGrade() < before);
+
+        dbHelper.deletePost(postId);
+        assertEquals(0.0, assertFreshGrade(AUTHOR).getPerformance());
+        assertTrue(dbHelper.getGradeCache().getInvalidations() >= 9);
+    }
+
+    /**
+     * <p>Test Method: testCacheIsBounded()</p>
+     * <p>Description: The cache never holds more grades than its capacity, dropping the least
+     * recently used one, and a grade loaded while an invalidation happens is not kept.</p>
+     */
+    @Test
+    public void testCacheIsBounded() {
+        GradeCache cache = new GradeCache(2);
+        cache.get("a", name -> new StudentGrade(name, 0, 0, 0, "F"));
+        cache.get("b", name -> new StudentGrade(name, 0, 0, 0, "F"));
+        cache.get("a", name -> fail("a is cached"));
+        cache.get("c", name -> new StudentGrade(name, 0, 0, 0, "F"));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNotNull(cache.get("a", name -> fail("a was used most recently")));
+        assertEquals(3, cache.getMisses());
+
+        StudentGrade raced = cache.get("d", name -> {
+            cache.invalidate("c");
+            return new StudentGrade(name, 0, 0, 0, "F");
+        });
+        assertNotNull(raced);
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(1, cache.size());
+        assertNull(cache.get("e", name -> null));
+        assertEquals(1, cache.size());
+    }
+}
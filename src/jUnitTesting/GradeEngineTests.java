@@ -0,0 +1,207 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import database.Database;
+import entityClasses.GradebookRow;
+import entityClasses.Post;
+import entityClasses.Reply;
+import entityClasses.StudentStatus;
+import entityClasses.User;
+import grading.GradeEngine;
+import grading.GradeFormulas;
+import grading.GradeReport;
+import grading.GradeSnapshot;
+import jUnitTestCodes.StatusRetriever;
+
+/**
+ * <p>Title: GradeEngineTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the class-wide grade engine. Checks the engine against the
+ * per-student grade methods of {@link StatusRetriever}, checks that grading in parallel gives
+ * the same grades and histogram as grading in one thread, and checks that the column snapshot
+ * read from the database matches the gradebook rows.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class GradeEngineTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /**
+     * <p>Constructor: GradeEngineTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public GradeEngineTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with one thread.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: randomClass(int size, long seed)</p>
+     * <p>Description: Builds a snapshot of random counters, with many students at zero posts
+     * and some with promotions and violations, so every grade bucket is reached.</p>
+     *
+     * @param size the number of students
+     * @param seed the random seed
+     * @return the snapshot
+     */
+    private GradeSnapshot randomClass(int size, long seed) {
+        Random random = new Random(seed);
+        String[] names = new String[size];
+        int[][] c = new int[7][size];
+        for (int i = 0; i < size; i++) {
+            names[i] = "student" + i;
+            c[0][i] = random.nextInt(4) == 0 ? 0 : random.nextInt(9);
+            c[1][i] = random.nextInt(9);
+            c[2][i] = random.nextInt(40);
+            c[3][i] = random.nextInt(12);
+            c[4][i] = random.nextInt(8);
+            c[5][i] = random.nextInt(10) == 0 ? 1 : 0;
+            c[6][i] = random.nextInt(10) == 0 ? random.nextInt(3) : 0;
+        }
+        return new GradeSnapshot(names, c[0], c[1], c[2], c[3], c[4], c[5], c[6]);
+    }
+
+    /**
+     * <p>Test Method: testEngineMatchesStatusRetriever()</p>
+     * <p>Description: For every student of a random class the engine computes exactly the
+     * participation, performance, total and letter grade of the per-student methods, and the
+     * histogram counts each letter grade the per-student methods give.</p>
+     */
+    @Test
+    public void testEngineMatchesStatusRetriever() {
+        GradeSnapshot snapshot = randomClass(20_000, 42);
+        GradeReport report = new GradeEngine(new ForkJoinPool(4), 512).grade(snapshot);
+
+        assertEquals(snapshot.size(), report.size());
+        int[] expectedCounts = new int[GradeFormulas.MARKS.length];
+        for (int i = 0; i < snapshot.size(); i++) {
+            StudentStatus s = new StudentStatus(snapshot.getUserNames()[i], snapshot.getPosts()[i],
+                    snapshot.getReplies()[i], snapshot.getViews()[i], snapshot.getRepliesReceived()[i],
+                    snapshot.getUpvotes()[i], snapshot.getPromotions()[i], snapshot.getViolations()[i]);
+            double participation = StatusRetriever.getParticipation(s);
+            double performance = StatusRetriever.getPerformance(s);
+            double total = StatusRetriever.getTotalGrade(participation, performance);
+            String mark = StatusRetriever.getGradeMark(total);
+
+            assertEquals(s.getUserName(), report.getUserName(i));
+            assertEquals(participation, report.getParticipation(i));
+            assertEquals(performance, report.getPerformance(i));
+            assertEquals(total, report.getTotalGrade(i));
+            assertEquals(mark, report.getGradeMark(i));
+            expectedCounts[List.of(GradeFormulas.MARKS).indexOf(mark)]++;
+        }
+        for (int m = 0; m < GradeFormulas.MARKS.length; m++) {
+            assertEquals(expectedCounts[m], report.countOf(GradeFormulas.MARKS[m]), GradeFormulas.MARKS[m]);
+        }
+        assertEquals(StatusRetriever.getGradeMark(Double.NaN), GradeFormulas.gradeMark(Double.NaN));
+    }
+
+    /**
+     * <p>Test Method: testParallelMatchesSequential()</p>
+     * <p>Description: A large class graded in many parallel ranges gives the same grades and
+     * histogram as grading it in one range, the histogram lists every mark best first and adds
+     * up to the class size, and an empty class grades to an empty report.</p>
+     */
+    @Test
+    public void testParallelMatchesSequential() {
+        GradeSnapshot snapshot = randomClass(200_000, 7);
+        GradeReport parallel = new GradeEngine(new ForkJoinPool(4), 1_000).grade(snapshot);
+        GradeReport sequential = new GradeEngine(ForkJoinPool.commonPool(), Integer.MAX_VALUE).grade(snapshot);
+
+        for (int i = 0; i < snapshot.size(); i++) {
+            assertEquals(sequential.getTotalGrade(i), parallel.getTotalGrade(i));
+            assertEquals(sequential.getGradeMark(i), parallel.getGradeMark(i));
+        }
+        Map<String, Integer> histogram = parallel.getHistogram();
+        assertEquals(sequential.getHistogram(), histogram);
+        assertEquals(List.of(GradeFormulas.MARKS), new ArrayList<>(histogram.keySet()));
+        assertEquals(snapshot.size(), histogram.values().stream().mapToInt(Integer::intValue).sum());
+        assertTrue(histogram.get("F") > 0);
+        assertTrue(histogram.get("A+") > 0);
+
+        GradeReport empty = new GradeEngine().grade(GradeSnapshot.fromRows(List.of()));
+        assertEquals(0, empty.size());
+        assertEquals(0, empty.getHistogram().values().stream().mapToInt(Integer::intValue).sum());
+        assertThrows(IllegalArgumentException.class, () -> new GradeSnapshot(new String[2],
+                new int[2], new int[2], new int[2], new int[1], new int[2], new int[2], new int[2]));
+    }
+
+    /**
+     * <p>Test Method: testSnapshotMatchesGradebook()</p>
+     * <p>Description: The snapshot read from the database lists the same students, in the same
+     * order and with the same counters, as the gradebook rows, and grading either gives the
+     * same grades.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testSnapshotMatchesGradebook() throws SQLException {
+        for (int i = 99; i >= 0; i--) {
+            String name = String.format("s%03d", i);
+            dbHelper.register(new User(name, "pw", "F", "M", "L", "PF", name + "@email", false, true, false));
+        }
+        dbHelper.register(new User("staff", "pw", "S", "M", "L", "PF", "t@email", false, false, true));
+        int postId = dbHelper.makePost(new Post("Graded", "", "Body", "s001", new ArrayList<>(), "General"));
+        dbHelper.makeReply(new Reply("Reply", "s002", postId));
+        dbHelper.makePostUpvote("s003", postId);
+        dbHelper.incrementPromotion("s001", 1);
+        dbHelper.deleteStudentStatus("s004");
+
+        List<GradebookRow> rows = dbHelper.getGradebook();
+        GradeSnapshot snapshot = dbHelper.getGradeSnapshot();
+        assertEquals(100, snapshot.size());
+        GradeSnapshot fromRows = GradeSnapshot.fromRows(rows);
+        assertArrayEquals(fromRows.getUserNames(), snapshot.getUserNames());
+        assertArrayEquals(fromRows.getPosts(), snapshot.getPosts());
+        assertArrayEquals(fromRows.getReplies(), snapshot.getReplies());
+        assertArrayEquals(fromRows.getViews(), snapshot.getViews());
+        assertArrayEquals(fromRows.getRepliesReceived(), snapshot.getRepliesReceived());
+        assertArrayEquals(fromRows.getUpvotes(), snapshot.getUpvotes());
+        assertArrayEquals(fromRows.getPromotions(), snapshot.getPromotions());
+        assertArrayEquals(fromRows.getViolations(), snapshot.getViolations());
+
+        GradeReport report = new GradeEngine().grade(snapshot);
+        StudentStatus author = rows.get(1).getStatus();
+        assertEquals("s001", report.getUserName(1));
+        assertEquals(StatusRetriever.getPerformance(author), report.getPerformance(1));
+        assertEquals(100, report.countOf("F"));
+    }
+}
@@ -0,0 +1,273 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import database.Database;
+import entityClasses.StudentStatus;
+import entityClasses.User;
+import grading.GradeExporter;
+import jUnitTestCodes.StatusRetriever;
+
+/**
+ * <p>Title: GradeExportTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the CSV grade export. Exports a roster of 50,000 students and checks
+ * every line against the grade methods of {@link StatusRetriever}, checks progress reporting,
+ * and checks that cancelled or failed exports leave no file behind.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class GradeExportTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: dir</p> <p>Description: Directory the exports are written to.</p> */
+    @TempDir
+    Path dir;
+
+    /**
+     * <p>Constructor: GradeExportTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public GradeExportTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: makeStudents(int count)</p>
+     * <p>Description: Inserts students in one batch, out of username order, with status
+     * records whose counters depend on the student's number.</p>
+     *
+     * @param count the number of students
+     * @return the status record of each student, by student number
+     * @throws SQLException if the inserts fail
+     */
+    private List<StudentStatus> makeStudents(int count) throws SQLException {
+        List<StudentStatus> statuses = new ArrayList<>();
+        try (Connection connection = dbHelper.getConnection();
+             PreparedStatement ps = connection.prepareStatement("INSERT INTO userDB (userName, firstName, "
+                     + "middleName, lastName, preferredFirstName, emailAddress, studentRole) "
+                     + "VALUES (?, ?, '', ?, '', ?, TRUE)")) {
+            for (int i = count - 1; i >= 0; i--) {
+                String name = String.format("s%06d", i);
+                ps.setString(1, name);
+                ps.setString(2, "First" + i);
+                ps.setString(3, "Last");
+                ps.setString(4, name + "@email");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        for (int i = 0; i < count; i++) {
+            statuses.add(new StudentStatus(String.format("s%06d", i), i % 7, i % 6, i % 23, i % 11,
+                    i % 8, i % 13 == 0 ? 1 : 0, i % 17 == 0 ? 1 : 0));
+        }
+        dbHelper.upsertStudentStatuses(statuses);
+        return statuses;
+    }
+
+    /**
+     * <p>Method: expectedLine(StudentStatus s, String fullName)</p>
+     * <p>Description: The CSV line of a student as computed by {@link StatusRetriever}.</p>
+     *
+     * @param s the student's counters
+     * @param fullName the student's full name as written in the file
+     * @return the expected line
+     */
+    private String expectedLine(StudentStatus s, String fullName) {
+        double participation = StatusRetriever.getParticipation(s);
+        double performance = StatusRetriever.getPerformance(s);
+        double total = StatusRetriever.getTotalGrade(participation, performance);
+        return s.getUserName() + "," + fullName + "," + s.getPostNumber() + "," + s.getReplyNumber() + ","
+                + s.getViewReceived() + "," + s.getReplyReceived() + "," + s.getUpvoteReceived() + ","
+                + s.getPromotion() + "," + s.getViolation() + ","
+                + String.format(Locale.ROOT, "%.2f,%.2f,%.2f,", participation, performance, total)
+                + StatusRetriever.getGradeMark(total);
+    }
+
+    /**
+     * <p>Test Method: testExportsLargeRoster()</p>
+     * <p>Description: Exporting 50,000 students in the background writes the header and one
+     * line per student in username order, each matching the per-student grade methods, and
+     * reports increasing progress ending at the full count.</p>
+     *
+     * @throws Exception if the export fails
+     */
+    @Test
+    public void testExportsLargeRoster() throws Exception {
+        int size = 50_000;
+        List<StudentStatus> statuses = makeStudents(size);
+        List<int[]> reports = new ArrayList<>();
+        Path file = dir.resolve("grades.csv");
+
+        int written = new GradeExporter(dbHelper)
+                .exportInBackground(file, (exported, total) -> reports.add(new int[] { exported, total }))
+                .get(60, TimeUnit.SECONDS);
+
+        assertEquals(size, written);
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(size + 1, lines.size());
+        assertEquals(GradeExporter.HEADER, lines.get(0));
+        for (int i = 0; i < size; i++) {
+            assertEquals(expectedLine(statuses.get(i), "First" + i + "  Last"), lines.get(i + 1));
+        }
+
+        assertEquals(size / GradeExporter.PROGRESS_STEP + 1, reports.size());
+        for (int r = 1; r < reports.size(); r++) assertTrue(reports.get(r)[0] >= reports.get(r - 1)[0]);
+        assertArrayEquals(new int[] { size, size }, reports.get(reports.size() - 1));
+        assertArrayEquals(new int[] { 1000, size }, reports.get(0));
+    }
+
+    /**
+     * <p>Test Method: testTextFieldsAreEscaped()</p>
+     * <p>Description: Names holding commas or quotes are quoted, names a spreadsheet would
+     * run as a formula are defused, and students without a status record are exported with
+     * zero counters.</p>
+     *
+     * @throws Exception if the export fails
+     */
+    @Test
+    public void testTextFieldsAreEscaped() throws Exception {
+        dbHelper.register(new User("alice", "pw", "Al, \"Ace\"", "", "Smith", "", "a@email", false, true, false));
+        dbHelper.register(new User("bob", "pw", "=SUM(A1)", "", "", "", "b@email", false, true, false));
+        dbHelper.register(new User("staff", "pw", "S", "", "", "", "s@email", false, false, true));
+        dbHelper.deleteStudentStatus("bob");
+        Path file = dir.resolve("names.csv");
+
+        assertEquals(2, new GradeExporter(dbHelper).export(file, null));
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(1).startsWith("alice,\"Al, \"\"Ace\"\"  Smith\",0,"), lines.get(1));
+        assertEquals("bob,'=SUM(A1),0,0,0,0,0,0,0,0.00,0.00,0.00,F", lines.get(2));
+    }
+
+    /**
+     * <p>Test Method: testCancelledAndFailedExportsLeaveNoFile()</p>
+     * <p>Description: Cancelling a running export stops it and deletes what was written, an
+     * existing file at the destination is left as it was, and an export to a missing directory
+     * fails with an I/O error.</p>
+     *
+     * @throws Exception if the test setup fails
+     */
+    @Test
+    public void testCancelledAndFailedExportsLeaveNoFile() throws Exception {
+        makeStudents(5_000);
+        Path file = dir.resolve("grades.csv");
+        Files.writeString(file, "previous export");
+        GradeExporter exporter = new GradeExporter(dbHelper);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        CompletableFuture<Integer> export = exporter.exportInBackground(file, (exported, total) -> {
+            started.countDown();
+            try {
+                resume.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(30, TimeUnit.SECONDS));
+        export.cancel(false);
+        resume.countDown();
+        assertThrows(CancellationException.class, export::join);
+
+        // Exports run one at a time, so this one starts after the cancelled one has cleaned up
+        Path other = dir.resolve("other.csv");
+        assertEquals(5_000, exporter.exportInBackground(other, null).get(30, TimeUnit.SECONDS));
+        assertEquals("previous export", Files.readString(file));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of("grades.csv", "other.csv"),
+                    files.map(p -> p.getFileName().toString()).sorted().toList());
+        }
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> exporter.exportInBackground(dir.resolve("missing").resolve("grades.csv"), null)
+                        .get(30, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, failure.getCause());
+    }
+
+    /**
+     * <p>Test Method: testCancelAfterLastRowKeepsExistingFile()</p>
+     * <p>Description: An export cancelled after its last row was written, but before the file
+     * was moved into place, still leaves the existing file and no temporary file.</p>
+     *
+     * @throws Exception if the test setup fails
+     */
+    @Test
+    public void testCancelAfterLastRowKeepsExistingFile() throws Exception {
+        makeStudents(GradeExporter.PROGRESS_STEP);
+        Path file = dir.resolve("grades.csv");
+        Files.writeString(file, "previous export");
+
+        CountDownLatch lastRow = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        GradeExporter exporter = new GradeExporter(dbHelper);
+        CompletableFuture<Integer> export = exporter.exportInBackground(file, (exported, total) -> {
+            // The only report before the move is the one after the last row
+            lastRow.countDown();
+            try {
+                resume.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(lastRow.await(30, TimeUnit.SECONDS));
+        export.cancel(false);
+        resume.countDown();
+        assertThrows(CancellationException.class, export::join);
+
+        // Exports run one at a time, so this one starts after the cancelled one has cleaned up
+        exporter.exportInBackground(dir.resolve("other.csv"), null).get(30, TimeUnit.SECONDS);
+        assertEquals("previous export", Files.readString(file));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of("grades.csv", "other.csv"),
+                    files.map(p -> p.getFileName().toString()).sorted().toList());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import database.Database;
+import entityClasses.GradebookRow;
+import entityClasses.Post;
+import entityClasses.Reply;
+import entityClasses.StudentStatus;
+import entityClasses.User;
+import jUnitTestCodes.StatusRetriever;
+
+/**
+ * <p>Title: GradebookTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the staff gradebook query. Checks that one call returns every
+ * student, and only students, with the same counters as their individual status records,
+ * and that the rows are immutable snapshots whose grades are added by copying.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class GradebookTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /**
+     * <p>Constructor: GradebookTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public GradebookTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with one thread, three students registered
+     * out of username order and one staff member.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        for (String name : List.of("cara", "abe", "bo")) {
+            dbHelper.register(new User(name, "pw", name + "F", "M", "L", "PF", name + "@email", false, true, false));
+        }
+        dbHelper.register(new User("staff", "pw", "S", "M", "L", "PF", "s@email", false, false, true));
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Test Method: testGradebookMatchesStatusRecords()</p>
+     * <p>Description: After some activity the gradebook lists the students in username order,
+     * leaves out staff, and carries the same counters as each student's status record and a
+     * full recount. A student without a status record is listed with zero counters.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testGradebookMatchesStatusRecords() throws SQLException {
+        int postId = dbHelper.makePost(new Post("Graded", "", "Body", "abe", new ArrayList<>(), "General"));
+        dbHelper.makePostUpvote("bo", postId);
+        dbHelper.markPostAsRead("cara", postId);
+        dbHelper.makeReply(new Reply("Reply", "bo", postId));
+        StudentStatus promoted = dbHelper.getStudentStatus("bo");
+        promoted.setPromotion(1);
+        dbHelper.updateStudentStatus(promoted);
+        dbHelper.deleteStudentStatus("cara");
+
+        List<GradebookRow> rows = dbHelper.getGradebook();
+        assertEquals(List.of("abe", "bo", "cara"), rows.stream().map(GradebookRow::getUserName).toList());
+
+        new StatusRetriever(dbHelper);
+        for (GradebookRow row : rows.subList(0, 2)) {
+            StudentStatus stored = dbHelper.getStudentStatus(row.getUserName());
+            assertEquals(stored.toString(), row.getStatus().toString());
+            assertEquals(StatusRetriever.getStudentTotalViewsGot(row.getUserName()), row.getViewReceived());
+        }
+        assertEquals(1, rows.get(0).getPostNumber());
+        assertEquals(2, rows.get(0).getViewReceived());
+        assertEquals(1, rows.get(0).getUpvoteReceived());
+        assertEquals(1, rows.get(0).getReplyReceived());
+        assertEquals(1, rows.get(1).getReplyNumber());
+        assertEquals(1, rows.get(1).getPromotion());
+        assertEquals(new StudentStatus("cara").toString(), rows.get(2).getStatus().toString());
+        assertEquals("caraF M L", rows.get(2).getFullName());
+    }
+
+    /**
+     * <p>Test Method: testRowsAreImmutableSnapshots()</p>
+     * <p>Description: Rows read from the database carry no grades, adding grades returns a new
+     * row with the same counters, and changing a status copy or later activity does not
+     * change a row that was already loaded.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testRowsAreImmutableSnapshots() throws SQLException {
+        GradebookRow row = dbHelper.getGradebook().get(0);
+        assertEquals("N/A", row.getGradeMark());
+        assertEquals(0.0, row.getTotalGrade());
+
+        GradebookRow graded = row.withGrades(60.0, 50.0, 58.0, "F");
+        assertNotSame(row, graded);
+        assertEquals("N/A", row.getGradeMark());
+        assertEquals(60.0, graded.getParticipation());
+        assertEquals(50.0, graded.getPerformance());
+        assertEquals(58.0, graded.getTotalGrade());
+        assertEquals("F", graded.getGradeMark());
+        assertEquals(row.getStatus().toString(), graded.getStatus().toString());
+
+        row.getStatus().setPostNumber(9);
+        dbHelper.makePost(new Post("Later", "", "Body", row.getUserName(), new ArrayList<>(), "General"));
+        assertEquals(0, row.getPostNumber());
+        assertEquals(1, dbHelper.getGradebook().get(0).getPostNumber());
+    }
+}
@@ -0,0 +1,160 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import database.Database;
+import entityClasses.Message;
+import entityClasses.MessageHeader;
+import entityClasses.User;
+
+/**
+ * <p>Title: InboxPageTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the paged inbox. Checks that walking the pages returns every message
+ * of the receiver exactly once, newest first, that the subject search and unread filter are
+ * applied by the query, and that the content of a listed message is loaded when it is opened.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class InboxPageTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: SENDER</p> <p>Description: User sending every message.</p> */
+    private static final String SENDER = "sender";
+
+    /** <p>Field: RECEIVER</p> <p>Description: User whose inbox is paged.</p> */
+    private static final String RECEIVER = "receiver";
+
+    /**
+     * <p>Constructor: InboxPageTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public InboxPageTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with a sender and a receiver.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.register(new User(SENDER, "pw", "S", "", "User", "", "s@email", false, false, true));
+        dbHelper.register(new User(RECEIVER, "pw", "R", "", "User", "", "r@email", false, true, false));
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: readAll(String subjectText, boolean unreadOnly, int pageSize)</p>
+     * <p>Description: Walks every page of the receiver's inbox and collects the message ids.</p>
+     *
+     * @param subjectText the subject search, or null
+     * @param unreadOnly whether to list unread messages only
+     * @param pageSize the number of messages per page
+     * @return the ids in the order they were listed
+     */
+    private List<Integer> readAll(String subjectText, boolean unreadOnly, int pageSize) {
+        List<Integer> ids = new ArrayList<>();
+        int lastSeenId = 0;
+        List<MessageHeader> page;
+        do {
+            page = dbHelper.getInboxPage(RECEIVER, subjectText, unreadOnly, lastSeenId, pageSize);
+            assertTrue(page.size() <= pageSize);
+            for (MessageHeader h : page) ids.add(h.getId());
+            if (!page.isEmpty()) lastSeenId = page.get(page.size() - 1).getId();
+        } while (page.size() == pageSize);
+        return ids;
+    }
+
+    /**
+     * <p>Test Method: testPagesCoverInboxNewestFirst()</p>
+     * <p>Description: Paging through the inbox lists each of the receiver's messages once, in
+     * descending id order, and none sent to anyone else.</p>
+     */
+    @Test
+    public void testPagesCoverInboxNewestFirst() {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            expected.add(0, dbHelper.makeMessage(new Message(SENDER, RECEIVER, "Subject " + i, "Body " + i)));
+            dbHelper.makeMessage(new Message(RECEIVER, SENDER, "Reply " + i, "Body"));
+        }
+
+        assertEquals(expected, readAll(null, false, 5));
+        assertEquals(expected, readAll("  ", false, 23));
+        assertEquals(expected.subList(5, 10), dbHelper.getInboxPage(RECEIVER, null, false, expected.get(4), 5)
+                .stream().map(MessageHeader::getId).toList());
+    }
+
+    /**
+     * <p>Test Method: testSubjectAndUnreadFilters()</p>
+     * <p>Description: The subject search ignores case and treats LIKE wildcards literally, and
+     * the unread filter drops messages once they are marked as read.</p>
+     */
+    @Test
+    public void testSubjectAndUnreadFilters() {
+        int exam = dbHelper.makeMessage(new Message(SENDER, RECEIVER, "Exam schedule", "Body"));
+        int grade = dbHelper.makeMessage(new Message(SENDER, RECEIVER, "Grade 100% done", "Body"));
+        int examAgain = dbHelper.makeMessage(new Message(SENDER, RECEIVER, "Re: EXAM room", "Body"));
+        int other = dbHelper.makeMessage(new Message(SENDER, RECEIVER, "Lunch", "exam in content"));
+
+        assertEquals(List.of(examAgain, exam), readAll("exam", false, 10));
+        assertEquals(List.of(grade), readAll("100%", false, 10));
+        assertEquals(List.of(), readAll("1_0", false, 10));
+
+        dbHelper.markMessageAsRead(dbHelper.getMessage(examAgain));
+        dbHelper.markMessageAsRead(dbHelper.getMessage(other));
+        assertEquals(List.of(grade, exam), readAll(null, true, 1));
+        assertEquals(List.of(exam), readAll("Exam", true, 10));
+        assertEquals(List.of(other, examAgain, grade, exam), readAll(null, false, 3));
+    }
+
+    /**
+     * <p>Test Method: testHeadersLeaveContentForOpen()</p>
+     * <p>Description: A listed header carries the subject, sender and read flag, and opening it
+     * by id loads the full message including its content.</p>
+     */
+    @Test
+    public void testHeadersLeaveContentForOpen() {
+        int id = dbHelper.makeMessage(new Message(SENDER, RECEIVER, "Hello", "The full content"));
+
+        List<MessageHeader> page = dbHelper.getInboxPage(RECEIVER, null, false, 0, 10);
+        assertEquals(1, page.size());
+        MessageHeader header = page.get(0);
+        assertEquals(id, header.getId());
+        assertEquals(SENDER, header.getSender());
+        assertEquals(RECEIVER, header.getReceiver());
+        assertEquals("Hello", header.getSubject());
+        assertFalse(header.isRead());
+
+        Message opened = dbHelper.getMessage(header.getId());
+        assertEquals("The full content", opened.getContent());
+        dbHelper.markMessageAsRead(opened);
+        assertTrue(dbHelper.getInboxPage(RECEIVER, null, false, 0, 10).get(0).isRead());
+        assertTrue(dbHelper.getInboxPage(RECEIVER, null, true, 0, 10).isEmpty());
+    }
+}
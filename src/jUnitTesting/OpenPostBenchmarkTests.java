@@ -0,0 +1,184 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+
+import database.Database;
+import entityClasses.Post;
+import entityClasses.User;
+
+/**
+ * <p>Title: OpenPostBenchmarkTests</p>
+ *
+ * <p>Description:
+ * Before/after benchmark for marking the replies of a post as read, which happens every time a
+ * post is opened. For posts with a growing number of replies, the old approach of one MERGE per
+ * reply is timed against {@link Database#markRepliesAsRead(String, int)}, which marks every
+ * unread reply by moving the user's read watermark of the post. The per-reply approach writes to
+ * the one-row-per-reply ReplyReadStatus table read state was kept in before watermarks, which
+ * the benchmark creates itself. The watermark behavior is tested by {@link ReplyReadMarksTests}.</p>
+ */
+@Benchmark
+public class OpenPostBenchmarkTests {
+
+    /** <p>Field: REPLY_COUNTS</p> <p>Description: Number of replies of each benchmarked post.</p> */
+    private static final int[] REPLY_COUNTS = { 10, 100, 1_000, 5_000 };
+
+    /** <p>Field: OWNER</p> <p>Description: Username of the author of the posts and replies.</p> */
+    private static final String OWNER = "benchOwner";
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /**
+     * <p>Constructor: OpenPostBenchmarkTests()</p>
+     * <p>Description: Default constructor used by JUnit.</p>
+     */
+    public OpenPostBenchmarkTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with one thread, the author, one reader
+     * per approach and the legacy read state table.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        for (String name : new String[] { OWNER, "perReply", "setBased" }) {
+            dbHelper.register(new User(name, "pw", "F", "M", "L", "PF", name + "@email", false, true, false));
+        }
+        try (Connection connection = dbHelper.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(ReplyReadMarksTests.LEGACY_TABLE);
+        }
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: makePostWithReplies(int replies)</p>
+     * <p>Description: Creates a post and inserts its replies in one batch.</p>
+     *
+     * @param replies the number of replies to create
+     * @return the id of the new post
+     * @throws SQLException if the inserts fail
+     */
+    private int makePostWithReplies(int replies) throws SQLException {
+        int postId = dbHelper.makePost(new Post("Busy post " + replies, "", "Body", OWNER, new ArrayList<>(), "General"));
+        try (Connection connection = dbHelper.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(
+                     "INSERT INTO Replies (content, owner, postId) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < replies; i++) {
+                pstmt.setString(1, "Reply " + i);
+                pstmt.setString(2, OWNER);
+                pstmt.setInt(3, postId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        return postId;
+    }
+
+    /**
+     * <p>Method: markRepliesOneByOne(String userName, int postId)</p>
+     * <p>Description: The previous implementation of markRepliesAsRead: select the reply ids of
+     * the post, then run one MERGE for each of them.</p>
+     *
+     * @param userName the reader
+     * @param postId the post being opened
+     * @throws SQLException if a statement fails
+     */
+    private void markRepliesOneByOne(String userName, int postId) throws SQLException {
+        try (Connection connection = dbHelper.getConnection();
+             PreparedStatement psSelect = connection.prepareStatement(Database.REPLY_IDS_OF_POST_QUERY)) {
+            psSelect.setInt(1, postId);
+            try (ResultSet rs = psSelect.executeQuery()) {
+                while (rs.next()) {
+                    try (PreparedStatement psMerge = connection.prepareStatement(
+                            "MERGE INTO ReplyReadStatus (userName, replyId, isRead) KEY(userName, replyId) "
+                            + "VALUES (?, ?, TRUE)")) {
+                        psMerge.setString(1, userName);
+                        psMerge.setInt(2, rs.getInt("id"));
+                        psMerge.executeUpdate();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Method: legacyUnreadCount(String userName, int postId)</p>
+     * <p>Description: Counts the replies of a post without a read row in the legacy table.</p>
+     *
+     * @param userName the reader
+     * @param postId the post
+     * @return the number of unread replies
+     * @throws SQLException if the query fails
+     */
+    private int legacyUnreadCount(String userName, int postId) throws SQLException {
+        try (Connection connection = dbHelper.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT COUNT(*) FROM Replies r "
+                     + "LEFT JOIN ReplyReadStatus rs ON r.id = rs.replyId AND rs.userName = ? "
+                     + "WHERE r.postId = ? AND (rs.isRead IS NULL OR rs.isRead = FALSE)")) {
+            ps.setString(1, userName);
+            ps.setInt(2, postId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * <p>Benchmark Method: benchmarkOpenPostByReplyCount(TestReporter reporter)</p>
+     * <p>Description: For each reply count, times the first open and a reopen of the post with
+     * the per-reply MERGE and with the watermark, and publishes the four timings.</p>
+     *
+     * @param reporter receives the results
+     * @throws Exception if database access fails
+     */
+    @Test
+    public void benchmarkOpenPostByReplyCount(TestReporter reporter) throws Exception {
+        BenchmarkHarness harness = new BenchmarkHarness(reporter, "Open-post reply marking");
+        for (int replies : REPLY_COUNTS) {
+            int postId = makePostWithReplies(replies);
+
+            harness.time(replies + " replies, per-reply first open", () -> markRepliesOneByOne("perReply", postId));
+            harness.time(replies + " replies, per-reply reopen", () -> markRepliesOneByOne("perReply", postId));
+            int[] marked = new int[2];
+            harness.time(replies + " replies, watermark first open",
+                    () -> marked[0] = dbHelper.markRepliesAsRead("setBased", postId));
+            harness.time(replies + " replies, watermark reopen",
+                    () -> marked[1] = dbHelper.markRepliesAsRead("setBased", postId));
+
+            assertEquals(replies, marked[0], "The first open must mark every reply");
+            assertEquals(0, marked[1]);
+            assertEquals(0, legacyUnreadCount("perReply", postId));
+        }
+        harness.publish();
+    }
+}
@@ -0,0 +1,176 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import database.Database;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import entityClasses.Post;
+import entityClasses.PostFeedRow;
+import entityClasses.Reply;
+import entityClasses.User;
+
+/**
+ * <p>Title: PostFeedTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the single-query post feed. Verifies that every value of a
+ * {@link PostFeedRow} matches what the individual per-post getters of the database
+ * report for the same post and viewer.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class PostFeedTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper = applicationMain.FoundationsMain.database;
+
+    /** <p>Field: AUTHOR</p> <p>Description: Username of the user who writes the posts.</p> */
+    private final String AUTHOR = "feedAuthor";
+
+    /** <p>Field: VIEWER</p> <p>Description: Username of the user who reads the feed.</p> */
+    private final String VIEWER = "feedViewer";
+
+    /**
+     * <p>Constructor: PostFeedTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public PostFeedTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with two threads and the author and
+     * viewer accounts.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        dbHelper.addThread("Project");
+        dbHelper.register(new User(AUTHOR, "pw", "F", "M", "L", "PF", "a@email", false, true, false));
+        dbHelper.register(new User(VIEWER, "pw", "F", "M", "L", "PF", "v@email", false, true, false));
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Test Method: testFeedMatchesPerPostQueries()</p>
+     * <p>Description: Creates posts with replies, views and upvotes and checks that each
+     * feed row agrees with the per-post getters it replaces.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testFeedMatchesPerPostQueries() throws SQLException {
+        ArrayList<String> tags = new ArrayList<>();
+        tags.add("java");
+        tags.add("help");
+        int first = dbHelper.makePost(new Post("First", "", "Body 1", AUTHOR, tags, "General"));
+        int second = dbHelper.makePost(new Post("Second", "", "Body 2", AUTHOR, new ArrayList<>(), "Project"));
+
+        dbHelper.makeReply(new Reply("r1", VIEWER, first));
+        dbHelper.makeReply(new Reply("r2", AUTHOR, first));
+        dbHelper.markPostAsRead(VIEWER, first);
+        dbHelper.markRepliesAsRead(VIEWER, first);
+        dbHelper.makeReply(new Reply("r3", AUTHOR, first));
+        dbHelper.makePostUpvote(VIEWER, first);
+        dbHelper.markPostAsRead(AUTHOR, second);
+
+        ArrayList<PostFeedRow> feed = dbHelper.getPostFeedNewestFirst(VIEWER);
+        assertEquals(2, feed.size());
+        assertEquals(second, feed.get(0).getPostId(), "Feed should be newest first");
+
+        for (PostFeedRow row : feed) {
+            int id = row.getPostId();
+            assertEquals(dbHelper.getPostThread(id), row.getPost().getThread());
+            assertEquals(String.join(",", dbHelper.getPostTags(id)), row.getPost().getTagsString());
+            assertEquals(dbHelper.getPostNumberOfReplies(id), row.getReplyCount());
+            assertEquals(dbHelper.getNumberOfUnreadReplies(id, VIEWER), row.getUnreadReplyCount());
+            assertEquals(dbHelper.getPostViews(id), row.getViews());
+            assertEquals(dbHelper.getPostUpvotes(id), row.getUpvotes());
+            assertEquals(dbHelper.hasUserReadPost(VIEWER, id), row.getReadStatus());
+        }
+
+        PostFeedRow firstRow = feed.get(1);
+        assertEquals(3, firstRow.getReplyCount());
+        assertEquals(1, firstRow.getUnreadReplyCount());
+        assertEquals(1, firstRow.getUpvotes());
+        assertTrue(firstRow.isRead());
+        assertFalse(feed.get(0).isRead(), "Another user's view must not mark the post read for the viewer");
+        assertEquals(1, feed.get(0).getViews());
+    }
+
+    /**
+     * <p>Test Method: testFeedFromUser()</p>
+     * <p>Description: Verifies that the owner feed only returns posts of that owner.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testFeedFromUser() throws SQLException {
+        dbHelper.makePost(new Post("Mine", "", "Body", AUTHOR, new ArrayList<>(), "General"));
+        dbHelper.makePost(new Post("Theirs", "", "Body", VIEWER, new ArrayList<>(), "General"));
+
+        ArrayList<PostFeedRow> feed = dbHelper.getPostFeedFromUserNewestFirst(AUTHOR, VIEWER);
+        assertEquals(1, feed.size());
+        assertEquals("Mine", feed.get(0).getPost().getTitle());
+        assertEquals(0, feed.get(0).getReplyCount());
+        assertEquals("Unread", feed.get(0).getReadStatus());
+    }
+
+    /**
+     * <p>Test Method: testFeedPagesWalkWholeFeed()</p>
+     * <p>Description: Walks the feed page by page with the keyset cursor and checks that the
+     * pages together equal the full feed, in the same order and without gaps or repeats, and
+     * that a post added while paging does not shift the later pages.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testFeedPagesWalkWholeFeed() throws SQLException {
+        for (int i = 0; i < 7; i++) {
+            String owner = i % 2 == 0 ? AUTHOR : VIEWER;
+            dbHelper.makePost(new Post("Post " + i, "", "Body " + i, owner, new ArrayList<>(), "General"));
+        }
+        ArrayList<PostFeedRow> full = dbHelper.getPostFeedNewestFirst(VIEWER);
+
+        ArrayList<Integer> paged = new ArrayList<>();
+        int lastSeenId = 0;
+        ArrayList<PostFeedRow> page = dbHelper.getPostFeedPage(VIEWER, lastSeenId, 3);
+        dbHelper.makePost(new Post("Added while paging", "", "Body", AUTHOR, new ArrayList<>(), "General"));
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 3);
+            for (PostFeedRow row : page) paged.add(row.getPostId());
+            lastSeenId = page.get(page.size() - 1).getPostId();
+            page = dbHelper.getPostFeedPage(VIEWER, lastSeenId, 3);
+        }
+
+        assertEquals(full.stream().map(PostFeedRow::getPostId).toList(), paged);
+
+        ArrayList<PostFeedRow> ownerPage = dbHelper.getPostFeedPageFromUser(AUTHOR, VIEWER, 0, 10);
+        assertEquals(5, ownerPage.size());
+        assertEquals("Added while paging", ownerPage.get(0).getPost().getTitle());
+        ArrayList<PostFeedRow> olderOwnerPage = dbHelper.getPostFeedPageFromUser(AUTHOR, VIEWER,
+                ownerPage.get(1).getPostId(), 10);
+        assertEquals(3, olderOwnerPage.size());
+        assertEquals("Post 4", olderOwnerPage.get(0).getPost().getTitle());
+    }
+}
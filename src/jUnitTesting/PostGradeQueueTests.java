@@ -0,0 +1,183 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import database.Database;
+import entityClasses.Post;
+import entityClasses.User;
+
+/**
+ * <p>Title: PostGradeQueueTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the post grading store beyond single grades: the paged queue of
+ * ungraded posts, releasing every grade at once, and what happens to grades when a post or
+ * its grader is deleted.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class PostGradeQueueTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: STUDENT</p> <p>Description: Username of the author of the posts.</p> */
+    private final String STUDENT = "studentUser";
+
+    /** <p>Field: STAFF</p> <p>Description: Username of the grader.</p> */
+    private final String STAFF = "staffUser";
+
+    /**
+     * <p>Constructor: PostGradeQueueTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public PostGradeQueueTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with one thread, a student and a staff
+     * member.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        dbHelper.register(new User(STUDENT, "pw", "F", "M", "L", "PF", "s@email", false, true, false));
+        dbHelper.register(new User(STAFF, "pw", "F", "M", "L", "PF", "t@email", false, false, true));
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: makePosts(int count)</p>
+     * <p>Description: Inserts posts by the student in one batch.</p>
+     *
+     * @param count the number of posts
+     * @return the ids of the posts, oldest first
+     * @throws SQLException if the inserts fail
+     */
+    private List<Integer> makePosts(int count) throws SQLException {
+        try (Connection connection = dbHelper.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "INSERT INTO Posts (title, content, owner, thread) VALUES (?, ?, ?, ?)")) {
+            int thread = dbHelper.getThreadId("General");
+            for (int i = 0; i < count; i++) {
+                ps.setString(1, "Submission " + i);
+                ps.setString(2, "Body " + i);
+                ps.setString(3, STUDENT);
+                ps.setInt(4, thread);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (Post post : dbHelper.getAllPostsNewestFirst()) ids.add(0, post.getPostId());
+        return ids;
+    }
+
+    /**
+     * <p>Test Method: testQueuePagesThroughUngradedPosts()</p>
+     * <p>Description: Paging through the queue visits every ungraded post exactly once,
+     * oldest first, skipping graded posts, and a post leaves the queue once graded.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testQueuePagesThroughUngradedPosts() throws SQLException {
+        List<Integer> ids = makePosts(1_000);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (i % 3 == 0) dbHelper.setPostGrade(ids.get(i), "90", "", STAFF);
+            else expected.add(ids.get(i));
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        int cursor = 0;
+        List<Post> page;
+        while (!(page = dbHelper.getUngradedPosts(cursor, 64)).isEmpty()) {
+            assertTrue(page.size() <= 64);
+            for (Post post : page) seen.add(post.getPostId());
+            cursor = page.get(page.size() - 1).getPostId();
+        }
+        assertEquals(expected, seen);
+        assertEquals("General", dbHelper.getUngradedPosts(0, 1).get(0).getThread());
+
+        dbHelper.setPostGrade(expected.get(0), "80", "", STAFF);
+        assertEquals(expected.get(1), dbHelper.getUngradedPosts(0, 1).get(0).getPostId());
+    }
+
+    /**
+     * <p>Test Method: testReleaseAllAndEdits()</p>
+     * <p>Description: Releasing returns the number of newly released grades, a second release
+     * finds none, editing a released grade keeps it released, and grades graded later wait for
+     * the next release.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testReleaseAllAndEdits() throws SQLException {
+        List<Integer> ids = makePosts(3);
+        dbHelper.setPostGrade(ids.get(0), "A", "Great", STAFF);
+        dbHelper.setPostGrade(ids.get(1), "B", "Good", STAFF);
+
+        assertEquals(2, dbHelper.releaseAllGrades());
+        assertEquals(0, dbHelper.releaseAllGrades());
+
+        dbHelper.setPostGrade(ids.get(0), "A+", "Even better", STAFF);
+        assertTrue(dbHelper.isPostGradeReleased(ids.get(0)));
+        assertEquals("A+", dbHelper.getPostGrade(ids.get(0)));
+
+        dbHelper.setPostGrade(ids.get(2), "C", "Late", STAFF);
+        assertFalse(dbHelper.isPostGradeReleased(ids.get(2)));
+        assertFalse(dbHelper.isPostGradeReleased(-1));
+        assertNull(dbHelper.getPostGrade(-1));
+        assertEquals(1, dbHelper.releaseAllGrades());
+    }
+
+    /**
+     * <p>Test Method: testDeletesKeepGradesConsistent()</p>
+     * <p>Description: Deleting a post removes its grade, deleting the grader keeps the grade,
+     * and grading a post that does not exist fails.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testDeletesKeepGradesConsistent() throws SQLException {
+        List<Integer> ids = makePosts(2);
+        dbHelper.setPostGrade(ids.get(0), "95", "Nice", STAFF);
+        dbHelper.setPostGrade(ids.get(1), "85", "Fine", STAFF);
+
+        dbHelper.deletePost(ids.get(0));
+        assertNull(dbHelper.getPostGrade(ids.get(0)));
+
+        dbHelper.deleteUser(STAFF);
+        assertEquals("85", dbHelper.getPostGrade(ids.get(1)));
+        assertEquals("Fine", dbHelper.getPostFeedback(ids.get(1)));
+
+        assertThrows(SQLException.class, () -> dbHelper.setPostGrade(ids.get(0), "70", "", null));
+    }
+}
@@ -0,0 +1,176 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import database.Database;
+import database.PostQuery;
+import entityClasses.Post;
+import entityClasses.PostFeedRow;
+import entityClasses.User;
+
+/**
+ * <p>Title: PostQueryTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for {@link PostQuery}. Checks each filter on its own and in combination
+ * against the same filter applied in Java to the full feed, which is how the home pages
+ * filtered posts before the filters moved into SQL.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class PostQueryTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: ALICE</p> <p>Description: Username of the first post author.</p> */
+    private final String ALICE = "alice";
+
+    /** <p>Field: BOB</p> <p>Description: Username of the second post author and the viewer.</p> */
+    private final String BOB = "bob";
+
+    /**
+     * <p>Constructor: PostQueryTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public PostQueryTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with two threads, two users and a mix of
+     * posts across threads, owners and tags. Bob has read some of the posts.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        dbHelper.addThread("Project");
+        dbHelper.register(new User(ALICE, "pw", "F", "M", "L", "PF", "a@email", false, true, false));
+        dbHelper.register(new User(BOB, "pw", "F", "M", "L", "PF", "b@email", false, true, false));
+
+        String[] titles = { "Java streams", "Help with H2", "Project deadline", "java generics",
+                "100% done", "Lunch plans", "Question_1", "Merge conflict" };
+        for (int i = 0; i < titles.length; i++) {
+            ArrayList<String> tags = new ArrayList<>();
+            if (i % 2 == 0) tags.add("java");
+            if (i % 3 == 0) tags.add("help");
+            if (i == 5) tags.add("javafx");
+            int id = dbHelper.makePost(new Post(titles[i], "", i == 5 ? "we should use java" : "Body " + i,
+                    i % 2 == 0 ? ALICE : BOB, tags, i % 3 == 1 ? "Project" : "General"));
+            if (i % 4 == 0) dbHelper.markPostAsRead(BOB, id);
+        }
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: titles(List&lt;PostFeedRow&gt; rows)</p>
+     * <p>Description: The titles of feed rows, in feed order.</p>
+     *
+     * @param rows the feed rows
+     * @return the titles
+     */
+    private static List<String> titles(List<PostFeedRow> rows) {
+        return rows.stream().map(row -> row.getPost().getTitle()).collect(Collectors.toList());
+    }
+
+    /**
+     * <p>Test Method: testSingleFiltersMatchJavaFilters()</p>
+     * <p>Description: Each filter returns exactly the posts the equivalent Java filter keeps
+     * from the full feed, newest first.</p>
+     */
+    @Test
+    public void testSingleFiltersMatchJavaFilters() {
+        List<PostFeedRow> all = dbHelper.getPostFeedNewestFirst(BOB);
+        assertEquals(8, all.size());
+
+        assertEquals(titles(all.stream().filter(r -> r.getPost().getThread().equals("Project")).toList()),
+                titles(dbHelper.getPostFeed(new PostQuery(BOB).inThread("Project"))));
+        assertEquals(titles(all.stream().filter(r -> !r.isRead()).toList()),
+                titles(dbHelper.getPostFeed(new PostQuery(BOB).unreadOnly(true))));
+        assertEquals(titles(all.stream().filter(r -> r.getPost().getTitle().toLowerCase().contains("java")).toList()),
+                titles(dbHelper.getPostFeed(new PostQuery(BOB).titleContains(" JAVA "))));
+        assertEquals(titles(all.stream().filter(r -> r.getPost().getOwner().equals(ALICE)).toList()),
+                titles(dbHelper.getPostFeed(new PostQuery(BOB).ownedBy(ALICE))));
+        assertEquals(titles(all.stream().filter(r -> List.of(r.getPost().getTagsString().split(",")).contains("java")).toList()),
+                titles(dbHelper.getPostFeed(new PostQuery(BOB).taggedWith("java"))));
+    }
+
+    /**
+     * <p>Test Method: testBlankFiltersAreIgnored()</p>
+     * <p>Description: Empty text, a null thread and the "All" thread select every post.</p>
+     */
+    @Test
+    public void testBlankFiltersAreIgnored() {
+        List<String> all = titles(dbHelper.getPostFeedNewestFirst(BOB));
+        assertEquals(all, titles(dbHelper.getPostFeed(new PostQuery(BOB).inThread("All").titleContains("  ")
+                .ownedBy(null).taggedWith("").unreadOnly(false))));
+        assertEquals(all, titles(dbHelper.getPostFeed(new PostQuery(BOB).inThread(null))));
+    }
+
+    /**
+     * <p>Test Method: testTextAndTagMatching()</p>
+     * <p>Description: Text search covers the content as well as the title, LIKE wildcards in the
+     * search text match literally, and a tag only matches whole tags.</p>
+     */
+    @Test
+    public void testTextAndTagMatching() {
+        assertEquals(List.of("Lunch plans", "java generics", "Java streams"),
+                titles(dbHelper.getPostFeed(new PostQuery(BOB).textContains("java"))));
+        assertEquals(List.of("100% done"), titles(dbHelper.getPostFeed(new PostQuery(BOB).titleContains("%"))));
+        assertEquals(List.of("Question_1"), titles(dbHelper.getPostFeed(new PostQuery(BOB).titleContains("_"))));
+        assertEquals(List.of("Lunch plans"), titles(dbHelper.getPostFeed(new PostQuery(BOB).taggedWith("javafx"))));
+        assertTrue(dbHelper.getPostFeed(new PostQuery(BOB).taggedWith("jav")).isEmpty());
+    }
+
+    /**
+     * <p>Test Method: testCombinedFiltersAndPaging()</p>
+     * <p>Description: Several filters combine with AND, and a filtered feed can be paged with the
+     * keyset cursor.</p>
+     */
+    @Test
+    public void testCombinedFiltersAndPaging() {
+        List<PostFeedRow> all = dbHelper.getPostFeedNewestFirst(BOB);
+        List<String> expected = titles(all.stream()
+                .filter(r -> r.getPost().getThread().equals("General"))
+                .filter(r -> !r.isRead())
+                .filter(r -> r.getPost().getOwner().equals(ALICE))
+                .toList());
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, titles(dbHelper.getPostFeed(
+                new PostQuery(BOB).inThread("General").unreadOnly(true).ownedBy(ALICE))));
+
+        List<String> paged = new ArrayList<>();
+        int lastSeenId = 0;
+        List<PostFeedRow> page;
+        do {
+            page = dbHelper.getPostFeed(new PostQuery(BOB).inThread("General").after(lastSeenId).limit(2));
+            paged.addAll(titles(page));
+            if (!page.isEmpty()) lastSeenId = page.get(page.size() - 1).getPostId();
+        } while (page.size() == 2);
+        assertEquals(titles(dbHelper.getPostFeed(new PostQuery(BOB).inThread("General"))), paged);
+    }
+}
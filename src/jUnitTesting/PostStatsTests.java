@@ -0,0 +1,238 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import database.Database;
+import entityClasses.Post;
+import entityClasses.PostStats;
+import entityClasses.Reply;
+import entityClasses.User;
+
+/**
+ * <p>Title: PostStatsTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the stored post counters in PostStats. Checks that reading, upvoting,
+ * replying and deleting keep the view, upvote and reply counters equal to the counts of the
+ * underlying rows, and that the consistency check reports and repairs counters that have
+ * drifted.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class PostStatsTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: OWNER</p> <p>Description: Username of the post author.</p> */
+    private final String OWNER = "author";
+
+    /**
+     * <p>Constructor: PostStatsTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public PostStatsTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with one thread, the author and three
+     * readers.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        for (String name : List.of(OWNER, "amy", "ben", "cal")) {
+            dbHelper.register(new User(name, "pw", "F", "M", "L", "PF", name + "@email", false, true, false));
+        }
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: makePost(String title)</p>
+     * <p>Description: Creates a post by the author.</p>
+     *
+     * @param title the post title
+     * @return the id of the new post
+     * @throws SQLException if the post cannot be created
+     */
+    private int makePost(String title) throws SQLException {
+        return dbHelper.makePost(new Post(title, "", "Body", OWNER, new ArrayList<>(), "General"));
+    }
+
+    /**
+     * <p>Method: assertStats(int postId, int views, int upvotes, int replies)</p>
+     * <p>Description: Checks the stored counters of a post and the single counter getters.</p>
+     *
+     * @param postId the post
+     * @param views the expected view count
+     * @param upvotes the expected upvote count
+     * @param replies the expected reply count
+     */
+    private void assertStats(int postId, int views, int upvotes, int replies) {
+        PostStats stats = dbHelper.getPostStats(postId);
+        assertNotNull(stats);
+        assertEquals(postId, stats.getPostId());
+        assertEquals(views, stats.getViews(), "views");
+        assertEquals(upvotes, stats.getUpvotes(), "upvotes");
+        assertEquals(replies, stats.getReplies(), "replies");
+        assertEquals(views, dbHelper.getPostViews(postId));
+        assertEquals(upvotes, dbHelper.getPostUpvotes(postId));
+        assertEquals(replies, dbHelper.getPostNumberOfReplies(postId));
+    }
+
+    /**
+     * <p>Test Method: testCountersFollowEveryWrite()</p>
+     * <p>Description: A view is counted once per user, an upvote also counts as a view, reply
+     * counters follow new and deleted replies, deleting a reader takes their views and upvotes
+     * away, and deleting the post removes its counters. The consistency check finds nothing to
+     * repair afterwards.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testCountersFollowEveryWrite() throws SQLException {
+        int postId = makePost("Counted");
+        assertStats(postId, 0, 0, 0);
+
+        dbHelper.markPostAsRead("amy", postId);
+        dbHelper.markPostAsRead("amy", postId);
+        dbHelper.markPostAsRead("ben", postId);
+        assertStats(postId, 2, 0, 0);
+
+        dbHelper.makePostUpvote("cal", postId);
+        dbHelper.makePostUpvote("amy", postId);
+        dbHelper.makePostUpvote("amy", postId);
+        assertStats(postId, 3, 3, 0);
+        dbHelper.markPostAsRead("amy", postId);
+        assertStats(postId, 3, 3, 0);
+
+        int first = dbHelper.makeReply(new Reply("First", "ben", postId));
+        dbHelper.makeReply(new Reply("Second", "cal", postId));
+        assertStats(postId, 3, 3, 2);
+        dbHelper.deleteReply(first);
+        dbHelper.deleteReply(first);
+        assertStats(postId, 3, 3, 1);
+
+        dbHelper.deleteUser("amy");
+        assertStats(postId, 2, 1, 1);
+        assertTrue(dbHelper.rebuildPostStats().isEmpty(), "No drift after ordinary writes");
+        assertEquals(1, dbHelper.getPostFeedNewestFirst("ben").get(0).getReplyCount());
+        assertEquals(2, dbHelper.getPostFeedNewestFirst("ben").get(0).getViews());
+
+        dbHelper.deletePost(postId);
+        assertNull(dbHelper.getPostStats(postId));
+        assertEquals(0, dbHelper.getPostViews(postId));
+    }
+
+    /**
+     * <p>Test Method: testRebuildReportsAndRepairsDrift()</p>
+     * <p>Description: Counters changed or removed behind the database's back are reported once
+     * by the consistency check and rebuilt from the base tables.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testRebuildReportsAndRepairsDrift() throws SQLException {
+        int wrong = makePost("Wrong");
+        int missing = makePost("Missing");
+        int right = makePost("Right");
+        dbHelper.markPostAsRead("amy", wrong);
+        dbHelper.makePostUpvote("ben", missing);
+        dbHelper.makeReply(new Reply("Reply", "cal", missing));
+        dbHelper.markPostAsRead("cal", right);
+
+        try (Connection connection = dbHelper.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE PostStats SET views = 7, replies = 3 WHERE postId = " + wrong);
+            statement.executeUpdate("DELETE FROM PostStats WHERE postId = " + missing);
+        }
+
+        List<String> drift = dbHelper.rebuildPostStats();
+        assertEquals(List.of(
+                "Post " + wrong + ": stored views 7, upvotes 0, replies 3, rebuilt as views 1, upvotes 0, replies 0",
+                "Post " + missing + ": no counters, rebuilt as views 1, upvotes 1, replies 1"), drift);
+        assertStats(wrong, 1, 0, 0);
+        assertStats(missing, 1, 1, 1);
+        assertStats(right, 1, 0, 0);
+        assertTrue(dbHelper.rebuildPostStats().isEmpty());
+    }
+
+    /**
+     * <p>Test Method: testConcurrentFirstActivityIsNotLost()</p>
+     * <p>Description: Many threads upvoting a post the user has never opened all race to
+     * create the user's read status row; every upvote is kept and the view counts once.</p>
+     *
+     * @throws Exception if database access or a worker fails
+     */
+    @Test
+    public void testConcurrentFirstActivityIsNotLost() throws Exception {
+        int postId = makePost("Race");
+        ExecutorService workers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                done.add(workers.submit(() -> dbHelper.makePostUpvote("amy", postId)));
+            }
+            for (Future<?> f : done) f.get();
+        } finally {
+            workers.shutdown();
+        }
+
+        assertStats(postId, 1, 16, 0);
+        assertTrue(dbHelper.rebuildPostStats().isEmpty());
+    }
+
+    /**
+     * <p>Test Method: testWritesJoinCallersTransaction()</p>
+     * <p>Description: Replying, reading and deleting a post while the caller has a transaction
+     * open on the same connection commit nothing, so rolling the caller's transaction back
+     * leaves the post and its counters as they were.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testWritesJoinCallersTransaction() throws SQLException {
+        int postId = makePost("Kept");
+        try (Connection connection = dbHelper.getConnection()) {
+            connection.setAutoCommit(false);
+            dbHelper.makeReply(new Reply("Inner", "amy", postId));
+            dbHelper.markPostAsRead("ben", postId);
+            dbHelper.deletePost(postId);
+            assertFalse(connection.getAutoCommit(), "No write may end the caller's transaction");
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+
+        assertStats(postId, 0, 0, 0);
+        assertTrue(dbHelper.rebuildPostStats().isEmpty());
+    }
+}
@@ -0,0 +1,253 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import database.Database;
+import entityClasses.Post;
+import entityClasses.User;
+
+/**
+ * <p>Title: PostTagTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the PostTags table. Covers storing and editing the tags of a post,
+ * paging the posts of a tag, tag frequency counts, batch tag loading and the migration of the
+ * old comma-joined tags column.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class PostTagTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: OWNER</p> <p>Description: Username of the user who writes the posts.</p> */
+    private final String OWNER = "tagOwner";
+
+    /**
+     * <p>Constructor: PostTagTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public PostTagTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with one thread and one user.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        dbHelper.register(new User(OWNER, "pw", "F", "M", "L", "PF", "t@email", false, true, false));
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: makePost(String title, String... tags)</p>
+     * <p>Description: Creates a post with the given tags.</p>
+     *
+     * @param title the post title
+     * @param tags the post tags
+     * @return the id of the new post
+     * @throws SQLException if the post cannot be created
+     */
+    private int makePost(String title, String... tags) throws SQLException {
+        return dbHelper.makePost(new Post(title, "", "Body", OWNER, new ArrayList<>(List.of(tags)), "General"));
+    }
+
+    /**
+     * <p>Test Method: testTagsKeepOrderAndSkipDuplicates()</p>
+     * <p>Description: Tags are returned in the order they were given and added, repeated and
+     * empty tags are stored once or not at all, and removing a tag ignores case.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testTagsKeepOrderAndSkipDuplicates() throws SQLException {
+        int id = makePost("Ordered", "zeta", "alpha", "zeta", "");
+        assertEquals(List.of("zeta", "alpha"), dbHelper.getPostTags(id));
+
+        dbHelper.addPostTag(id, "middle");
+        dbHelper.addPostTag(id, "alpha");
+        assertEquals(List.of("zeta", "alpha", "middle"), dbHelper.getPostTags(id));
+
+        dbHelper.removePostTag(id, "ALPHA");
+        assertEquals(List.of("zeta", "middle"), dbHelper.getPostTags(id));
+
+        dbHelper.deletePost(id);
+        assertTrue(dbHelper.getPostTags(id).isEmpty(), "Tags are removed with their post");
+    }
+
+    /**
+     * <p>Test Method: testPostsByTagPages()</p>
+     * <p>Description: Walks the posts of one tag page by page, newest first, and checks that
+     * posts without the tag are never returned.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testPostsByTagPages() throws SQLException {
+        List<Integer> tagged = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            int id = i % 3 == 0 ? makePost("Post " + i, "other") : makePost("Post " + i, "java", "other");
+            if (i % 3 != 0) tagged.add(0, id);
+        }
+
+        List<Integer> paged = new ArrayList<>();
+        int lastSeenId = 0;
+        ArrayList<Post> page;
+        do {
+            page = dbHelper.getPostsByTag("java", lastSeenId, 2);
+            for (Post post : page) {
+                paged.add(post.getPostId());
+                assertEquals(List.of("java", "other"), dbHelper.getPostTags(post.getPostId()));
+                assertEquals("java,other", post.getTagsString());
+                assertEquals("General", post.getThread());
+            }
+            if (!page.isEmpty()) lastSeenId = page.get(page.size() - 1).getPostId();
+        } while (page.size() == 2);
+
+        assertEquals(tagged, paged);
+        assertTrue(dbHelper.getPostsByTag("missing", 0, 10).isEmpty());
+    }
+
+    /**
+     * <p>Test Method: testTagCountsAndBatchLoading()</p>
+     * <p>Description: Tag counts are ordered by frequency then name, and the batch loader
+     * returns the tags of every requested post, including posts without tags.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testTagCountsAndBatchLoading() throws SQLException {
+        int a = makePost("A", "java", "help");
+        int b = makePost("B", "java");
+        int c = makePost("C");
+        int d = makePost("D", "exam", "java", "help");
+
+        Map<String, Integer> counts = dbHelper.getTagCounts();
+        assertEquals(List.of("java", "help", "exam"), new ArrayList<>(counts.keySet()));
+        assertEquals(3, counts.get("java"));
+        assertEquals(2, counts.get("help"));
+        assertEquals(1, counts.get("exam"));
+
+        Map<Integer, ArrayList<String>> tags = dbHelper.getTagsForPosts(List.of(a, b, c, d));
+        assertEquals(List.of("java", "help"), tags.get(a));
+        assertEquals(List.of("java"), tags.get(b));
+        assertEquals(List.of(), tags.get(c));
+        assertEquals(List.of("exam", "java", "help"), tags.get(d));
+        assertTrue(dbHelper.getTagsForPosts(List.of()).isEmpty());
+    }
+
+    /**
+     * <p>Test Method: testLegacyTagsColumnIsMigrated()</p>
+     * <p>Description: Recreates the old comma-joined tags column, fills it, and checks that the
+     * migration moves every tag into PostTags in order and drops the old column.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testLegacyTagsColumnIsMigrated() throws SQLException {
+        int first = makePost("Legacy one");
+        int second = makePost("Legacy two");
+        int third = makePost("Legacy three");
+        try (Connection connection = dbHelper.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE Posts ADD COLUMN tags VARCHAR(255)");
+            statement.execute("UPDATE Posts SET tags = 'b,a,b' WHERE id = " + first);
+            statement.execute("UPDATE Posts SET tags = 'solo' WHERE id = " + second);
+            statement.execute("UPDATE Posts SET tags = '' WHERE id = " + third);
+        }
+
+        assertEquals(3, dbHelper.migrateLegacyPostTags());
+        assertEquals(List.of("b", "a"), dbHelper.getPostTags(first));
+        assertEquals(List.of("solo"), dbHelper.getPostTags(second));
+        assertTrue(dbHelper.getPostTags(third).isEmpty());
+        assertEquals(0, dbHelper.migrateLegacyPostTags(), "The old column is gone after migrating");
+        assertEquals("b,a", dbHelper.getPostFeedNewestFirst(OWNER).get(2).getPost().getTagsString());
+    }
+
+    /**
+     * <p>Test Method: testLegacyTagsMigrationCanRunAgain()</p>
+     * <p>Description: A migration whose tags committed but whose column drop failed leaves the
+     * old column behind; running it again skips the posts already moved and drops the
+     * column.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testLegacyTagsMigrationCanRunAgain() throws SQLException {
+        int moved = makePost("Moved");
+        int pending = makePost("Pending");
+        try (Connection connection = dbHelper.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE Posts ADD COLUMN tags VARCHAR(255)");
+            statement.execute("UPDATE Posts SET tags = 'b,a' WHERE id = " + moved);
+            statement.execute("UPDATE Posts SET tags = 'solo' WHERE id = " + pending);
+            statement.execute("INSERT INTO PostTags (postId, tag, position) VALUES ("
+                    + moved + ", 'b', 0), (" + moved + ", 'a', 1)");
+        }
+
+        assertEquals(1, dbHelper.migrateLegacyPostTags());
+        assertEquals(List.of("b", "a"), dbHelper.getPostTags(moved));
+        assertEquals(List.of("solo"), dbHelper.getPostTags(pending));
+        assertEquals(0, dbHelper.migrateLegacyPostTags(), "The old column is gone after migrating");
+    }
+
+    /**
+     * <p>Test Method: testPostJoinsCallersTransaction()</p>
+     * <p>Description: A post made while the caller has a transaction open on the same
+     * connection is neither committed nor left in auto-commit mode by makePost, so rolling
+     * the caller's transaction back removes the post, its tags and the caller's own work. The
+     * rolled back post must not be left in the title or duplicate indexes either.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testPostJoinsCallersTransaction() throws SQLException {
+        try (Connection connection = dbHelper.getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.execute("INSERT INTO Threads (threadName) VALUES ('Outer')");
+            int postId = dbHelper.makePost(new Post("Inner", "", "Body", OWNER,
+                    new ArrayList<>(List.of("kept")), "General"));
+            assertNotEquals(-1, postId);
+            assertFalse(connection.getAutoCommit(), "makePost must not end the caller's transaction");
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+
+        assertFalse(dbHelper.existsThreadName("Outer"));
+        assertTrue(dbHelper.getPostFeedNewestFirst(OWNER).stream()
+                .noneMatch(row -> row.getPost().getTitle().equals("Inner")));
+        assertTrue(dbHelper.getPostsByTag("kept", 0, 10).isEmpty());
+        assertTrue(dbHelper.findPostsByTitle("Inner", 0).isEmpty());
+        assertTrue(dbHelper.findDuplicatePosts("Inner", "", "Body", 0).isEmpty());
+    }
+}
@@ -0,0 +1,170 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import database.Database;
+
+/**
+ * <p>Title: QueryPlanTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the secondary indexes of the schema. Runs {@code EXPLAIN} on every hot
+ * query constant of {@link Database} and fails when H2 would answer one of them with a table
+ * scan, so that a dropped or changed index is caught by the test suite instead of in
+ * production.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class QueryPlanTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /**
+     * <p>Constructor: QueryPlanTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public QueryPlanTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database, which creates the tables and indexes.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: explain(String sql)</p>
+     * <p>Description: Returns the query plan H2 chooses for a statement. Parameters are left
+     * unbound, which EXPLAIN allows.</p>
+     *
+     * @param sql the statement to explain
+     * @return the plan text
+     * @throws SQLException if the statement is not valid for the schema
+     */
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dbHelper.getConnection();
+             PreparedStatement ps = connection.prepareStatement("EXPLAIN " + sql);
+             ResultSet rs = ps.executeQuery()) {
+            assertTrue(rs.next());
+            return rs.getString(1);
+        }
+    }
+
+    /**
+     * <p>Method: hotQueries()</p>
+     * <p>Description: Collects the names and texts of the public static *_QUERY constants of
+     * {@link Database}.</p>
+     *
+     * @return pairs of constant name and query text
+     * @throws IllegalAccessException if a constant cannot be read
+     */
+    private static List<String[]> hotQueries() throws IllegalAccessException {
+        List<String[]> queries = new ArrayList<>();
+        for (Field field : Database.class.getFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers)
+                    && field.getType() == String.class && field.getName().endsWith("_QUERY")) {
+                queries.add(new String[] { field.getName(), (String) field.get(null) });
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * <p>Test Method: testHotQueriesUseIndexes()</p>
+     * <p>Description: Every hot query must have a plan without a table scan.</p>
+     *
+     * @throws Exception if a query cannot be explained
+     */
+    @Test
+    public void testHotQueriesUseIndexes() throws Exception {
+        List<String[]> queries = hotQueries();
+        assertFalse(queries.isEmpty(), "Database should declare its hot queries");
+
+        List<String> scans = new ArrayList<>();
+        for (String[] query : queries) {
+            String plan = explain(query[1]);
+            if (plan.contains("tableScan")) {
+                scans.add(query[0] + ":\n" + plan);
+            }
+        }
+        assertTrue(scans.isEmpty(), "Hot queries fall back to a table scan:\n" + String.join("\n\n", scans));
+    }
+
+    /**
+     * <p>Test Method: testFilteredColumnsAreIndexed()</p>
+     * <p>Description: Lookups by thread and by the owner of a reply, the reply read status
+     * lookup of one user and the batch tag lookup must not scan their tables even when written
+     * outside the constants.</p>
+     *
+     * @throws SQLException if a query cannot be explained
+     */
+    @Test
+    public void testFilteredColumnsAreIndexed() throws SQLException {
+        assertFalse(explain("SELECT id FROM Posts WHERE thread = ? ORDER BY id DESC").contains("tableScan"));
+        assertFalse(explain("SELECT id FROM Replies WHERE owner = ?").contains("tableScan"));
+        assertFalse(explain("SELECT lastReadReplyId FROM ReplyReadMarks WHERE userName = ? AND postId = ?")
+                .contains("tableScan"));
+        assertFalse(explain("SELECT COUNT(*) FROM Message WHERE receiver = ? AND isRead = FALSE")
+                .contains("tableScan"));
+        assertFalse(explain("SELECT postId, tag FROM PostTags WHERE postId = ANY(?) ORDER BY postId, position")
+                .contains("tableScan"));
+    }
+
+    /**
+     * <p>Test Method: testManagedIndexesExist()</p>
+     * <p>Description: Every index of the managed index set is present after the schema is
+     * created, and creating the schema again does not fail.</p>
+     *
+     * @throws SQLException if the index catalog cannot be read
+     */
+    @Test
+    public void testManagedIndexesExist() throws SQLException {
+        String[] names = { "IDXREPLIESPOST", "IDXREPLIESOWNER", "IDXPOSTSOWNER", "IDXPOSTSTHREAD",
+                "IDXMESSAGERECEIVER", "IDXPOSTREADSTATUSPOST", "IDXPOSTTAGSTAG" };
+        dbHelper.clearDatabase();
+        try (Connection connection = dbHelper.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = ?")) {
+            for (String name : names) {
+                ps.setString(1, name);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(1, rs.getInt(1), "Missing index " + name);
+                }
+            }
+        }
+    }
+}
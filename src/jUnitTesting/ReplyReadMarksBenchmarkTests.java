@@ -0,0 +1,307 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+import database.Database;
+
+/**
+ * <p>Title: ReplyReadMarksBenchmarkTests</p>
+ *
+ * <p>Description:
+ * Before/after benchmark for the reply read state at {@value #USERS} users and {@value #REPLIES}
+ * replies. The read state is first built in the old one-row-per-reply ReplyReadStatus table,
+ * where every user has read {@value #READS_PER_USER} posts, and then migrated to one read
+ * watermark per user and post. The row count, disk space, unread count latency and mark-read
+ * latency of both models are published, and the unread counts must be the same before and after
+ * the migration. The migration itself is tested by {@link ReplyReadMarksTests}.</p>
+ */
+@Benchmark
+public class ReplyReadMarksBenchmarkTests {
+
+    /** <p>Field: USERS</p> <p>Description: Number of users reading posts.</p> */
+    private static final int USERS = 1_000;
+
+    /** <p>Field: POSTS</p> <p>Description: Number of posts the replies are spread over.</p> */
+    private static final int POSTS = 1_000;
+
+    /** <p>Field: REPLIES</p> <p>Description: Total number of replies.</p> */
+    private static final int REPLIES = 100_000;
+
+    /** <p>Field: READS_PER_USER</p> <p>Description: Number of posts each user has read.</p> */
+    private static final int READS_PER_USER = 5;
+
+    /** <p>Field: STRIDE</p> <p>Description: Distance between the ids of the posts a user has read.</p> */
+    private static final int STRIDE = POSTS / READS_PER_USER;
+
+    /** <p>Field: SAMPLES</p> <p>Description: Number of (user, post) pairs each query is timed on.</p> */
+    private static final int SAMPLES = 2_000;
+
+    /** <p>Field: LEGACY_UNREAD_COUNT</p> <p>Description: The unread reply count of the old model.</p> */
+    private static final String LEGACY_UNREAD_COUNT = "SELECT COUNT(*) AS unreadCount FROM Replies r "
+            + "LEFT JOIN ReplyReadStatus rs ON r.id = rs.replyId AND rs.userName = ? "
+            + "WHERE r.postId = ? AND (rs.isRead IS NULL OR rs.isRead = FALSE)";
+
+    /** <p>Field: LEGACY_MARK_READ</p> <p>Description: Marking a post read in the old model.</p> */
+    private static final String LEGACY_MARK_READ = """
+            MERGE INTO ReplyReadStatus (userName, replyId, isRead) KEY (userName, replyId)
+            SELECT ?, r.id, TRUE FROM Replies r
+            WHERE r.postId = ?
+              AND NOT EXISTS (SELECT 1 FROM ReplyReadStatus rs
+                              WHERE rs.replyId = r.id AND rs.userName = ? AND rs.isRead = TRUE)
+            """;
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: firstPostId</p> <p>Description: Id of the first seeded post.</p> */
+    private int firstPostId;
+
+    /**
+     * <p>Constructor: ReplyReadMarksBenchmarkTests()</p>
+     * <p>Description: Default constructor used by JUnit.</p>
+     */
+    public ReplyReadMarksBenchmarkTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Seeds the users, posts and replies in batches and builds the old read
+     * state: user u has read every reply of every {@value #STRIDE}th post, starting at post u.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        int thread = dbHelper.getThreadId("General");
+        try (Connection connection = dbHelper.getConnection();
+             Statement statement = connection.createStatement()) {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO userDB (userName, password, studentRole) VALUES (?, 'pw', TRUE)")) {
+                for (int u = 0; u < USERS; u++) {
+                    ps.setString(1, user(u));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO Posts (title, content, owner, thread) VALUES (?, 'Body', ?, ?)")) {
+                for (int p = 0; p < POSTS; p++) {
+                    ps.setString(1, "Post " + p);
+                    ps.setString(2, user(p % USERS));
+                    ps.setInt(3, thread);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT MIN(id) FROM Posts")) {
+                rs.next();
+                firstPostId = rs.getInt(1);
+            }
+            // Replies are written in rounds across all posts, so the ids of one post interleave
+            // with the others as they would in a live forum
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO Replies (content, owner, postId) VALUES ('Reply', ?, ?)")) {
+                for (int r = 0; r < REPLIES; r++) {
+                    ps.setString(1, user(r % USERS));
+                    ps.setInt(2, firstPostId + r % POSTS);
+                    ps.addBatch();
+                    if (r % 10_000 == 9_999) ps.executeBatch();
+                }
+                ps.executeBatch();
+            }
+            statement.execute(ReplyReadMarksTests.LEGACY_TABLE);
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO ReplyReadStatus (userName, replyId, isRead) "
+                    + "SELECT ?, id, TRUE FROM Replies WHERE postId = ?")) {
+                for (int u = 0; u < USERS; u++) {
+                    for (int p = u % STRIDE; p < POSTS; p += STRIDE) {
+                        ps.setString(1, user(u));
+                        ps.setInt(2, firstPostId + p);
+                        ps.executeUpdate();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: user(int u)</p>
+     * <p>Description: Username of seeded user u.</p>
+     *
+     * @param u the user index
+     * @return the username
+     */
+    private static String user(int u) {
+        return "reader" + u;
+    }
+
+    /**
+     * <p>Method: scalar(String sql)</p>
+     * <p>Description: Runs a query returning one number.</p>
+     *
+     * @param sql the query
+     * @return the number in the first column of the first row
+     * @throws SQLException if the query fails
+     */
+    private long scalar(String sql) throws SQLException {
+        try (Connection connection = dbHelper.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * <p>Method: diskSpace(String table)</p>
+     * <p>Description: Writes pending changes to disk and returns the space a table uses.</p>
+     *
+     * @param table the table name, in upper case
+     * @return the bytes used by the table and its indexes
+     * @throws SQLException if the query fails
+     */
+    private long diskSpace(String table) throws SQLException {
+        try (Connection connection = dbHelper.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CHECKPOINT SYNC");
+        }
+        return scalar("SELECT DISK_SPACE_USED('" + table + "')");
+    }
+
+    /**
+     * <p>Method: legacyUnreadCounts(int[] users, int[] posts)</p>
+     * <p>Description: Counts the unread replies of each sampled pair in the old model.</p>
+     *
+     * @param users the sampled user indexes
+     * @param posts the sampled post ids
+     * @return the unread count of each pair
+     * @throws SQLException if a query fails
+     */
+    private int[] legacyUnreadCounts(int[] users, int[] posts) throws SQLException {
+        int[] counts = new int[users.length];
+        try (Connection connection = dbHelper.getConnection();
+             PreparedStatement ps = connection.prepareStatement(LEGACY_UNREAD_COUNT)) {
+            for (int i = 0; i < users.length; i++) {
+                ps.setString(1, user(users[i]));
+                ps.setInt(2, posts[i]);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    counts[i] = rs.getInt(1);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * <p>Method: legacyMarkRead(int user, int postId)</p>
+     * <p>Description: Marks every reply of a post read in the old model.</p>
+     *
+     * @param user the user index
+     * @param postId the post
+     * @throws SQLException if the statement fails
+     */
+    private void legacyMarkRead(int user, int postId) throws SQLException {
+        try (Connection connection = dbHelper.getConnection();
+             PreparedStatement ps = connection.prepareStatement(LEGACY_MARK_READ)) {
+            ps.setString(1, user(user));
+            ps.setInt(2, postId);
+            ps.setString(3, user(user));
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * <p>Method: unreadCounts(int[] users, int[] posts)</p>
+     * <p>Description: Counts the unread replies of each sampled pair in the watermark model.</p>
+     *
+     * @param users the sampled user indexes
+     * @param posts the sampled post ids
+     * @return the unread count of each pair
+     */
+    private int[] unreadCounts(int[] users, int[] posts) {
+        int[] counts = new int[users.length];
+        for (int i = 0; i < users.length; i++) {
+            counts[i] = dbHelper.getNumberOfUnreadReplies(posts[i], user(users[i]));
+        }
+        return counts;
+    }
+
+    /**
+     * <p>Benchmark Method: benchmarkStorageAndLatencyAgainstRowPerReply(TestReporter reporter)</p>
+     * <p>Description: Measures the storage and the unread count and mark-read latency of the old
+     * model, migrates, measures the watermark model and publishes both. The unread count of every
+     * sampled pair must survive the migration, and the watermark table must hold one row per
+     * user and read post.</p>
+     *
+     * @param reporter receives the results
+     * @throws Exception if database access fails
+     */
+    @Test
+    public void benchmarkStorageAndLatencyAgainstRowPerReply(TestReporter reporter) throws Exception {
+        BenchmarkHarness harness = new BenchmarkHarness(reporter,
+                "Reply read state, " + USERS + " users x " + REPLIES + " replies");
+        Random random = new Random(42);
+        int[] users = new int[SAMPLES];
+        int[] posts = new int[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            users[i] = random.nextInt(USERS);
+            posts[i] = firstPostId + random.nextInt(POSTS);
+        }
+        int marked = SAMPLES / 10;
+
+        harness.record("row per reply, rows", scalar("SELECT COUNT(*) FROM ReplyReadStatus"));
+        harness.record("row per reply, bytes", diskSpace("REPLYREADSTATUS"));
+        harness.warmUp(() -> legacyUnreadCounts(users, posts));
+        int[] expected = new int[SAMPLES];
+        harness.timePerOperation("row per reply, unread count", SAMPLES,
+                () -> System.arraycopy(legacyUnreadCounts(users, posts), 0, expected, 0, SAMPLES));
+        harness.timePerOperation("row per reply, mark read", marked, () -> {
+            for (int i = 0; i < marked; i++) legacyMarkRead(users[i], posts[i]);
+        });
+        for (int i = 0; i < marked; i++) expected[i] = 0;
+
+        int[] marks = new int[1];
+        harness.time("migration", () -> marks[0] = dbHelper.migrateReplyReadStatus());
+        long markRows = scalar("SELECT COUNT(*) FROM ReplyReadMarks");
+        harness.record("watermark, rows", markRows);
+        harness.record("watermark, bytes", diskSpace("REPLYREADMARKS"));
+        assertEquals(markRows, marks[0]);
+        assertTrue(markRows <= (long) USERS * READS_PER_USER + marked);
+
+        harness.warmUp(() -> unreadCounts(users, posts));
+        int[] actual = new int[SAMPLES];
+        harness.timePerOperation("watermark, unread count", SAMPLES,
+                () -> System.arraycopy(unreadCounts(users, posts), 0, actual, 0, SAMPLES));
+        assertArrayEquals(expected, actual, "Unread counts must survive the migration");
+        harness.timePerOperation("watermark, mark read", marked, () -> {
+            for (int i = marked; i < 2 * marked; i++) dbHelper.markRepliesAsRead(user(users[i]), posts[i]);
+        });
+        harness.publish();
+    }
+}
@@ -0,0 +1,221 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import database.Database;
+import entityClasses.Post;
+import entityClasses.Reply;
+import entityClasses.User;
+
+/**
+ * <p>Title: ReplyReadMarksTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the per-user, per-post read watermark that records which replies a user
+ * has read. Covers the unread reply count and list, marking a post read, replies added or deleted
+ * after the watermark, and the migration of the old one-row-per-reply ReplyReadStatus table.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class ReplyReadMarksTests {
+
+    /**
+     * <p>Field: LEGACY_TABLE</p>
+     * <p>Description: Definition of the one-row-per-reply ReplyReadStatus table read state was
+     * kept in before watermarks, for the migration test and the benchmarks.</p>
+     */
+    static final String LEGACY_TABLE = "CREATE TABLE IF NOT EXISTS ReplyReadStatus ("
+            + "id INT AUTO_INCREMENT PRIMARY KEY, "
+            + "userName VARCHAR(255), "
+            + "replyId INT, "
+            + "isRead BOOL DEFAULT FALSE, "
+            + "FOREIGN KEY (replyId) REFERENCES Replies(id) ON DELETE CASCADE, "
+            + "FOREIGN KEY (userName) REFERENCES userDB(userName) ON DELETE CASCADE, "
+            + "UNIQUE (userName, replyId))";
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: OWNER</p> <p>Description: Username of the author of the posts and replies.</p> */
+    private final String OWNER = "author";
+
+    /** <p>Field: READER</p> <p>Description: Username of the user reading the replies.</p> */
+    private final String READER = "reader";
+
+    /** <p>Field: posts</p> <p>Description: Number of posts created, used for unique titles.</p> */
+    private int posts;
+
+    /**
+     * <p>Constructor: ReplyReadMarksTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public ReplyReadMarksTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with one thread, an author and a reader.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        dbHelper.register(new User(OWNER, "pw", "F", "M", "L", "PF", "a@email", false, true, false));
+        dbHelper.register(new User(READER, "pw", "F", "M", "L", "PF", "r@email", false, true, false));
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: makePost(int replies)</p>
+     * <p>Description: Creates a post with the given number of replies.</p>
+     *
+     * @param replies the number of replies to create
+     * @return the ids of the post followed by its replies, oldest first
+     * @throws SQLException if the post or a reply cannot be created
+     */
+    private List<Integer> makePost(int replies) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        int postId = dbHelper.makePost(new Post("Post " + posts++, "", "Body", OWNER, new ArrayList<>(), "General"));
+        ids.add(postId);
+        for (int i = 0; i < replies; i++) {
+            ids.add(dbHelper.makeReply(new Reply("Reply " + i, OWNER, postId)));
+        }
+        return ids;
+    }
+
+    /**
+     * <p>Test Method: testWatermarkTracksNewAndDeletedReplies()</p>
+     * <p>Description: Marking a post read clears its unread replies, replies written afterwards
+     * are unread, other posts are unaffected, and deleting replies never makes read replies
+     * unread again.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testWatermarkTracksNewAndDeletedReplies() throws SQLException {
+        List<Integer> post = makePost(4);
+        List<Integer> other = makePost(2);
+        int postId = post.get(0);
+
+        assertEquals(4, dbHelper.getNumberOfUnreadReplies(postId, READER));
+        assertEquals(4, dbHelper.markRepliesAsRead(READER, postId));
+        assertEquals(0, dbHelper.markRepliesAsRead(READER, postId), "Reopening a read post marks nothing");
+        assertEquals(0, dbHelper.getNumberOfUnreadReplies(postId, READER));
+        assertEquals(2, dbHelper.getNumberOfUnreadReplies(other.get(0), READER));
+
+        int late = dbHelper.makeReply(new Reply("Late", OWNER, postId));
+        List<Reply> unread = dbHelper.getUnreadReplies(READER, postId);
+        assertEquals(1, unread.size());
+        assertEquals(late, unread.get(0).getReplyId());
+        assertEquals(1, dbHelper.markRepliesAsRead(READER, postId), "Only the new reply is marked");
+
+        dbHelper.deleteReply(late);
+        dbHelper.deleteReply(post.get(4));
+        assertEquals(0, dbHelper.getNumberOfUnreadReplies(postId, READER));
+        assertEquals(0, dbHelper.markRepliesAsRead(READER, postId));
+        assertEquals(0, dbHelper.markRepliesAsRead(READER, makePost(0).get(0)), "A post without replies has nothing to mark");
+        assertEquals(0, dbHelper.getPostFeedNewestFirst(READER).get(2).getUnreadReplyCount());
+    }
+
+    /**
+     * <p>Test Method: testLegacyReadStatusIsMigrated()</p>
+     * <p>Description: Recreates the old ReplyReadStatus table with fully read, partly read and
+     * unread posts and checks that the migration keeps every unread reply unread, counts one
+     * watermark per user and post, and drops the old table.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testLegacyReadStatusIsMigrated() throws SQLException {
+        List<Integer> full = makePost(3);
+        List<Integer> gap = makePost(4);
+        List<Integer> untouched = makePost(2);
+        try (Connection connection = dbHelper.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(LEGACY_TABLE);
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO ReplyReadStatus (userName, replyId, isRead) VALUES (?, ?, ?)")) {
+                // every reply of the first post, and the first, third and fourth of the second
+                for (int replyId : List.of(full.get(1), full.get(2), full.get(3), gap.get(1), gap.get(3), gap.get(4))) {
+                    ps.setString(1, READER);
+                    ps.setInt(2, replyId);
+                    ps.setBoolean(3, true);
+                    ps.addBatch();
+                }
+                // a row that records an unread reply
+                ps.setString(1, READER);
+                ps.setInt(2, untouched.get(1));
+                ps.setBoolean(3, false);
+                ps.addBatch();
+                ps.executeBatch();
+            }
+        }
+
+        assertEquals(2, dbHelper.migrateReplyReadStatus());
+        assertEquals(0, dbHelper.getNumberOfUnreadReplies(full.get(0), READER));
+        assertEquals(3, dbHelper.getNumberOfUnreadReplies(gap.get(0), READER),
+                "Replies after an unread reply stay unread");
+        assertEquals(gap.get(2), dbHelper.getUnreadReplies(READER, gap.get(0)).get(0).getReplyId());
+        assertEquals(2, dbHelper.getNumberOfUnreadReplies(untouched.get(0), READER));
+
+        try (Connection connection = dbHelper.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'REPLYREADSTATUS'")) {
+            rs.next();
+            assertEquals(0, rs.getInt(1), "The old table is dropped");
+        }
+        assertEquals(0, dbHelper.migrateReplyReadStatus());
+    }
+
+    /**
+     * <p>Test Method: testReadStatusMigrationCanRunAgain()</p>
+     * <p>Description: A migration whose watermarks committed but whose table drop failed
+     * leaves the old table behind; running it again after the user has read on never moves a
+     * watermark back, and drops the table.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testReadStatusMigrationCanRunAgain() throws SQLException {
+        List<Integer> post = makePost(4);
+        try (Connection connection = dbHelper.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(LEGACY_TABLE);
+            statement.execute("INSERT INTO ReplyReadStatus (userName, replyId, isRead) VALUES ('"
+                    + READER + "', " + post.get(1) + ", TRUE)");
+        }
+        assertEquals(4, dbHelper.markRepliesAsRead(READER, post.get(0)));
+
+        assertEquals(1, dbHelper.migrateReplyReadStatus());
+        assertEquals(0, dbHelper.getNumberOfUnreadReplies(post.get(0), READER),
+                "Replies read after the first run stay read");
+        assertEquals(0, dbHelper.migrateReplyReadStatus(), "The old table is gone after migrating");
+    }
+}
@@ -0,0 +1,293 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import database.Database;
+import database.PostQuery;
+import entityClasses.Post;
+import entityClasses.PostFeedRow;
+import entityClasses.Reply;
+import entityClasses.User;
+import search.SearchHit;
+import search.SearchIndex;
+import search.SearchPage;
+import search.Snippet;
+
+/**
+ * <p>Title: SearchIndexTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the full-text search index. Checks the BM25 ranking, prefix matching
+ * and paging of {@link SearchIndex} on its own, and that the index kept by the database follows
+ * every change to posts, tags and replies, matches an index rebuilt from the tables, and backs
+ * the filtered, paged search feed, with snippets showing where the searched words occur.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class SearchIndexTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: OWNER</p> <p>Description: Student writing the posts and replies.</p> */
+    private static final String OWNER = "owner";
+
+    /**
+     * <p>Constructor: SearchIndexTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public SearchIndexTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with two threads and one student.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        dbHelper.addThread("Exams");
+        dbHelper.register(new User(OWNER, "pw", "O", "", "Wner", "", "o@email", false, true, false));
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: ids(SearchPage page)</p>
+     * <p>Description: The post ids of a page of hits, in order.</p>
+     *
+     * @param page the page
+     * @return the post ids
+     */
+    private static List<Integer> ids(SearchPage page) {
+        return page.getHits().stream().map(SearchHit::getPostId).toList();
+    }
+
+    /**
+     * <p>Method: makePost(String title, String content, String thread, String... tags)</p>
+     * <p>Description: Stores a post of the test student.</p>
+     *
+     * @param title the title
+     * @param content the content
+     * @param thread the thread
+     * @param tags the tags
+     * @return the id of the post
+     * @throws SQLException if the post cannot be stored
+     */
+    private int makePost(String title, String content, String thread, String... tags) throws SQLException {
+        return dbHelper.makePost(new Post(title, "", content, OWNER, new ArrayList<>(List.of(tags)), thread));
+    }
+
+    /**
+     * <p>Test Method: testRankingPrefixAndPaging()</p>
+     * <p>Description: A word in the title outranks the same word in the content, a post using
+     * more of the searched words ranks higher, common words are ignored, an unfinished last
+     * word matches longer words, and pages split the ranking without overlap.</p>
+     */
+    @Test
+    public void testRankingPrefixAndPaging() {
+        SearchIndex index = new SearchIndex();
+        index.indexPost(1, "Recursion homework", null, "How do I write a base case?", null);
+        index.indexPost(2, "Lab question", null, "My recursion never ends and the stack overflows", null);
+        index.indexPost(3, "Stack overflow in recursion", null, "Base case is missing", List.of("recursion"));
+        index.indexPost(4, "Office hours", null, "Moved to Friday", null);
+
+        assertEquals(List.of(3, 1, 2), ids(index.search("recursion", 0, 10)));
+        assertEquals(List.of(3, 2, 1), ids(index.search("recursion stack ", 0, 10)));
+        assertEquals(ids(index.search("recursion", 0, 10)), ids(index.search("the recursion of a", 0, 10)));
+        assertEquals(List.of(), ids(index.search("the", 0, 10)));
+        assertEquals(List.of(), ids(index.search("  ", 0, 10)));
+
+        assertEquals(List.of(4), ids(index.search("frid", 0, 10)));
+        assertEquals(List.of(), ids(index.search("frid ", 0, 10)));
+        assertEquals(3, index.search("recur", 0, 10).getTotalHits());
+
+        SearchPage first = index.search("recursion", 0, 2);
+        SearchPage second = index.search("recursion", 2, 2);
+        assertEquals(3, first.getTotalHits());
+        assertEquals(List.of(3, 1), ids(first));
+        assertEquals(List.of(2), ids(second));
+        assertEquals(List.of(), ids(index.search("recursion", 5, 2)));
+    }
+
+    /**
+     * <p>Test Method: testIndexFollowsDatabaseChanges()</p>
+     * <p>Description: Making, editing and deleting posts, tags and replies through the database
+     * updates the index right away, and rebuilding the index from the tables gives the same
+     * results.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testIndexFollowsDatabaseChanges() throws SQLException {
+        int post = makePost("Pointer question", "What is a null pointer", "General", "java");
+        int other = makePost("Exam room", "Where is the midterm", "Exams");
+        SearchIndex index = dbHelper.getSearchIndex();
+        assertEquals(List.of(post), ids(index.search("java", 0, 10)));
+
+        dbHelper.updatePostContent(post, "Segfault when dereferencing");
+        assertEquals(List.of(), ids(index.search("null", 0, 10)));
+        assertEquals(List.of(post), ids(index.search("segfault", 0, 10)));
+        dbHelper.updatePostTitle(other, "Midterm location");
+        assertEquals(List.of(), ids(index.search("room", 0, 10)));
+        dbHelper.addPostTag(other, "logistics");
+        assertEquals(List.of(other), ids(index.search("logistics", 0, 10)));
+
+        int reply = dbHelper.makeReply(new Reply("Check for a dangling reference", OWNER, post));
+        assertEquals(List.of(post), ids(index.search("dangling", 0, 10)));
+        dbHelper.updateReplyContent(reply, "Use a debugger");
+        assertEquals(List.of(), ids(index.search("dangling", 0, 10)));
+        assertEquals(List.of(post), ids(index.search("debugger", 0, 10)));
+        int moved = dbHelper.makeReply(new Reply("Room 101 in the basement", OWNER, post));
+        dbHelper.addPostReply(other, moved);
+        assertEquals(List.of(other), ids(index.search("basement", 0, 10)));
+
+        List<List<Integer>> before = new ArrayList<>();
+        for (String q : List.of("debugger", "midterm", "segfault java", "basement", "loc")) {
+            before.add(ids(index.search(q, 0, 10)));
+        }
+        int terms = index.termCount();
+        assertEquals(2, dbHelper.rebuildSearchIndex());
+        assertEquals(terms, index.termCount());
+        int i = 0;
+        for (String q : List.of("debugger", "midterm", "segfault java", "basement", "loc")) {
+            assertEquals(before.get(i++), ids(index.search(q, 0, 10)), q);
+        }
+
+        dbHelper.deleteReply(reply);
+        assertEquals(List.of(), ids(index.search("debugger", 0, 10)));
+        dbHelper.deletePost(other);
+        assertEquals(List.of(), ids(index.search("midterm basement", 0, 10)));
+        assertEquals(1, index.size());
+        dbHelper.deletePost(post);
+        assertEquals(0, index.size());
+        assertEquals(0, index.termCount());
+    }
+
+    /**
+     * <p>Test Method: testSearchFeedFiltersAndPages()</p>
+     * <p>Description: The search feed lists matching posts best first, applies the thread
+     * filter of the post query, and pages by position without repeating or skipping posts.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testSearchFeedFiltersAndPages() throws SQLException {
+        List<Integer> exams = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            makePost("General note " + i, "unrelated", "General");
+            exams.add(makePost("Exam question " + i, i % 2 == 0 ? "exam exam exam" : "about the exam", "Exams"));
+        }
+        int generalExam = makePost("Exam in general", "exam", "General");
+
+        PostQuery all = new PostQuery(OWNER);
+        assertEquals(13, dbHelper.searchPostFeed(all, "exam", 0, 0).size());
+        assertEquals(List.of(), dbHelper.searchPostFeed(all, "nothing", 0, 10));
+
+        List<Integer> paged = new ArrayList<>();
+        for (int offset = 0; ; offset += 5) {
+            List<PostFeedRow> page = dbHelper.searchPostFeed(new PostQuery(OWNER).inThread("Exams"), "exam", offset, 5);
+            page.forEach(row -> paged.add(row.getPostId()));
+            if (page.size() < 5) break;
+        }
+        assertEquals(12, paged.size());
+        assertTrue(paged.containsAll(exams));
+        assertFalse(paged.contains(generalExam));
+        List<Integer> ranked = ids(dbHelper.getSearchIndex().search("exam", 0, 0));
+        ranked = new ArrayList<>(ranked);
+        ranked.remove(Integer.valueOf(generalExam));
+        assertEquals(ranked, paged);
+
+        PostFeedRow row = dbHelper.searchPostFeed(new PostQuery(OWNER).inThread("General"), "exam", 0, 10).get(0);
+        assertEquals(generalExam, row.getPostId());
+        assertEquals("Exam in general", row.getPost().getTitle());
+        List<Post> byTitle = dbHelper.searchPostsByTitle("general exam");
+        assertEquals(25, byTitle.size());
+        assertEquals("Exam in general", byTitle.get(0).getTitle());
+    }
+
+    /**
+     * <p>Method: matches(Snippet snippet)</p>
+     * <p>Description: The highlighted words of a snippet, lower-cased, in order.</p>
+     *
+     * @param snippet the snippet
+     * @return the highlighted words
+     */
+    private static List<String> matches(Snippet snippet) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < snippet.getMatchCount(); i++) {
+            words.add(snippet.getText().substring(snippet.getMatchStart(i), snippet.getMatchEnd(i)).toLowerCase());
+        }
+        return words;
+    }
+
+    /**
+     * <p>Test Method: testSnippets()</p>
+     * <p>Description: A hit gets the excerpt holding the most searched words, cut at word
+     * boundaries with ellipses and with every searched word in it marked, taken from the post
+     * or from a reply; a hit matching only in its title gets none, and the search feed rows
+     * carry the snippets of their posts.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testSnippets() throws SQLException {
+        String filler = "This paragraph talks about something else entirely and goes on for a while. ";
+        String content = filler.repeat(4) + "Every recursive call needs a Base\ncase, or the recursion never ends. "
+                + filler.repeat(4) + "One more mention of recursion here.";
+        int post = makePost("Stack overflow", content, "General");
+        int titleOnly = makePost("Recursion basics", "Read chapter five first.", "General");
+
+        SearchIndex index = dbHelper.getSearchIndex();
+        Snippet snippet = index.search("recursion base case", 0, 10).getHits().stream()
+                .filter(hit -> hit.getPostId() == post).findFirst().get().getSnippet();
+        assertEquals(List.of("base", "case", "recursion"), matches(snippet));
+        assertEquals(0, snippet.getReplyId());
+        assertTrue(snippet.getText().startsWith("\u2026") && snippet.getText().endsWith("\u2026"), snippet.toString());
+        assertTrue(snippet.getText().length() <= SearchIndex.SNIPPET_LENGTH + 2);
+        assertFalse(snippet.getText().contains("\n"));
+        assertTrue(snippet.toString().contains("[Base] [case], or the [recursion] never ends"), snippet.toString());
+        String inner = snippet.getText().substring(1, snippet.getText().length() - 1);
+        assertTrue(content.replace('\n', ' ').contains(inner));
+        assertTrue(content.replace('\n', ' ').contains(" " + inner + " "), "cut inside a word: " + inner);
+
+        assertNull(index.search("recursion", 0, 10).getHits().stream()
+                .filter(hit -> hit.getPostId() == titleOnly).findFirst().get().getSnippet());
+        assertEquals(List.of("recursive"), matches(index.search("recursi", 0, 10).getHits().get(0).getSnippet()).subList(0, 1));
+
+        int reply = dbHelper.makeReply(new Reply("Try drawing the call tree on paper", OWNER, titleOnly));
+        Snippet fromReply = index.search("paper", 0, 10).getHits().get(0).getSnippet();
+        assertEquals(reply, fromReply.getReplyId());
+        assertEquals("Try drawing the call tree on [paper]", fromReply.toString());
+
+        dbHelper.updatePostContent(post, "Short content about recursion.");
+        assertEquals("Short content about [recursion].", index.snippets("recursion", List.of(post)).get(post).toString());
+
+        List<PostFeedRow> feed = dbHelper.searchPostFeed(new PostQuery(OWNER), "call", 0, 10);
+        assertEquals(List.of(titleOnly), feed.stream().map(PostFeedRow::getPostId).toList());
+        assertEquals("Try drawing the [call] tree on paper", feed.get(0).getSnippet().toString());
+        assertNull(dbHelper.getPostFeed(new PostQuery(OWNER)).get(0).getSnippet());
+    }
+}
@@ -0,0 +1,213 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import database.Database;
+import database.PostQuery;
+import entityClasses.Post;
+import entityClasses.PostFeedRow;
+import entityClasses.User;
+import search.SearchPipeline;
+
+/**
+ * <p>Title: SearchPipelineTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the background search pipeline of the home pages. Checks that a burst
+ * of keystrokes runs one query, that the result of a query replaced while running is dropped so
+ * only the latest result is applied, that each applied result reports how long its query took,
+ * and that searches of the database give the same posts on the search thread.</p>
+ *
+ * <p>Results are applied on a single thread standing in for the JavaFX thread. Each test is
+ * isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class SearchPipelineTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: pipeline</p> <p>Description: Pipeline under test, shut down after each test.</p> */
+    private SearchPipeline<String> pipeline;
+
+    /** <p>Field: applied</p> <p>Description: Results applied by the pipeline, in order.</p> */
+    private BlockingQueue<String> applied;
+
+    /** <p>Field: latencies</p> <p>Description: Query times reported with the applied results.</p> */
+    private BlockingQueue<Long> latencies;
+
+    /**
+     * <p>Constructor: SearchPipelineTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public SearchPipelineTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with one thread and one student.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        dbHelper.register(new User("owner", "pw", "O", "", "Wner", "", "o@email", false, true, false));
+        applied = new LinkedBlockingQueue<>();
+        latencies = new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Stops the pipeline and cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        if (pipeline != null) pipeline.shutdown();
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: startPipeline(long debounceMillis)</p>
+     * <p>Description: Creates the pipeline under test, applying results on their own thread.</p>
+     *
+     * @param debounceMillis the debounce delay
+     */
+    private void startPipeline(long debounceMillis) {
+        ExecutorService ui = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "TestUi");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pipeline = new SearchPipeline<>(debounceMillis, ui, (result, queryNanos) -> {
+            applied.add(result);
+            latencies.add(queryNanos);
+        });
+    }
+
+    /**
+     * <p>Test Method: testBurstRunsOneQuery()</p>
+     * <p>Description: Keystrokes closer together than the debounce delay run only the query of
+     * the last one, which is applied once with the time it took.</p>
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testBurstRunsOneQuery() throws InterruptedException {
+        startPipeline(150);
+        AtomicInteger runs = new AtomicInteger();
+        String typed = "recursion";
+        for (int i = 1; i <= typed.length(); i++) {
+            String text = typed.substring(0, i);
+            pipeline.submit(() -> {
+                runs.incrementAndGet();
+                Thread.sleep(20);
+                return text;
+            });
+            Thread.sleep(5);
+        }
+
+        assertEquals("recursion", applied.poll(5, TimeUnit.SECONDS));
+        assertNull(applied.poll(300, TimeUnit.MILLISECONDS));
+        assertEquals(1, runs.get());
+        assertEquals(1, pipeline.getCompletedQueries());
+        assertEquals(typed.length() - 1, pipeline.getStaleQueries());
+        long nanos = latencies.take();
+        assertTrue(nanos >= TimeUnit.MILLISECONDS.toNanos(20), "query time " + nanos);
+        assertEquals(nanos, pipeline.getLastQueryNanos());
+    }
+
+    /**
+     * <p>Test Method: testReplacedQueryIsDropped()</p>
+     * <p>Description: A query replaced while it runs finishes without its result being
+     * applied, a query replaced while it waits never runs, and a cancelled query applies
+     * nothing.</p>
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testReplacedQueryIsDropped() throws InterruptedException {
+        startPipeline(0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger waitingRuns = new AtomicInteger();
+        pipeline.submitNow(() -> {
+            started.countDown();
+            release.await();
+            return "old";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        pipeline.submitNow(() -> {
+            waitingRuns.incrementAndGet();
+            return "waiting";
+        });
+        pipeline.submitNow(() -> "latest");
+        release.countDown();
+
+        assertEquals("latest", applied.poll(5, TimeUnit.SECONDS));
+        assertNull(applied.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(0, waitingRuns.get());
+        assertEquals(1, pipeline.getCompletedQueries());
+        assertEquals(2, pipeline.getStaleQueries());
+
+        CountDownLatch cancelled = new CountDownLatch(1);
+        pipeline.submitNow(() -> {
+            cancelled.await();
+            return "cancelled";
+        });
+        pipeline.cancel();
+        cancelled.countDown();
+        assertNull(applied.poll(200, TimeUnit.MILLISECONDS));
+        pipeline.submitNow(() -> "after");
+        assertEquals("after", applied.poll(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * <p>Test Method: testDatabaseSearchOnSearchThread()</p>
+     * <p>Description: The search feed read on the search thread lists the same posts, in the
+     * same order, as when read on the calling thread.</p>
+     *
+     * @throws Exception if the database access or the wait fails
+     */
+    @Test
+    public void testDatabaseSearchOnSearchThread() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            dbHelper.makePost(new Post("Linked list question " + i, "", i % 3 == 0 ? "list list" : "a list",
+                    "owner", new ArrayList<>(), "General"));
+        }
+        List<Integer> direct = dbHelper.searchPostFeed(new PostQuery("owner"), "list", 0, 20).stream()
+                .map(PostFeedRow::getPostId).toList();
+
+        BlockingQueue<List<Integer>> pages = new LinkedBlockingQueue<>();
+        SearchPipeline<List<PostFeedRow>> feed = new SearchPipeline<>(50, Runnable::run,
+                (page, queryNanos) -> pages.add(page.stream().map(PostFeedRow::getPostId).toList()));
+        try {
+            feed.submit(() -> dbHelper.searchPostFeed(new PostQuery("owner"), "lin", 0, 20));
+            feed.submit(() -> dbHelper.searchPostFeed(new PostQuery("owner"), "list", 0, 20));
+            assertEquals(direct, pages.poll(5, TimeUnit.SECONDS));
+            assertEquals(20, direct.size());
+            assertTrue(feed.getLastQueryNanos() > 0);
+        } finally {
+            feed.shutdown();
+        }
+    }
+}
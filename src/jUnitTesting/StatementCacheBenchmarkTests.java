@@ -0,0 +1,134 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import database.Database;
+import entityClasses.Post;
+import entityClasses.User;
+
+/**
+ * <p>Title: StatementCacheBenchmarkTests</p>
+ *
+ * <p>Description:
+ * Before/after benchmark for the per-connection prepared statement cache. A feed refresh over
+ * {@value #POSTS} posts that asks for the views, upvotes and read status of every post one
+ * query at a time is timed once with the cache disabled and once with it enabled. The cache
+ * behavior itself is tested by {@link StatementCacheTests}.</p>
+ */
+@Benchmark
+public class StatementCacheBenchmarkTests {
+
+    /** <p>Field: POSTS</p> <p>Description: Number of posts in the refreshed feed.</p> */
+    private static final int POSTS = 5_000;
+
+    /** <p>Field: VIEWER</p> <p>Description: Username of the user refreshing the feed.</p> */
+    private static final String VIEWER = "benchViewer";
+
+    /**
+     * <p>Constructor: StatementCacheBenchmarkTests()</p>
+     * <p>Description: Default constructor used by JUnit.</p>
+     */
+    public StatementCacheBenchmarkTests() {}
+
+    /**
+     * <p>Method: seed(Database db)</p>
+     * <p>Description: Fills a freshly connected database with {@value #POSTS} posts in one
+     * batch, creates their counters and marks every third post as read by the viewer.</p>
+     *
+     * @param db the database to fill
+     * @throws SQLException if the inserts fail
+     */
+    private static void seed(Database db) throws SQLException {
+        db.addThread("General");
+        db.register(new User(VIEWER, "pw", "F", "M", "L", "PF", "b@email", false, true, false));
+        try (Connection connection = db.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(
+                     "INSERT INTO Posts (title, content, owner, thread) VALUES (?, ?, ?, ?)")) {
+            int thread = db.getThreadId("General");
+            for (int i = 0; i < POSTS; i++) {
+                pstmt.setString(1, "Post " + i);
+                pstmt.setString(2, "Body " + i);
+                pstmt.setString(3, VIEWER);
+                pstmt.setInt(4, thread);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        db.rebuildPostStats();
+        for (Post post : db.getAllPostsNewestFirst()) {
+            if (post.getPostId() % 3 == 0) db.markPostAsRead(VIEWER, post.getPostId());
+        }
+    }
+
+    /**
+     * <p>Method: refreshFeed(Database db)</p>
+     * <p>Description: Loads the feed the way the home pages did before the single-query feed:
+     * one query for the posts, then three small queries per post.</p>
+     *
+     * @param db the database to read from
+     * @return one "id:views:upvotes:status" entry per post
+     */
+    private static List<String> refreshFeed(Database db) {
+        List<String> rows = new ArrayList<>();
+        for (Post post : db.getAllPostsNewestFirst()) {
+            int id = post.getPostId();
+            rows.add(id + ":" + db.getPostViews(id) + ":" + db.getPostUpvotes(id) + ":"
+                    + db.hasUserReadPost(VIEWER, id));
+        }
+        return rows;
+    }
+
+    /**
+     * <p>Method: timeRefresh(BenchmarkHarness harness, String label, int statementCacheSize)</p>
+     * <p>Description: Seeds a database using the given statement cache size, refreshes the feed
+     * once to warm up and then times a second refresh.</p>
+     *
+     * @param harness records the timing
+     * @param label the name of the timing
+     * @param statementCacheSize statements cached per connection, 0 to disable the cache
+     * @return the rows of the timed refresh
+     * @throws Exception if the database setup or the refresh fails
+     */
+    private static List<String> timeRefresh(BenchmarkHarness harness, String label, int statementCacheSize)
+            throws Exception {
+        Database db = new Database(2, 10, 60_000, 10_000, statementCacheSize);
+        db.connectToDatabase();
+        try {
+            seed(db);
+            harness.warmUp(() -> refreshFeed(db));
+            db.resetStatementCacheStatistics();
+
+            List<String> rows = new ArrayList<>();
+            harness.time(label, () -> rows.addAll(refreshFeed(db)));
+            harness.record(label + " cache hits/misses", db.getStatementCacheHits() + "/" + db.getStatementCacheMisses());
+            return rows;
+        } finally {
+            db.clearDatabase();
+            db.closeConnection();
+        }
+    }
+
+    /**
+     * <p>Benchmark Method: benchmarkFeedRefreshWithAndWithoutStatementCache(TestReporter reporter)</p>
+     * <p>Description: Refreshes a {@value #POSTS} post feed without and with the statement cache
+     * and publishes both timings together with the cache hit and miss counts.</p>
+     *
+     * @param reporter receives the results
+     * @throws Exception if database access fails
+     */
+    @Test
+    public void benchmarkFeedRefreshWithAndWithoutStatementCache(TestReporter reporter) throws Exception {
+        BenchmarkHarness harness = new BenchmarkHarness(reporter, "Feed refresh over " + POSTS + " posts");
+        List<String> uncached = timeRefresh(harness, "uncached", 0);
+        List<String> cached = timeRefresh(harness, "cached", 64);
+        assertEquals(uncached, cached, "Both runs must do the same work");
+        harness.publish();
+    }
+}
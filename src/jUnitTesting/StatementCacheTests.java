@@ -0,0 +1,222 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import database.Database;
+import entityClasses.Post;
+import entityClasses.User;
+
+/**
+ * <p>Title: StatementCacheTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the prepared statement cache of the pooled connections. Repeated
+ * queries are served from the cache without changing their results, and a statement handed out
+ * again from the cache must behave like a freshly prepared one: nothing a previous caller queued
+ * or configured on it may carry over.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class StatementCacheTests {
+
+    /** <p>Field: INSERT_THREAD</p> <p>Description: Statement used to check batches.</p> */
+    private static final String INSERT_THREAD = "INSERT INTO Threads (threadName) VALUES (?)";
+
+    /** <p>Field: SELECT_THREADS</p> <p>Description: Statement used to check settings.</p> */
+    private static final String SELECT_THREADS = "SELECT threadName FROM Threads ORDER BY id";
+
+    /** <p>Field: POSTS</p> <p>Description: Number of posts in the refreshed feed.</p> */
+    private static final int POSTS = 30;
+
+    /** <p>Field: VIEWER</p> <p>Description: Username of the user refreshing the feed.</p> */
+    private static final String VIEWER = "viewer";
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /**
+     * <p>Constructor: StatementCacheTests()</p>
+     * <p>Description: Default constructor used by JUnit.</p>
+     */
+    public StatementCacheTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Connects a database with a one connection pool, so every borrow gets
+     * the same connection and the same statement cache.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database(1, 1, 60_000, 10_000, 16);
+        dbHelper.connectToDatabase();
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Clears the database and closes the pool.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+        dbHelper.closeConnection();
+    }
+
+    /**
+     * <p>Method: seed(Database db)</p>
+     * <p>Description: Makes {@value #POSTS} posts and has the viewer read every third one.</p>
+     *
+     * @param db the database to fill
+     * @return the expected feed rows, as returned by {@link #refreshFeed(Database)}
+     * @throws SQLException if a post cannot be made
+     */
+    private static List<String> seed(Database db) throws SQLException {
+        db.addThread("General");
+        db.register(new User(VIEWER, "pw", "F", "M", "L", "PF", "v@email", false, true, false));
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < POSTS; i++) {
+            int id = db.makePost(new Post("Post " + i, "", "Body", VIEWER, new ArrayList<>(), "General"));
+            boolean read = i % 3 == 0;
+            if (read) db.markPostAsRead(VIEWER, id);
+            expected.add(0, id + ":" + (read ? 1 : 0) + ":0:" + (read ? "Viewed" : "Unread"));
+        }
+        return expected;
+    }
+
+    /**
+     * <p>Method: refreshFeed(Database db)</p>
+     * <p>Description: Loads the feed with one query for the posts and three small queries per
+     * post, so the same few statements are prepared over and over.</p>
+     *
+     * @param db the database to read from
+     * @return one "id:views:upvotes:status" entry per post, newest first
+     */
+    private static List<String> refreshFeed(Database db) {
+        List<String> rows = new ArrayList<>();
+        for (Post post : db.getAllPostsNewestFirst()) {
+            int id = post.getPostId();
+            rows.add(id + ":" + db.getPostViews(id) + ":" + db.getPostUpvotes(id) + ":"
+                    + db.hasUserReadPost(VIEWER, id));
+        }
+        return rows;
+    }
+
+    /**
+     * <p>Test Method: testRepeatedQueriesAreServedFromCache()</p>
+     * <p>Description: Once the feed has been loaded, loading it again prepares nothing: every
+     * per-post query is a cache hit, and the results are unchanged.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testRepeatedQueriesAreServedFromCache() throws SQLException {
+        List<String> expected = seed(dbHelper);
+        assertEquals(expected, refreshFeed(dbHelper));
+
+        dbHelper.resetStatementCacheStatistics();
+        assertEquals(expected, refreshFeed(dbHelper));
+        assertTrue(dbHelper.getStatementCacheHits() >= 3L * POSTS, "Every per-post query should be a hit");
+        assertEquals(0, dbHelper.getStatementCacheMisses(), "A warmed-up cache should not miss on the same queries");
+    }
+
+    /**
+     * <p>Test Method: testDisabledCacheGivesSameResults()</p>
+     * <p>Description: With a cache size of 0 every statement is prepared afresh, nothing is
+     * counted as a hit, and the results are the same as with the cache.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testDisabledCacheGivesSameResults() throws SQLException {
+        dbHelper.closeConnection();
+        dbHelper = new Database(1, 1, 60_000, 10_000, 0);
+        dbHelper.connectToDatabase();
+
+        List<String> expected = seed(dbHelper);
+        dbHelper.resetStatementCacheStatistics();
+        assertEquals(expected, refreshFeed(dbHelper));
+        assertEquals(0, dbHelper.getStatementCacheHits(), "A disabled cache must not report hits");
+    }
+
+    /**
+     * <p>Test Method: testPendingBatchIsNotReplayed()</p>
+     * <p>Description: A batch that was queued but never executed is dropped when the statement
+     * is closed, so the next caller's batch only runs its own rows.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testPendingBatchIsNotReplayed() throws SQLException {
+        try (Connection connection = dbHelper.getConnection();
+             PreparedStatement ps = connection.prepareStatement(INSERT_THREAD)) {
+            ps.setString(1, "Abandoned");
+            ps.addBatch();
+        }
+
+        dbHelper.resetStatementCacheStatistics();
+        try (Connection connection = dbHelper.getConnection();
+             PreparedStatement ps = connection.prepareStatement(INSERT_THREAD)) {
+            ps.setString(1, "Kept");
+            ps.addBatch();
+            assertEquals(1, ps.executeBatch().length);
+        }
+        assertEquals(1, dbHelper.getStatementCacheHits(), "The second caller must reuse the cached statement");
+
+        assertEquals(-1, dbHelper.getThreadId("Abandoned"));
+        assertNotEquals(-1, dbHelper.getThreadId("Kept"));
+    }
+
+    /**
+     * <p>Test Method: testSettingsAreReset()</p>
+     * <p>Description: The row limit, fetch size, column size limit and query timeout a caller
+     * set are back to their defaults for the next caller of the same SQL text.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testSettingsAreReset() throws SQLException {
+        for (String name : new String[] { "One", "Two", "Three" }) dbHelper.addThread(name);
+
+        int fetchSize;
+        int maxFieldSize;
+        try (Connection connection = dbHelper.getConnection();
+             PreparedStatement ps = connection.prepareStatement(SELECT_THREADS)) {
+            fetchSize = ps.getFetchSize();
+            maxFieldSize = ps.getMaxFieldSize();
+            ps.setMaxRows(1);
+            ps.setFetchSize(fetchSize + 7);
+            ps.setMaxFieldSize(2);
+            ps.setQueryTimeout(5);
+        }
+
+        dbHelper.resetStatementCacheStatistics();
+        try (Connection connection = dbHelper.getConnection();
+             PreparedStatement ps = connection.prepareStatement(SELECT_THREADS)) {
+            assertEquals(0, ps.getMaxRows());
+            assertEquals(fetchSize, ps.getFetchSize());
+            assertEquals(maxFieldSize, ps.getMaxFieldSize());
+            assertEquals(0, ps.getQueryTimeout());
+            int rows = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) rows++;
+            }
+            assertEquals(3, rows);
+        }
+        assertEquals(1, dbHelper.getStatementCacheHits(), "The second caller must reuse the cached statement");
+    }
+}
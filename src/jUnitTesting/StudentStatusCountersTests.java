@@ -0,0 +1,196 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import database.Database;
+import entityClasses.Post;
+import entityClasses.Reply;
+import entityClasses.StudentStatus;
+import entityClasses.User;
+import jUnitTestCodes.StatusRetriever;
+
+/**
+ * <p>Title: StudentStatusCountersTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the student activity counters kept in StudentStatus. After every post,
+ * reply, view, upvote, ownership change and delete the stored counters of each student must
+ * equal a full recount by {@link StatusRetriever}. The repair job must report and fix counters
+ * that were changed behind the database's back, in the foreground and in the background.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class StudentStatusCountersTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: STUDENTS</p> <p>Description: Usernames of the registered students.</p> */
+    private static final List<String> STUDENTS = List.of("author", "amy", "ben");
+
+    /**
+     * <p>Constructor: StudentStatusCountersTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public StudentStatusCountersTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with one thread and three students, and
+     * points the status retriever at it.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        for (String name : STUDENTS) {
+            dbHelper.register(new User(name, "pw", "F", "M", "L", "PF", name + "@email", false, true, false));
+        }
+        new StatusRetriever(dbHelper);
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: makePost(String owner, String title)</p>
+     * <p>Description: Creates a post.</p>
+     *
+     * @param owner the post author
+     * @param title the post title
+     * @return the id of the new post
+     * @throws SQLException if the post cannot be created
+     */
+    private int makePost(String owner, String title) throws SQLException {
+        return dbHelper.makePost(new Post(title, "", "Body", owner, new ArrayList<>(), "General"));
+    }
+
+    /**
+     * <p>Method: assertMatchesRecount(String step)</p>
+     * <p>Description: Checks the stored counters of every remaining student against a full
+     * recount of their posts, replies and received views, replies and upvotes.</p>
+     *
+     * @param step a description of the last event, used in failure messages
+     */
+    private void assertMatchesRecount(String step) {
+        for (String name : STUDENTS) {
+            if (!dbHelper.getUserAccountDetails(name)) continue;
+            StudentStatus s = dbHelper.getStudentStatus(name);
+            assertEquals(StatusRetriever.getStudentTotalPosts(name), s.getPostNumber(), step + ": posts of " + name);
+            assertEquals(StatusRetriever.getStudentTotalReplies(name), s.getReplyNumber(), step + ": replies of " + name);
+            assertEquals(StatusRetriever.getStudentTotalViewsGot(name), s.getViewReceived(), step + ": views of " + name);
+            assertEquals(StatusRetriever.getStudentTotalRepliesGot(name), s.getReplyReceived(),
+                    step + ": replies received by " + name);
+            assertEquals(StatusRetriever.getStudentTotalUpvotesGot(name), s.getUpvoteReceived(),
+                    step + ": upvotes of " + name);
+        }
+    }
+
+    /**
+     * <p>Test Method: testCountersFollowEveryEvent()</p>
+     * <p>Description: Runs every event that changes a student's counters and compares the
+     * stored counters with a recount after each one. The repair job finds nothing to fix at
+     * the end.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testCountersFollowEveryEvent() throws SQLException {
+        int first = makePost("author", "First");
+        int second = makePost("author", "Second");
+        assertMatchesRecount("posts");
+        assertEquals(2, dbHelper.getStudentStatus("author").getPostNumber());
+
+        dbHelper.markPostAsRead("amy", first);
+        dbHelper.markPostAsRead("amy", first);
+        dbHelper.makePostUpvote("ben", first);
+        dbHelper.makePostUpvote("ben", second);
+        dbHelper.markPostAsRead("author", second);
+        assertMatchesRecount("views and upvotes");
+        assertEquals(4, dbHelper.getStudentStatus("author").getViewReceived());
+
+        int amyReply = dbHelper.makeReply(new Reply("Hi", "amy", first));
+        dbHelper.makeReply(new Reply("Own", "author", first));
+        int benReply = dbHelper.makeReply(new Reply("Yo", "ben", second));
+        assertMatchesRecount("replies");
+        assertEquals(3, dbHelper.getStudentStatus("author").getReplyReceived());
+
+        dbHelper.deleteReply(amyReply);
+        dbHelper.deleteReply(amyReply);
+        assertMatchesRecount("reply deleted");
+
+        dbHelper.updateReplyOwnerUsername(benReply, "amy");
+        dbHelper.updatePostOwnerUsername(second, "amy");
+        assertMatchesRecount("owners changed");
+        assertEquals(1, dbHelper.getStudentStatus("amy").getReplyReceived());
+
+        dbHelper.deleteUser("ben");
+        assertMatchesRecount("reader deleted");
+
+        dbHelper.deletePost(first);
+        assertMatchesRecount("post deleted");
+        assertEquals(1, dbHelper.getStudentStatus("author").getReplyNumber(), "Replies outlive their post");
+        assertEquals(0, dbHelper.getStudentStatus("author").getReplyReceived());
+
+        assertTrue(dbHelper.rebuildStudentStatus().isEmpty(), "No drift after ordinary events");
+    }
+
+    /**
+     * <p>Test Method: testRepairReportsAndFixesDrift()</p>
+     * <p>Description: Counters overwritten behind the database's back are reported once by the
+     * repair job and rebuilt, promotions are kept, the background repair finds nothing left to
+     * do, and a missing student status record is recreated with counted values.</p>
+     *
+     * @throws Exception if database access or the background repair fails
+     */
+    @Test
+    public void testRepairReportsAndFixesDrift() throws Exception {
+        int postId = makePost("author", "Drift");
+        dbHelper.makePostUpvote("amy", postId);
+        dbHelper.makeReply(new Reply("Reply", "amy", postId));
+
+        try (Connection connection = dbHelper.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE StudentStatus SET postNumber = 9, upvoteReceived = 0, promotion = 2 "
+                    + "WHERE userName = 'author'");
+        }
+
+        assertEquals(List.of("Student author: stored posts 9, replies 0, views received 1, replies received 1, "
+                + "upvotes received 0, rebuilt as posts 1, replies 0, views received 1, replies received 1, "
+                + "upvotes received 1"), dbHelper.rebuildStudentStatus());
+        assertMatchesRecount("repaired");
+        assertEquals(2, dbHelper.getStudentStatus("author").getPromotion(), "Promotions are not counters");
+        assertTrue(dbHelper.rebuildStudentStatusInBackground().get(10, TimeUnit.SECONDS).isEmpty());
+
+        dbHelper.deleteStudentStatus("amy");
+        assertEquals(List.of("Student amy: no status record, rebuilt as posts 0, replies 1, views received 0, "
+                + "replies received 0, upvotes received 0"), dbHelper.rebuildStudentStatus());
+        assertMatchesRecount("recreated");
+        assertEquals(0, dbHelper.getStudentStatus("amy").getPromotion());
+        assertEquals(2, dbHelper.getStudentStatus("author").getPromotion());
+    }
+}
@@ -0,0 +1,193 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import database.Database;
+import entityClasses.GradebookRow;
+import entityClasses.Post;
+import entityClasses.StudentStatus;
+import entityClasses.User;
+
+/**
+ * <p>Title: StudentStatusWriteTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the student status write paths: the read only status lookup, the
+ * batched upsert of many status records, and the single column promotion and violation
+ * increments used by staff, including under concurrent use.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class StudentStatusWriteTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: STUDENTS</p> <p>Description: Number of students registered by the setup.</p> */
+    private static final int STUDENTS = 50;
+
+    /**
+     * <p>Constructor: StudentStatusWriteTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public StudentStatusWriteTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with one thread and {@value #STUDENTS}
+     * students.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        for (int i = 0; i < STUDENTS; i++) {
+            dbHelper.register(new User(name(i), "pw", "F", "M", "L", "PF", name(i) + "@email", false, true, false));
+        }
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: name(int i)</p>
+     * <p>Description: Username of the i-th student, sorting in registration order.</p>
+     *
+     * @param i the student number
+     * @return the username
+     */
+    private static String name(int i) {
+        return String.format("student%03d", i);
+    }
+
+    /**
+     * <p>Test Method: testLookupDoesNotWrite()</p>
+     * <p>Description: Looking up a student without a status record returns their counted
+     * activity but does not create the record; the repair job is what recreates it.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testLookupDoesNotWrite() throws SQLException {
+        dbHelper.makePost(new Post("Mine", "", "Body", name(0), new ArrayList<>(), "General"));
+        dbHelper.deleteStudentStatus(name(0));
+
+        StudentStatus looked = dbHelper.getStudentStatus(name(0));
+        assertEquals(1, looked.getPostNumber());
+        assertEquals(0, looked.getPromotion());
+        assertEquals(0, dbHelper.getStudentStatus("nobody").getPostNumber());
+        assertEquals(1, dbHelper.rebuildStudentStatus().size(), "The lookup left the record missing");
+        assertFalse(dbHelper.incrementPromotion("nobody", 1));
+    }
+
+    /**
+     * <p>Test Method: testBatchUpsertInsertsAndReplaces()</p>
+     * <p>Description: One upsert call replaces the records of existing students and inserts
+     * the missing ones, and every record holds exactly the given values.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testBatchUpsertInsertsAndReplaces() throws SQLException {
+        for (int i = 0; i < STUDENTS; i += 2) dbHelper.deleteStudentStatus(name(i));
+
+        List<StudentStatus> statuses = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            statuses.add(new StudentStatus(name(i), i, i + 1, i + 2, i + 3, i + 4, i % 2, i % 3));
+        }
+        assertEquals(STUDENTS, dbHelper.upsertStudentStatuses(statuses));
+        assertEquals(0, dbHelper.upsertStudentStatuses(List.of()));
+
+        List<GradebookRow> rows = dbHelper.getGradebook();
+        assertEquals(STUDENTS, rows.size());
+        for (int i = 0; i < STUDENTS; i++) {
+            assertEquals(statuses.get(i).toString(), rows.get(i).getStatus().toString());
+        }
+    }
+
+    /**
+     * <p>Test Method: testConcurrentIncrementsAreNotLost()</p>
+     * <p>Description: Many threads add promotions and violations to the same student at the
+     * same time; every increment is kept and the activity counters are untouched.</p>
+     *
+     * @throws Exception if database access or a worker fails
+     */
+    @Test
+    public void testConcurrentIncrementsAreNotLost() throws Exception {
+        String target = name(7);
+        StudentStatus before = dbHelper.getStudentStatus(target);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                results.add(pool.submit(() -> dbHelper.incrementPromotion(target, 1)));
+                results.add(pool.submit(() -> dbHelper.incrementViolation(target, 1)));
+            }
+            for (Future<Boolean> result : results) assertTrue(result.get());
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(dbHelper.incrementViolation(target, -50));
+
+        StudentStatus after = dbHelper.getStudentStatus(target);
+        assertEquals(200, after.getPromotion());
+        assertEquals(150, after.getViolation());
+        assertEquals(before.getPostNumber(), after.getPostNumber());
+        assertEquals(0, dbHelper.getStudentStatus(name(8)).getPromotion());
+    }
+
+    /**
+     * <p>Test Method: testConcurrentTogglesStayZeroOrOne()</p>
+     * <p>Description: Many threads toggle the promotion and violation of the same student at
+     * the same time; the columns only ever hold 0 or 1 and an even number of toggles leaves
+     * them at 0.</p>
+     *
+     * @throws Exception if database access or a worker fails
+     */
+    @Test
+    public void testConcurrentTogglesStayZeroOrOne() throws Exception {
+        String target = name(3);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                results.add(pool.submit(() -> dbHelper.togglePromotion(target)));
+                results.add(pool.submit(() -> dbHelper.toggleViolation(target)));
+            }
+            for (Future<Boolean> result : results) assertTrue(result.get());
+        } finally {
+            pool.shutdown();
+        }
+
+        StudentStatus after = dbHelper.getStudentStatus(target);
+        assertEquals(0, after.getPromotion());
+        assertEquals(0, after.getViolation());
+        assertTrue(dbHelper.togglePromotion(target));
+        assertEquals(1, dbHelper.getStudentStatus(target).getPromotion());
+        assertFalse(dbHelper.toggleViolation("nobody"));
+    }
+}
@@ -0,0 +1,103 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import search.TrigramIndex;
+
+/**
+ * <p>Title: TrigramIndexBenchmarkTests</p>
+ *
+ * <p>Description:
+ * Benchmark for fuzzy lookups in {@link TrigramIndex} at {@value #TITLES} post titles and
+ * {@value #USERS} users: misspelled titles and full names are looked up and the time per lookup
+ * is published. That typos find their target is tested by {@link TrigramIndexTests}.</p>
+ */
+@Benchmark
+public class TrigramIndexBenchmarkTests {
+
+    /** <p>Field: TITLES</p> <p>Description: Number of indexed post titles.</p> */
+    private static final int TITLES = 100_000;
+
+    /** <p>Field: USERS</p> <p>Description: Number of indexed users.</p> */
+    private static final int USERS = 50_000;
+
+    /** <p>Field: LOOKUPS</p> <p>Description: Number of timed lookups of each kind.</p> */
+    private static final int LOOKUPS = 200;
+
+    /**
+     * <p>Constructor: TrigramIndexBenchmarkTests()</p>
+     * <p>Description: Default constructor used by JUnit.</p>
+     */
+    public TrigramIndexBenchmarkTests() {}
+
+    /**
+     * <p>Method: typos(Random random, List&lt;String&gt; texts, List&lt;Integer&gt; targets)</p>
+     * <p>Description: Picks {@value #LOOKUPS} texts and leaves a letter out of each.</p>
+     *
+     * @param random the random source
+     * @param texts the indexed texts
+     * @param targets receives the index of the text behind each typo
+     * @return the misspelled texts
+     */
+    private static List<String> typos(Random random, List<String> texts, List<Integer> targets) {
+        List<String> typos = new ArrayList<>();
+        for (int q = 0; q < LOOKUPS; q++) {
+            int target = random.nextInt(texts.size());
+            targets.add(target);
+            typos.add(TrigramIndexTests.dropOneLetter(random, texts.get(target)));
+        }
+        return typos;
+    }
+
+    /**
+     * <p>Benchmark Method: benchmarkLookupTimeAtScale(TestReporter reporter)</p>
+     * <p>Description: Indexes the titles and users, warms up, then times the title lookups and
+     * the name lookups and publishes the time per lookup of each.</p>
+     *
+     * @param reporter receives the results
+     * @throws Exception if a lookup fails
+     */
+    @Test
+    public void benchmarkLookupTimeAtScale(TestReporter reporter) throws Exception {
+        BenchmarkHarness harness = new BenchmarkHarness(reporter,
+                "Trigram lookup, " + TITLES + " titles and " + USERS + " users");
+        Random random = new Random(7);
+        String[] vocabulary = new String[3000];
+        for (int i = 0; i < vocabulary.length; i++) vocabulary[i] = TrigramIndexTests.randomWord(random, 4 + random.nextInt(6));
+        List<String> titleTexts = TrigramIndexTests.randomTexts(random, vocabulary, TITLES, 3, 4);
+        TrigramIndex<Integer> titles = new TrigramIndex<>();
+        for (int i = 0; i < titleTexts.size(); i++) titles.put(i, List.of(titleTexts.get(i)));
+        List<String> fullNames = TrigramIndexTests.randomTexts(random, vocabulary, USERS, 2, 1);
+        TrigramIndex<String> users = new TrigramIndex<>();
+        for (int i = 0; i < fullNames.size(); i++) users.put("user" + i, List.of("user" + i, fullNames.get(i)));
+
+        List<Integer> titleTargets = new ArrayList<>();
+        List<String> titleTypos = typos(random, titleTexts, titleTargets);
+        List<Integer> nameTargets = new ArrayList<>();
+        List<String> nameTypos = typos(random, fullNames, nameTargets);
+        harness.warmUp(() -> {
+            for (String typo : titleTypos) titles.search(typo, 20);
+            for (String typo : nameTypos) users.search(typo, 20);
+        });
+
+        List<List<Integer>> titleResults = new ArrayList<>();
+        harness.timePerOperation("title lookup", LOOKUPS, () -> {
+            for (String typo : titleTypos) titleResults.add(TrigramIndexTests.keys(titles.search(typo, 20)));
+        });
+        List<List<String>> nameResults = new ArrayList<>();
+        harness.timePerOperation("name lookup", LOOKUPS, () -> {
+            for (String typo : nameTypos) nameResults.add(TrigramIndexTests.keys(users.search(typo, 20)));
+        });
+
+        for (int q = 0; q < LOOKUPS; q++) {
+            assertTrue(titleResults.get(q).contains(titleTargets.get(q)), titleTypos.get(q));
+            assertTrue(nameResults.get(q).contains("user" + nameTargets.get(q)), nameTypos.get(q));
+        }
+        harness.publish();
+    }
+}
@@ -0,0 +1,293 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import database.Database;
+import database.PostQuery;
+import entityClasses.Post;
+import entityClasses.PostFeedRow;
+import entityClasses.User;
+import search.FuzzyMatch;
+import search.TrigramIndex;
+
+/**
+ * <p>Title: TrigramIndexTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the fuzzy trigram lookups of post titles and user names. Checks the
+ * bounded edit distance against a plain dynamic program, the ranking and upkeep of
+ * {@link TrigramIndex}, that the database keeps its title and name indexes in line with the
+ * tables, and that misspelled titles and names find their target. The lookup time at scale is
+ * measured by {@link TrigramIndexBenchmarkTests}.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class TrigramIndexTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /**
+     * <p>Constructor: TrigramIndexTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public TrigramIndexTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with one thread.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: keys(List&lt;FuzzyMatch&lt;K&gt;&gt; matches)</p>
+     * <p>Description: The keys of a list of matches, in order.</p>
+     *
+     * @param <K> the type of the keys
+     * @param matches the matches
+     * @return the keys
+     */
+    static <K> List<K> keys(List<FuzzyMatch<K>> matches) {
+        return matches.stream().map(FuzzyMatch::getKey).toList();
+    }
+
+    /**
+     * <p>Method: substringDistance(String query, String text)</p>
+     * <p>Description: The fewest edits turning the query into some part of the text, by the
+     * full dynamic program.</p>
+     *
+     * @param query the query
+     * @param text the text
+     * @return the distance
+     */
+    private static int substringDistance(String query, String text) {
+        int[] previous = new int[query.length() + 1];
+        for (int i = 0; i <= query.length(); i++) previous[i] = i;
+        int best = previous[query.length()];
+        for (int j = 1; j <= text.length(); j++) {
+            int[] current = new int[query.length() + 1];
+            for (int i = 1; i <= query.length(); i++) {
+                int cost = query.charAt(i - 1) == text.charAt(j - 1) ? 0 : 1;
+                current[i] = Math.min(previous[i - 1] + cost, Math.min(previous[i], current[i - 1]) + 1);
+            }
+            best = Math.min(best, current[query.length()]);
+            previous = current;
+        }
+        return best;
+    }
+
+    /**
+     * <p>Method: randomWord(Random random, int length)</p>
+     * <p>Description: A random word over a small alphabet, so that words share trigrams.</p>
+     *
+     * @param random the random source
+     * @param length the length of the word
+     * @return the word
+     */
+    static String randomWord(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) chars[i] = "abcdefghijklmnoprstu".charAt(random.nextInt(20));
+        return new String(chars);
+    }
+
+    /**
+     * <p>Test Method: testFindsWithinEditBound()</p>
+     * <p>Description: Every text within the allowed number of edits of the search is found with
+     * its exact distance, and no text beyond it is, for random searches over random texts.</p>
+     */
+    @Test
+    public void testFindsWithinEditBound() {
+        Random random = new Random(42);
+        List<String> texts = new ArrayList<>();
+        TrigramIndex<Integer> index = new TrigramIndex<>();
+        for (int i = 0; i < 2000; i++) {
+            texts.add(randomWord(random, 4 + random.nextInt(8)) + " " + randomWord(random, 3 + random.nextInt(6)));
+            index.put(i, List.of(texts.get(i)));
+        }
+        for (int q = 0; q < 200; q++) {
+            String query = TrigramIndex.normalize(q % 2 == 0 ? randomWord(random, 3 + random.nextInt(7))
+                    : texts.get(random.nextInt(texts.size())).substring(1, 6).replace('a', 'b'));
+            int k = q % 3;
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < texts.size(); i++) {
+                if (substringDistance(query, texts.get(i)) <= Math.min(k, query.length() - 1)) expected.add(i);
+            }
+            List<FuzzyMatch<Integer>> matches = index.search(query, k, 0);
+            for (FuzzyMatch<Integer> m : matches) {
+                assertEquals(substringDistance(query, texts.get(m.getKey())), m.getDistance(), query);
+            }
+            List<Integer> found = new ArrayList<>(keys(matches));
+            found.sort(null);
+            assertEquals(expected, found, query + " within " + k);
+        }
+    }
+
+    /**
+     * <p>Test Method: testRankingAndUpkeep()</p>
+     * <p>Description: Misspelled titles are found, closer and more similar texts rank first, a
+     * key is listed once through its best text, short searches must appear exactly, and
+     * replacing or removing keys, also past the point where the postings are compacted,
+     * keeps the results right.</p>
+     */
+    @Test
+    public void testRankingAndUpkeep() {
+        TrigramIndex<Integer> index = new TrigramIndex<>();
+        index.put(1, List.of("Recursion homework"));
+        index.put(2, List.of("Recursion homework help, due Friday"));
+        index.put(3, List.of("Linked lists"));
+        index.put(4, List.of("Recursive descent parser", "Parsing!"));
+
+        assertEquals(List.of(1, 2), keys(index.search("recursion homework", 0)));
+        assertEquals(List.of(1, 2), keys(index.search("Recusion homwork", 0)));
+        assertEquals(2, index.search("Recusion homwork", 0).get(0).getDistance());
+        assertEquals(List.of(), keys(index.search("Recusion homwork", 1, 0)));
+        assertEquals(List.of(1, 4, 2), keys(index.search("recur", 0)));
+        assertEquals(List.of(3), keys(index.search("linkd lists", 0)));
+        assertEquals(List.of(4), keys(index.search("parsing", 0)));
+        assertEquals("parsing", index.search("parsing", 0).get(0).getText());
+        assertEquals(List.of(3), keys(index.search("li", 0)));
+        assertEquals(List.of(1), keys(index.search("recursion homework", 1)));
+        assertEquals(List.of(), index.search("  ", 0));
+
+        index.put(3, List.of("Trees"));
+        assertEquals(List.of(), keys(index.search("linked", 0)));
+        index.remove(1);
+        assertEquals(List.of(2), keys(index.search("homework", 0)));
+        assertEquals(3, index.size());
+
+        for (int i = 100; i < 10_100; i++) index.put(i, List.of("Question number " + i));
+        for (int i = 100; i < 10_000; i++) index.remove(i);
+        assertEquals(List.of(10_050), keys(index.search("question number 10050", 0, 0)));
+        assertEquals(List.of(4), keys(index.search("parsing", 0)));
+        assertEquals(103, index.size());
+    }
+
+    /**
+     * <p>Test Method: testDatabaseKeepsIndexesInLine()</p>
+     * <p>Description: Registering, renaming and deleting users and making, retitling and
+     * deleting posts update the fuzzy lookups right away, a rebuild gives the same results,
+     * and a post search with a misspelled title falls back to the closest titles.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testDatabaseKeepsIndexesInLine() throws SQLException {
+        dbHelper.register(new User("jsmith", "pw", "Jonathan", "", "Smith", "Jon", "j@email", false, true, false));
+        dbHelper.register(new User("mgarcia", "pw", "Maria", "Luisa", "Garcia", "", "m@email", false, true, false));
+        assertEquals(List.of("jsmith"), keys(dbHelper.findUsers("jonathon smith", 0)));
+        assertEquals(List.of("jsmith"), keys(dbHelper.findUsers("jon smith", 0)));
+        assertEquals(List.of("mgarcia"), keys(dbHelper.findUsers("luisa garcai", 0)));
+        dbHelper.updateLastName("mgarcia", "Lopez");
+        assertEquals(List.of(), keys(dbHelper.findUsers("luisa garcia", 0)));
+        assertEquals(List.of("mgarcia"), keys(dbHelper.findUsers("luisa lopez", 0)));
+        dbHelper.deleteUser("jsmith");
+        assertEquals(List.of(), keys(dbHelper.findUsers("jsmith", 0)));
+
+        int post = dbHelper.makePost(new Post("Midterm review session", "", "Room 101", "mgarcia", new ArrayList<>(), "General"));
+        int other = dbHelper.makePost(new Post("Lab 3 grading", "", "Rubric", "mgarcia", new ArrayList<>(), "General"));
+        assertEquals(List.of(post), keys(dbHelper.findPostsByTitle("midterm reveiw", 0)));
+        dbHelper.updatePostTitle(other, "Lab three grading");
+        assertEquals(List.of(other), keys(dbHelper.findPostsByTitle("lab thre", 0)));
+
+        List<PostFeedRow> fallback = dbHelper.searchPostFeed(new PostQuery("mgarcia"), "midtem", 0, 10);
+        assertEquals(List.of(post), fallback.stream().map(PostFeedRow::getPostId).toList());
+
+        dbHelper.rebuildSearchIndex();
+        assertEquals(List.of(other), keys(dbHelper.findPostsByTitle("lab thre", 0)));
+        assertEquals(List.of("mgarcia"), keys(dbHelper.findUsers("luisa lopez", 0)));
+        dbHelper.deletePost(post);
+        assertEquals(List.of(), keys(dbHelper.findPostsByTitle("midterm", 0)));
+    }
+
+    /**
+     * <p>Method: randomTexts(Random random, String[] vocabulary, int count, int minWords, int extraWords)</p>
+     * <p>Description: Texts of random words from a vocabulary, such as post titles or full
+     * names.</p>
+     *
+     * @param random the random source
+     * @param vocabulary the words to draw from
+     * @param count the number of texts
+     * @param minWords the fewest words in a text
+     * @param extraWords the most words a text has beyond the fewest, exclusive
+     * @return the texts
+     */
+    static List<String> randomTexts(Random random, String[] vocabulary, int count, int minWords, int extraWords) {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int w = minWords + random.nextInt(extraWords); w > 0; w--) {
+                text.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+            }
+            texts.add(text.toString().trim());
+        }
+        return texts;
+    }
+
+    /**
+     * <p>Method: dropOneLetter(Random random, String text)</p>
+     * <p>Description: The text with one letter, other than the first and last, left out.</p>
+     *
+     * @param random the random source
+     * @param text the text
+     * @return the misspelled text
+     */
+    static String dropOneLetter(Random random, String text) {
+        int at = 1 + random.nextInt(text.length() - 2);
+        return text.substring(0, at) + text.substring(at + 1);
+    }
+
+    /**
+     * <p>Test Method: testTyposFindTheirTarget()</p>
+     * <p>Description: With thousands of post titles and users indexed, a title or full name
+     * with one letter left out still finds its target among the closest matches.</p>
+     */
+    @Test
+    public void testTyposFindTheirTarget() {
+        Random random = new Random(7);
+        String[] vocabulary = new String[500];
+        for (int i = 0; i < vocabulary.length; i++) vocabulary[i] = randomWord(random, 4 + random.nextInt(6));
+        List<String> titleTexts = randomTexts(random, vocabulary, 5_000, 3, 4);
+        TrigramIndex<Integer> titles = new TrigramIndex<>();
+        for (int i = 0; i < titleTexts.size(); i++) titles.put(i, List.of(titleTexts.get(i)));
+        List<String> fullNames = randomTexts(random, vocabulary, 2_000, 2, 1);
+        TrigramIndex<String> users = new TrigramIndex<>();
+        for (int i = 0; i < fullNames.size(); i++) users.put("user" + i, List.of("user" + i, fullNames.get(i)));
+
+        for (int q = 0; q < 200; q++) {
+            boolean title = q % 2 == 0;
+            int target = random.nextInt(title ? titleTexts.size() : fullNames.size());
+            String typo = dropOneLetter(random, title ? titleTexts.get(target) : fullNames.get(target));
+            List<?> found = title ? keys(titles.search(typo, 20)) : keys(users.search(typo, 20));
+            assertTrue(found.contains(title ? (Object) target : "user" + target), typo);
+        }
+    }
+}
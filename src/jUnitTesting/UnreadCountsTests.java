@@ -0,0 +1,254 @@
+package jUnitTesting;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import database.Database;
+import entityClasses.Message;
+import entityClasses.Post;
+import entityClasses.User;
+
+/**
+ * <p>Title: UnreadCountsTests</p>
+ *
+ * <p>Description:
+ * JUnit 5 test class for the per-user unread counters. Checks that sending, reading and
+ * deleting messages and making, reading and deleting posts keep the unread message and unread
+ * post counts equal to the counts of the full lists, including when the same message or post
+ * is read from several threads at once.</p>
+ *
+ * <p>Each test is isolated: the database is set up before each test and cleared afterwards.</p>
+ */
+public class UnreadCountsTests {
+
+    /**
+     * <p>Field: dbHelper</p>
+     * <p>Description: Helper object used to interact with the database during tests.
+     * A fresh instance is initialized in {@link #setup()} before each test execution.</p>
+     */
+    private Database dbHelper;
+
+    /** <p>Field: ALICE</p> <p>Description: Student sending messages and writing posts.</p> */
+    private static final String ALICE = "alice";
+
+    /** <p>Field: BOB</p> <p>Description: Student receiving messages and reading posts.</p> */
+    private static final String BOB = "bob";
+
+    /**
+     * <p>Constructor: UnreadCountsTests()</p>
+     * <p>Description: Default constructor used by JUnit to create a new test instance
+     * for each test execution.</p>
+     */
+    public UnreadCountsTests() {}
+
+    /**
+     * <p>Method: setup()</p>
+     * <p>Description: Initializes a fresh database with one thread and two students.</p>
+     *
+     * @throws SQLException if the database setup fails
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        dbHelper = new Database();
+        dbHelper.connectToDatabase();
+        dbHelper.addThread("General");
+        dbHelper.register(new User(ALICE, "pw", "A", "", "L", "", "a@email", false, true, false));
+        dbHelper.register(new User(BOB, "pw", "B", "", "L", "", "b@email", false, true, false));
+    }
+
+    /**
+     * <p>Method: teardown()</p>
+     * <p>Description: Cleans up the database after each test.</p>
+     *
+     * @throws SQLException if clearing the database fails
+     */
+    @AfterEach
+    public void teardown() throws SQLException {
+        dbHelper.clearDatabase();
+    }
+
+    /**
+     * <p>Method: assertMessageCount(String userName, int expected)</p>
+     * <p>Description: Asserts the unread message count of a user, and that it matches the
+     * length of the full unread message list.</p>
+     *
+     * @param userName the receiver
+     * @param expected the expected number of unread messages
+     */
+    private void assertMessageCount(String userName, int expected) {
+        assertEquals(expected, dbHelper.getUnreadMessageCount(userName));
+        assertEquals(expected, dbHelper.getAllUnreadMessages(userName).size());
+    }
+
+    /**
+     * <p>Method: assertPostCount(String userName, int expected, List&lt;Integer&gt; postIds)</p>
+     * <p>Description: Asserts the unread post count of a user, and that it matches the number
+     * of posts {@link Database#isPostUnread(String, int)} reports as unread.</p>
+     *
+     * @param userName the reader
+     * @param expected the expected number of unread posts
+     * @param postIds every post in the database
+     */
+    private void assertPostCount(String userName, int expected, List<Integer> postIds) {
+        assertEquals(expected, dbHelper.getUnreadPostCount(userName));
+        assertEquals(expected, postIds.stream().filter(id -> dbHelper.isPostUnread(userName, id)).count());
+    }
+
+    /**
+     * <p>Test Method: testMessageCounts()</p>
+     * <p>Description: Sending raises the receiver's count only, reading lowers it once however
+     * often the message is opened, and deleting lowers it only for unread messages.</p>
+     */
+    @Test
+    public void testMessageCounts() {
+        int first = dbHelper.makeMessage(new Message(ALICE, BOB, "One", "Body"));
+        int second = dbHelper.makeMessage(new Message(ALICE, BOB, "Two", "Body"));
+        int third = dbHelper.makeMessage(new Message(ALICE, BOB, "Three", "Body"));
+        dbHelper.makeMessage(new Message(BOB, ALICE, "Reply", "Body"));
+        assertMessageCount(BOB, 3);
+        assertMessageCount(ALICE, 1);
+
+        Message opened = dbHelper.getMessage(first);
+        dbHelper.markMessageAsRead(opened);
+        dbHelper.markMessageAsRead(opened);
+        assertMessageCount(BOB, 2);
+
+        dbHelper.deleteMessage(opened);
+        assertMessageCount(BOB, 2);
+        dbHelper.deleteMessage(dbHelper.getMessage(second));
+        dbHelper.deleteMessage(new Message(second, ALICE, BOB, "Two", "Body", false));
+        assertMessageCount(BOB, 1);
+
+        dbHelper.markMessageAsRead(dbHelper.getMessage(third));
+        assertMessageCount(BOB, 0);
+        assertMessageCount(ALICE, 1);
+    }
+
+    /**
+     * <p>Test Method: testPostCounts()</p>
+     * <p>Description: A new post is unread for everyone, reading or upvoting it lowers the
+     * reader's count once, and deleting it lowers the count of those who had not read it.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testPostCounts() throws SQLException {
+        List<Integer> postIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            postIds.add(dbHelper.makePost(new Post("Post " + i, "", "Body", ALICE, new ArrayList<>(), "General")));
+        }
+        assertPostCount(BOB, 4, postIds);
+        assertPostCount(ALICE, 4, postIds);
+
+        dbHelper.markPostAsRead(BOB, postIds.get(0));
+        dbHelper.markPostAsRead(BOB, postIds.get(0));
+        dbHelper.makePostUpvote(BOB, postIds.get(1));
+        dbHelper.makePostUpvote(BOB, postIds.get(1));
+        assertPostCount(BOB, 2, postIds);
+
+        dbHelper.deletePost(postIds.remove(0));
+        assertPostCount(BOB, 2, postIds);
+        assertPostCount(ALICE, 3, postIds);
+        dbHelper.deletePost(postIds.remove(postIds.size() - 1));
+        assertPostCount(BOB, 1, postIds);
+        assertPostCount(ALICE, 2, postIds);
+
+        dbHelper.register(new User("carol", "pw", "C", "", "L", "", "c@email", false, true, false));
+        assertPostCount("carol", 2, postIds);
+        assertEquals(0, dbHelper.getUnreadMessageCount("carol"));
+    }
+
+    /**
+     * <p>Test Method: testConcurrentReadsCountOnce()</p>
+     * <p>Description: Many threads opening the same unread message and the same unread post at
+     * once lower each count by exactly one.</p>
+     *
+     * @throws Exception if database access or a worker fails
+     */
+    @Test
+    public void testConcurrentReadsCountOnce() throws Exception {
+        int msgId = dbHelper.makeMessage(new Message(ALICE, BOB, "Race", "Body"));
+        dbHelper.makeMessage(new Message(ALICE, BOB, "Other", "Body"));
+        int postId = dbHelper.makePost(new Post("Race", "", "Body", ALICE, new ArrayList<>(), "General"));
+        Message msg = dbHelper.getMessage(msgId);
+
+        ExecutorService workers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                done.add(workers.submit(() -> dbHelper.markMessageAsRead(msg)));
+                done.add(workers.submit(() -> dbHelper.markPostAsRead(BOB, postId)));
+            }
+            for (Future<?> f : done) f.get();
+        } finally {
+            workers.shutdown();
+        }
+
+        assertMessageCount(BOB, 1);
+        assertPostCount(BOB, 0, List.of(postId));
+        assertEquals(1, dbHelper.getPostViews(postId));
+    }
+
+    /**
+     * <p>Test Method: testConcurrentFirstMessagesAreKept()</p>
+     * <p>Description: A newly registered user already has a counter row, so many messages
+     * sent to them at once are all delivered and all counted.</p>
+     *
+     * @throws Exception if database access or a worker fails
+     */
+    @Test
+    public void testConcurrentFirstMessagesAreKept() throws Exception {
+        dbHelper.register(new User("carol", "pw", "C", "", "L", "", "c@email", false, true, false));
+        assertMessageCount("carol", 0);
+
+        ExecutorService workers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> sent = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                String subject = "First " + i;
+                sent.add(workers.submit(() -> dbHelper.makeMessage(new Message(ALICE, "carol", subject, "Body"))));
+            }
+            for (Future<Integer> f : sent) assertNotEquals(-1, f.get());
+        } finally {
+            workers.shutdown();
+        }
+
+        assertMessageCount("carol", 16);
+    }
+
+    /**
+     * <p>Test Method: testMessagesJoinCallersTransaction()</p>
+     * <p>Description: Sending, reading and deleting messages while the caller has a transaction
+     * open on the same connection commit nothing, so rolling the caller's transaction back
+     * leaves the messages and the counters as they were.</p>
+     *
+     * @throws SQLException if database access fails
+     */
+    @Test
+    public void testMessagesJoinCallersTransaction() throws SQLException {
+        int kept = dbHelper.makeMessage(new Message(ALICE, BOB, "Kept", "Body"));
+        int sent;
+        try (Connection connection = dbHelper.getConnection()) {
+            connection.setAutoCommit(false);
+            sent = dbHelper.makeMessage(new Message(ALICE, BOB, "Inner", "Body"));
+            dbHelper.markMessageAsRead(dbHelper.getMessage(kept));
+            dbHelper.deleteMessage(dbHelper.getMessage(kept));
+            assertFalse(connection.getAutoCommit(), "No message write may end the caller's transaction");
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+
+        assertNotEquals(-1, sent);
+        assertNull(dbHelper.getMessage(sent));
+        assertNotNull(dbHelper.getMessage(kept));
+        assertMessageCount(BOB, 1);
+    }
+}
@@ -0,0 +1,45 @@
+package search;
+
+/*******
+ * <p> Title: DuplicateMatch Class. </p>
+ *
+ * <p> Description: A post found by a {@link LshIndex} that is likely asking the same thing as
+ * the text searched for, with the similarity estimated from their MinHash signatures.</p>
+ *
+ */
+public final class DuplicateMatch {
+
+	/** Id of the similar post */
+	private final int postId;
+	/** Estimated Jaccard similarity of the words of the two texts, from 0 to 1 */
+	private final double similarity;
+
+	/*******
+	 * <p> Method: DuplicateMatch(int postId, double similarity) </p>
+	 *
+	 * <p> Description: Create a match.</p>
+	 *
+	 * @param postId the id of the similar post
+	 *
+	 * @param similarity the estimated similarity of the texts, from 0 to 1
+	 */
+	public DuplicateMatch(int postId, double similarity) {
+		this.postId = postId;
+		this.similarity = similarity;
+	}
+
+	/*******
+	 * <p> Method: int getPostId() </p>
+	 *
+	 * @return the id of the similar post
+	 */
+	public int getPostId() { return postId; }
+
+	/*******
+	 * <p> Method: double getSimilarity() </p>
+	 *
+	 * @return the estimated Jaccard similarity of the words of the two texts, 1 when they use
+	 * the same words
+	 */
+	public double getSimilarity() { return similarity; }
+}
@@ -0,0 +1,72 @@
+package search;
+
+/*******
+ * <p> Title: FuzzyMatch Class. </p>
+ *
+ * <p> Description: One entry found by a fuzzy search of a {@link TrigramIndex}: the key it was
+ * stored under, the text that matched, how many edits the search text is away from some part
+ * of that text, and how much of the two texts' trigrams they share.</p>
+ *
+ * @param <K> the type of the keys of the index
+ */
+public final class FuzzyMatch<K> {
+
+	/** Key the matching text was stored under */
+	private final K key;
+	/** The stored text that matched, normalized */
+	private final String text;
+	/** Fewest insertions, deletions and substitutions turning the search text into part of the text */
+	private final int distance;
+	/** Shared trigrams divided by the trigrams of either text, from 0 to 1 */
+	private final double similarity;
+
+	/*******
+	 * <p> Method: FuzzyMatch(K key, String text, int distance, double similarity) </p>
+	 *
+	 * <p> Description: Create a match.</p>
+	 *
+	 * @param key the key the text was stored under
+	 *
+	 * @param text the stored text that matched
+	 *
+	 * @param distance the edit distance from the search text to the closest part of the text
+	 *
+	 * @param similarity the trigram similarity of the search text and the whole text
+	 */
+	public FuzzyMatch(K key, String text, int distance, double similarity) {
+		this.key = key;
+		this.text = text;
+		this.distance = distance;
+		this.similarity = similarity;
+	}
+
+	/*******
+	 * <p> Method: K getKey() </p>
+	 *
+	 * @return the key the matching text was stored under
+	 */
+	public K getKey() { return key; }
+
+	/*******
+	 * <p> Method: String getText() </p>
+	 *
+	 * @return the stored text that matched, lower-cased with punctuation turned into spaces
+	 */
+	public String getText() { return text; }
+
+	/*******
+	 * <p> Method: int getDistance() </p>
+	 *
+	 * @return the edit distance from the search text to the closest part of the text, 0 if
+	 * the text contains the search text
+	 */
+	public int getDistance() { return distance; }
+
+	/*******
+	 * <p> Method: double getSimilarity() </p>
+	 *
+	 * @return the trigram similarity of the search text and the whole text, 1 when they are
+	 * the same
+	 */
+	public double getSimilarity() { return similarity; }
+}
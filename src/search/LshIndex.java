@@ -0,0 +1,337 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*******
+ * <p> Title: LshIndex Class. </p>
+ *
+ * <p> Description: A locality-sensitive hashing index over the {@link MinHash} signatures of
+ * the posts, for finding the posts likely asking the same question as a text without comparing
+ * it with every post.  Each signature is cut into {@link #BANDS} bands of {@link #ROWS} values
+ * and the post is filed under each band; two posts sharing a band are candidates, and only the
+ * candidates have their signatures compared.  With 32 bands of 4 values, posts sharing half of
+ * their words become candidates nine times in ten, and posts sharing a twentieth of their words
+ * almost never, so a lookup reads a few small buckets however many posts there are.</p>
+ *
+ * <p> Lookups run in parallel; updates wait for the running lookups.</p>
+ *
+ */
+public final class LshIndex {
+
+	/** Number of bands a signature is cut into */
+	public static final int BANDS = 32;
+	/** Number of signature values in a band */
+	public static final int ROWS = MinHash.NUM_HASHES / BANDS;
+	/** Least similarity at which a post is offered as a likely duplicate */
+	public static final double DUPLICATE_SIMILARITY = 0.5;
+
+	/** Guards every field below */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	/** Signature of each post, by post id */
+	private final Map<Integer, int[]> signatures = new HashMap<>();
+	/** For each band, the posts filed under each band value, by band hash */
+	private final List<Map<Long, Set<Integer>>> buckets = new ArrayList<>(BANDS);
+
+	/*******
+	 * <p> Method: LshIndex() </p>
+	 *
+	 * <p> Description: Create an empty index.</p>
+	 */
+	public LshIndex() {
+		for (int band = 0; band < BANDS; band++) buckets.add(new HashMap<>());
+	}
+
+	/*******
+	 * <p> Method: void put(int postId, int[] signature) </p>
+	 *
+	 * <p> Description: File a post under its signature, replacing the signature filed for it
+	 * before.  A null signature, of a post without words, takes the post out.</p>
+	 *
+	 * @param postId the id of the post
+	 *
+	 * @param signature the MinHash signature of the post, or null
+	 */
+	public void put(int postId, int[] signature) {
+		lock.writeLock().lock();
+		try {
+			removeEntry(postId);
+			if (signature == null) return;
+			int[] copy = signature.clone();
+			signatures.put(postId, copy);
+			for (int band = 0; band < BANDS; band++) {
+				buckets.get(band).computeIfAbsent(bandHash(copy, band), h -> new HashSet<>()).add(postId);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: void remove(int postId) </p>
+	 *
+	 * <p> Description: Take a post out of the index.</p>
+	 *
+	 * @param postId the id of the post
+	 */
+	public void remove(int postId) {
+		lock.writeLock().lock();
+		try {
+			removeEntry(postId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: void replaceWith(LshIndex other) </p>
+	 *
+	 * <p> Description: Make this index hold exactly what another index holds, in one step.  The
+	 * other index must not be used afterwards.</p>
+	 *
+	 * @param other a freshly built index
+	 */
+	public void replaceWith(LshIndex other) {
+		lock.writeLock().lock();
+		try {
+			signatures.clear();
+			signatures.putAll(other.signatures);
+			for (int band = 0; band < BANDS; band++) {
+				buckets.get(band).clear();
+				buckets.get(band).putAll(other.buckets.get(band));
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: void clear() </p>
+	 *
+	 * <p> Description: Remove every post from the index.</p>
+	 */
+	public void clear() {
+		replaceWith(new LshIndex());
+	}
+
+	/*******
+	 * <p> Method: int size() </p>
+	 *
+	 * @return the number of posts in the index
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return signatures.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: int[] getSignature(int postId) </p>
+	 *
+	 * @param postId the id of a post
+	 *
+	 * @return a copy of the signature filed for the post, or null if it is not in the index
+	 */
+	public int[] getSignature(int postId) {
+		lock.readLock().lock();
+		try {
+			int[] signature = signatures.get(postId);
+			return signature == null ? null : signature.clone();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: int candidateCount(int[] signature) </p>
+	 *
+	 * @param signature a signature
+	 *
+	 * @return the number of posts sharing a band with the signature, which is the number of
+	 *         signatures a lookup compares
+	 */
+	public int candidateCount(int[] signature) {
+		lock.readLock().lock();
+		try {
+			return signature == null ? 0 : candidates(signature).size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: List&lt;DuplicateMatch&gt; findSimilar(int[] signature, double minSimilarity,
+	 * int limit) </p>
+	 *
+	 * <p> Description: Find the posts likely to be duplicates of a text: the posts sharing a
+	 * band with its signature whose signatures agree with it in at least the given fraction of
+	 * values, most similar first, newest first among equals.</p>
+	 *
+	 * @param signature the signature of the text
+	 *
+	 * @param minSimilarity the least estimated similarity of a match
+	 *
+	 * @param limit the most matches returned, or 0 for all
+	 *
+	 * @return the matches; empty if the signature is null
+	 */
+	public List<DuplicateMatch> findSimilar(int[] signature, double minSimilarity, int limit) {
+		List<DuplicateMatch> matches = new ArrayList<>();
+		if (signature == null) return matches;
+		lock.readLock().lock();
+		try {
+			for (int postId : candidates(signature)) {
+				double similarity = MinHash.similarity(signature, signatures.get(postId));
+				if (similarity >= minSimilarity) matches.add(new DuplicateMatch(postId, similarity));
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		matches.sort(Comparator.comparingDouble(DuplicateMatch::getSimilarity).reversed()
+				.thenComparing(Comparator.comparingInt(DuplicateMatch::getPostId).reversed()));
+		return limit > 0 && matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+	}
+
+	/*******
+	 * <p> Method: List&lt;List&lt;Integer&gt;&gt; clusters(double minSimilarity) </p>
+	 *
+	 * <p> Description: Group the posts of the index into clusters of likely duplicates.  Two
+	 * posts sharing a band whose signatures agree in at least the given fraction of values are
+	 * joined, and so are the clusters they belong to.  Only posts sharing a band are
+	 * compared.</p>
+	 *
+	 * @param minSimilarity the least estimated similarity of two joined posts
+	 *
+	 * @return the clusters of two or more posts, each oldest post first, the largest clusters
+	 *         first and otherwise in order of their oldest post
+	 */
+	public List<List<Integer>> clusters(double minSimilarity) {
+		Map<Integer, Integer> parents = new HashMap<>();
+		lock.readLock().lock();
+		try {
+			for (Map<Long, Set<Integer>> band : buckets) {
+				for (Set<Integer> bucket : band.values()) {
+					if (bucket.size() < 2) continue;
+					List<Integer> members = new ArrayList<>(bucket);
+					for (int i = 0; i < members.size(); i++) {
+						for (int j = i + 1; j < members.size(); j++) {
+							int a = members.get(i), b = members.get(j);
+							int rootA = find(parents, a), rootB = find(parents, b);
+							if (rootA == rootB) continue;
+							if (MinHash.similarity(signatures.get(a), signatures.get(b)) >= minSimilarity) {
+								parents.put(Math.max(rootA, rootB), Math.min(rootA, rootB));
+							}
+						}
+					}
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		TreeMap<Integer, List<Integer>> byRoot = new TreeMap<>();
+		for (int postId : new ArrayList<>(parents.keySet())) {
+			byRoot.computeIfAbsent(find(parents, postId), r -> new ArrayList<>()).add(postId);
+		}
+		List<List<Integer>> clusters = new ArrayList<>();
+		for (List<Integer> cluster : byRoot.values()) {
+			if (cluster.size() < 2) continue;
+			cluster.sort(null);
+			clusters.add(cluster);
+		}
+		clusters.sort(Comparator.comparingInt((List<Integer> cluster) -> -cluster.size())
+				.thenComparingInt(cluster -> cluster.get(0)));
+		return clusters;
+	}
+
+	/*******
+	 * <p> Method: Set&lt;Integer&gt; candidates(int[] signature) </p>
+	 *
+	 * <p> Description: Collect the posts sharing at least one band with a signature.  The
+	 * caller holds the read lock.</p>
+	 *
+	 * @param signature the signature
+	 *
+	 * @return the ids of the candidate posts
+	 */
+	private Set<Integer> candidates(int[] signature) {
+		Set<Integer> candidates = new HashSet<>();
+		for (int band = 0; band < BANDS; band++) {
+			Set<Integer> bucket = buckets.get(band).get(bandHash(signature, band));
+			if (bucket != null) candidates.addAll(bucket);
+		}
+		return candidates;
+	}
+
+	/*******
+	 * <p> Method: void removeEntry(int postId) </p>
+	 *
+	 * <p> Description: Take a post out of its buckets.  The caller holds the write lock.</p>
+	 *
+	 * @param postId the id of the post
+	 */
+	private void removeEntry(int postId) {
+		int[] signature = signatures.remove(postId);
+		if (signature == null) return;
+		for (int band = 0; band < BANDS; band++) {
+			Map<Long, Set<Integer>> bandBuckets = buckets.get(band);
+			long key = bandHash(signature, band);
+			Set<Integer> bucket = bandBuckets.get(key);
+			bucket.remove(postId);
+			if (bucket.isEmpty()) bandBuckets.remove(key);
+		}
+	}
+
+	/*******
+	 * <p> Method: long bandHash(int[] signature, int band) </p>
+	 *
+	 * @param signature a signature
+	 *
+	 * @param band the number of the band
+	 *
+	 * @return a hash of the values of the band
+	 */
+	private static long bandHash(int[] signature, int band) {
+		long h = 0x9E3779B97F4A7C15L;
+		for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+			h = (h ^ (signature[i] & 0xFFFFFFFFL)) * 0xff51afd7ed558ccdL;
+			h ^= h >>> 32;
+		}
+		return h;
+	}
+
+	/*******
+	 * <p> Method: int find(Map&lt;Integer, Integer&gt; parents, int postId) </p>
+	 *
+	 * <p> Description: Find the representative of the cluster of a post, the smallest post id
+	 * in it, shortening the path on the way.  A post not yet in a cluster starts its own.</p>
+	 *
+	 * @param parents the parent of each post met so far
+	 *
+	 * @param postId the id of the post
+	 *
+	 * @return the representative
+	 */
+	private static int find(Map<Integer, Integer> parents, int postId) {
+		int root = postId;
+		Integer parent;
+		while ((parent = parents.get(root)) != null && parent != root) root = parent;
+		parents.put(root, root);
+		int at = postId;
+		while (at != root) {
+			int next = parents.get(at);
+			parents.put(at, root);
+			at = next;
+		}
+		return root;
+	}
+}
@@ -0,0 +1,163 @@
+package search;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/*******
+ * <p> Title: MinHash Class. </p>
+ *
+ * <p> Description: Computes MinHash signatures of texts, short fixed-size summaries from which
+ * the Jaccard similarity of the texts' word sets can be estimated: the fraction of positions at
+ * which two signatures agree.  Two questions asked in different words still share most of their
+ * words, so their signatures agree in many positions, while unrelated posts agree in few.</p>
+ *
+ * <p> The words of a text are its terms without stop words, with a plural "s" dropped, so the
+ * order of the words and small changes of grammar do not matter.  Every signature is computed
+ * with the same {@link #NUM_HASHES} hash functions, so signatures stored by one run of the
+ * program can be compared with signatures computed by another.</p>
+ *
+ */
+public final class MinHash {
+
+	/** Number of hash functions, and of values in a signature */
+	public static final int NUM_HASHES = 128;
+
+	/** Multipliers of the hash functions, odd */
+	private static final long[] MULTIPLIERS = new long[NUM_HASHES];
+	/** Offsets of the hash functions */
+	private static final long[] OFFSETS = new long[NUM_HASHES];
+
+	static {
+		// A fixed seed, so the hash functions are the same in every run
+		SplittableRandom random = new SplittableRandom(0x2545F4914F6CDD1DL);
+		for (int i = 0; i < NUM_HASHES; i++) {
+			MULTIPLIERS[i] = random.nextLong() | 1;
+			OFFSETS[i] = random.nextLong();
+		}
+	}
+
+	/*******
+	 * <p> Method: MinHash() </p>
+	 *
+	 * <p> Description: Not used; the class only has static methods.</p>
+	 */
+	private MinHash() {
+	}
+
+	/*******
+	 * <p> Method: int[] signature(String... texts) </p>
+	 *
+	 * <p> Description: Compute the signature of the words of some texts taken together, such as
+	 * the title, subtitle and content of a post.</p>
+	 *
+	 * @param texts the texts; null ones are skipped
+	 *
+	 * @return the signature, or null if the texts have no words
+	 */
+	public static int[] signature(String... texts) {
+		Set<String> words = words(texts);
+		if (words.isEmpty()) return null;
+		int[] signature = new int[NUM_HASHES];
+		Arrays.fill(signature, Integer.MAX_VALUE);
+		for (String word : words) {
+			long x = hash(word);
+			for (int i = 0; i < NUM_HASHES; i++) {
+				int value = (int) ((MULTIPLIERS[i] * x + OFFSETS[i]) >>> 33);
+				if (value < signature[i]) signature[i] = value;
+			}
+		}
+		return signature;
+	}
+
+	/*******
+	 * <p> Method: Set&lt;String&gt; words(String... texts) </p>
+	 *
+	 * <p> Description: Get the distinct words a signature is computed from.</p>
+	 *
+	 * @param texts the texts; null ones are skipped
+	 *
+	 * @return the words
+	 */
+	public static Set<String> words(String... texts) {
+		Set<String> words = new HashSet<>();
+		for (String text : texts) {
+			for (String term : Tokenizer.terms(text)) {
+				if (term.length() > 3 && term.endsWith("s") && !term.endsWith("ss")) {
+					term = term.substring(0, term.length() - 1);
+				}
+				words.add(term);
+			}
+		}
+		return words;
+	}
+
+	/*******
+	 * <p> Method: double similarity(int[] a, int[] b) </p>
+	 *
+	 * @param a a signature
+	 *
+	 * @param b another signature
+	 *
+	 * @return the estimated Jaccard similarity of the word sets, the fraction of positions at
+	 *         which the signatures agree; 0 if either is null
+	 */
+	public static double similarity(int[] a, int[] b) {
+		if (a == null || b == null) return 0;
+		int same = 0;
+		for (int i = 0; i < NUM_HASHES; i++) {
+			if (a[i] == b[i]) same++;
+		}
+		return (double) same / NUM_HASHES;
+	}
+
+	/*******
+	 * <p> Method: byte[] toBytes(int[] signature) </p>
+	 *
+	 * @param signature a signature
+	 *
+	 * @return the signature as bytes, for storing in the database
+	 */
+	public static byte[] toBytes(int[] signature) {
+		ByteBuffer bytes = ByteBuffer.allocate(NUM_HASHES * Integer.BYTES);
+		bytes.asIntBuffer().put(signature);
+		return bytes.array();
+	}
+
+	/*******
+	 * <p> Method: int[] fromBytes(byte[] bytes) </p>
+	 *
+	 * @param bytes a signature stored with {@link #toBytes(int[])}
+	 *
+	 * @return the signature, or null if the bytes are null or not a signature of this size
+	 */
+	public static int[] fromBytes(byte[] bytes) {
+		if (bytes == null || bytes.length != NUM_HASHES * Integer.BYTES) return null;
+		int[] signature = new int[NUM_HASHES];
+		ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+		return signature;
+	}
+
+	/*******
+	 * <p> Method: long hash(String word) </p>
+	 *
+	 * <p> Description: 64-bit FNV-1a hash of a word, mixed so nearby words spread out.</p>
+	 *
+	 * @param word the word
+	 *
+	 * @return the hash
+	 */
+	private static long hash(String word) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < word.length(); i++) {
+			h ^= word.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,71 @@
+package search;
+
+/*******
+ * <p> Title: SearchHit Class. </p>
+ *
+ * <p> Description: One post matching a search, with the relevance score the ranking gave it
+ * and, when the searched words occur in its content or replies, a snippet showing them.
+ * Scores are only meaningful relative to the other hits of the same search.</p>
+ *
+ */
+public final class SearchHit {
+
+	/** Id of the matching post */
+	private final int postId;
+	/** BM25 relevance of the post to the search, higher is better */
+	private final double score;
+	/** Excerpt showing the searched words, null if none */
+	private final Snippet snippet;
+
+	/*******
+	 * <p> Method: SearchHit(int postId, double score) </p>
+	 *
+	 * <p> Description: Create a hit without a snippet.</p>
+	 *
+	 * @param postId the id of the matching post
+	 *
+	 * @param score the relevance of the post to the search
+	 */
+	public SearchHit(int postId, double score) {
+		this(postId, score, null);
+	}
+
+	/*******
+	 * <p> Method: SearchHit(int postId, double score, Snippet snippet) </p>
+	 *
+	 * <p> Description: Create a hit.</p>
+	 *
+	 * @param postId the id of the matching post
+	 *
+	 * @param score the relevance of the post to the search
+	 *
+	 * @param snippet the excerpt showing the searched words, or null
+	 */
+	public SearchHit(int postId, double score, Snippet snippet) {
+		this.postId = postId;
+		this.score = score;
+		this.snippet = snippet;
+	}
+
+	/*******
+	 * <p> Method: int getPostId() </p>
+	 *
+	 * @return the id of the matching post
+	 */
+	public int getPostId() { return postId; }
+
+	/*******
+	 * <p> Method: double getScore() </p>
+	 *
+	 * @return the relevance of the post to the search, higher is better
+	 */
+	public double getScore() { return score; }
+
+	/*******
+	 * <p> Method: Snippet getSnippet() </p>
+	 *
+	 * @return the excerpt of the content or a reply showing the searched words, or null when
+	 * they occur only in the title or tags
+	 */
+	public Snippet getSnippet() { return snippet; }
+}
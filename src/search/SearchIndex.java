@@ -0,0 +1,811 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*******
+ * <p> Title: SearchIndex Class. </p>
+ *
+ * <p> Description: An in-memory inverted index over the text of the posts: title, subtitle,
+ * content, tags and the content of the replies to the post.  Every post is one document, and
+ * a search ranks the documents with BM25, so a post that uses the searched words often, in a
+ * short text, or in its title ranks above one that mentions them once in a long discussion.
+ * Words in the title count {@link #TITLE_WEIGHT} times, words in the subtitle and tags
+ * {@link #SUBTITLE_WEIGHT} times.</p>
+ *
+ * <p> The index is kept up to date one post or reply at a time: each part of a document (the
+ * post itself, or one reply) remembers the terms it added, so changing or removing that part
+ * takes exactly those terms back out without touching the rest of the document.  The last word
+ * of a search that is still being typed also matches the words it is a prefix of.</p>
+ *
+ * <p> The content of the post and of each reply is kept with the positions of its terms, so a
+ * hit can show the excerpt where the searched words occur without the content being read from
+ * the database again or scanned for the words.</p>
+ *
+ * <p> Searches run in parallel; updates wait for the running searches and block new ones only
+ * while the postings are changed.</p>
+ *
+ */
+public final class SearchIndex {
+
+	/** How much more a word in the title counts than a word in the content */
+	public static final int TITLE_WEIGHT = 3;
+	/** How much more a word in the subtitle or the tags counts than a word in the content */
+	public static final int SUBTITLE_WEIGHT = 2;
+	/** BM25 term frequency saturation */
+	static final double K1 = 1.2;
+	/** BM25 document length normalization */
+	static final double B = 0.75;
+	/** Shortest unfinished word that is expanded to the words it is a prefix of */
+	static final int MIN_PREFIX_LENGTH = 2;
+	/** Most words an unfinished word is expanded to, the most common ones first */
+	static final int MAX_PREFIX_TERMS = 50;
+	/** Most characters of text in a snippet, not counting the ellipses */
+	public static final int SNIPPET_LENGTH = 160;
+
+	/** Part key of the post itself; replies use their reply id, which is never 0 */
+	private static final int POST_PART = 0;
+
+	/** Guards every field below */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	/** For each term, the weighted number of times it occurs in each post, by post id */
+	private final TreeMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+	/** For each post, what each of its parts added, by part key */
+	private final Map<Integer, Map<Integer, Part>> parts = new HashMap<>();
+	/** Weighted number of terms of each post, by post id */
+	private final Map<Integer, Integer> lengths = new HashMap<>();
+	/** Post each indexed reply belongs to, by reply id */
+	private final Map<Integer, Integer> replyPosts = new HashMap<>();
+	/** Sum of the lengths of all posts */
+	private long totalLength = 0;
+
+	/*******
+	 * <p> Method: void indexPost(int postId, String title, String subtitle, String content,
+	 * Collection&lt;String&gt; tags) </p>
+	 *
+	 * <p> Description: Add a post to the index, or replace the text indexed for it.  Replies
+	 * already indexed for the post are kept.</p>
+	 *
+	 * @param postId the id of the post
+	 *
+	 * @param title the title of the post
+	 *
+	 * @param subtitle the subtitle of the post, or null
+	 *
+	 * @param content the content of the post, or null
+	 *
+	 * @param tags the tags of the post, or null
+	 */
+	public void indexPost(int postId, String title, String subtitle, String content, Collection<String> tags) {
+		Part part = new Part(content, subtitle);
+		part.add(title, TITLE_WEIGHT, -1);
+		part.add(subtitle, SUBTITLE_WEIGHT, 1);
+		part.add(content, 1, 0);
+		if (tags != null) {
+			for (String tag : tags) part.add(tag, SUBTITLE_WEIGHT, -1);
+		}
+		part.trim();
+		lock.writeLock().lock();
+		try {
+			removePart(postId, POST_PART);
+			addPart(postId, POST_PART, part);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: void indexReply(int replyId, int postId, String content) </p>
+	 *
+	 * <p> Description: Add a reply to the index as part of its post, or replace the text
+	 * indexed for it.  A reply moved to another post is taken out of the old one.</p>
+	 *
+	 * @param replyId the id of the reply
+	 *
+	 * @param postId the id of the post the reply belongs to
+	 *
+	 * @param content the content of the reply
+	 */
+	public void indexReply(int replyId, int postId, String content) {
+		Part part = new Part(content);
+		part.add(content, 1, 0);
+		part.trim();
+		lock.writeLock().lock();
+		try {
+			removeReplyPart(replyId);
+			addPart(postId, replyId, part);
+			replyPosts.put(replyId, postId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: void removePost(int postId) </p>
+	 *
+	 * <p> Description: Take a post and all its replies out of the index.</p>
+	 *
+	 * @param postId the id of the post
+	 */
+	public void removePost(int postId) {
+		lock.writeLock().lock();
+		try {
+			Map<Integer, Part> postParts = parts.get(postId);
+			if (postParts == null) return;
+			for (Integer key : new ArrayList<>(postParts.keySet())) {
+				if (key != POST_PART) replyPosts.remove(key);
+				removePart(postId, key);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: void removeReply(int replyId) </p>
+	 *
+	 * <p> Description: Take a reply out of the index; its post stays.</p>
+	 *
+	 * @param replyId the id of the reply
+	 */
+	public void removeReply(int replyId) {
+		lock.writeLock().lock();
+		try {
+			removeReplyPart(replyId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: void replaceWith(SearchIndex other) </p>
+	 *
+	 * <p> Description: Make this index hold exactly what another index holds, in one step, so
+	 * a search sees either the old or the new contents.  The other index must not be used
+	 * afterwards.</p>
+	 *
+	 * @param other a freshly built index
+	 */
+	public void replaceWith(SearchIndex other) {
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			postings.putAll(other.postings);
+			parts.clear();
+			parts.putAll(other.parts);
+			lengths.clear();
+			lengths.putAll(other.lengths);
+			replyPosts.clear();
+			replyPosts.putAll(other.replyPosts);
+			totalLength = other.totalLength;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: void clear() </p>
+	 *
+	 * <p> Description: Remove every post from the index.</p>
+	 */
+	public void clear() {
+		replaceWith(new SearchIndex());
+	}
+
+	/*******
+	 * <p> Method: int size() </p>
+	 *
+	 * @return the number of posts in the index
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return lengths.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: int termCount() </p>
+	 *
+	 * @return the number of distinct terms in the index
+	 */
+	public int termCount() {
+		lock.readLock().lock();
+		try {
+			return postings.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: SearchPage search(String query, int offset, int limit) </p>
+	 *
+	 * <p> Description: Rank the posts matching any word of the query and return one page of
+	 * them, best first; posts with the same score are listed newest first.  When the query does
+	 * not end in white space or punctuation, its last word is taken as unfinished and also
+	 * matches the most common words it is a prefix of.  Only the posts of the page and the ones
+	 * before it are sorted, and only the hits of the page get a snippet.</p>
+	 *
+	 * @param query the words to search for
+	 *
+	 * @param offset the number of hits to skip
+	 *
+	 * @param limit the maximum number of hits on the page, or 0 for every hit after the offset
+	 *
+	 * @return the page of hits; empty if no word of the query is indexed
+	 */
+	public SearchPage search(String query, int offset, int limit) {
+		return search(query, offset, limit, true);
+	}
+
+	/*******
+	 * <p> Method: List&lt;Integer&gt; rank(String query) </p>
+	 *
+	 * <p> Description: Rank every post matching the query like {@link #search(String, int, int)},
+	 * without snippets, for a caller that filters the ranking before cutting a page from it.</p>
+	 *
+	 * @param query the words to search for
+	 *
+	 * @return the ids of the matching posts, best first
+	 */
+	public List<Integer> rank(String query) {
+		List<Integer> ranked = new ArrayList<>();
+		for (SearchHit hit : search(query, 0, 0, false).getHits()) ranked.add(hit.getPostId());
+		return ranked;
+	}
+
+	/*******
+	 * <p> Method: Map&lt;Integer, Snippet&gt; snippets(String query, Collection&lt;Integer&gt; postIds) </p>
+	 *
+	 * <p> Description: Get the snippet showing the words of a query for each of some posts, as
+	 * {@link #search(String, int, int)} gives them to its hits.</p>
+	 *
+	 * @param query the words searched for
+	 *
+	 * @param postIds the posts to cut snippets for, usually one page of hits
+	 *
+	 * @return the snippet of each post whose content or replies contain a word of the query,
+	 *         by post id
+	 */
+	public Map<Integer, Snippet> snippets(String query, Collection<Integer> postIds) {
+		Set<String> terms = new LinkedHashSet<>();
+		String prefix = parse(query, terms);
+		Map<Integer, Snippet> snippets = new HashMap<>();
+		lock.readLock().lock();
+		try {
+			if (prefix != null) terms.addAll(prefixTerms(prefix));
+			for (int postId : postIds) {
+				Snippet snippet = snippet(postId, terms);
+				if (snippet != null) snippets.put(postId, snippet);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return snippets;
+	}
+
+	/*******
+	 * <p> Method: SearchPage search(String query, int offset, int limit, boolean withSnippets) </p>
+	 *
+	 * <p> Description: Rank the posts matching the query and return one page of them.</p>
+	 *
+	 * @param query the words to search for
+	 *
+	 * @param offset the number of hits to skip
+	 *
+	 * @param limit the maximum number of hits on the page, or 0 for every hit after the offset
+	 *
+	 * @param withSnippets whether to cut a snippet for each hit of the page
+	 *
+	 * @return the page of hits
+	 */
+	private SearchPage search(String query, int offset, int limit, boolean withSnippets) {
+		Set<String> terms = new LinkedHashSet<>();
+		String prefix = parse(query, terms);
+
+		lock.readLock().lock();
+		try {
+			int documents = lengths.size();
+			if (documents == 0) return new SearchPage(List.of(), 0);
+			double averageLength = (double) totalLength / documents;
+
+			Map<Integer, Double> scores = new HashMap<>();
+			for (String term : terms) {
+				Map<Integer, Integer> docs = postings.get(term);
+				if (docs != null) scoreTerm(docs, documents, averageLength, scores);
+			}
+			List<String> expansions = prefix == null ? List.of() : prefixTerms(prefix);
+			if (!expansions.isEmpty()) {
+				// Each post counts only its best expansion, so a prefix shared by many words
+				// does not outweigh a whole word
+				Map<Integer, Double> best = new HashMap<>();
+				for (String term : expansions) {
+					Map<Integer, Double> termScores = new HashMap<>();
+					scoreTerm(postings.get(term), documents, averageLength, termScores);
+					termScores.forEach((postId, score) -> best.merge(postId, score, Math::max));
+				}
+				best.forEach((postId, score) -> scores.merge(postId, score, Double::sum));
+			}
+			SearchPage page = page(scores, Math.max(0, offset), Math.max(0, limit));
+			if (!withSnippets) return page;
+
+			terms.addAll(expansions);
+			List<SearchHit> hits = new ArrayList<>(page.getHits().size());
+			for (SearchHit hit : page.getHits()) {
+				hits.add(new SearchHit(hit.getPostId(), hit.getScore(), snippet(hit.getPostId(), terms)));
+			}
+			return new SearchPage(hits, page.getTotalHits());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: String parse(String query, Set&lt;String&gt; terms) </p>
+	 *
+	 * <p> Description: Split a query into its finished words, without stop words, and its
+	 * unfinished last word: the last word when the query does not end in white space or
+	 * punctuation.</p>
+	 *
+	 * @param query the query
+	 *
+	 * @param terms receives the finished words
+	 *
+	 * @return the unfinished last word, or null if there is none or it is also a finished word
+	 */
+	private static String parse(String query, Set<String> terms) {
+		List<String> tokens = new ArrayList<>();
+		Tokenizer.tokenize(query, (term, start, end) -> tokens.add(term));
+		String prefix = null;
+		if (!tokens.isEmpty() && Character.isLetterOrDigit(query.charAt(query.length() - 1))) {
+			prefix = tokens.remove(tokens.size() - 1);
+		}
+		for (String token : tokens) {
+			if (!Tokenizer.isStopWord(token)) terms.add(token);
+		}
+		return prefix != null && terms.contains(prefix) ? null : prefix;
+	}
+
+	/*******
+	 * <p> Method: List&lt;String&gt; prefixTerms(String prefix) </p>
+	 *
+	 * <p> Description: Get the indexed words an unfinished word may become: the word itself
+	 * if it is indexed, and, when it is long enough, up to {@link #MAX_PREFIX_TERMS} longer
+	 * words it is a prefix of, the ones in the most posts first.</p>
+	 *
+	 * @param prefix the unfinished word
+	 *
+	 * @return the indexed words to match
+	 */
+	private List<String> prefixTerms(String prefix) {
+		List<String> expansions = new ArrayList<>();
+		if (prefix.length() < MIN_PREFIX_LENGTH) {
+			if (postings.containsKey(prefix)) expansions.add(prefix);
+			return expansions;
+		}
+		for (String term : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).keySet()) {
+			expansions.add(term);
+		}
+		if (expansions.size() > MAX_PREFIX_TERMS) {
+			expansions.sort(Comparator.comparingInt((String term) -> -postings.get(term).size()));
+			return expansions.subList(0, MAX_PREFIX_TERMS);
+		}
+		return expansions;
+	}
+
+	/*******
+	 * <p> Method: void scoreTerm(Map&lt;Integer, Integer&gt; docs, int documents, double
+	 * averageLength, Map&lt;Integer, Double&gt; scores) </p>
+	 *
+	 * <p> Description: Add the BM25 score of one term to the score of every post containing
+	 * it.</p>
+	 *
+	 * @param docs the weighted number of occurrences of the term, by post id
+	 *
+	 * @param documents the number of posts in the index
+	 *
+	 * @param averageLength the average length of the posts
+	 *
+	 * @param scores the scores to add to, by post id
+	 */
+	private void scoreTerm(Map<Integer, Integer> docs, int documents, double averageLength,
+			Map<Integer, Double> scores) {
+		int df = docs.size();
+		double idf = Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+		for (Map.Entry<Integer, Integer> doc : docs.entrySet()) {
+			double tf = doc.getValue();
+			double norm = K1 * (1 - B + B * lengths.get(doc.getKey()) / averageLength);
+			scores.merge(doc.getKey(), idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+		}
+	}
+
+	/*******
+	 * <p> Method: SearchPage page(Map&lt;Integer, Double&gt; scores, int offset, int limit) </p>
+	 *
+	 * <p> Description: Pick one page of the best scored posts.  A bounded heap keeps only the
+	 * best offset + limit posts while the scores are read.</p>
+	 *
+	 * @param scores the score of every matching post, by post id
+	 *
+	 * @param offset the number of hits to skip
+	 *
+	 * @param limit the maximum number of hits on the page, or 0 for all
+	 *
+	 * @return the page of hits
+	 */
+	private static SearchPage page(Map<Integer, Double> scores, int offset, int limit) {
+		Comparator<SearchHit> better = Comparator.comparingDouble(SearchHit::getScore)
+				.thenComparingInt(SearchHit::getPostId);
+		long wanted = limit == 0 ? scores.size() : Math.min(scores.size(), (long) offset + limit);
+		PriorityQueue<SearchHit> top = new PriorityQueue<>(better);
+		for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+			if (wanted == 0) break;
+			SearchHit hit = new SearchHit(entry.getKey(), entry.getValue());
+			if (top.size() < wanted) {
+				top.add(hit);
+			} else if (better.compare(hit, top.peek()) > 0) {
+				top.poll();
+				top.add(hit);
+			}
+		}
+		List<SearchHit> hits = new ArrayList<>(top.size());
+		while (!top.isEmpty()) hits.add(top.poll());
+		Collections.reverse(hits);
+		return new SearchPage(hits.subList(Math.min(offset, hits.size()), hits.size()), scores.size());
+	}
+
+	/*******
+	 * <p> Method: Snippet snippet(int postId, Set&lt;String&gt; terms) </p>
+	 *
+	 * <p> Description: Cut the excerpt of the content, subtitle or replies of a post holding
+	 * the most different searched words within {@link #SNIPPET_LENGTH} characters; among those,
+	 * the one holding the most occurrences, and the post before its replies.  Only the stored
+	 * positions of the searched words are read.  The caller holds the read lock.</p>
+	 *
+	 * @param postId the id of the post
+	 *
+	 * @param terms the searched words, prefix expansions included
+	 *
+	 * @return the snippet, or null if no searched word occurs in the content, subtitle or
+	 *         replies of the post
+	 */
+	private Snippet snippet(int postId, Set<String> terms) {
+		Map<Integer, Part> postParts = parts.get(postId);
+		if (postParts == null || terms.isEmpty()) return null;
+		List<String> termList = new ArrayList<>(terms);
+		List<Integer> keys = new ArrayList<>(postParts.keySet());
+		Collections.sort(keys);
+		Window best = null;
+		for (int key : keys) {
+			Part part = postParts.get(key);
+			for (int field = 0; field < part.texts.length; field++) {
+				Window window = Window.best(part, field, key, termList);
+				if (window != null && (best == null || window.betterThan(best))) best = window;
+			}
+		}
+		return best == null ? null : best.cut();
+	}
+
+	/*******
+	 * <p> Method: void addPart(int postId, int key, Part part) </p>
+	 *
+	 * <p> Description: Add the terms of one part of a post to the postings.  The caller holds
+	 * the write lock and has removed any earlier version of the part.</p>
+	 *
+	 * @param postId the id of the post
+	 *
+	 * @param key the part key, {@link #POST_PART} or a reply id
+	 *
+	 * @param part the terms and texts of the part
+	 */
+	private void addPart(int postId, int key, Part part) {
+		int length = 0;
+		for (Map.Entry<String, Integer> term : part.weights.entrySet()) {
+			postings.computeIfAbsent(term.getKey(), t -> new HashMap<>())
+					.merge(postId, term.getValue(), Integer::sum);
+			length += term.getValue();
+		}
+		parts.computeIfAbsent(postId, p -> new HashMap<>()).put(key, part);
+		lengths.merge(postId, length, Integer::sum);
+		totalLength += length;
+	}
+
+	/*******
+	 * <p> Method: void removePart(int postId, int key) </p>
+	 *
+	 * <p> Description: Take the terms one part of a post added back out of the postings.  A
+	 * post left without parts leaves the index.  The caller holds the write lock.</p>
+	 *
+	 * @param postId the id of the post
+	 *
+	 * @param key the part key, {@link #POST_PART} or a reply id
+	 */
+	private void removePart(int postId, int key) {
+		Map<Integer, Part> postParts = parts.get(postId);
+		if (postParts == null) return;
+		Part part = postParts.remove(key);
+		if (part == null) return;
+		int length = 0;
+		for (Map.Entry<String, Integer> term : part.weights.entrySet()) {
+			Map<Integer, Integer> docs = postings.get(term.getKey());
+			if (docs.merge(postId, -term.getValue(), Integer::sum) == 0) docs.remove(postId);
+			if (docs.isEmpty()) postings.remove(term.getKey());
+			length += term.getValue();
+		}
+		totalLength -= length;
+		if (postParts.isEmpty()) {
+			parts.remove(postId);
+			lengths.remove(postId);
+		} else {
+			lengths.merge(postId, -length, Integer::sum);
+		}
+	}
+
+	/*******
+	 * <p> Method: void removeReplyPart(int replyId) </p>
+	 *
+	 * <p> Description: Take a reply out of the post it was indexed under.  The caller holds
+	 * the write lock.</p>
+	 *
+	 * @param replyId the id of the reply
+	 */
+	private void removeReplyPart(int replyId) {
+		Integer postId = replyPosts.remove(replyId);
+		if (postId != null) removePart(postId, replyId);
+	}
+
+	/*******
+	 * <p> Title: Part Class. </p>
+	 *
+	 * <p> Description: What one part of a post, the post itself or one reply, added to the
+	 * index: the weighted count of each of its terms and, for the texts snippets are cut from,
+	 * the texts and where each term occurs in them.</p>
+	 */
+	private static final class Part {
+		/** Weighted number of occurrences of each term */
+		private final Map<String, Integer> weights = new HashMap<>();
+		/** The texts snippets are cut from, by field number */
+		private final String[] texts;
+		/** For each term, its occurrences in the texts as field, start and end triples */
+		private final Map<String, int[]> positions = new HashMap<>();
+
+		/**
+		 * @param texts the texts snippets may be cut from, by field number; null is empty
+		 */
+		private Part(String... texts) {
+			this.texts = new String[texts.length];
+			for (int i = 0; i < texts.length; i++) this.texts[i] = texts[i] == null ? "" : texts[i];
+		}
+
+		/*******
+		 * <p> Method: void add(String text, int weight, int field) </p>
+		 *
+		 * <p> Description: Count the terms of a text, each occurrence counting the weight of
+		 * the field it is in, and remember where they occur when the text is one snippets are
+		 * cut from.  Until {@link #trim()}, each array of positions starts with the number of
+		 * entries used.</p>
+		 *
+		 * @param text the text of the field
+		 *
+		 * @param weight how much each occurrence counts
+		 *
+		 * @param field the field number of the text, or -1 if no snippet is cut from it
+		 */
+		private void add(String text, int weight, int field) {
+			Tokenizer.tokenize(text, (term, start, end) -> {
+				if (Tokenizer.isStopWord(term)) return;
+				weights.merge(term, weight, Integer::sum);
+				if (field < 0) return;
+				int[] occurrences = positions.get(term);
+				if (occurrences == null) {
+					occurrences = new int[4];
+				} else if (occurrences[0] + 4 > occurrences.length) {
+					occurrences = Arrays.copyOf(occurrences, occurrences.length * 2);
+				}
+				int used = occurrences[0];
+				occurrences[used + 1] = field;
+				occurrences[used + 2] = start;
+				occurrences[used + 3] = end;
+				occurrences[0] = used + 3;
+				positions.put(term, occurrences);
+			});
+		}
+
+		/*******
+		 * <p> Method: void trim() </p>
+		 *
+		 * <p> Description: Drop the counts and spare room from the arrays of positions once
+		 * every text has been added.</p>
+		 */
+		private void trim() {
+			positions.replaceAll((term, occurrences) -> Arrays.copyOfRange(occurrences, 1, occurrences[0] + 1));
+		}
+	}
+
+	/*******
+	 * <p> Title: Window Class. </p>
+	 *
+	 * <p> Description: The stretch of one text of a part holding the most searched words
+	 * within {@link SearchIndex#SNIPPET_LENGTH} characters, from which a snippet is cut.</p>
+	 */
+	private static final class Window {
+		/** Most occurrences looked at in one text, so a place in the list fits in 20 bits */
+		private static final int MAX_OCCURRENCES = 1 << 20;
+		/** Most searched words, so a term number fits in 12 bits */
+		private static final int MAX_TERMS = 1 << 12;
+		/** The part the text belongs to */
+		private final Part part;
+		/** The field number of the text */
+		private final int field;
+		/** The part key, the reply id or 0 for the post */
+		private final int key;
+		/** Start and end of every occurrence of a searched word in the text, by start */
+		private final int[] starts, ends;
+		/** Start of the first and end of the last occurrence in the stretch */
+		private final int from, to;
+		/** Number of different searched words in the stretch */
+		private final int distinct;
+		/** Number of occurrences of searched words in the stretch */
+		private final int count;
+
+		/**
+		 * @param part the part
+		 * @param field the field number of the text
+		 * @param key the part key
+		 * @param starts the starts of every occurrence in the text, in order
+		 * @param ends the ends of those occurrences
+		 * @param from start of the first occurrence in the stretch
+		 * @param to end of the last occurrence in the stretch
+		 * @param distinct number of different searched words in the stretch
+		 * @param count number of occurrences in the stretch
+		 */
+		private Window(Part part, int field, int key, int[] starts, int[] ends, int from, int to,
+				int distinct, int count) {
+			this.part = part;
+			this.field = field;
+			this.key = key;
+			this.starts = starts;
+			this.ends = ends;
+			this.from = from;
+			this.to = to;
+			this.distinct = distinct;
+			this.count = count;
+		}
+
+		/*******
+		 * <p> Method: Window best(Part part, int field, int key, List&lt;String&gt; terms) </p>
+		 *
+		 * <p> Description: Find the stretch of a text with the most different searched words,
+		 * then the most occurrences, sliding over the stored occurrences in order.</p>
+		 *
+		 * @param part the part
+		 *
+		 * @param field the field number of the text
+		 *
+		 * @param key the part key
+		 *
+		 * @param terms the searched words
+		 *
+		 * @return the best stretch, or null if no searched word occurs in the text
+		 */
+		private static Window best(Part part, int field, int key, List<String> terms) {
+			int total = 0;
+			for (String term : terms) {
+				int[] occurrences = part.positions.get(term);
+				if (occurrences != null) total += occurrences.length / 3;
+			}
+			if (total == 0) return null;
+			// Start, term number and place in the list packed into one long, so sorting orders by start
+			long[] sorted = new long[total];
+			int[] ends = new int[total];
+			int n = 0;
+			for (int t = 0; t < Math.min(terms.size(), MAX_TERMS); t++) {
+				int[] occurrences = part.positions.get(terms.get(t));
+				if (occurrences == null) continue;
+				for (int i = 0; i < occurrences.length && n < MAX_OCCURRENCES; i += 3) {
+					if (occurrences[i] != field) continue;
+					ends[n] = occurrences[i + 2];
+					sorted[n] = (long) occurrences[i + 1] << 32 | (long) t << 20 | n;
+					n++;
+				}
+			}
+			if (n == 0) return null;
+			sorted = Arrays.copyOf(sorted, n);
+			Arrays.sort(sorted);
+			int[] starts = new int[n], sortedEnds = new int[n], termOf = new int[n];
+			for (int i = 0; i < n; i++) {
+				starts[i] = (int) (sorted[i] >>> 32);
+				termOf[i] = (int) (sorted[i] >>> 20 & 0xFFF);
+				sortedEnds[i] = ends[(int) (sorted[i] & 0xFFFFF)];
+			}
+
+			int[] inWindow = new int[terms.size()];
+			int distinct = 0, bestDistinct = 0, bestCount = 0, bestLo = 0, bestHi = 0;
+			for (int lo = 0, hi = 0; hi < n; hi++) {
+				if (inWindow[termOf[hi]]++ == 0) distinct++;
+				while (lo < hi && sortedEnds[hi] - starts[lo] > SNIPPET_LENGTH) {
+					if (--inWindow[termOf[lo++]] == 0) distinct--;
+				}
+				int count = hi - lo + 1;
+				if (distinct > bestDistinct || (distinct == bestDistinct && count > bestCount)) {
+					bestDistinct = distinct;
+					bestCount = count;
+					bestLo = lo;
+					bestHi = hi;
+				}
+			}
+			return new Window(part, field, key, starts, sortedEnds, starts[bestLo], sortedEnds[bestHi],
+					bestDistinct, bestCount);
+		}
+
+		/*******
+		 * <p> Method: boolean betterThan(Window other) </p>
+		 *
+		 * @param other another stretch
+		 *
+		 * @return true if this stretch holds more different searched words, or as many and
+		 *         more occurrences
+		 */
+		private boolean betterThan(Window other) {
+			return distinct > other.distinct || (distinct == other.distinct && count > other.count);
+		}
+
+		/*******
+		 * <p> Method: Snippet cut() </p>
+		 *
+		 * <p> Description: Cut the snippet around the stretch, widened to about
+		 * {@link SearchIndex#SNIPPET_LENGTH} characters without splitting a word, and mark the
+		 * occurrences inside it.</p>
+		 *
+		 * @return the snippet
+		 */
+		private Snippet cut() {
+			String text = part.texts[field];
+			int length = text.length();
+			int begin = Math.max(0, from - (SNIPPET_LENGTH - (to - from)) / 2);
+			int end = Math.min(length, begin + SNIPPET_LENGTH);
+			begin = Math.max(0, Math.min(begin, end - SNIPPET_LENGTH));
+			while (begin > 0 && begin < from && Character.isLetterOrDigit(text.charAt(begin - 1))) begin++;
+			while (end < length && end > to && Character.isLetterOrDigit(text.charAt(end))) end--;
+			while (begin < from && Character.isWhitespace(text.charAt(begin))) begin++;
+			while (end > to && Character.isWhitespace(text.charAt(end - 1))) end--;
+
+			String lead = begin > 0 ? "\u2026" : "";
+			StringBuilder excerpt = new StringBuilder(end - begin + 2).append(lead);
+			for (int i = begin; i < end; i++) {
+				char c = text.charAt(i);
+				excerpt.append(Character.isWhitespace(c) ? ' ' : c);
+			}
+			if (end < length) excerpt.append('\u2026');
+
+			int matches = 0;
+			for (int i = 0; i < starts.length; i++) {
+				if (starts[i] >= begin && ends[i] <= end) matches++;
+			}
+			int[] matchStarts = new int[matches], matchEnds = new int[matches];
+			int m = 0, previousEnd = -1;
+			for (int i = 0; i < starts.length; i++) {
+				if (starts[i] < begin || ends[i] > end || starts[i] < previousEnd) continue;
+				matchStarts[m] = starts[i] - begin + lead.length();
+				matchEnds[m] = ends[i] - begin + lead.length();
+				previousEnd = ends[i];
+				m++;
+			}
+			return new Snippet(excerpt.toString(), Arrays.copyOf(matchStarts, m), Arrays.copyOf(matchEnds, m), key);
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package search;
+
+import java.util.List;
+
+/*******
+ * <p> Title: SearchPage Class. </p>
+ *
+ * <p> Description: One page of the hits of a search, best first, together with how many posts
+ * matched in all, so a caller can tell whether another page follows.</p>
+ *
+ */
+public final class SearchPage {
+
+	/** The hits of this page, best first */
+	private final List<SearchHit> hits;
+	/** Number of posts matching the search over all pages */
+	private final int totalHits;
+
+	/*******
+	 * <p> Method: SearchPage(List&lt;SearchHit&gt; hits, int totalHits) </p>
+	 *
+	 * <p> Description: Create a page.</p>
+	 *
+	 * @param hits the hits of this page, best first
+	 *
+	 * @param totalHits the number of posts matching the search over all pages
+	 */
+	public SearchPage(List<SearchHit> hits, int totalHits) {
+		this.hits = List.copyOf(hits);
+		this.totalHits = totalHits;
+	}
+
+	/*******
+	 * <p> Method: List&lt;SearchHit&gt; getHits() </p>
+	 *
+	 * @return the hits of this page, best first
+	 */
+	public List<SearchHit> getHits() { return hits; }
+
+	/*******
+	 * <p> Method: int getTotalHits() </p>
+	 *
+	 * @return the number of posts matching the search over all pages
+	 */
+	public int getTotalHits() { return totalHits; }
+}
@@ -0,0 +1,245 @@
+package search;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*******
+ * <p> Title: SearchPipeline Class. </p>
+ *
+ * <p> Description: Runs the searches typed into a search field on a background thread, so the
+ * page stays responsive while the user types. Queries submitted with {@link #submit(Callable)}
+ * wait for the debounce delay first, and a query submitted during that delay replaces the one
+ * waiting, so a burst of keystrokes runs one query. Only the result of the latest query is
+ * applied: the results of queries that were replaced while running are dropped.</p>
+ *
+ * <p> Queries run one at a time on a single daemon thread. A query that has started is not
+ * interrupted when it is replaced, because the embedded database closes its file when a thread
+ * is interrupted during I/O; it runs to the end and its result is dropped. Results are handed
+ * to the {@link Results} callback through the result executor, which is
+ * {@code Platform::runLater} for a JavaFX page, together with how long the query took.</p>
+ *
+ * @param <R> the type of the result of a query
+ */
+public class SearchPipeline<R> {
+
+	/** Milliseconds a query waits for further keystrokes before it runs */
+	public static final long DEFAULT_DEBOUNCE_MILLIS = 200;
+
+	/*******
+	 * <p> Title: Results Interface. </p>
+	 *
+	 * <p> Description: Receives the result of the latest query, on the result executor.</p>
+	 *
+	 * @param <R> the type of the result of a query
+	 */
+	@FunctionalInterface
+	public interface Results<R> {
+		/**
+		 * @param result what the query returned
+		 * @param queryNanos how long the query ran, in nanoseconds
+		 */
+		void apply(R result, long queryNanos);
+	}
+
+	/** Milliseconds a submitted query waits before it runs */
+	private final long debounceMillis;
+	/** Runs the callback, on the thread that owns what the results are shown in */
+	private final Executor resultExecutor;
+	/** Receives the result of the latest query */
+	private final Results<R> results;
+	/** Number of the latest query; a query whose number is older is stale */
+	private final AtomicLong generation = new AtomicLong();
+	/** Number of queries whose result was applied */
+	private final AtomicLong completedQueries = new AtomicLong();
+	/** Number of queries that were replaced before they started or before their result was applied */
+	private final AtomicLong staleQueries = new AtomicLong();
+	/** Nanoseconds the query applied last took, -1 before the first */
+	private volatile long lastQueryNanos = -1;
+	/** Thread waiting out the debounce delay and running the queries, started on first use */
+	private ScheduledExecutorService searchExecutor = null;
+	/** The query waiting or running, null if none */
+	private Future<?> pending = null;
+	/** Set once the pending query has been applied, replaced or has failed, so it is counted once */
+	private AtomicBoolean pendingSettled = null;
+
+	/*******
+	 * <p> Method: SearchPipeline(Executor resultExecutor, Results&lt;R&gt; results) </p>
+	 *
+	 * <p> Description: Create a pipeline waiting {@link #DEFAULT_DEBOUNCE_MILLIS} for further
+	 * keystrokes.</p>
+	 *
+	 * @param resultExecutor runs the callback, such as {@code Platform::runLater}
+	 *
+	 * @param results receives the result of the latest query
+	 */
+	public SearchPipeline(Executor resultExecutor, Results<R> results) {
+		this(DEFAULT_DEBOUNCE_MILLIS, resultExecutor, results);
+	}
+
+	/*******
+	 * <p> Method: SearchPipeline(long debounceMillis, Executor resultExecutor, Results&lt;R&gt; results) </p>
+	 *
+	 * <p> Description: Create a pipeline.</p>
+	 *
+	 * @param debounceMillis milliseconds a submitted query waits for further keystrokes
+	 *
+	 * @param resultExecutor runs the callback, such as {@code Platform::runLater}
+	 *
+	 * @param results receives the result of the latest query
+	 */
+	public SearchPipeline(long debounceMillis, Executor resultExecutor, Results<R> results) {
+		if (debounceMillis < 0) throw new IllegalArgumentException("debounceMillis must not be negative");
+		this.debounceMillis = debounceMillis;
+		this.resultExecutor = resultExecutor;
+		this.results = results;
+	}
+
+	/*******
+	 * <p> Method: void submit(Callable&lt;R&gt; query) </p>
+	 *
+	 * <p> Description: Run a query once no other query has been submitted for the debounce
+	 * delay, replacing the query submitted before. The query must not read the page; capture
+	 * what it needs, such as the search text and filters, before submitting it.</p>
+	 *
+	 * @param query the query to run on the background thread
+	 */
+	public void submit(Callable<R> query) {
+		schedule(query, debounceMillis);
+	}
+
+	/*******
+	 * <p> Method: void submitNow(Callable&lt;R&gt; query) </p>
+	 *
+	 * <p> Description: Run a query as soon as the background thread is free, replacing the
+	 * query submitted before. Used when the user asks for the search, such as with a button.</p>
+	 *
+	 * @param query the query to run on the background thread
+	 */
+	public void submitNow(Callable<R> query) {
+		schedule(query, 0);
+	}
+
+	/*******
+	 * <p> Method: void cancel() </p>
+	 *
+	 * <p> Description: Drop the query waiting or running, so no result is applied until the
+	 * next query is submitted. Called when the page loads its results itself.</p>
+	 */
+	public synchronized void cancel() {
+		generation.incrementAndGet();
+		dropPending();
+	}
+
+	/*******
+	 * <p> Method: void shutdown() </p>
+	 *
+	 * <p> Description: Drop the query waiting or running and stop the background thread. A
+	 * later submit starts a new one.</p>
+	 */
+	public synchronized void shutdown() {
+		cancel();
+		if (searchExecutor != null) searchExecutor.shutdown();
+		searchExecutor = null;
+	}
+
+	/*******
+	 * <p> Method: long getCompletedQueries() </p>
+	 *
+	 * @return the number of queries whose result was applied
+	 */
+	public long getCompletedQueries() { return completedQueries.get(); }
+
+	/*******
+	 * <p> Method: long getStaleQueries() </p>
+	 *
+	 * @return the number of queries replaced before they started or before their result was
+	 * applied
+	 */
+	public long getStaleQueries() { return staleQueries.get(); }
+
+	/*******
+	 * <p> Method: long getLastQueryNanos() </p>
+	 *
+	 * @return how long the query applied last ran, in nanoseconds, or -1 before the first
+	 */
+	public long getLastQueryNanos() { return lastQueryNanos; }
+
+	/*******
+	 * <p> Method: void schedule(Callable&lt;R&gt; query, long delayMillis) </p>
+	 *
+	 * <p> Description: Make the query the latest, drop the one waiting, and run the new one after
+	 * the delay.</p>
+	 *
+	 * @param query the query
+	 *
+	 * @param delayMillis milliseconds to wait before running it
+	 */
+	private synchronized void schedule(Callable<R> query, long delayMillis) {
+		long id = generation.incrementAndGet();
+		dropPending();
+		if (searchExecutor == null) {
+			searchExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "Search");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		AtomicBoolean settled = new AtomicBoolean();
+		pending = searchExecutor.schedule(() -> run(id, query, settled), delayMillis, TimeUnit.MILLISECONDS);
+		pendingSettled = settled;
+	}
+
+	/*******
+	 * <p> Method: void dropPending() </p>
+	 *
+	 * <p> Description: Cancel the pending query if it has not started, and count it as stale
+	 * unless it was already applied.</p>
+	 */
+	private synchronized void dropPending() {
+		if (pending == null) return;
+		pending.cancel(false);
+		if (pendingSettled.compareAndSet(false, true)) staleQueries.incrementAndGet();
+		pending = null;
+		pendingSettled = null;
+	}
+
+	/*******
+	 * <p> Method: void run(long id, Callable&lt;R&gt; query, AtomicBoolean settled) </p>
+	 *
+	 * <p> Description: Run a query on the background thread unless it was replaced while it
+	 * waited, and pass its result to the result executor, which applies it only if no newer
+	 * query was submitted meanwhile.</p>
+	 *
+	 * @param id the number of the query
+	 *
+	 * @param query the query
+	 *
+	 * @param settled set once the query is applied, replaced or has failed
+	 */
+	private void run(long id, Callable<R> query, AtomicBoolean settled) {
+		if (id != generation.get()) return;
+		long start = System.nanoTime();
+		R result;
+		try {
+			result = query.call();
+		} catch (Exception e) {
+			settled.set(true);
+			e.printStackTrace();
+			return;
+		}
+		long queryNanos = System.nanoTime() - start;
+		if (id != generation.get()) return;
+		resultExecutor.execute(() -> {
+			if (id != generation.get() || !settled.compareAndSet(false, true)) return;
+			lastQueryNanos = queryNanos;
+			completedQueries.incrementAndGet();
+			results.apply(result, queryNanos);
+		});
+	}
+}
@@ -0,0 +1,101 @@
+package search;
+
+/*******
+ * <p> Title: Snippet Class. </p>
+ *
+ * <p> Description: A short excerpt of the content of a post or of one of its replies showing
+ * why the post matched a search, with the places in the excerpt where the searched words
+ * occur, so a page can highlight them. An excerpt cut out of a longer text starts or ends with
+ * an ellipsis, and line breaks in it are shown as spaces.</p>
+ *
+ */
+public final class Snippet {
+
+	/** The excerpt */
+	private final String text;
+	/** Where each occurrence of a searched word starts in the excerpt, in order */
+	private final int[] matchStarts;
+	/** Where each occurrence of a searched word ends in the excerpt, exclusive */
+	private final int[] matchEnds;
+	/** Id of the reply the excerpt is from, 0 if it is from the post */
+	private final int replyId;
+
+	/*******
+	 * <p> Method: Snippet(String text, int[] matchStarts, int[] matchEnds, int replyId) </p>
+	 *
+	 * <p> Description: Create a snippet.</p>
+	 *
+	 * @param text the excerpt
+	 *
+	 * @param matchStarts where each occurrence of a searched word starts in the excerpt, in order
+	 *
+	 * @param matchEnds where each of those occurrences ends, exclusive
+	 *
+	 * @param replyId the id of the reply the excerpt is from, 0 if it is from the post
+	 */
+	public Snippet(String text, int[] matchStarts, int[] matchEnds, int replyId) {
+		if (matchStarts.length != matchEnds.length) {
+			throw new IllegalArgumentException("every match needs a start and an end");
+		}
+		this.text = text;
+		this.matchStarts = matchStarts.clone();
+		this.matchEnds = matchEnds.clone();
+		this.replyId = replyId;
+	}
+
+	/*******
+	 * <p> Method: String getText() </p>
+	 *
+	 * @return the excerpt
+	 */
+	public String getText() { return text; }
+
+	/*******
+	 * <p> Method: int getMatchCount() </p>
+	 *
+	 * @return the number of occurrences of searched words in the excerpt
+	 */
+	public int getMatchCount() { return matchStarts.length; }
+
+	/*******
+	 * <p> Method: int getMatchStart(int i) </p>
+	 *
+	 * @param i which occurrence, from 0, in order of position
+	 *
+	 * @return where the occurrence starts in the excerpt
+	 */
+	public int getMatchStart(int i) { return matchStarts[i]; }
+
+	/*******
+	 * <p> Method: int getMatchEnd(int i) </p>
+	 *
+	 * @param i which occurrence, from 0, in order of position
+	 *
+	 * @return where the occurrence ends in the excerpt, exclusive
+	 */
+	public int getMatchEnd(int i) { return matchEnds[i]; }
+
+	/*******
+	 * <p> Method: int getReplyId() </p>
+	 *
+	 * @return the id of the reply the excerpt is from, 0 if it is from the post
+	 */
+	public int getReplyId() { return replyId; }
+
+	/*******
+	 * <p> Method: String toString() </p>
+	 *
+	 * @return the excerpt with each occurrence of a searched word in square brackets
+	 */
+	@Override
+	public String toString() {
+		StringBuilder marked = new StringBuilder(text.length() + 2 * matchStarts.length);
+		int at = 0;
+		for (int i = 0; i < matchStarts.length; i++) {
+			marked.append(text, at, matchStarts[i]).append('[')
+					.append(text, matchStarts[i], matchEnds[i]).append(']');
+			at = matchEnds[i];
+		}
+		return marked.append(text, at, text.length()).toString();
+	}
+}
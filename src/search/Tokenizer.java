@@ -0,0 +1,112 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/*******
+ * <p> Title: Tokenizer Class. </p>
+ *
+ * <p> Description: Splits text into the terms the search index stores.  A term is a run of
+ * letters and digits, lower-cased; everything else separates terms.  Terms longer than
+ * {@link #MAX_TERM_LENGTH} are cut to that length, and the most common English words are
+ * dropped by {@link #terms(String)} because they appear in nearly every post and would only
+ * add noise to the ranking.</p>
+ *
+ * <p> The same tokenizer is used for the indexed text and for the query, so both sides agree on
+ * what a word is.</p>
+ *
+ */
+public final class Tokenizer {
+
+	/** Longest term kept; longer runs of letters and digits are cut */
+	public static final int MAX_TERM_LENGTH = 40;
+
+	/** Words too common to help tell posts apart */
+	private static final Set<String> STOP_WORDS = Set.of(
+			"a", "an", "and", "are", "as", "at", "be", "but", "by", "do", "for", "from", "has", "have",
+			"i", "if", "in", "into", "is", "it", "its", "my", "of", "on", "or", "so", "that", "the",
+			"their", "then", "there", "these", "this", "to", "was", "we", "were", "will", "with", "you");
+
+	/*******
+	 * <p> Title: TokenSink Interface. </p>
+	 *
+	 * <p> Description: Receives each token of a text together with where it was found.</p>
+	 */
+	@FunctionalInterface
+	public interface TokenSink {
+		/*******
+		 * <p> Method: void accept(String term, int start, int end) </p>
+		 *
+		 * @param term the lower-cased term
+		 *
+		 * @param start the index of the first character of the token in the text
+		 *
+		 * @param end the index just past the last character of the token in the text
+		 */
+		void accept(String term, int start, int end);
+	}
+
+	/*******
+	 * <p> Method: Tokenizer() </p>
+	 *
+	 * <p> Description: Not used; the tokenizer only has static methods.</p>
+	 */
+	private Tokenizer() {
+	}
+
+	/*******
+	 * <p> Method: void tokenize(String text, TokenSink sink) </p>
+	 *
+	 * <p> Description: Pass every token of a text to the sink in the order they appear,
+	 * stop words included.</p>
+	 *
+	 * @param text the text to split, null is treated as empty
+	 *
+	 * @param sink receives the tokens
+	 */
+	public static void tokenize(String text, TokenSink sink) {
+		if (text == null) return;
+		int length = text.length();
+		int i = 0;
+		while (i < length) {
+			while (i < length && !Character.isLetterOrDigit(text.charAt(i))) i++;
+			int start = i;
+			while (i < length && Character.isLetterOrDigit(text.charAt(i))) i++;
+			if (i > start) {
+				String term = text.substring(start, Math.min(i, start + MAX_TERM_LENGTH));
+				sink.accept(term.toLowerCase(Locale.ROOT), start, i);
+			}
+		}
+	}
+
+	/*******
+	 * <p> Method: List&lt;String&gt; terms(String text) </p>
+	 *
+	 * <p> Description: Get the terms of a text in the order they appear, without stop words.
+	 * A term appearing several times is listed each time.</p>
+	 *
+	 * @param text the text to split, null is treated as empty
+	 *
+	 * @return the terms of the text
+	 */
+	public static List<String> terms(String text) {
+		List<String> terms = new ArrayList<>();
+		tokenize(text, (term, start, end) -> {
+			if (!isStopWord(term)) terms.add(term);
+		});
+		return terms;
+	}
+
+	/*******
+	 * <p> Method: boolean isStopWord(String term) </p>
+	 *
+	 * @param term a lower-cased term
+	 *
+	 * @return true if the term is too common to be indexed
+	 */
+	public static boolean isStopWord(String term) {
+		return STOP_WORDS.contains(term);
+	}
+}
@@ -0,0 +1,505 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*******
+ * <p> Title: TrigramIndex Class. </p>
+ *
+ * <p> Description: A fuzzy lookup of short texts, such as post titles or user names, that
+ * finds them even when the search text is misspelled.  Each stored text is split into its
+ * trigrams, the runs of three characters it contains, and each trigram lists the texts
+ * containing it.  A search counts, for every text, how many trigrams it shares with the
+ * search text.  Every edit changes at most three trigrams, so a text within k edits of the
+ * search text shares at least all but 3k of its trigrams; only texts passing that count are
+ * compared character by character.  The comparison finds the fewest edits turning the search
+ * text into some part of the stored text, so a search may be a single word of a long title,
+ * and it stops early once the bound is exceeded.</p>
+ *
+ * <p> Texts are lower-cased and every run of characters other than letters and digits
+ * becomes one space before they are stored or searched.  A key may have several texts, such
+ * as a username and a full name; it is found through whichever matches best.</p>
+ *
+ * <p> Searches run in parallel; changes wait for the running searches.</p>
+ *
+ * @param <K> the type of the keys
+ */
+public final class TrigramIndex<K> {
+
+	/** Shortest search text looked up by trigrams; shorter ones are compared with every text */
+	public static final int MIN_FUZZY_LENGTH = 3;
+	/** Removed texts kept before the postings are rebuilt without them */
+	private static final int COMPACT_THRESHOLD = 4096;
+
+	/** Guards every field below */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	/** Entries containing each trigram, by encoded trigram; may list removed entries */
+	private final Map<Long, IntList> postings = new HashMap<>();
+	/** Key of each entry, by entry number */
+	private final List<K> entryKeys = new ArrayList<>();
+	/** Normalized text of each entry, by entry number; null once removed */
+	private final List<String> entryTexts = new ArrayList<>();
+	/** Number of distinct trigrams of each entry, by entry number */
+	private final IntList entryTrigrams = new IntList();
+	/** Entry numbers of the texts of each key */
+	private final Map<K, int[]> keyEntries = new HashMap<>();
+	/** Number of removed entries still listed in the postings */
+	private int removed = 0;
+
+	/*******
+	 * <p> Method: void put(K key, Collection&lt;String&gt; texts) </p>
+	 *
+	 * <p> Description: Store the texts of a key, replacing the ones stored for it before.
+	 * Null, blank and repeated texts are skipped; a key left without texts is removed.</p>
+	 *
+	 * @param key the key
+	 *
+	 * @param texts the texts to find the key by
+	 */
+	public void put(K key, Collection<String> texts) {
+		Set<String> normalized = new LinkedHashSet<>();
+		for (String text : texts) {
+			String n = normalize(text);
+			if (!n.isEmpty()) normalized.add(n);
+		}
+		lock.writeLock().lock();
+		try {
+			removeEntries(key);
+			if (normalized.isEmpty()) return;
+			int[] entries = new int[normalized.size()];
+			int e = 0;
+			for (String text : normalized) {
+				int entry = entryKeys.size();
+				entryKeys.add(key);
+				entryTexts.add(text);
+				Set<Long> trigrams = trigrams(text);
+				entryTrigrams.add(trigrams.size());
+				for (long trigram : trigrams) postings.computeIfAbsent(trigram, t -> new IntList()).add(entry);
+				entries[e++] = entry;
+			}
+			keyEntries.put(key, entries);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: void remove(K key) </p>
+	 *
+	 * <p> Description: Remove the texts of a key.</p>
+	 *
+	 * @param key the key
+	 */
+	public void remove(K key) {
+		lock.writeLock().lock();
+		try {
+			removeEntries(key);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: void replaceWith(TrigramIndex&lt;K&gt; other) </p>
+	 *
+	 * <p> Description: Make this index hold exactly what another index holds, in one step, so
+	 * a search sees either the old or the new contents.  The other index must not be used
+	 * afterwards.</p>
+	 *
+	 * @param other a freshly built index
+	 */
+	public void replaceWith(TrigramIndex<K> other) {
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			postings.putAll(other.postings);
+			entryKeys.clear();
+			entryKeys.addAll(other.entryKeys);
+			entryTexts.clear();
+			entryTexts.addAll(other.entryTexts);
+			entryTrigrams.items = other.entryTrigrams.items;
+			entryTrigrams.size = other.entryTrigrams.size;
+			keyEntries.clear();
+			keyEntries.putAll(other.keyEntries);
+			removed = other.removed;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: void clear() </p>
+	 *
+	 * <p> Description: Remove every key.</p>
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			entryKeys.clear();
+			entryTexts.clear();
+			entryTrigrams.clear();
+			keyEntries.clear();
+			removed = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: int size() </p>
+	 *
+	 * @return the number of keys stored
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return keyEntries.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/*******
+	 * <p> Method: int defaultMaxEdits(String query) </p>
+	 *
+	 * <p> Description: The number of typing mistakes to allow in a search text: none below
+	 * six characters, one up to eight, and two beyond that.  These are the most edits for
+	 * which the trigram count can still rule texts out, so a search with the default never
+	 * reads every stored text.</p>
+	 *
+	 * @param query the search text
+	 *
+	 * @return the number of edits to allow
+	 */
+	public static int defaultMaxEdits(String query) {
+		int length = normalize(query).length();
+		return length < 6 ? 0 : length < 9 ? 1 : 2;
+	}
+
+	/*******
+	 * <p> Method: List&lt;FuzzyMatch&lt;K&gt;&gt; search(String query, int limit) </p>
+	 *
+	 * <p> Description: Search allowing {@link #defaultMaxEdits(String)} mistakes.</p>
+	 *
+	 * @param query the search text
+	 *
+	 * @param limit the maximum number of keys returned, or 0 for all
+	 *
+	 * @return the matching keys, best first
+	 */
+	public List<FuzzyMatch<K>> search(String query, int limit) {
+		return search(query, defaultMaxEdits(query), limit);
+	}
+
+	/*******
+	 * <p> Method: List&lt;FuzzyMatch&lt;K&gt;&gt; search(String query, int maxEdits, int limit) </p>
+	 *
+	 * <p> Description: Find the keys with a text that some part of is within maxEdits
+	 * insertions, deletions or substitutions of the search text.  Keys are ranked by that
+	 * number of edits, then by how similar the whole text is to the search text, so an exact
+	 * title comes before a longer one containing it.  When the search text has too few
+	 * trigrams to rule any text out with the allowed edits, as happens below
+	 * {@link #MIN_FUZZY_LENGTH} characters, every stored text is compared instead.</p>
+	 *
+	 * @param query the search text
+	 *
+	 * @param maxEdits the most edits allowed; at most one less than the length of the search
+	 * text is used, so a match always shares a character with it
+	 *
+	 * @param limit the maximum number of keys returned, or 0 for all
+	 *
+	 * @return the matching keys, best first
+	 */
+	public List<FuzzyMatch<K>> search(String query, int maxEdits, int limit) {
+		String q = normalize(query);
+		if (q.isEmpty()) return new ArrayList<>();
+		int k = Math.max(0, Math.min(maxEdits, q.length() - 1));
+		Set<Long> queryTrigrams = trigrams(q);
+
+		Map<K, FuzzyMatch<K>> best = new HashMap<>();
+		lock.readLock().lock();
+		try {
+			int needed = queryTrigrams.size() - 3 * k;
+			if (q.length() < MIN_FUZZY_LENGTH || needed < 1) {
+				for (int entry = 0; entry < entryTexts.size(); entry++) {
+					String text = entryTexts.get(entry);
+					if (text == null) continue;
+					int distance = distance(q, text, k);
+					if (distance <= k) keep(best, entry, distance, similarity(queryTrigrams, text));
+				}
+			} else {
+				int[] shared = new int[entryTexts.size()];
+				IntList touched = new IntList();
+				for (long trigram : queryTrigrams) {
+					IntList entries = postings.get(trigram);
+					if (entries == null) continue;
+					for (int i = 0; i < entries.size; i++) {
+						int entry = entries.items[i];
+						if (shared[entry]++ == 0) touched.add(entry);
+					}
+				}
+				for (int i = 0; i < touched.size; i++) {
+					int entry = touched.items[i];
+					String text = entryTexts.get(entry);
+					if (shared[entry] < needed || text == null) continue;
+					int distance = distance(q, text, k);
+					if (distance > k) continue;
+					int union = queryTrigrams.size() + entryTrigrams.get(entry) - shared[entry];
+					keep(best, entry, distance, (double) shared[entry] / union);
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		List<FuzzyMatch<K>> matches = new ArrayList<>(best.values());
+		matches.sort(Comparator.comparingInt((FuzzyMatch<K> m) -> m.getDistance())
+				.thenComparing(Comparator.comparingDouble((FuzzyMatch<K> m) -> m.getSimilarity()).reversed())
+				.thenComparing(FuzzyMatch::getText));
+		return limit > 0 && matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+	}
+
+	/*******
+	 * <p> Method: void keep(Map&lt;K, FuzzyMatch&lt;K&gt;&gt; best, int entry, int distance,
+	 * double similarity) </p>
+	 *
+	 * <p> Description: Record a matching entry unless its key already has a better match.
+	 * The caller holds the read lock.</p>
+	 *
+	 * @param best the best match so far of each key
+	 *
+	 * @param entry the matching entry
+	 *
+	 * @param distance the edit distance of the match
+	 *
+	 * @param similarity the trigram similarity of the match
+	 */
+	private void keep(Map<K, FuzzyMatch<K>> best, int entry, int distance, double similarity) {
+		K key = entryKeys.get(entry);
+		FuzzyMatch<K> current = best.get(key);
+		if (current == null || distance < current.getDistance()
+				|| (distance == current.getDistance() && similarity > current.getSimilarity())) {
+			best.put(key, new FuzzyMatch<>(key, entryTexts.get(entry), distance, similarity));
+		}
+	}
+
+	/*******
+	 * <p> Method: double similarity(Set&lt;Long&gt; queryTrigrams, String text) </p>
+	 *
+	 * <p> Description: The trigrams shared by the search text and a text, divided by the
+	 * trigrams of either; for texts too short to have trigrams, the share of the text the
+	 * search covers.</p>
+	 *
+	 * @param queryTrigrams the trigrams of the search text
+	 *
+	 * @param text the stored text
+	 *
+	 * @return the similarity, from 0 to 1
+	 */
+	private static double similarity(Set<Long> queryTrigrams, String text) {
+		Set<Long> textTrigrams = trigrams(text);
+		if (queryTrigrams.isEmpty() || textTrigrams.isEmpty()) return 1.0 / (1 + text.length());
+		int shared = 0;
+		for (long trigram : queryTrigrams) {
+			if (textTrigrams.contains(trigram)) shared++;
+		}
+		return (double) shared / (queryTrigrams.size() + textTrigrams.size() - shared);
+	}
+
+	/*******
+	 * <p> Method: int distance(String query, String text, int bound) </p>
+	 *
+	 * <p> Description: Find the fewest insertions, deletions and substitutions turning the
+	 * query into some part of the text.  Only the rows of the edit table that can still stay
+	 * within the bound are computed (Ukkonen's cut-off), so a text far from the query costs
+	 * little more than reading it.</p>
+	 *
+	 * @param query the search text
+	 *
+	 * @param text the stored text
+	 *
+	 * @param bound the largest distance of interest
+	 *
+	 * @return the distance, or bound + 1 if it is larger than the bound
+	 */
+	static int distance(String query, String text, int bound) {
+		int m = query.length();
+		// column[i] is the distance from the first i characters of the query to the best part
+		// of the text ending at the current character
+		int[] column = new int[m + 1];
+		for (int i = 0; i <= m; i++) column[i] = i;
+		int last = Math.min(bound + 1, m);
+		int best = bound + 1;
+		for (int j = 0; j < text.length(); j++) {
+			char c = text.charAt(j);
+			int diagonal = 0;
+			int above = 0;
+			for (int i = 1; i <= last; i++) {
+				int value = query.charAt(i - 1) == c ? diagonal : 1 + Math.min(diagonal, Math.min(above, column[i]));
+				diagonal = column[i];
+				column[i] = value;
+				above = value;
+			}
+			while (column[last] > bound) last--;
+			if (last == m) {
+				best = Math.min(best, column[m]);
+				if (best == 0) return 0;
+			} else {
+				last++;
+			}
+		}
+		return best;
+	}
+
+	/*******
+	 * <p> Method: String normalize(String text) </p>
+	 *
+	 * <p> Description: Lower-case a text and turn every run of characters other than letters
+	 * and digits into one space, trimmed at both ends.</p>
+	 *
+	 * @param text the text, null is treated as empty
+	 *
+	 * @return the normalized text
+	 */
+	public static String normalize(String text) {
+		if (text == null) return "";
+		StringBuilder normalized = new StringBuilder(text.length());
+		boolean space = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				if (space && normalized.length() > 0) normalized.append(' ');
+				normalized.append(c);
+				space = false;
+			} else {
+				space = true;
+			}
+		}
+		return normalized.toString().toLowerCase(Locale.ROOT);
+	}
+
+	/*******
+	 * <p> Method: Set&lt;Long&gt; trigrams(String text) </p>
+	 *
+	 * <p> Description: Get the distinct trigrams of a normalized text, each encoded as one
+	 * number.</p>
+	 *
+	 * @param text the normalized text
+	 *
+	 * @return the encoded trigrams
+	 */
+	private static Set<Long> trigrams(String text) {
+		Set<Long> trigrams = new HashSet<>();
+		for (int i = 0; i + 3 <= text.length(); i++) {
+			trigrams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+		}
+		return trigrams;
+	}
+
+	/*******
+	 * <p> Method: void removeEntries(K key) </p>
+	 *
+	 * <p> Description: Mark the entries of a key as removed, and rebuild the postings once
+	 * enough removed entries have piled up.  The caller holds the write lock.</p>
+	 *
+	 * @param key the key
+	 */
+	private void removeEntries(K key) {
+		int[] entries = keyEntries.remove(key);
+		if (entries == null) return;
+		for (int entry : entries) entryTexts.set(entry, null);
+		removed += entries.length;
+		if (removed > COMPACT_THRESHOLD && removed > entryTexts.size() / 2) compact();
+	}
+
+	/*******
+	 * <p> Method: void compact() </p>
+	 *
+	 * <p> Description: Renumber the entries that are still stored and rebuild the postings
+	 * without the removed ones.  The caller holds the write lock.</p>
+	 */
+	private void compact() {
+		List<K> keys = new ArrayList<>(entryKeys);
+		List<String> texts = new ArrayList<>(entryTexts);
+		Map<K, List<String>> live = new LinkedHashMap<>();
+		for (int entry = 0; entry < texts.size(); entry++) {
+			if (texts.get(entry) != null) live.computeIfAbsent(keys.get(entry), key -> new ArrayList<>()).add(texts.get(entry));
+		}
+		postings.clear();
+		entryKeys.clear();
+		entryTexts.clear();
+		entryTrigrams.clear();
+		keyEntries.clear();
+		removed = 0;
+		for (Map.Entry<K, List<String>> key : live.entrySet()) {
+			int[] entries = new int[key.getValue().size()];
+			for (int e = 0; e < entries.length; e++) {
+				String text = key.getValue().get(e);
+				int entry = entryKeys.size();
+				entryKeys.add(key.getKey());
+				entryTexts.add(text);
+				Set<Long> trigrams = trigrams(text);
+				entryTrigrams.add(trigrams.size());
+				for (long trigram : trigrams) postings.computeIfAbsent(trigram, t -> new IntList()).add(entry);
+				entries[e] = entry;
+			}
+			keyEntries.put(key.getKey(), entries);
+		}
+	}
+
+	/*******
+	 * <p> Title: IntList Class. </p>
+	 *
+	 * <p> Description: A growable list of ints, kept unboxed so the postings of a large index
+	 * stay small and are read quickly.</p>
+	 */
+	private static final class IntList {
+		/** The values, valid up to size */
+		int[] items = new int[4];
+		/** Number of values */
+		int size = 0;
+
+		/*******
+		 * <p> Method: void add(int value) </p>
+		 *
+		 * @param value the value to append
+		 */
+		void add(int value) {
+			if (size == items.length) items = Arrays.copyOf(items, size * 2);
+			items[size++] = value;
+		}
+
+		/*******
+		 * <p> Method: int get(int index) </p>
+		 *
+		 * @param index the position of the value
+		 *
+		 * @return the value
+		 */
+		int get(int index) {
+			return items[index];
+		}
+
+		/*******
+		 * <p> Method: void clear() </p>
+		 *
+		 * <p> Description: Remove every value.</p>
+		 */
+		void clear() {
+			items = new int[4];
+			size = 0;
+		}
+	}
+}